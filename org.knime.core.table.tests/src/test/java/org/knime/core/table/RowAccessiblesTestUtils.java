@@ -51,6 +51,7 @@
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -68,6 +69,7 @@
 import org.knime.core.table.cursor.Cursor;
 import org.knime.core.table.cursor.LookaheadCursor;
 import org.knime.core.table.cursor.RandomAccessCursor;
+import org.knime.core.table.cursor.ResettableCursor;
 import org.knime.core.table.cursor.WriteCursor;
 import org.knime.core.table.row.LookaheadRowAccessible;
 import org.knime.core.table.row.RandomRowAccessible;
@@ -422,24 +424,62 @@ static void assertRowAccessibleEquals(final RowAccessible result, final Columnar
     public static void assertTableEqualsValues(final Object[][] expectedValues, final RowAccessible actualTable, final boolean selectAll) {
         final ColumnarSchema schema = actualTable.getSchema();
         try (final Cursor<ReadAccessRow> cursor = selectAll ? actualTable.createCursor(Selection.all()) : actualTable.createCursor()) {
-            final ReadAccessRow actualRow = cursor.access();
-            int index;
-            for (index = 0; cursor.forward(); index++) {
-                final Object[] expectedRow;
-                try {
-                    expectedRow = expectedValues[index];
-                } catch (final IndexOutOfBoundsException ex) {
-                    throw new AssertionError("The size of the table under test is greater than the expected size of "
-                        + expectedValues.length + ".", ex);
-                }
-                try {
-                    assertRowEqualsValues(schema, expectedRow, actualRow);
-                } catch (final AssertionError e) {
-                    throw new AssertionError("At row index " + index + ": " + e.getMessage(), e);
-                }
+            assertCursorEqualsValues(schema, expectedValues, cursor);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void assertCursorEqualsValues(final ColumnarSchema schema, final Object[][] expectedValues,
+        final Cursor<ReadAccessRow> cursor) {
+        final ReadAccessRow actualRow = cursor.access();
+        int index;
+        for (index = 0; cursor.forward(); index++) {
+            final Object[] expectedRow;
+            try {
+                expectedRow = expectedValues[index];
+            } catch (final IndexOutOfBoundsException ex) {
+                throw new AssertionError("The size of the table under test is greater than the expected size of "
+                    + expectedValues.length + ".", ex);
             }
-            assertEquals("The size of the table under test is smaller than the expected size.", expectedValues.length,
-                index);
+            try {
+                assertRowEqualsValues(schema, expectedRow, actualRow);
+            } catch (final AssertionError e) {
+                throw new AssertionError("At row index " + index + ": " + e.getMessage(), e);
+            }
+        }
+        assertEquals("The size of the table under test is smaller than the expected size.", expectedValues.length,
+            index);
+    }
+
+    /**
+     * Check that a cursor on {@code actualTable} is a {@link ResettableCursor}, and provides the expected values after
+     * it is reset: in the middle of the table, to a row range, and after it was closed.
+     *
+     * @param expectedValues the expected values
+     * @param actualTable the table under test
+     */
+    public static void assertTableEqualsValuesAfterReset(final Object[][] expectedValues, final RowAccessible actualTable) {
+        final ColumnarSchema schema = actualTable.getSchema();
+        try (final Cursor<ReadAccessRow> cursor = actualTable.createCursor()) {
+            assertTrue("The cursor is not a ResettableCursor", cursor instanceof ResettableCursor);
+            final ResettableCursor<ReadAccessRow> resettable = (ResettableCursor<ReadAccessRow>)cursor;
+            final ReadAccessRow access = resettable.access();
+            // move into the table before resetting
+            resettable.forward();
+            resettable.forward();
+            resettable.reset();
+            assertCursorEqualsValues(schema, expectedValues, resettable);
+
+            final int from = Math.min(1, expectedValues.length);
+            final int to = Math.min(3, expectedValues.length);
+            resettable.reset(from, to);
+            assertCursorEqualsValues(schema, Arrays.copyOfRange(expectedValues, from, to), resettable);
+
+            resettable.close();
+            resettable.reset();
+            assertSame(access, resettable.access());
+            assertCursorEqualsValues(schema, expectedValues, resettable);
         } catch (final IOException ex) {
             throw new UncheckedIOException(ex);
         }
@@ -518,4 +558,40 @@ public static void assertTableEqualsValuesInRandomRowOrder(final Object[][] expe
             throw new UncheckedIOException(ex);
         }
     }
+
+    /**
+     * Gather all rows of the given table in one batch, in random order and with each row requested twice, using
+     * {@link RandomAccessCursor#moveTo(long[], java.util.function.IntConsumer)}. Assert that each requested row is
+     * visited exactly once, with the expected values.
+     *
+     * @param expectedValues the expected values
+     * @param actualTable the table under test (must be a {@link RandomRowAccessible})
+     */
+    public static void assertTableEqualsValuesGathered(final Object[][] expectedValues, final RowAccessible actualTable) {
+        assertTrue("The table under test is not a RandomRowAccessible", actualTable instanceof RandomRowAccessible);
+        final RandomRowAccessible rra = (RandomRowAccessible)actualTable;
+        final int size = (int)rra.size();
+        assertEquals("The size of the table under test is smaller than the expected size.", expectedValues.length, size);
+        final List<Integer> indices = IntStream.range(0, 2 * size).map(i -> i % size).boxed().collect(Collectors.toList());
+        Collections.shuffle(indices, new Random(1L));
+        final long[] rows = indices.stream().mapToLong(Integer::longValue).toArray();
+        final int[] visited = new int[rows.length];
+        final ColumnarSchema schema = rra.getSchema();
+        try (final RandomAccessCursor<ReadAccessRow> cursor = rra.createCursor()) {
+            final ReadAccessRow actualRow = cursor.access();
+            cursor.moveTo(rows, i -> {
+                visited[i]++;
+                try {
+                    assertRowEqualsValues(schema, expectedValues[(int)rows[i]], actualRow);
+                } catch (final AssertionError e) {
+                    throw new AssertionError("At row index " + rows[i] + ": " + e.getMessage(), e);
+                }
+            });
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals("Number of visits of request " + i, 1, visited[i]);
+        }
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.row;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.knime.core.table.schema.DataSpecs.INT;
+import static org.knime.core.table.schema.DataSpecs.LIST;
+import static org.knime.core.table.schema.DataSpecs.STRING;
+import static org.knime.core.table.schema.DataSpecs.STRUCT;
+
+import org.junit.Test;
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccessRow;
+import org.knime.core.table.access.IntAccess.IntWriteAccess;
+import org.knime.core.table.access.ListAccess.ListWriteAccess;
+import org.knime.core.table.access.StringAccess.StringWriteAccess;
+import org.knime.core.table.access.StructAccess.StructWriteAccess;
+import org.knime.core.table.schema.ColumnarSchema;
+
+/**
+ * Tests for {@link RowHasher}.
+ */
+@SuppressWarnings("javadoc")
+public class RowHasherTest {
+
+    private static final ColumnarSchema SCHEMA = ColumnarSchema.of(INT, STRING, LIST.of(STRING), STRUCT.of(INT, STRING));
+
+    private static BufferedAccessRow row(final Integer i, final String s, final String[] list, final Integer structInt,
+        final String structString) {
+        final BufferedAccessRow row = BufferedAccesses.createBufferedAccessRow(SCHEMA);
+        if (i != null) {
+            row.<IntWriteAccess> getWriteAccess(0).setIntValue(i);
+        }
+        if (s != null) {
+            row.<StringWriteAccess> getWriteAccess(1).setStringValue(s);
+        }
+        if (list != null) {
+            final ListWriteAccess l = row.getWriteAccess(2);
+            l.create(list.length);
+            final StringWriteAccess element = l.getWriteAccess();
+            for (int j = 0; j < list.length; j++) {
+                if (list[j] != null) {
+                    l.setWriteIndex(j);
+                    element.setStringValue(list[j]);
+                }
+            }
+        }
+        final StructWriteAccess struct = row.getWriteAccess(3);
+        if (structInt != null) {
+            struct.<IntWriteAccess> getWriteAccess(0).setIntValue(structInt);
+        }
+        if (structString != null) {
+            struct.<StringWriteAccess> getWriteAccess(1).setStringValue(structString);
+        }
+        return row;
+    }
+
+    @Test
+    public void testEqualValuesHaveEqualHashes() {
+        final RowHasher hasher = RowHasher.create(SCHEMA, 0, 1, 2, 3);
+        final String[] list = {"a", null, "bcdefghij"};
+        assertEquals( //
+            hasher.hash(row(1, "some string", list, 2, "x")), //
+            hasher.hash(row(1, "some string", list.clone(), 2, "x")));
+        assertEquals( //
+            hasher.hash(row(null, null, null, null, null)), //
+            hasher.hash(row(null, null, null, null, null)));
+    }
+
+    @Test
+    public void testDifferentValuesHaveDifferentHashes() {
+        final RowHasher hasher = RowHasher.create(SCHEMA, 0, 1, 2, 3);
+        final long hash = hasher.hash(row(1, "abcde", new String[]{"a", "b"}, 2, "x"));
+        assertNotEquals(hash, hasher.hash(row(2, "abcde", new String[]{"a", "b"}, 2, "x")));
+        assertNotEquals(hash, hasher.hash(row(1, "abcdf", new String[]{"a", "b"}, 2, "x")));
+        assertNotEquals(hash, hasher.hash(row(1, "abcde", new String[]{"b", "a"}, 2, "x")));
+        assertNotEquals(hash, hasher.hash(row(1, "abcde", new String[]{"a", null}, 2, "x")));
+        assertNotEquals(hash, hasher.hash(row(1, "abcde", new String[]{"a", "b", "c"}, 2, "x")));
+        assertNotEquals(hash, hasher.hash(row(1, "abcde", new String[]{"a", "b"}, null, "x")));
+        assertNotEquals(hash, hasher.hash(row(null, "abcde", new String[]{"a", "b"}, 2, "x")));
+    }
+
+    @Test
+    public void testSelectedColumns() {
+        final RowHasher hasher = RowHasher.create(SCHEMA, 1);
+        assertEquals( //
+            hasher.hash(row(1, "abc", new String[]{"a"}, 2, "x")), //
+            hasher.hash(row(3, "abc", null, 4, null)));
+        assertNotEquals( //
+            RowHasher.create(SCHEMA, 0, 1).hash(row(1, "abc", null, null, null)), //
+            RowHasher.create(SCHEMA, 1, 0).hash(row(1, "abc", null, null, null)));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph;
+
+import static org.knime.core.table.schema.DataSpecs.INT;
+import static org.knime.core.table.schema.DataSpecs.STRING;
+import static org.knime.core.table.virtual.graph.exec.CapExecutor.createRowAccessible;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.knime.core.table.RowAccessiblesTestUtils;
+import org.knime.core.table.access.IntAccess;
+import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.row.ReadAccessRow;
+import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.Selection;
+import org.knime.core.table.schema.ColumnarSchema;
+import org.knime.core.table.virtual.VirtualTable;
+import org.knime.core.table.virtual.graph.rag.TableTransformGraph;
+import org.knime.core.table.virtual.graph.rag.TableTransformUtil;
+import org.knime.core.table.virtual.spec.MapTransformSpec.MapperFactory;
+import org.knime.core.table.virtual.spec.SourceTableProperties;
+
+/**
+ * Stress benchmark for creating cursors on the same virtual table from many threads concurrently.
+ * <p>
+ * For increasing numbers of threads (up to {@code 128}), each thread repeatedly creates a cursor with one of a few
+ * distinct row selections and reads all its rows. Prints the number of cursors created and read per second, and
+ * checks that all threads read the expected values.
+ */
+public class ConcurrentCursorBenchmark {
+
+    private static final int NUM_ROWS = 16;
+
+    private static final int NUM_CURSORS_PER_THREAD = 20000;
+
+    public static void main(final String[] args) throws InterruptedException, ExecutionException {
+        final UUID[] sourceIds = {UUID.randomUUID()};
+        final RowAccessible[] sources = {createSource()};
+        final VirtualTable table = new VirtualTable(sourceIds[0], new SourceTableProperties(sources[0])) //
+            .appendMap(new int[]{0}, MapperFactory.of(ColumnarSchema.of(INT), (inputs, outputs) -> {
+                final IntAccess.IntReadAccess i = (IntAccess.IntReadAccess)inputs[0];
+                final IntAccess.IntWriteAccess o = (IntAccess.IntWriteAccess)outputs[0];
+                return () -> o.setIntValue(2 * i.getIntValue());
+            })) //
+            .filterColumns(0, 2);
+        final TableTransformGraph graph = new TableTransformGraph(table.getProducingTransform());
+        TableTransformUtil.optimize(graph);
+
+        for (int numThreads = 1; numThreads <= 128; numThreads *= 2) {
+            // a fresh RowAccessible for every run, so that the cursor assembly plans are built concurrently, too
+            final RowAccessible rows = createRowAccessible(graph, Map.of(sourceIds[0], sources[0]));
+            final long start = System.nanoTime();
+            run(rows, numThreads);
+            final double seconds = (System.nanoTime() - start) * 1e-9;
+            final long numCursors = (long)numThreads * NUM_CURSORS_PER_THREAD;
+            System.out.printf("%3d threads: %,12.0f cursors/s (%.3f s)%n", numThreads, numCursors / seconds, seconds);
+        }
+    }
+
+    private static void run(final RowAccessible rows, final int numThreads)
+        throws InterruptedException, ExecutionException {
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < numThreads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int k = 0; k < NUM_CURSORS_PER_THREAD; k++) {
+                        final int from = (thread + k) % (NUM_ROWS / 2);
+                        readAndCheck(rows, from, from + NUM_ROWS / 2);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void readAndCheck(final RowAccessible rows, final int from, final int to) {
+        try (final Cursor<ReadAccessRow> cursor = rows.createCursor(Selection.all().retainRows(from, to))) {
+            final IntAccess.IntReadAccess value = cursor.access().getAccess(0);
+            final IntAccess.IntReadAccess mapped = cursor.access().getAccess(1);
+            for (int row = from; row < to; row++) {
+                if (!cursor.forward() || value.getIntValue() != row || mapped.getIntValue() != 2 * row) {
+                    throw new IllegalStateException("unexpected value in row " + row);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RowAccessible createSource() {
+        final Object[][] values = new Object[NUM_ROWS][];
+        Arrays.setAll(values, i -> new Object[]{i, "row" + i});
+        return RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(ColumnarSchema.of(INT, STRING), values);
+    }
+}
@@ -48,48 +48,108 @@
 import static java.util.UUID.randomUUID;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.knime.core.table.RowAccessiblesTestUtils.assertCanForwardPredictsForward;
 import static org.knime.core.table.RowAccessiblesTestUtils.assertTableEqualsValues;
+import static org.knime.core.table.RowAccessiblesTestUtils.assertTableEqualsValuesAfterReset;
+import static org.knime.core.table.RowAccessiblesTestUtils.assertTableEqualsValuesGathered;
 import static org.knime.core.table.RowAccessiblesTestUtils.assertTableEqualsValuesInRandomRowOrder;
 import static org.knime.core.table.RowAccessiblesTestUtils.toLookahead;
 import static org.knime.core.table.schema.DataSpecs.DOUBLE;
 import static org.knime.core.table.schema.DataSpecs.INT;
+import static org.knime.core.table.schema.DataSpecs.LONG;
 import static org.knime.core.table.schema.DataSpecs.STRING;
+import static org.knime.core.table.virtual.spec.AggregateTransformSpec.Aggregation.count;
+import static org.knime.core.table.virtual.spec.AggregateTransformSpec.Aggregation.countRows;
+import static org.knime.core.table.virtual.spec.AggregateTransformSpec.Aggregation.max;
+import static org.knime.core.table.virtual.spec.AggregateTransformSpec.Aggregation.mean;
+import static org.knime.core.table.virtual.spec.AggregateTransformSpec.Aggregation.min;
+import static org.knime.core.table.virtual.spec.AggregateTransformSpec.Aggregation.sum;
 import static org.knime.core.table.virtual.spec.SourceTableProperties.CursorType.BASIC;
 import static org.knime.core.table.virtual.spec.SourceTableProperties.CursorType.LOOKAHEAD;
 import static org.knime.core.table.virtual.spec.SourceTableProperties.CursorType.RANDOMACCESS;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 import org.knime.core.table.RowAccessiblesTestUtils;
+import org.knime.core.table.RowAccessiblesTestUtils.TestRowWriteAccessible;
+import org.knime.core.table.access.BufferedAccesses;
 import org.knime.core.table.access.DoubleAccess;
 import org.knime.core.table.access.IntAccess;
+import org.knime.core.table.access.LongAccess;
+import org.knime.core.table.access.ReadAccess;
 import org.knime.core.table.access.StringAccess;
+import org.knime.core.table.cursor.AwaitingCursor;
 import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.cursor.RandomAccessCursor;
+import org.knime.core.table.cursor.ResettableCursor;
+import org.knime.core.table.cursor.WriteCursor;
 import org.knime.core.table.row.LookaheadRowAccessible;
 import org.knime.core.table.row.RandomRowAccessible;
 import org.knime.core.table.row.ReadAccessRow;
 import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.RowWriteAccessible;
+import org.knime.core.table.row.Selection;
+import org.knime.core.table.row.WriteAccessRow;
 import org.knime.core.table.schema.ColumnarSchema;
+import org.knime.core.table.virtual.TableTransform;
 import org.knime.core.table.virtual.VirtualTable;
+import org.knime.core.table.virtual.exec.GraphVirtualTableExecutor;
+import org.knime.core.table.virtual.exec.ParallelMaterializer;
+import org.knime.core.table.virtual.exec.RowAccessiblePublisher;
+import org.knime.core.table.virtual.exec.RowAccessiblePublisher.RowBatch;
+import org.knime.core.table.virtual.exec.SharedScanExecutor;
+import org.knime.core.table.virtual.exec.VirtualTableJobExecutor;
+import org.knime.core.table.virtual.graph.cap.CapBuilder;
+import org.knime.core.table.virtual.graph.cap.CapNodeSource;
+import org.knime.core.table.virtual.graph.cap.CapNodeType;
+import org.knime.core.table.virtual.graph.cap.CursorAssemblyPlan;
 import org.knime.core.table.virtual.graph.exec.CapExecutor;
+import org.knime.core.table.virtual.graph.exec.IndexedRowAccessible;
+import org.knime.core.table.virtual.graph.exec.SecondaryIndex;
+import org.knime.core.table.virtual.graph.rag.AccessId;
+import org.knime.core.table.virtual.graph.rag.BranchGraph;
 import org.knime.core.table.virtual.graph.rag.TableTransformGraph;
+import org.knime.core.table.virtual.graph.rag.TableTransformGraphProperties;
 import org.knime.core.table.virtual.graph.rag.TableTransformUtil;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.Window;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec.FlatMapper;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec.FlatMapperFactory;
+import org.knime.core.table.virtual.spec.JoinTransformSpec.JoinType;
 import org.knime.core.table.virtual.spec.MapTransformSpec.MapperFactory;
 import org.knime.core.table.virtual.spec.MapTransformUtils;
 import org.knime.core.table.virtual.spec.MapTransformUtils.MapperWithRowIndexFactory;
+import org.knime.core.table.virtual.spec.ObserverTransformSpec.ObserverFactory;
 import org.knime.core.table.virtual.spec.ObserverTransformUtils.ObserverWithRowIndexFactory;
+import org.knime.core.table.virtual.spec.RowFilterTransformSpec.RangeFilterFactory;
 import org.knime.core.table.virtual.spec.RowFilterTransformSpec.RowFilterFactory;
 import org.knime.core.table.virtual.spec.SourceTableProperties;
 import org.knime.core.table.virtual.spec.SourceTableProperties.CursorType;
@@ -130,6 +190,7 @@ private static void testTransformedTable(
         assertEquals(expectedSchema, table.getSchema());
         assertTableEqualsValues(expectedValues, rowAccessible, false);
         assertTableEqualsValues(expectedValues, rowAccessible, true);
+        assertTableEqualsValuesAfterReset(expectedValues, rowAccessible);
     }
 
     private static RowAccessible createRowAccessible(
@@ -237,6 +298,8 @@ private static void testTransformedTableRandomAccess(
             assertEquals(expectedSchema, table.getSchema());
             assertTableEqualsValuesInRandomRowOrder(expectedValues, rowAccessible, false);
             assertTableEqualsValuesInRandomRowOrder(expectedValues, rowAccessible, true);
+            assertTableEqualsValuesGathered(expectedValues, rowAccessible);
+            assertTableEqualsValuesAfterReset(expectedValues, rowAccessible);
         }
     }
 
@@ -1553,4 +1616,2393 @@ public void testRowIndexAppendMapsSequentialAndSlice() {
     }
 
 
+    public static VirtualTable vtSort(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table.sort(new int[]{1, 0}, new boolean[]{true, false}).selectColumns(1, 0, 2);
+    }
+
+    public static VirtualTable vtSort() {
+        return vtSort(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    public static RowAccessible[] dataSort() {
+        final ColumnarSchema schema = ColumnarSchema.of(INT, STRING, DOUBLE);
+        final Object[][] values = new Object[][]{ //
+                new Object[]{1, "b", 0.1}, //
+                new Object[]{2, "a", 0.2}, //
+                new Object[]{3, null, 0.3}, //
+                new Object[]{4, "b", 0.4}, //
+                new Object[]{5, "c", 0.5}, //
+                new Object[]{null, "a", 0.6}, //
+                new Object[]{7, "a", 0.7} //
+        };
+        return new RowAccessible[]{RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values)};
+    }
+
+    @Test
+    public void testSort() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(STRING, INT, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{"a", null, 0.6}, //
+                new Object[]{"a", 7, 0.7}, //
+                new Object[]{"a", 2, 0.2}, //
+                new Object[]{"b", 4, 0.4}, //
+                new Object[]{"b", 1, 0.1}, //
+                new Object[]{"c", 5, 0.5}, //
+                new Object[]{null, 3, 0.3} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtSort);
+        testTransformedTableLookahead(true, VirtualTableTests::dataSort, VirtualTableTests::vtSort);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtSort);
+    }
+
+
+
+    public static VirtualTable vtSortSpilled(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table.sort(new int[]{1, 0}, new boolean[]{true, false}, 2).selectColumns(1, 0, 2).slice(1, 6);
+    }
+
+    public static VirtualTable vtSortSpilled() {
+        return vtSortSpilled(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testSortSpilled() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(STRING, INT, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{"a", 7, 0.7}, //
+                new Object[]{"a", 2, 0.2}, //
+                new Object[]{"b", 4, 0.4}, //
+                new Object[]{"b", 1, 0.1}, //
+                new Object[]{"c", 5, 0.5} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtSortSpilled);
+        testTransformedTableLookahead(true, VirtualTableTests::dataSort, VirtualTableTests::vtSortSpilled);
+        testTransformedTableRandomAccess(false, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtSortSpilled);
+    }
+
+
+
+    public static VirtualTable vtSortAppendSorted(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        final VirtualTable sorted = table.sort(new int[]{1}, new boolean[]{false}).filterColumns(1, 2);
+        return table.filterColumns(0).append(List.of(sorted));
+    }
+
+    public static VirtualTable vtSortAppendSorted() {
+        return vtSortAppendSorted(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testSortAppendSorted() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, null, 0.3}, //
+                new Object[]{2, "c", 0.5}, //
+                new Object[]{3, "b", 0.1}, //
+                new Object[]{4, "b", 0.4}, //
+                new Object[]{5, "a", 0.2}, //
+                new Object[]{null, "a", 0.6}, //
+                new Object[]{7, "a", 0.7} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtSortAppendSorted);
+        testTransformedTableLookahead(true, VirtualTableTests::dataSort, VirtualTableTests::vtSortAppendSorted);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtSortAppendSorted);
+    }
+
+
+
+    public static VirtualTable vtSortTwice(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table //
+            .sort(new int[]{1, 0}, new boolean[]{true, false}) //
+            .selectColumns(1, 0, 2) //
+            .slice(0, 5) //
+            .sort(new int[]{0}, new boolean[]{true});
+    }
+
+    public static VirtualTable vtSortTwice() {
+        return vtSortTwice(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testSortTwice() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(STRING, INT, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{"a", null, 0.6}, //
+                new Object[]{"a", 7, 0.7}, //
+                new Object[]{"a", 2, 0.2}, //
+                new Object[]{"b", 4, 0.4}, //
+                new Object[]{"b", 1, 0.1} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtSortTwice);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtSortTwice);
+
+        // the second sort is redundant and should be eliminated
+        final TableTransformGraph graph = new TableTransformGraph(vtSortTwice().getProducingTransform());
+        TableTransformUtil.optimize(graph);
+        assertEquals(1, graph.toString().split("Sort by", -1).length - 1);
+    }
+
+
+
+    public static VirtualTable vtAggregate(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table.aggregate(new int[]{1}, countRows(), count(0), sum(0), min(2), max(0), mean(0));
+    }
+
+    public static VirtualTable vtAggregate() {
+        return vtAggregate(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testAggregate() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(STRING, LONG, LONG, LONG, DOUBLE, INT, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{"b", 2L, 2L, 5L, 0.1, 4, 2.5}, //
+                new Object[]{"a", 3L, 2L, 9L, 0.2, 7, 4.5}, //
+                new Object[]{null, 1L, 1L, 3L, 0.3, 3, 3.0}, //
+                new Object[]{"c", 1L, 1L, 5L, 0.5, 5, 5.0} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtAggregate);
+        testTransformedTableLookahead(true, VirtualTableTests::dataSort, VirtualTableTests::vtAggregate);
+        testTransformedTableRandomAccess(false, expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtAggregate);
+    }
+
+
+
+    public static VirtualTable vtAggregateSpilled(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table //
+            .aggregate(new int[]{1}, List.of(countRows(), sum(2), min(0)), 1) //
+            .sort(new int[]{0}, new boolean[]{true});
+    }
+
+    public static VirtualTable vtAggregateSpilled() {
+        return vtAggregateSpilled(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testAggregateSpilled() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(STRING, LONG, DOUBLE, INT);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{"a", 3L, 1.5, 2}, //
+                new Object[]{"b", 2L, 0.5, 1}, //
+                new Object[]{"c", 1L, 0.5, 5}, //
+                new Object[]{null, 1L, 0.3, 3} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtAggregateSpilled);
+        testTransformedTableLookahead(true, VirtualTableTests::dataSort, VirtualTableTests::vtAggregateSpilled);
+    }
+
+
+
+    public static VirtualTable vtAggregateGlobal(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table.aggregate(new int[0], countRows(), sum(0), max(2), mean(2));
+    }
+
+    public static VirtualTable vtAggregateGlobal() {
+        return vtAggregateGlobal(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testAggregateGlobal() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(LONG, LONG, DOUBLE, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{7L, 22L, 0.7, 0.4} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, 1, VirtualTableTests::dataSort, VirtualTableTests::vtAggregateGlobal);
+        testTransformedTableLookahead(true, VirtualTableTests::dataSort, VirtualTableTests::vtAggregateGlobal);
+    }
+
+
+
+    public static VirtualTable vtJoin(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable left = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        final VirtualTable right = new VirtualTable(sourceIdentifiers[1], new SourceTableProperties(sources[1]));
+        return left.join(right, new int[]{1}, new int[]{0}, JoinType.INNER).selectColumns(0, 2, 4);
+    }
+
+    public static VirtualTable vtJoin() {
+        return vtJoin(new UUID[]{randomUUID(), randomUUID()}, dataJoin());
+    }
+
+    public static RowAccessible[] dataJoin() {
+        final ColumnarSchema schema = ColumnarSchema.of(STRING, INT);
+        final Object[][] values = new Object[][]{ //
+                new Object[]{"a", 10}, //
+                new Object[]{"b", 20}, //
+                new Object[]{"d", 40}, //
+                new Object[]{null, 50}, //
+                new Object[]{"a", 11} //
+        };
+        return new RowAccessible[]{ //
+                dataSort()[0], //
+                RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values) //
+        };
+    }
+
+    @Test
+    public void testJoin() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, DOUBLE, INT);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, 0.1, 20}, //
+                new Object[]{2, 0.2, 10}, //
+                new Object[]{2, 0.2, 11}, //
+                new Object[]{4, 0.4, 20}, //
+                new Object[]{null, 0.6, 10}, //
+                new Object[]{null, 0.6, 11}, //
+                new Object[]{7, 0.7, 10}, //
+                new Object[]{7, 0.7, 11} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataJoin, VirtualTableTests::vtJoin);
+        testTransformedTableLookahead(false, VirtualTableTests::dataJoin, VirtualTableTests::vtJoin);
+        testTransformedTableRandomAccess(false, expectedSchema, expectedValues, -1, VirtualTableTests::dataJoin, VirtualTableTests::vtJoin);
+    }
+
+
+
+    public static VirtualTable vtJoinFullOuter(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable left = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        final VirtualTable right = new VirtualTable(sourceIdentifiers[1], new SourceTableProperties(sources[1]));
+        return left.join(right, new int[]{1}, new int[]{0}, JoinType.FULL_OUTER);
+    }
+
+    public static VirtualTable vtJoinFullOuter() {
+        return vtJoinFullOuter(new UUID[]{randomUUID(), randomUUID()}, dataJoin());
+    }
+
+    @Test
+    public void testJoinFullOuter() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE, STRING, INT);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, "b", 0.1, "b", 20}, //
+                new Object[]{2, "a", 0.2, "a", 10}, //
+                new Object[]{2, "a", 0.2, "a", 11}, //
+                new Object[]{3, null, 0.3, null, null}, //
+                new Object[]{4, "b", 0.4, "b", 20}, //
+                new Object[]{5, "c", 0.5, null, null}, //
+                new Object[]{null, "a", 0.6, "a", 10}, //
+                new Object[]{null, "a", 0.6, "a", 11}, //
+                new Object[]{7, "a", 0.7, "a", 10}, //
+                new Object[]{7, "a", 0.7, "a", 11}, //
+                new Object[]{null, null, null, "d", 40}, //
+                new Object[]{null, null, null, null, 50} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataJoin, VirtualTableTests::vtJoinFullOuter);
+    }
+
+
+
+    public static VirtualTable vtJoinBuildLeft(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable left = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        final VirtualTable right = new VirtualTable(sourceIdentifiers[1], new SourceTableProperties(sources[1]));
+        return right.join(left, new int[]{0}, new int[]{1}, JoinType.LEFT_OUTER);
+    }
+
+    public static VirtualTable vtJoinBuildLeft() {
+        return vtJoinBuildLeft(new UUID[]{randomUUID(), randomUUID()}, dataJoin());
+    }
+
+    @Test
+    public void testJoinBuildLeft() {
+        // the left table is smaller, so the hash table is built on the left side
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(STRING, INT, INT, STRING, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{"b", 20, 1, "b", 0.1}, //
+                new Object[]{"a", 10, 2, "a", 0.2}, //
+                new Object[]{"a", 11, 2, "a", 0.2}, //
+                new Object[]{"b", 20, 4, "b", 0.4}, //
+                new Object[]{"a", 10, null, "a", 0.6}, //
+                new Object[]{"a", 11, null, "a", 0.6}, //
+                new Object[]{"a", 10, 7, "a", 0.7}, //
+                new Object[]{"a", 11, 7, "a", 0.7}, //
+                new Object[]{"d", 40, null, null, null}, //
+                new Object[]{null, 50, null, null, null} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataJoin, VirtualTableTests::vtJoinBuildLeft);
+    }
+
+
+
+    public static VirtualTable vtJoinSpilled(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable left = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        final VirtualTable right = new VirtualTable(sourceIdentifiers[1], new SourceTableProperties(sources[1]));
+        return left //
+            .join(right, new int[]{1}, new int[]{0}, JoinType.FULL_OUTER, 1) //
+            .sort(new int[]{0, 4}, new boolean[]{true, true});
+    }
+
+    public static VirtualTable vtJoinSpilled() {
+        return vtJoinSpilled(new UUID[]{randomUUID(), randomUUID()}, dataJoin());
+    }
+
+    @Test
+    public void testJoinSpilled() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE, STRING, INT);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, "b", 0.1, "b", 20}, //
+                new Object[]{2, "a", 0.2, "a", 10}, //
+                new Object[]{2, "a", 0.2, "a", 11}, //
+                new Object[]{3, null, 0.3, null, null}, //
+                new Object[]{4, "b", 0.4, "b", 20}, //
+                new Object[]{5, "c", 0.5, null, null}, //
+                new Object[]{7, "a", 0.7, "a", 10}, //
+                new Object[]{7, "a", 0.7, "a", 11}, //
+                new Object[]{null, "a", 0.6, "a", 10}, //
+                new Object[]{null, "a", 0.6, "a", 11}, //
+                new Object[]{null, null, null, "d", 40}, //
+                new Object[]{null, null, null, null, 50} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataJoin, VirtualTableTests::vtJoinSpilled);
+    }
+
+
+
+    public static VirtualTable vtDistinct(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table.distinct(1);
+    }
+
+    public static VirtualTable vtDistinct() {
+        return vtDistinct(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testDistinct() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, "b", 0.1}, //
+                new Object[]{2, "a", 0.2}, //
+                new Object[]{3, null, 0.3}, //
+                new Object[]{5, "c", 0.5} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtDistinct);
+        testTransformedTableLookahead(false, VirtualTableTests::dataSort, VirtualTableTests::vtDistinct);
+        testTransformedTableRandomAccess(false, expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtDistinct);
+    }
+
+
+
+    public static VirtualTable vtDistinctSpilled(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table //
+            .distinct(new int[]{1}, 1) //
+            .sort(new int[]{0}, new boolean[]{true});
+    }
+
+    public static VirtualTable vtDistinctSpilled() {
+        return vtDistinctSpilled(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testDistinctSpilled() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, "b", 0.1}, //
+                new Object[]{2, "a", 0.2}, //
+                new Object[]{3, null, 0.3}, //
+                new Object[]{5, "c", 0.5} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtDistinctSpilled);
+    }
+
+
+
+    public static VirtualTable vtDistinctSorted(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table //
+            .sort(new int[]{1}, new boolean[]{true}) //
+            .distinct(1);
+    }
+
+    public static VirtualTable vtDistinctSorted() {
+        return vtDistinctSorted(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testDistinctSorted() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{2, "a", 0.2}, //
+                new Object[]{1, "b", 0.1}, //
+                new Object[]{5, "c", 0.5}, //
+                new Object[]{3, null, 0.3} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtDistinctSorted);
+
+        // the input is sorted by the distinct key, so only adjacent rows should be compared
+        final TableTransformGraph graph = new TableTransformGraph(vtDistinctSorted().getProducingTransform());
+        TableTransformUtil.optimize(graph);
+        final CursorAssemblyPlan cap = CapBuilder.createCursorAssemblyPlan(new BranchGraph(graph));
+        assertTrue(cap.nodes().stream().anyMatch(node -> node.toString().contains("sorted=true")));
+    }
+
+    @Test
+    public void testDistinctSpilledOnSortedSource() throws IOException {
+        // 12 rows sorted by column 0, with distinct values in column 1
+        final ColumnarSchema schema = ColumnarSchema.of(INT, INT);
+        final Object[][] values = new Object[12][];
+        Arrays.setAll(values, i -> new Object[]{i, 11 - i});
+        final RowAccessible[] sources = {RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values)};
+        final UUID[] sourceIds = {randomUUID()};
+        final SourceTableProperties properties = new SourceTableProperties(schema, CursorType.of(sources[0]),
+            sources[0].size(), new int[]{0}, new boolean[]{true});
+
+        // A hash DISTINCT that spills doesn't keep the input order, so the SORT must not be eliminated.
+        final VirtualTable sorted = new VirtualTable(sourceIds[0], properties) //
+            .distinct(new int[]{1}, 1) //
+            .sort(new int[]{0}, new boolean[]{true});
+        assertTableEqualsValues(values, createRowAccessible(sorted, sourceIds, sources, false), false);
+
+        // A hash DISTINCT that spills doesn't keep the input clustered, so a following DISTINCT must not only
+        // compare adjacent rows.
+        final Object[][] pairs = new Object[12][];
+        Arrays.setAll(pairs, i -> new Object[]{i / 2, i});
+        final RowAccessible[] pairSources =
+            {RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, pairs)};
+        final VirtualTable distinct = new VirtualTable(sourceIds[0], properties) //
+            .distinct(new int[]{1}, 1) //
+            .distinct(new int[]{0});
+        final List<Integer> keys = new ArrayList<>();
+        try (final Cursor<ReadAccessRow> cursor =
+            createRowAccessible(distinct, sourceIds, pairSources, false).createCursor()) {
+            final IntAccess.IntReadAccess key = cursor.access().getAccess(0);
+            while (cursor.forward()) {
+                keys.add(key.getIntValue());
+            }
+        }
+        keys.sort(null);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), keys);
+    }
+
+
+
+    public static VirtualTable vtTopK(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table.topK(new int[]{1, 0}, new boolean[]{true, true}, 4);
+    }
+
+    public static VirtualTable vtTopK() {
+        return vtTopK(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testTopK() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{2, "a", 0.2}, //
+                new Object[]{7, "a", 0.7}, //
+                new Object[]{null, "a", 0.6}, //
+                new Object[]{1, "b", 0.1} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtTopK);
+        testTransformedTableLookahead(true, VirtualTableTests::dataSort, VirtualTableTests::vtTopK);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtTopK);
+    }
+
+
+
+    public static VirtualTable vtSortSlice(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table //
+            .sort(new int[]{1, 0}, new boolean[]{true, true}, 2) //
+            .slice(1, 4);
+    }
+
+    public static VirtualTable vtSortSlice() {
+        return vtSortSlice(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testSortSlice() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{7, "a", 0.7}, //
+                new Object[]{null, "a", 0.6}, //
+                new Object[]{1, "b", 0.1} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtSortSlice);
+
+        // the slice should be merged into the sort
+        final TableTransformGraph graph = new TableTransformGraph(vtSortSlice().getProducingTransform());
+        TableTransformUtil.optimize(graph);
+        assertTrue(graph.toString().contains("top 4"));
+    }
+
+
+
+    public static VirtualTable vtTopKSortedSource(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final RowAccessible source = sources[0];
+        final SourceTableProperties properties = new SourceTableProperties(source.getSchema(), CursorType.of(source),
+            source.size(), new int[]{2}, new boolean[]{true});
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], properties);
+        return table.topK(new int[]{2}, new boolean[]{true}, 3);
+    }
+
+    public static VirtualTable vtTopKSortedSource() {
+        return vtTopKSortedSource(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testTopKSortedSource() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, "b", 0.1}, //
+                new Object[]{2, "a", 0.2}, //
+                new Object[]{3, null, 0.3} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtTopKSortedSource);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtTopKSortedSource);
+
+        // the source is already sorted, so the top-k should be rewritten to a slice
+        final TableTransformGraph graph = new TableTransformGraph(vtTopKSortedSource().getProducingTransform());
+        TableTransformUtil.optimize(graph);
+        assertEquals(0, graph.toString().split("Sort by", -1).length - 1);
+    }
+
+
+
+    /**
+     * Emits {@code n % 3} rows (with values {@code 0, 1, ...}) for each input value {@code n}, and no rows for missing
+     * values.
+     */
+    private static FlatMapperFactory flatMapperFactory() {
+        return FlatMapperFactory.of(ColumnarSchema.of(INT), (inputs, outputs) -> {
+            final IntAccess.IntReadAccess i = (IntAccess.IntReadAccess)inputs[0];
+            final IntAccess.IntWriteAccess o = (IntAccess.IntWriteAccess)outputs[0];
+            return new FlatMapper() {
+                private int m_count;
+
+                private int m_next;
+
+                @Override
+                public void nextInput() {
+                    m_count = i.isMissing() ? 0 : i.getIntValue() % 3;
+                    m_next = 0;
+                }
+
+                @Override
+                public boolean nextOutput() {
+                    if (m_next < m_count) {
+                        o.setIntValue(m_next++);
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        });
+    }
+
+    public static VirtualTable vtFlatMap(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table.flatMap(new int[]{0}, flatMapperFactory());
+    }
+
+    public static VirtualTable vtFlatMap() {
+        return vtFlatMap(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testFlatMap() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE, INT);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, "b", 0.1, 0}, //
+                new Object[]{2, "a", 0.2, 0}, //
+                new Object[]{2, "a", 0.2, 1}, //
+                new Object[]{4, "b", 0.4, 0}, //
+                new Object[]{5, "c", 0.5, 0}, //
+                new Object[]{5, "c", 0.5, 1}, //
+                new Object[]{7, "a", 0.7, 0} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtFlatMap);
+        testTransformedTableLookahead(false, VirtualTableTests::dataSort, VirtualTableTests::vtFlatMap);
+        testTransformedTableRandomAccess(false, expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtFlatMap);
+    }
+
+
+
+    public static VirtualTable vtFlatMapRowIndexSlice(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table //
+            .flatMap(new int[]{0}, flatMapperFactory()) //
+            .dropColumns(2) //
+            .appendRowIndex() //
+            .slice(1, 5);
+    }
+
+    public static VirtualTable vtFlatMapRowIndexSlice() {
+        return vtFlatMapRowIndexSlice(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testFlatMapRowIndexSlice() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, INT, LONG);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{2, "a", 0, 1L}, //
+                new Object[]{2, "a", 1, 2L}, //
+                new Object[]{4, "b", 0, 3L}, //
+                new Object[]{5, "c", 0, 4L} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtFlatMapRowIndexSlice);
+    }
+
+
+
+    public static VirtualTable vtAggregateTumblingWindow(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table.aggregate(new int[0], Window.tumbling(3), countRows(), sum(0));
+    }
+
+    public static VirtualTable vtAggregateTumblingWindow() {
+        return vtAggregateTumblingWindow(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testAggregateTumblingWindow() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(LONG, LONG, LONG);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{3L, 6L, 0L}, //
+                new Object[]{3L, 9L, 3L}, //
+                new Object[]{1L, 7L, 6L} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, 3, VirtualTableTests::dataSort, VirtualTableTests::vtAggregateTumblingWindow);
+        testTransformedTableLookahead(true, VirtualTableTests::dataSort, VirtualTableTests::vtAggregateTumblingWindow);
+    }
+
+
+
+    public static VirtualTable vtAggregateSlidingWindow(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table.aggregate(new int[0], Window.sliding(3, 2), countRows(), sum(0));
+    }
+
+    public static VirtualTable vtAggregateSlidingWindow() {
+        return vtAggregateSlidingWindow(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testAggregateSlidingWindow() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(LONG, LONG, LONG);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{3L, 6L, 0L}, //
+                new Object[]{3L, 12L, 2L}, //
+                new Object[]{3L, 12L, 4L}, //
+                new Object[]{1L, 7L, 6L} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, 4, VirtualTableTests::dataSort, VirtualTableTests::vtAggregateSlidingWindow);
+        testTransformedTableLookahead(true, VirtualTableTests::dataSort, VirtualTableTests::vtAggregateSlidingWindow);
+    }
+
+
+
+    /**
+     * Wraps the cursors of {@code source} as {@code AwaitingCursor}s, where every other {@code forward(timeout)} times
+     * out.
+     */
+    private static RowAccessible awaitingSource(final RowAccessible source) {
+        return new RowAccessible() {
+            @Override
+            public ColumnarSchema getSchema() {
+                return source.getSchema();
+            }
+
+            @Override
+            public Cursor<ReadAccessRow> createCursor() {
+                return createCursor(Selection.all());
+            }
+
+            @Override
+            public Cursor<ReadAccessRow> createCursor(final Selection selection) {
+                final Cursor<ReadAccessRow> cursor = source.createCursor(selection);
+                return new AwaitingCursor<ReadAccessRow>() {
+                    private boolean m_timeout;
+
+                    @Override
+                    public ReadAccessRow access() {
+                        return cursor.access();
+                    }
+
+                    @Override
+                    public boolean forward() {
+                        return cursor.forward();
+                    }
+
+                    @Override
+                    public boolean forward(final long timeout, final TimeUnit unit) throws TimeoutException {
+                        m_timeout = !m_timeout;
+                        if (m_timeout) {
+                            throw new TimeoutException();
+                        }
+                        return cursor.forward();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        cursor.close();
+                    }
+                };
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+
+    public static VirtualTable vtAggregateWindowUnbounded(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0],
+            new SourceTableProperties(sources[0].getSchema(), BASIC, true));
+        return table //
+            .filterRows(new int[]{2}, RowFilterFactory.doublePredicate(d -> d < 0.65)) //
+            .aggregate(new int[]{1}, Window.tumbling(4), countRows());
+    }
+
+    @Test
+    public void testAggregateWindowUnbounded() throws Exception {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(STRING, LONG, LONG);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{"b", 2L, 0L}, //
+                new Object[]{"a", 1L, 0L}, //
+                new Object[]{null, 1L, 0L}, //
+                new Object[]{"c", 1L, 4L}, //
+                new Object[]{"a", 1L, 4L} //
+        };
+        final RowAccessible[] sources = new RowAccessible[]{awaitingSource(dataSort()[0])};
+        final UUID[] sourceIds = new UUID[]{randomUUID()};
+        final VirtualTable table = vtAggregateWindowUnbounded(sourceIds, sources);
+        assertEquals(expectedSchema, table.getSchema());
+
+        final RowAccessible rowAccessible = createRowAccessible(table, sourceIds, sources, false);
+        assertTrue(rowAccessible.size() < 0);
+        try (final AwaitingCursor<ReadAccessRow> cursor = (AwaitingCursor<ReadAccessRow>)rowAccessible.createCursor()) {
+            final List<Object[]> actualValues = new ArrayList<>();
+            int numTimeouts = 0;
+            while (true) {
+                try {
+                    if (!cursor.forward(1, TimeUnit.SECONDS)) {
+                        break;
+                    }
+                } catch (TimeoutException e) { // NOSONAR
+                    ++numTimeouts;
+                    continue;
+                }
+                final ReadAccessRow row = cursor.access();
+                actualValues.add(new Object[]{ //
+                    row.<StringAccess.StringReadAccess> getAccess(0).getStringValue(), //
+                    row.<LongAccess.LongReadAccess> getAccess(1).getLongValue(), //
+                    row.<LongAccess.LongReadAccess> getAccess(2).getLongValue()});
+            }
+            assertTrue(numTimeouts > 0);
+            assertEquals(expectedValues.length, actualValues.size());
+            for (int i = 0; i < expectedValues.length; i++) {
+                assertArrayEquals(expectedValues[i], actualValues.get(i));
+            }
+        }
+
+        // blocking operations are rejected on unbounded tables
+        final VirtualTable unbounded = new VirtualTable(sourceIds[0],
+            new SourceTableProperties(sources[0].getSchema(), BASIC, true));
+        assertThrows(IllegalArgumentException.class,
+            () -> createCursorAssemblyPlan(table.sort(new int[]{0}, new boolean[]{true})));
+        assertThrows(IllegalArgumentException.class,
+            () -> createCursorAssemblyPlan(unbounded.aggregate(new int[]{1}, countRows())));
+        assertThrows(IllegalArgumentException.class, () -> createCursorAssemblyPlan(unbounded.concatenate(unbounded)));
+        createCursorAssemblyPlan(unbounded.slice(0, 3).concatenate(unbounded));
+    }
+
+    private static CursorAssemblyPlan createCursorAssemblyPlan(final VirtualTable table) {
+        final TableTransformGraph graph = new TableTransformGraph(table.getProducingTransform());
+        TableTransformUtil.optimize(graph);
+        return CapBuilder.createCursorAssemblyPlan(new BranchGraph(graph));
+    }
+
+
+
+    public static VirtualTable vtDistinctOnDistinctSource(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0],
+            new SourceTableProperties(sources[0]).withDistinctColumns(0));
+        return table.distinct(0, 1);
+    }
+
+    @Test
+    public void testDistinctOnDistinctSource() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, "b", 0.1}, //
+                new Object[]{2, "a", 0.2}, //
+                new Object[]{3, null, 0.3}, //
+                new Object[]{4, "b", 0.4}, //
+                new Object[]{5, "c", 0.5}, //
+                new Object[]{null, "a", 0.6}, //
+                new Object[]{7, "a", 0.7} //
+        };
+        // the DISTINCT is eliminated, so the number of rows is known
+        testTransformedTable(expectedSchema, expectedValues, 7, VirtualTableTests::dataSort, VirtualTableTests::vtDistinctOnDistinctSource);
+        final CursorAssemblyPlan cap = createCursorAssemblyPlan(vtDistinctOnDistinctSource(new UUID[]{randomUUID()}, dataSort()));
+        assertTrue(cap.nodes().stream().noneMatch(node -> node.type() == CapNodeType.DISTINCT));
+    }
+
+
+
+    public static VirtualTable vtDistinctAfterAggregate(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        return table //
+            .aggregate(new int[]{1}, countRows()) //
+            .sort(new int[]{1}, new boolean[]{false}) //
+            .distinct(0);
+    }
+
+    @Test
+    public void testDistinctAfterAggregate() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(STRING, LONG);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{"a", 3L}, //
+                new Object[]{"b", 2L}, //
+                new Object[]{null, 1L}, //
+                new Object[]{"c", 1L} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtDistinctAfterAggregate);
+        final CursorAssemblyPlan cap = createCursorAssemblyPlan(vtDistinctAfterAggregate(new UUID[]{randomUUID()}, dataSort()));
+        assertTrue(cap.nodes().stream().noneMatch(node -> node.type() == CapNodeType.DISTINCT));
+
+        // distinct by the count column is not known, so the DISTINCT is kept
+        final VirtualTable table = new VirtualTable(randomUUID(), new SourceTableProperties(dataSort()[0]));
+        final CursorAssemblyPlan cap2 = createCursorAssemblyPlan(table.aggregate(new int[]{1}, countRows()).distinct(1));
+        assertTrue(cap2.nodes().stream().anyMatch(node -> node.type() == CapNodeType.DISTINCT));
+    }
+
+
+
+    @Test
+    public void testNonMissingCharacteristics() {
+        final VirtualTable source = new VirtualTable(randomUUID(),
+            new SourceTableProperties(dataSort()[0]).withNonMissingColumns(2));
+        final VirtualTable table = source //
+            .appendRowIndex() //
+            .join(source.aggregate(new int[]{1}, countRows(), sum(0)), new int[]{1}, new int[]{0}, JoinType.LEFT_OUTER);
+        final TableTransformGraph graph = new TableTransformGraph(table.getProducingTransform());
+        TableTransformUtil.optimize(graph);
+        final boolean[] expected = {false, false, true, true, false, false, false};
+        final List<AccessId> accesses = graph.terminal().accesses();
+        assertEquals(expected.length, accesses.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("column " + i, expected[i], TableTransformGraphProperties.isNonMissing(accesses.get(i)));
+        }
+
+        final VirtualTable inner = source.join(source.aggregate(new int[]{2}, countRows()), new int[]{2}, new int[]{0},
+            JoinType.INNER);
+        final TableTransformGraph innerGraph = new TableTransformGraph(inner.getProducingTransform());
+        TableTransformUtil.optimize(innerGraph);
+        final boolean[] expectedInner = {false, false, true, true, true};
+        final List<AccessId> innerAccesses = innerGraph.terminal().accesses();
+        for (int i = 0; i < expectedInner.length; i++) {
+            assertEquals("column " + i, expectedInner[i],
+                TableTransformGraphProperties.isNonMissing(innerAccesses.get(i)));
+        }
+    }
+
+
+
+    public static VirtualTable vtFilterLateMaterialization(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table = new VirtualTable(sourceIdentifiers[0],
+            new SourceTableProperties(sources[0]).withLateMaterialization());
+        final RowFilterFactory isLarge = RowFilterFactory.doublePredicate(d -> d > 0.45);
+        return table.filterRows(new int[]{2}, isLarge).appendRowIndex();
+    }
+
+    public static VirtualTable vtFilterLateMaterialization() {
+        return vtFilterLateMaterialization(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testFilterLateMaterialization() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, DOUBLE, LONG);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{5, "c", 0.5, 0L}, //
+                new Object[]{null, "a", 0.6, 1L}, //
+                new Object[]{7, "a", 0.7, 2L} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataSort, VirtualTableTests::vtFilterLateMaterialization);
+
+        // only the predicate column is read sequentially, the other columns are fetched for the remaining rows
+        final CursorAssemblyPlan cap = createCursorAssemblyPlan(vtFilterLateMaterialization());
+        final CapNodeSource source = (CapNodeSource)cap.nodes().get(0);
+        final boolean[] late = new boolean[source.cols().length];
+        for (int i = 0; i < late.length; i++) {
+            late[i] = source.cols()[i] != 2;
+        }
+        assertTrue(Arrays.equals(late, source.late()));
+        assertEquals(CapNodeType.ROWFILTER, cap.nodes().get(1).type());
+        assertEquals(CapNodeType.MATERIALIZE, cap.nodes().get(2).type());
+
+        // by default, all columns are read sequentially
+        final VirtualTable defaultTable = new VirtualTable(randomUUID(), new SourceTableProperties(dataSort()[0]));
+        final CursorAssemblyPlan defaultCap = createCursorAssemblyPlan(
+            defaultTable.filterRows(new int[]{2}, RowFilterFactory.doublePredicate(d -> d > 0.45)).appendRowIndex());
+        assertFalse(((CapNodeSource)defaultCap.nodes().get(0)).hasLateColumns());
+        assertTrue(defaultCap.nodes().stream().noneMatch(node -> node.type() == CapNodeType.MATERIALIZE));
+
+        // sources without random access read all columns sequentially, even if late materialization is requested
+        final VirtualTable sequential = new VirtualTable(randomUUID(),
+            new SourceTableProperties(dataSort()[0].getSchema(), LOOKAHEAD).withLateMaterialization());
+        final CursorAssemblyPlan sequentialCap = createCursorAssemblyPlan(
+            sequential.filterRows(new int[]{2}, RowFilterFactory.doublePredicate(d -> d > 0.45)));
+        assertTrue(sequentialCap.nodes().stream().noneMatch(node -> node.type() == CapNodeType.MATERIALIZE));
+    }
+
+
+
+    public static VirtualTable vtLazyMap(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        return vtLazyMap(sourceIdentifiers, sources, new AtomicInteger());
+    }
+
+    private static VirtualTable vtLazyMap(final UUID[] sourceIdentifiers, final RowAccessible[] sources,
+        final AtomicInteger numMapperRuns) {
+        final MapperFactory twice = MapperFactory.lazy(ColumnarSchema.of(INT), (inputs, outputs) -> {
+            MapTransformUtils.verify(inputs, 1, outputs, 1);
+            final IntAccess.IntReadAccess i = (IntAccess.IntReadAccess)inputs[0];
+            final IntAccess.IntWriteAccess o = (IntAccess.IntWriteAccess)outputs[0];
+            return () -> {
+                numMapperRuns.incrementAndGet();
+                if (!i.isMissing()) {
+                    o.setIntValue(2 * i.getIntValue());
+                }
+            };
+        });
+        return new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0])) //
+            .keepOnlyColumns(0, 1) //
+            .appendMap(new int[]{0}, twice);
+    }
+
+    public static VirtualTable vtLazyMap() {
+        return vtLazyMap(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testLazyMap() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, INT);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, "b", 2}, //
+                new Object[]{2, "a", 4}, //
+                new Object[]{3, null, 6}, //
+                new Object[]{4, "b", 8}, //
+                new Object[]{5, "c", 10}, //
+                new Object[]{null, "a", null}, //
+                new Object[]{7, "a", 14} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtLazyMap);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtLazyMap);
+
+        // the mapper only runs for rows where the mapped column is read
+        for (final boolean useRandomAccess : new boolean[]{false, true}) {
+            final AtomicInteger numMapperRuns = new AtomicInteger();
+            final RowAccessible[] sources = dataSort();
+            final UUID[] sourceIds = new UUID[]{randomUUID()};
+            final VirtualTable table = vtLazyMap(sourceIds, sources, numMapperRuns);
+            final List<Integer> actualValues = new ArrayList<>();
+            try (final Cursor<ReadAccessRow> cursor =
+                createRowAccessible(table, sourceIds, sources, useRandomAccess).createCursor()) {
+                while (cursor.forward()) {
+                    final ReadAccessRow row = cursor.access();
+                    final StringAccess.StringReadAccess s = row.getAccess(1);
+                    if (!s.isMissing() && s.getStringValue().equals("b")) {
+                        final IntAccess.IntReadAccess o = row.getAccess(2);
+                        actualValues.add(o.getIntValue());
+                        actualValues.add(o.getIntValue());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            assertEquals(List.of(2, 2, 8, 8), actualValues);
+            assertEquals(2, numMapperRuns.get());
+        }
+    }
+
+
+
+    public static VirtualTable vtDeterministicMap(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        return vtDeterministicMap(sourceIdentifiers, sources, new AtomicInteger());
+    }
+
+    private static VirtualTable vtDeterministicMap(final UUID[] sourceIdentifiers, final RowAccessible[] sources,
+        final AtomicInteger numMapperRuns) {
+        final MapperFactory repeat = MapperFactory.deterministic(ColumnarSchema.of(STRING), (inputs, outputs) -> {
+            MapTransformUtils.verify(inputs, 1, outputs, 1);
+            final StringAccess.StringReadAccess i = (StringAccess.StringReadAccess)inputs[0];
+            final StringAccess.StringWriteAccess o = (StringAccess.StringWriteAccess)outputs[0];
+            return () -> {
+                numMapperRuns.incrementAndGet();
+                if (!i.isMissing()) {
+                    o.setStringValue(i.getStringValue().repeat(3));
+                }
+            };
+        });
+        return new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0])) //
+            .keepOnlyColumns(0, 1) //
+            .appendMap(new int[]{1}, repeat);
+    }
+
+    public static VirtualTable vtDeterministicMap() {
+        return vtDeterministicMap(new UUID[]{randomUUID()}, dataSort());
+    }
+
+    @Test
+    public void testDeterministicMap() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING, STRING);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, "b", "bbb"}, //
+                new Object[]{2, "a", "aaa"}, //
+                new Object[]{3, null, null}, //
+                new Object[]{4, "b", "bbb"}, //
+                new Object[]{5, "c", "ccc"}, //
+                new Object[]{null, "a", "aaa"}, //
+                new Object[]{7, "a", "aaa"} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtDeterministicMap);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSort, VirtualTableTests::vtDeterministicMap);
+
+        // the mapper only runs once for each distinct input value
+        for (final boolean useRandomAccess : new boolean[]{false, true}) {
+            final AtomicInteger numMapperRuns = new AtomicInteger();
+            final RowAccessible[] sources = dataSort();
+            final UUID[] sourceIds = new UUID[]{randomUUID()};
+            final VirtualTable table = vtDeterministicMap(sourceIds, sources, numMapperRuns);
+            final RowAccessible rowAccessible = createRowAccessible(table, sourceIds, sources, useRandomAccess);
+            assertTableEqualsValues(expectedValues, rowAccessible, false);
+            assertEquals(4, numMapperRuns.get());
+        }
+    }
+
+
+
+    private static List<RowAccessible> executePartitioned(final VirtualTable table, final UUID[] sourceIds,
+        final RowAccessible[] sources) {
+        final Map<UUID, RowAccessible> sourceMap = new HashMap<>();
+        for (int i = 0; i < sourceIds.length; ++i) {
+            sourceMap.put(sourceIds[i], sources[i]);
+        }
+        return new GraphVirtualTableExecutor(table.getProducingTransform()).execute(sourceMap);
+    }
+
+    @Test
+    public void testExchangeRoundRobin() throws IOException {
+        final RowAccessible[] sources = dataSort();
+        final UUID[] sourceIds = new UUID[]{randomUUID()};
+        final VirtualTable table = new VirtualTable(sourceIds[0], new SourceTableProperties(sources[0])) //
+            .filterRows(new int[]{2}, RowFilterFactory.doublePredicate(d -> d > 0.15)) //
+            .partitionRoundRobin(3);
+        assertEquals(dataSort()[0].getSchema(), table.getSchema());
+
+        final List<RowAccessible> partitions = executePartitioned(table, sourceIds, sources);
+        assertEquals(3, partitions.size());
+        assertTableEqualsValues(new Object[][]{ //
+            new Object[]{2, "a", 0.2}, //
+            new Object[]{5, "c", 0.5} //
+        }, partitions.get(0), false);
+        assertTableEqualsValues(new Object[][]{ //
+            new Object[]{3, null, 0.3}, //
+            new Object[]{null, "a", 0.6} //
+        }, partitions.get(1), false);
+        assertTableEqualsValues(new Object[][]{ //
+            new Object[]{4, "b", 0.4}, //
+            new Object[]{7, "a", 0.7} //
+        }, partitions.get(2), false);
+        assertEquals(2, partitions.get(2).size());
+        for (RowAccessible partition : partitions) {
+            partition.close();
+        }
+    }
+
+    @Test
+    public void testExchangeHash() throws IOException {
+        final RowAccessible[] sources = dataSort();
+        final UUID[] sourceIds = new UUID[]{randomUUID()};
+        final VirtualTable table = new VirtualTable(sourceIds[0], new SourceTableProperties(sources[0])) //
+            .partitionByHash(4, 1);
+
+        // each row ends up in exactly one partition, in input order, and rows with equal keys in the same partition
+        final List<RowAccessible> partitions = executePartitioned(table, sourceIds, sources);
+        assertEquals(4, partitions.size());
+        final Map<String, Integer> partitionOfKey = new HashMap<>();
+        final List<Double> values = new ArrayList<>();
+        for (int p = 0; p < partitions.size(); p++) {
+            double previousValue = 0;
+            try (final Cursor<ReadAccessRow> cursor = partitions.get(p).createCursor()) {
+                while (cursor.forward()) {
+                    final ReadAccessRow row = cursor.access();
+                    final StringAccess.StringReadAccess key = row.getAccess(1);
+                    final String k = key.isMissing() ? null : key.getStringValue();
+                    final Integer previousPartition = partitionOfKey.putIfAbsent(k, p);
+                    if (previousPartition != null) {
+                        assertEquals(previousPartition.intValue(), p);
+                    }
+                    final double value = row.<DoubleAccess.DoubleReadAccess> getAccess(2).getDoubleValue();
+                    assertTrue(value > previousValue);
+                    previousValue = value;
+                    values.add(value);
+                }
+            }
+        }
+        values.sort(null);
+        assertEquals(List.of(0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7), values);
+        for (RowAccessible partition : partitions) {
+            partition.close();
+        }
+
+        // an exchange must be the last transform
+        final VirtualTable notLast = table.slice(0, 3);
+        assertThrows(IllegalArgumentException.class,
+            () -> new GraphVirtualTableExecutor(notLast.getProducingTransform()));
+    }
+
+
+
+    public static VirtualTable vtMergeSorted(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable table0 = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        final VirtualTable table1 = new VirtualTable(sourceIdentifiers[1], new SourceTableProperties(sources[1]))
+            .sort(new int[]{0}, new boolean[]{true});
+        final VirtualTable table2 = new VirtualTable(sourceIdentifiers[2], new SourceTableProperties(sources[2]));
+        return table0.mergeSorted(List.of(table1, table2), new int[]{0}, new boolean[]{true}).selectColumns(1, 0);
+    }
+
+    public static VirtualTable vtMergeSorted() {
+        return vtMergeSorted(new UUID[]{randomUUID(), randomUUID(), randomUUID()}, dataMergeSorted());
+    }
+
+    public static RowAccessible[] dataMergeSorted() {
+        final ColumnarSchema schema = ColumnarSchema.of(INT, STRING);
+        final Object[][] values0 = new Object[][]{ //
+                new Object[]{1, "a0"}, //
+                new Object[]{3, "a1"}, //
+                new Object[]{3, "a2"}, //
+                new Object[]{null, "a3"} //
+        };
+        final Object[][] values1 = new Object[][]{ //
+                new Object[]{4, "b0"}, //
+                new Object[]{2, "b1"}, //
+                new Object[]{3, "b2"} //
+        };
+        final Object[][] values2 = new Object[][]{ //
+                new Object[]{0, "c0"}, //
+                new Object[]{3, "c1"}, //
+                new Object[]{5, "c2"} //
+        };
+        return new RowAccessible[]{ //
+                RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values0), //
+                RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values1), //
+                RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values2) //
+        };
+    }
+
+    @Test
+    public void testMergeSorted() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(STRING, INT);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{"c0", 0}, //
+                new Object[]{"a0", 1}, //
+                new Object[]{"b1", 2}, //
+                new Object[]{"a1", 3}, //
+                new Object[]{"a2", 3}, //
+                new Object[]{"b2", 3}, //
+                new Object[]{"c1", 3}, //
+                new Object[]{"b0", 4}, //
+                new Object[]{"c2", 5}, //
+                new Object[]{"a3", null} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataMergeSorted, VirtualTableTests::vtMergeSorted);
+        testTransformedTableLookahead(true, VirtualTableTests::dataMergeSorted, VirtualTableTests::vtMergeSorted);
+        testTransformedTableRandomAccess(false, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataMergeSorted, VirtualTableTests::vtMergeSorted);
+    }
+
+    @Test
+    public void testSortAfterMergeSortedIsEliminated() {
+        final VirtualTable merged = vtMergeSorted(new UUID[]{randomUUID(), randomUUID(), randomUUID()}, dataMergeSorted());
+        final CursorAssemblyPlan cap = createCursorAssemblyPlan(merged.sort(new int[]{1}, new boolean[]{true}));
+        assertEquals(1, cap.nodes().stream().filter(node -> node.type() == CapNodeType.MERGE).count());
+        // only the SORT of the second input remains
+        assertEquals(1, cap.nodes().stream().filter(node -> node.type() == CapNodeType.SORT).count());
+    }
+
+
+
+    public static VirtualTable vtRangeFilterOnSortedSource(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final RowAccessible source = sources[0];
+        final SourceTableProperties properties = new SourceTableProperties(source.getSchema(), CursorType.of(source),
+            source.size(), new int[]{0}, new boolean[]{true});
+        return new VirtualTable(sourceIdentifiers[0], properties).filterRows(new int[]{0}, RowFilterFactory.intRange(2, 8));
+    }
+
+    public static VirtualTable vtRangeFilterOnSortedSource() {
+        return vtRangeFilterOnSortedSource(new UUID[]{randomUUID()}, dataRangeFilterOnSortedSource());
+    }
+
+    public static RowAccessible[] dataRangeFilterOnSortedSource() {
+        final ColumnarSchema schema = ColumnarSchema.of(INT, STRING);
+        final Object[][] values = new Object[][]{ //
+                new Object[]{1, "a"}, //
+                new Object[]{2, "b"}, //
+                new Object[]{2, "c"}, //
+                new Object[]{3, "d"}, //
+                new Object[]{5, "e"}, //
+                new Object[]{8, "f"}, //
+                new Object[]{8, "g"}, //
+                new Object[]{9, "h"}, //
+                new Object[]{null, "i"} //
+        };
+        return new RowAccessible[]{RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values)};
+    }
+
+    @Test
+    public void testRangeFilterOnSortedSource() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{2, "b"}, //
+                new Object[]{2, "c"}, //
+                new Object[]{3, "d"}, //
+                new Object[]{5, "e"} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataRangeFilterOnSortedSource, VirtualTableTests::vtRangeFilterOnSortedSource);
+
+        // The filter is replaced by a slice of the source, so the result supports random access.
+        final RowAccessible[] sources = dataRangeFilterOnSortedSource();
+        final UUID[] sourceIds = {randomUUID()};
+        final VirtualTable table = vtRangeFilterOnSortedSource(sourceIds, sources);
+        final RowAccessible rows = new GraphVirtualTableExecutor(table.getProducingTransform()) //
+            .execute(Map.of(sourceIds[0], sources[0])).get(0);
+        assertTrue(rows instanceof RandomRowAccessible);
+        assertEquals(expectedValues.length, rows.size());
+        assertTableEqualsValuesInRandomRowOrder(expectedValues, rows, false);
+    }
+
+
+
+    public static VirtualTable vtRangeFilterOnDescendingSource(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final RowAccessible source = sources[0];
+        final SourceTableProperties properties = new SourceTableProperties(source.getSchema(), CursorType.of(source),
+            source.size(), new int[]{0}, new boolean[]{false});
+        return new VirtualTable(sourceIdentifiers[0], properties) //
+            .filterRows(new int[]{0}, new RangeFilterFactory(2, false, 8, true)) //
+            .filterRows(new int[]{1}, RowFilterFactory.doubleRange(0.0, 0.65));
+    }
+
+    public static VirtualTable vtRangeFilterOnDescendingSource() {
+        return vtRangeFilterOnDescendingSource(new UUID[]{randomUUID()}, dataRangeFilterOnDescendingSource());
+    }
+
+    public static RowAccessible[] dataRangeFilterOnDescendingSource() {
+        final ColumnarSchema schema = ColumnarSchema.of(INT, DOUBLE);
+        final Object[][] values = new Object[][]{ //
+                new Object[]{null, 0.1}, //
+                new Object[]{9, 0.2}, //
+                new Object[]{8, 0.3}, //
+                new Object[]{8, 0.7}, //
+                new Object[]{5, 0.4}, //
+                new Object[]{3, 0.5}, //
+                new Object[]{2, 0.6}, //
+                new Object[]{2, 0.7}, //
+                new Object[]{1, 0.8} //
+        };
+        return new RowAccessible[]{RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values)};
+    }
+
+    @Test
+    public void testRangeFilterOnDescendingSource() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{8, 0.3}, //
+                new Object[]{5, 0.4}, //
+                new Object[]{3, 0.5} //
+        };
+        // The range filter on the sort column is replaced by a slice, the other filter remains.
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataRangeFilterOnDescendingSource, VirtualTableTests::vtRangeFilterOnDescendingSource);
+    }
+
+
+
+    public static VirtualTable vtRangeFilterNumericEdgeCases(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final RowAccessible source = sources[0];
+        final SourceTableProperties properties = new SourceTableProperties(source.getSchema(), CursorType.of(source),
+            source.size(), new int[]{1}, new boolean[]{true});
+        return new VirtualTable(sourceIdentifiers[0], properties) //
+            .filterRows(new int[]{1}, RowFilterFactory.doubleRange(0.0, 1.0)) //
+            .filterRows(new int[]{0}, new RangeFilterFactory(null, false, 0x1p53, true));
+    }
+
+    public static RowAccessible[] dataRangeFilterNumericEdgeCases() {
+        final ColumnarSchema schema = ColumnarSchema.of(LONG, DOUBLE);
+        final Object[][] values = new Object[][]{ //
+                new Object[]{1L, -0.5}, //
+                new Object[]{(1L << 53), -0.0}, //
+                new Object[]{(1L << 53) + 1, 0.0}, //
+                new Object[]{3L, 0.5}, //
+                new Object[]{4L, 1.0}, //
+                new Object[]{5L, Double.NaN} //
+        };
+        return new RowAccessible[]{RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values)};
+    }
+
+    @Test
+    public void testRangeFilterNumericEdgeCases() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(LONG, DOUBLE);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{(1L << 53), -0.0}, //
+                new Object[]{3L, 0.5} //
+        };
+        // -0.0 is in [0.0, 1.0), NaN is not. 2^53+1 is above 2^53 (but would be equal if rounded to double).
+        // The range filter on the sort column is replaced by a slice, the other filter remains.
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataRangeFilterNumericEdgeCases, VirtualTableTests::vtRangeFilterNumericEdgeCases);
+
+        // double values compared to long bounds
+        final ColumnarSchema schema = ColumnarSchema.of(DOUBLE);
+        final RowAccessible doubles = RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema,
+            new Object[][]{new Object[]{0x1p53}, new Object[]{0x1p54}});
+        final UUID sourceId = randomUUID();
+        final VirtualTable table = new VirtualTable(sourceId, new SourceTableProperties(doubles)) //
+            .filterRows(new int[]{0}, RowFilterFactory.longRange((1L << 53) + 1, Long.MAX_VALUE));
+        final RowAccessible rows = new GraphVirtualTableExecutor(table.getProducingTransform()) //
+            .execute(Map.of(sourceId, doubles)).get(0);
+        assertTableEqualsValues(new Object[][]{new Object[]{0x1p54}}, rows, false);
+    }
+
+
+
+    public static VirtualTable vtIndexedRangeFilter(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        return new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0])) //
+            .slice(1, 9) //
+            .filterRows(new int[]{0}, new RangeFilterFactory(3, true, 5, true));
+    }
+
+    public static VirtualTable vtIndexedRangeFilter() {
+        return vtIndexedRangeFilter(new UUID[]{randomUUID()}, dataIndexedRangeFilter());
+    }
+
+    public static RowAccessible[] dataIndexedRangeFilter() {
+        final ColumnarSchema schema = ColumnarSchema.of(INT, STRING);
+        final Object[][] values = new Object[][]{ //
+                new Object[]{5, "a"}, //
+                new Object[]{1, "b"}, //
+                new Object[]{4, "c"}, //
+                new Object[]{null, "d"}, //
+                new Object[]{3, "e"}, //
+                new Object[]{9, "f"}, //
+                new Object[]{5, "g"}, //
+                new Object[]{2, "h"}, //
+                new Object[]{4, "i"}, //
+                new Object[]{3, "j"} //
+        };
+        final RandomRowAccessible table =
+            (RandomRowAccessible)RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values);
+        return new RowAccessible[]{new IndexedRowAccessible(table, SecondaryIndex.create(table, false, 0))};
+    }
+
+    @Test
+    public void testIndexedRangeFilter() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{4, "c"}, //
+                new Object[]{3, "e"}, //
+                new Object[]{5, "g"}, //
+                new Object[]{4, "i"} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, -1, VirtualTableTests::dataIndexedRangeFilter, VirtualTableTests::vtIndexedRangeFilter);
+        testTransformedTableLookahead(false, VirtualTableTests::dataIndexedRangeFilter, VirtualTableTests::vtIndexedRangeFilter);
+    }
+
+    @Test
+    public void testSecondaryIndexLookup() {
+        final RandomRowAccessible table = (RandomRowAccessible)dataIndexedRangeFilter()[0];
+        final IntAccess.IntWriteAccess key = (IntAccess.IntWriteAccess)BufferedAccesses.createBufferedAccess(INT);
+        for (boolean hashIndex : new boolean[]{false, true}) {
+            final SecondaryIndex index = SecondaryIndex.create(table, hashIndex, 0);
+            assertEquals(10, index.numRows());
+            key.setIntValue(5);
+            assertArrayEquals(new long[]{0, 6}, index.lookup((ReadAccess)key));
+            key.setIntValue(4);
+            assertArrayEquals(new long[]{2, 8}, index.lookup((ReadAccess)key));
+            key.setIntValue(7);
+            assertArrayEquals(new long[0], index.lookup((ReadAccess)key));
+            key.setMissing();
+            assertArrayEquals(new long[]{3}, index.lookup((ReadAccess)key));
+            assertArrayEquals(new long[]{1, 4, 7, 9}, index.lookup(RowFilterFactory.intRange(0, 4)));
+        }
+    }
+
+    @Test
+    public void testSecondaryIndexLookupStringAndDoubleKeys() {
+        final ColumnarSchema schema = ColumnarSchema.of(STRING, DOUBLE);
+        final Object[][] values = new Object[][]{ //
+                new Object[]{"b", 1.0}, //
+                new Object[]{"a", 2.0}, //
+                new Object[]{"b", -0.5}, //
+                new Object[]{null, 1.0}, //
+                new Object[]{"b", 1.0}, //
+                new Object[]{"a", Double.NaN} //
+        };
+        final RandomRowAccessible table =
+            (RandomRowAccessible)RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values);
+        final StringAccess.StringWriteAccess s =
+            (StringAccess.StringWriteAccess)BufferedAccesses.createBufferedAccess(STRING);
+        final DoubleAccess.DoubleWriteAccess d =
+            (DoubleAccess.DoubleWriteAccess)BufferedAccesses.createBufferedAccess(DOUBLE);
+        final ReadAccess[] key = {(ReadAccess)s, (ReadAccess)d};
+        for (boolean hashIndex : new boolean[]{false, true}) {
+            final SecondaryIndex index = SecondaryIndex.create(table, hashIndex, 0, 1);
+            s.setStringValue("b");
+            d.setDoubleValue(1.0);
+            assertArrayEquals(new long[]{0, 4}, index.lookup(key));
+            s.setStringValue("a");
+            d.setDoubleValue(Double.NaN);
+            assertArrayEquals(new long[]{5}, index.lookup(key));
+            s.setMissing();
+            d.setDoubleValue(1.0);
+            assertArrayEquals(new long[]{3}, index.lookup(key));
+            s.setStringValue("c");
+            assertArrayEquals(new long[0], index.lookup(key));
+            assertArrayEquals(new long[]{1, 5}, index.lookup(new RangeFilterFactory("a", true, "b", false)));
+            assertArrayEquals(new long[]{0, 1, 2, 4, 5}, index.lookup(new RangeFilterFactory("a", true, "b", true)));
+        }
+    }
+
+
+
+    public static VirtualTable vtTake(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        return new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0])) //
+            .take(new long[]{4, 1, 1, 5, 0, 3, 4});
+    }
+
+    public static VirtualTable vtTake() {
+        return vtTake(new UUID[]{randomUUID()}, dataTake());
+    }
+
+    public static RowAccessible[] dataTake() {
+        final ColumnarSchema schema = ColumnarSchema.of(INT, STRING);
+        final Object[][] values = new Object[][]{ //
+                new Object[]{0, "a"}, //
+                new Object[]{1, "b"}, //
+                new Object[]{2, "c"}, //
+                new Object[]{null, "d"}, //
+                new Object[]{4, null}, //
+                new Object[]{5, "f"} //
+        };
+        return new RowAccessible[]{RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values)};
+    }
+
+    @Test
+    public void testTake() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{4, null}, //
+                new Object[]{1, "b"}, //
+                new Object[]{1, "b"}, //
+                new Object[]{5, "f"}, //
+                new Object[]{0, "a"}, //
+                new Object[]{null, "d"}, //
+                new Object[]{4, null} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataTake, VirtualTableTests::vtTake);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataTake, VirtualTableTests::vtTake);
+    }
+
+
+
+    public static VirtualTable vtTakeSliced(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        return vtTake(sourceIdentifiers, sources).slice(2, 5);
+    }
+
+    public static VirtualTable vtTakeSliced() {
+        return vtTakeSliced(new UUID[]{randomUUID()}, dataTake());
+    }
+
+    @Test
+    public void testTakeSliced() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{1, "b"}, //
+                new Object[]{5, "f"}, //
+                new Object[]{0, "a"} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataTake, VirtualTableTests::vtTakeSliced);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataTake, VirtualTableTests::vtTakeSliced);
+
+        // The SLICE is merged into the TAKE.
+        final TableTransformGraph graph = new TableTransformGraph(vtTakeSliced().getProducingTransform());
+        TableTransformUtil.optimize(graph);
+        final CursorAssemblyPlan cap = CapBuilder.createCursorAssemblyPlan(new BranchGraph(graph));
+        assertEquals(0, cap.nodes().stream().filter(node -> node.type() == CapNodeType.SLICE).count());
+    }
+
+
+
+    private static long[] takeManyRowsIndices() {
+        // ascending row indices (with duplicates), followed by row indices in scattered order
+        final long[] indices = new long[3000];
+        Arrays.setAll(indices, k -> k < 1500 ? k / 100 : (k * 7L) % 16);
+        return indices;
+    }
+
+    public static VirtualTable vtTakeManyRows(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        return new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0])) //
+            .take(takeManyRowsIndices());
+    }
+
+    public static VirtualTable vtTakeManyRows() {
+        return vtTakeManyRows(new UUID[]{randomUUID()}, dataTakeManyRows());
+    }
+
+    public static RowAccessible[] dataTakeManyRows() {
+        final ColumnarSchema schema = ColumnarSchema.of(INT, STRING);
+        final Object[][] values = new Object[16][];
+        Arrays.setAll(values, i -> new Object[]{i, "row" + i});
+        return new RowAccessible[]{RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values)};
+    }
+
+    @Test
+    public void testTakeManyRows() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING);
+        final long[] indices = takeManyRowsIndices();
+        final Object[][] expectedValues = new Object[indices.length][];
+        Arrays.setAll(expectedValues, k -> new Object[]{(int)indices[k], "row" + indices[k]});
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataTakeManyRows, VirtualTableTests::vtTakeManyRows);
+    }
+
+
+
+    public static VirtualTable vtTakeByIndexColumn(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        final VirtualTable data = new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0]));
+        final VirtualTable indices = new VirtualTable(sourceIdentifiers[1], new SourceTableProperties(sources[1]));
+        return data.take(indices, 1);
+    }
+
+    public static VirtualTable vtTakeByIndexColumn() {
+        return vtTakeByIndexColumn(new UUID[]{randomUUID(), randomUUID()}, dataTakeByIndexColumn());
+    }
+
+    public static RowAccessible[] dataTakeByIndexColumn() {
+        final ColumnarSchema indexSchema = ColumnarSchema.of(STRING, LONG);
+        final Object[][] indexValues = new Object[][]{ //
+                new Object[]{"x", 5L}, //
+                new Object[]{"y", 2L}, //
+                new Object[]{"z", 2L}, //
+                new Object[]{"w", 0L} //
+        };
+        return new RowAccessible[]{ //
+                dataTake()[0], //
+                RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(indexSchema, indexValues) //
+        };
+    }
+
+    @Test
+    public void testTakeByIndexColumn() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING);
+        final Object[][] expectedValues = new Object[][]{ //
+                new Object[]{5, "f"}, //
+                new Object[]{2, "c"}, //
+                new Object[]{2, "c"}, //
+                new Object[]{0, "a"} //
+        };
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataTakeByIndexColumn, VirtualTableTests::vtTakeByIndexColumn);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataTakeByIndexColumn, VirtualTableTests::vtTakeByIndexColumn);
+    }
+
+
+
+    /**
+     * Wraps a {@link RandomRowAccessible} and counts the created cursors, and the {@code moveTo}, {@code forward}, and
+     * {@code close} calls on them.
+     */
+    private static final class CountingRowAccessible implements RandomRowAccessible {
+
+        private final RandomRowAccessible m_delegate;
+
+        private final AtomicInteger m_numMoveTo = new AtomicInteger();
+
+        private final AtomicInteger m_numForward = new AtomicInteger();
+
+        private final AtomicInteger m_numClose = new AtomicInteger();
+
+        private final AtomicInteger m_numCreate = new AtomicInteger();
+
+        CountingRowAccessible(final RandomRowAccessible delegate) {
+            m_delegate = delegate;
+        }
+
+        @Override
+        public ColumnarSchema getSchema() {
+            return m_delegate.getSchema();
+        }
+
+        @Override
+        public RandomAccessCursor<ReadAccessRow> createCursor() {
+            return createCursor(Selection.all());
+        }
+
+        @Override
+        public RandomAccessCursor<ReadAccessRow> createCursor(final Selection selection) {
+            final RandomAccessCursor<ReadAccessRow> cursor = m_delegate.createCursor(selection);
+            m_numCreate.incrementAndGet();
+            return new RandomAccessCursor<ReadAccessRow>() {
+                @Override
+                public ReadAccessRow access() {
+                    return cursor.access();
+                }
+
+                @Override
+                public boolean forward() {
+                    m_numForward.incrementAndGet();
+                    return cursor.forward();
+                }
+
+                @Override
+                public boolean canForward() {
+                    return cursor.canForward();
+                }
+
+                @Override
+                public void moveTo(final long row) {
+                    m_numMoveTo.incrementAndGet();
+                    cursor.moveTo(row);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    m_numClose.incrementAndGet();
+                    cursor.close();
+                }
+            };
+        }
+
+        @Override
+        public long size() {
+            return m_delegate.size();
+        }
+
+        @Override
+        public void close() throws IOException {
+            m_delegate.close();
+        }
+    }
+
+    public static VirtualTable vtSequentialScan(final UUID[] sourceIdentifiers, final RowAccessible[] sources) {
+        return new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0])).slice(2, 15);
+    }
+
+    public static VirtualTable vtSequentialScan() {
+        return vtSequentialScan(new UUID[]{randomUUID()}, dataSequentialScan());
+    }
+
+    public static RowAccessible[] dataSequentialScan() {
+        final ColumnarSchema schema = ColumnarSchema.of(INT, STRING);
+        final Object[][] values = new Object[16][];
+        Arrays.setAll(values, i -> new Object[]{i, "row" + i});
+        return new RowAccessible[]{RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values)};
+    }
+
+    @Test
+    public void testSequentialScan() {
+        final ColumnarSchema expectedSchema = ColumnarSchema.of(INT, STRING);
+        final Object[][] expectedValues = new Object[13][];
+        Arrays.setAll(expectedValues, i -> new Object[]{i + 2, "row" + (i + 2)});
+        testTransformedTable(expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSequentialScan, VirtualTableTests::vtSequentialScan);
+        testTransformedTableRandomAccess(true, expectedSchema, expectedValues, expectedValues.length, VirtualTableTests::dataSequentialScan, VirtualTableTests::vtSequentialScan);
+
+        // A full scan of a random-access table switches to forward() on the source after a few rows.
+        final CountingRowAccessible source = new CountingRowAccessible((RandomRowAccessible)dataSequentialScan()[0]);
+        final RowAccessible[] sources = new RowAccessible[]{source};
+        final UUID[] sourceIds = new UUID[]{randomUUID()};
+        final RowAccessible rowAccessible = createRowAccessible(vtSequentialScan(sourceIds, sources), sourceIds, sources, true);
+        assertTrue(rowAccessible instanceof RandomRowAccessible);
+        try (final RandomAccessCursor<ReadAccessRow> cursor = ((RandomRowAccessible)rowAccessible).createCursor()) {
+            final IntAccess.IntReadAccess access = cursor.access().getAccess(0);
+            for (int i = 0; i < expectedValues.length; i++) {
+                assertTrue(cursor.forward());
+                assertEquals(expectedValues[i][0], access.getIntValue());
+            }
+            assertTrue(source.m_numMoveTo.get() < expectedValues.length);
+            assertTrue(source.m_numForward.get() > 0);
+
+            // Moving back falls back to random access.
+            cursor.moveTo(3);
+            assertEquals(5, access.getIntValue());
+            cursor.moveTo(0);
+            assertEquals(2, access.getIntValue());
+            cursor.moveTo(12);
+            assertEquals(14, access.getIntValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+
+    private static VirtualTable vtCursorReset(final UUID[] sourceIdentifiers, final RowAccessible[] sources,
+        final AtomicInteger numMappersCreated) {
+        final MapperFactory twice = MapperFactory.of(ColumnarSchema.of(INT), (inputs, outputs) -> {
+            numMappersCreated.incrementAndGet();
+            final IntAccess.IntReadAccess i = (IntAccess.IntReadAccess)inputs[0];
+            final IntAccess.IntWriteAccess o = (IntAccess.IntWriteAccess)outputs[0];
+            return () -> o.setIntValue(2 * i.getIntValue());
+        });
+        return new VirtualTable(sourceIdentifiers[0], new SourceTableProperties(sources[0])) //
+            .sort(new int[]{0}, new boolean[]{false}) //
+            .appendMap(new int[]{0}, twice);
+    }
+
+    @Test
+    public void testCursorReset() {
+        // Resetting a cursor re-uses the assembled CAP, including the mapper instances.
+        for (final boolean useRandomAccess : new boolean[]{false, true}) {
+            final AtomicInteger numMappersCreated = new AtomicInteger();
+            final RowAccessible[] sources = dataSequentialScan();
+            final UUID[] sourceIds = new UUID[]{randomUUID()};
+            final VirtualTable table = vtCursorReset(sourceIds, sources, numMappersCreated);
+            try (final Cursor<ReadAccessRow> cursor =
+                createRowAccessible(table, sourceIds, sources, useRandomAccess).createCursor()) {
+                final ResettableCursor<ReadAccessRow> resettable = (ResettableCursor<ReadAccessRow>)cursor;
+                final IntAccess.IntReadAccess value = resettable.access().getAccess(0);
+                final IntAccess.IntReadAccess mapped = resettable.access().getAccess(2);
+                for (int page = 0; page < 4; page++) {
+                    resettable.reset(4 * page, 4 * page + 4);
+                    for (int i = 0; i < 4; i++) {
+                        assertTrue(resettable.forward());
+                        assertEquals(15 - 4 * page - i, value.getIntValue());
+                        assertEquals(2 * value.getIntValue(), mapped.getIntValue());
+                    }
+                    assertFalse(resettable.forward());
+                }
+                resettable.reset(14, 100);
+                assertTrue(resettable.forward());
+                assertEquals(1, value.getIntValue());
+                assertTrue(resettable.forward());
+                assertEquals(0, value.getIntValue());
+                assertFalse(resettable.forward());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            assertEquals(1, numMappersCreated.get());
+        }
+    }
+
+    @Test
+    public void testCursorResetReadsRowRangeFromSource() {
+        // For a plan that preserves row indices, the row range is read from the source instead of skipping rows.
+        final CountingRowAccessible counting = new CountingRowAccessible((RandomRowAccessible)dataSequentialScan()[0]);
+        final RowAccessible[] sources = {counting};
+        final UUID[] sourceIds = new UUID[]{randomUUID()};
+        final MapperFactory twice = MapperFactory.of(ColumnarSchema.of(INT), (inputs, outputs) -> {
+            final IntAccess.IntReadAccess i = (IntAccess.IntReadAccess)inputs[0];
+            final IntAccess.IntWriteAccess o = (IntAccess.IntWriteAccess)outputs[0];
+            return () -> o.setIntValue(2 * i.getIntValue());
+        });
+        final VirtualTable table = vtSequentialScan(sourceIds, sources).appendMap(new int[]{0}, twice);
+        try (final Cursor<ReadAccessRow> cursor =
+            createRowAccessible(table, sourceIds, sources, false).createCursor()) {
+            final ResettableCursor<ReadAccessRow> resettable = (ResettableCursor<ReadAccessRow>)cursor;
+            final IntAccess.IntReadAccess value = resettable.access().getAccess(0);
+            final IntAccess.IntReadAccess mapped = resettable.access().getAccess(2);
+            counting.m_numForward.set(0);
+            resettable.reset(8, 10);
+            assertTrue(resettable.forward());
+            assertEquals(10, value.getIntValue());
+            assertEquals(20, mapped.getIntValue());
+            assertTrue(resettable.forward());
+            assertEquals(11, value.getIntValue());
+            assertFalse(resettable.forward());
+            assertTrue(counting.m_numForward.get() <= 3);
+
+            resettable.reset(12, 100);
+            assertTrue(resettable.forward());
+            assertEquals(14, value.getIntValue());
+            assertFalse(resettable.forward());
+
+            resettable.reset(20, 30);
+            assertFalse(resettable.forward());
+
+            resettable.reset(-1, -1);
+            for (int i = 2; i < 15; i++) {
+                assertTrue(resettable.forward());
+                assertEquals(i, value.getIntValue());
+            }
+            assertFalse(resettable.forward());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+
+    @Test
+    public void testConcurrentCursorCreation() throws InterruptedException, ExecutionException {
+        // Many threads create cursors on the same RowAccessible at the same time. The few distinct selections make
+        // the threads request (and build) the same cursor assembly plans concurrently.
+        final int numThreads = 64;
+        for (final boolean useRandomAccess : new boolean[]{false, true}) {
+            final RowAccessible[] sources = dataSequentialScan();
+            final UUID[] sourceIds = new UUID[]{randomUUID()};
+            final VirtualTable table = vtCursorReset(sourceIds, sources, new AtomicInteger());
+            final RowAccessible rowAccessible = createRowAccessible(table, sourceIds, sources, useRandomAccess);
+            final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            try {
+                final CountDownLatch start = new CountDownLatch(1);
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < numThreads; t++) {
+                    final int thread = t;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int k = 0; k < 16; k++) {
+                            final int from = (thread + k) % 8;
+                            final Selection rows = Selection.all().retainRows(from, from + 8);
+                            final boolean allColumns = k % 2 == 0;
+                            try (final Cursor<ReadAccessRow> cursor =
+                                rowAccessible.createCursor(allColumns ? rows : rows.retainColumns(2))) {
+                                final IntAccess.IntReadAccess mapped = cursor.access().getAccess(2);
+                                for (int i = 0; i < 8; i++) {
+                                    assertTrue(cursor.forward());
+                                    final int expected = 15 - from - i;
+                                    if (allColumns) {
+                                        assertEquals(expected, cursor.access().<IntAccess.IntReadAccess> getAccess(0)
+                                            .getIntValue());
+                                    }
+                                    assertEquals(2 * expected, mapped.getIntValue());
+                                }
+                                assertFalse(cursor.forward());
+                            }
+                            assertEquals(16, rowAccessible.size());
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (final Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+
+
+    @Test
+    public void testVirtualTableJobExecutor() throws InterruptedException, ExecutionException {
+        // Many small per-entity tables are executed with the same (shared) VirtualTableExecutor.
+        final ColumnarSchema schema = ColumnarSchema.of(INT, STRING);
+        final UUID[] sourceIds = new UUID[]{randomUUID()};
+        final RowAccessible[] sources = new RowAccessible[]{createEntityTable(schema, 0)};
+        final VirtualTable table = new VirtualTable(sourceIds[0], new SourceTableProperties(sources[0])) //
+            .filterRows(new int[]{0}, RowFilterFactory.intPredicate(i -> i % 2 == 0)) //
+            .appendMap(new int[]{0}, MapperFactory.of(ColumnarSchema.of(INT), (inputs, outputs) -> {
+                final IntAccess.IntReadAccess i = (IntAccess.IntReadAccess)inputs[0];
+                final IntAccess.IntWriteAccess o = (IntAccess.IntWriteAccess)outputs[0];
+                return () -> o.setIntValue(2 * i.getIntValue());
+            }));
+        final GraphVirtualTableExecutor executor = new GraphVirtualTableExecutor(table.getProducingTransform());
+
+        final int numJobs = 1000;
+        try (final VirtualTableJobExecutor jobs = VirtualTableJobExecutor.create(4)) {
+            final List<CompletableFuture<Long>> sums = new ArrayList<>();
+            final List<CompletableFuture<Long>> written = new ArrayList<>();
+            final List<TestRowWriteAccessible> outputs = new ArrayList<>();
+            for (int entity = 0; entity < numJobs; entity++) {
+                final Map<UUID, RowAccessible> inputs = Map.of(sourceIds[0], createEntityTable(schema, entity));
+                sums.add(jobs.submit(executor, inputs, rows -> {
+                    long sum = 0;
+                    try (final Cursor<ReadAccessRow> cursor = rows.createCursor()) {
+                        final IntAccess.IntReadAccess mapped = cursor.access().getAccess(2);
+                        while (cursor.forward()) {
+                            sum += mapped.getIntValue();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return sum;
+                }));
+                final TestRowWriteAccessible output =
+                    RowAccessiblesTestUtils.createRowWriteAccessible(ColumnarSchema.of(INT, STRING, INT));
+                outputs.add(output);
+                written.add(jobs.submitMaterialize(executor, inputs, output));
+            }
+            for (int entity = 0; entity < numJobs; entity++) {
+                // rows of entity e are e, e+1, e+2, e+3; the even ones are mapped to twice their value
+                final int e = entity;
+                final Object[][] expected = IntStream.range(e, e + 4).filter(i -> i % 2 == 0) //
+                    .mapToObj(i -> new Object[]{i, "entity" + e, 2 * i}).toArray(Object[][]::new);
+                assertEquals(Arrays.stream(expected).mapToLong(row -> (int)row[2]).sum(), (long)sums.get(e).get());
+                assertEquals(expected.length, (long)written.get(e).get());
+                assertTableEqualsValues(expected, RowAccessiblesTestUtils.toRowAccessible(outputs.get(e)), false);
+            }
+
+            // jobs must produce a single table
+            final VirtualTable partitioned = table.partitionRoundRobin(2);
+            final CompletableFuture<Long> failed =
+                jobs.submit(new GraphVirtualTableExecutor(partitioned.getProducingTransform()),
+                    Map.of(sourceIds[0], sources[0]), RowAccessible::size);
+            final ExecutionException exception = assertThrows(ExecutionException.class, failed::get);
+            assertTrue(exception.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    private static RowAccessible createEntityTable(final ColumnarSchema schema, final int entity) {
+        final Object[][] values = new Object[4][];
+        Arrays.setAll(values, i -> new Object[]{entity + i, "entity" + entity});
+        return RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(schema, values);
+    }
+
+
+
+    /**
+     * Collects the batches published by a {@link RowAccessiblePublisher}. Requests {@code initialRequest} batches
+     * initially, and (if {@code requestMore}) another one after each received batch.
+     */
+    private static final class BatchCollector implements Flow.Subscriber<RowBatch> {
+
+        private final long m_initialRequest;
+
+        private final boolean m_requestMore;
+
+        private final List<RowBatch> m_batches = new CopyOnWriteArrayList<>();
+
+        private final CompletableFuture<Void> m_done = new CompletableFuture<>();
+
+        private final CompletableFuture<Void> m_firstBatch = new CompletableFuture<>();
+
+        private volatile Flow.Subscription m_subscription;
+
+        BatchCollector(final long initialRequest, final boolean requestMore) {
+            m_initialRequest = initialRequest;
+            m_requestMore = requestMore;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            m_subscription = subscription;
+            subscription.request(m_initialRequest);
+        }
+
+        @Override
+        public void onNext(final RowBatch batch) {
+            m_batches.add(batch);
+            m_firstBatch.complete(null);
+            if (m_requestMore) {
+                m_subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            m_done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            m_done.complete(null);
+        }
+
+        int[] intValues(final int column) {
+            return m_batches.stream().flatMapToInt(batch -> IntStream.range(0, batch.numRows()) //
+                .map(r -> batch.<IntAccess.IntReadAccess> getAccess(column, r).getIntValue())).toArray();
+        }
+    }
+
+    @Test
+    public void testRowAccessiblePublisher() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Publish all rows of a virtual table in batches of 3 rows.
+            final CountingRowAccessible source = new CountingRowAccessible((RandomRowAccessible)dataSequentialScan()[0]);
+            final UUID[] sourceIds = new UUID[]{randomUUID()};
+            final RowAccessible rows = createRowAccessible(vtSequentialScan(sourceIds, new RowAccessible[]{source}),
+                sourceIds, new RowAccessible[]{source}, false);
+            final BatchCollector all = new BatchCollector(1, true);
+            new RowAccessiblePublisher(rows, Selection.all(), 3, executor).subscribe(all);
+            all.m_done.get(10, TimeUnit.SECONDS);
+            assertArrayEquals(new int[]{3, 3, 3, 3, 1}, all.m_batches.stream().mapToInt(RowBatch::numRows).toArray());
+            assertArrayEquals(IntStream.range(2, 15).toArray(), all.intValues(0));
+            assertEquals("row14", all.m_batches.get(4).<StringAccess.StringReadAccess> getAccess(1, 0).getStringValue());
+            assertEquals(1, source.m_numClose.get());
+
+            // Rows are only read as requested, and cancelling closes the cursor.
+            source.m_numForward.set(0);
+            final BatchCollector first = new BatchCollector(1, false);
+            new RowAccessiblePublisher(rows, Selection.all().retainColumns(0), 3, executor).subscribe(first);
+            first.m_firstBatch.get(10, TimeUnit.SECONDS);
+            executor.submit(() -> null).get(); // wait until the publishing task has finished
+            assertEquals(1, first.m_batches.size());
+            assertArrayEquals(new int[]{2, 3, 4}, first.intValues(0));
+            assertEquals(null, first.m_batches.get(0).getAccess(1, 0));
+            assertTrue(source.m_numForward.get() <= 4);
+            assertEquals(1, source.m_numClose.get());
+            first.m_subscription.cancel();
+            executor.submit(() -> null).get();
+            assertEquals(2, source.m_numClose.get());
+            assertFalse(first.m_done.isDone());
+
+            // Requesting a non-positive number of batches is an error.
+            final BatchCollector invalid = new BatchCollector(0, false);
+            new RowAccessiblePublisher(rows, Selection.all(), 3, executor).subscribe(invalid);
+            final ExecutionException exception =
+                assertThrows(ExecutionException.class, () -> invalid.m_done.get(10, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof IllegalArgumentException);
+
+            // Missing values and values of other types are published column-wise.
+            final RowAccessible withMissing = RowAccessiblesTestUtils.createRowAccessibleFromRowWiseValues(
+                ColumnarSchema.of(INT, STRING, DOUBLE), new Object[][]{ //
+                    new Object[]{1, "a", 0.5}, //
+                    new Object[]{null, null, null}, //
+                    new Object[]{3, "c", 1.5}});
+            final BatchCollector missing = new BatchCollector(1, true);
+            new RowAccessiblePublisher(withMissing, Selection.all(), 2, executor).subscribe(missing);
+            missing.m_done.get(10, TimeUnit.SECONDS);
+            final RowBatch batch = missing.m_batches.get(0);
+            assertEquals("a", batch.<StringAccess.StringReadAccess> getAccess(1, 0).getStringValue());
+            assertTrue(batch.getAccess(0, 1).isMissing());
+            assertTrue(batch.getAccess(1, 1).isMissing());
+            assertTrue(batch.getAccess(2, 1).isMissing());
+            assertFalse(batch.getAccess(2, 0).isMissing());
+            assertEquals(0.5, batch.<DoubleAccess.DoubleReadAccess> getAccess(2, 0).getDoubleValue(), 0);
+            assertEquals(1.5,
+                missing.m_batches.get(1).<DoubleAccess.DoubleReadAccess> getAccess(2, 0).getDoubleValue(), 0);
+
+            // Publish the rows of a VirtualTable directly.
+            final RowAccessible[] sources = dataSequentialScan();
+            final BatchCollector fromTable = new BatchCollector(1, true);
+            RowAccessiblePublisher.of(vtSequentialScan(sourceIds, sources), Map.of(sourceIds[0], sources[0]))
+                .subscribe(fromTable);
+            fromTable.m_done.get(10, TimeUnit.SECONDS);
+            assertArrayEquals(IntStream.range(2, 15).toArray(), fromTable.intValues(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+
+    @Test
+    public void testSharedScanExecutor() throws IOException {
+        final MapperFactory twice = MapperFactory.of(ColumnarSchema.of(INT), (inputs, outputs) -> {
+            final IntAccess.IntReadAccess i = (IntAccess.IntReadAccess)inputs[0];
+            final IntAccess.IntWriteAccess o = (IntAccess.IntWriteAccess)outputs[0];
+            return () -> o.setIntValue(2 * i.getIntValue());
+        });
+        final CountingRowAccessible source = new CountingRowAccessible((RandomRowAccessible)dataSequentialScan()[0]);
+        final UUID[] sourceIds = new UUID[]{randomUUID()};
+        final RowAccessible[] sources = new RowAccessible[]{source};
+        final Map<UUID, RowAccessible> inputs = Map.of(sourceIds[0], source);
+        final VirtualTable sliced = vtSequentialScan(sourceIds, sources);
+        final VirtualTable mapped = new VirtualTable(sourceIds[0], new SourceTableProperties(source)) //
+            .appendMap(new int[]{0}, twice).filterColumns(2);
+
+        // Two outputs and an observer read the source in a single scan, with a buffer of only 2 rows.
+        final Object[][] expectedSliced = new Object[13][];
+        Arrays.setAll(expectedSliced, i -> new Object[]{i + 2, "row" + (i + 2)});
+        final Object[][] expectedMapped = new Object[16][];
+        Arrays.setAll(expectedMapped, i -> new Object[]{2 * i});
+        final TestRowWriteAccessible slicedOutput = RowAccessiblesTestUtils.createRowWriteAccessible(sliced.getSchema());
+        final TestRowWriteAccessible mappedOutput = RowAccessiblesTestUtils.createRowWriteAccessible(mapped.getSchema());
+        final long[] sum = new long[1];
+        final SharedScanExecutor.RowConsumer observer = cursor -> {
+            final IntAccess.IntReadAccess value = cursor.access().getAccess(0);
+            while (cursor.forward()) {
+                sum[0] += value.getIntValue();
+            }
+        };
+        final List<TableTransform> tables = List.of(sliced.getProducingTransform(), mapped.getProducingTransform(),
+            new VirtualTable(sourceIds[0], new SourceTableProperties(source)).getProducingTransform());
+        final SharedScanExecutor executor = new SharedScanExecutor(tables, 2, runnable -> new Thread(runnable).start());
+        executor.execute(inputs, List.of( //
+            cursor -> assertEquals(13, copyRows(cursor, slicedOutput)), //
+            cursor -> assertEquals(16, copyRows(cursor, mappedOutput)), //
+            observer));
+        assertTableEqualsValues(expectedSliced, RowAccessiblesTestUtils.toRowAccessible(slicedOutput), true);
+        assertTableEqualsValues(expectedMapped, RowAccessiblesTestUtils.toRowAccessible(mappedOutput), true);
+        assertEquals(120, sum[0]);
+        assertEquals(1, source.m_numClose.get());
+        assertTrue(source.m_numForward.get() <= 17);
+
+        // Writing to RowWriteAccessibles (with the default buffer size and threads)
+        source.m_numClose.set(0);
+        final TestRowWriteAccessible slicedOutput2 = RowAccessiblesTestUtils.createRowWriteAccessible(sliced.getSchema());
+        final TestRowWriteAccessible mappedOutput2 = RowAccessiblesTestUtils.createRowWriteAccessible(mapped.getSchema());
+        final long[] numRows = new SharedScanExecutor(tables.subList(0, 2)).write(inputs, List.of(slicedOutput2, mappedOutput2));
+        assertArrayEquals(new long[]{13, 16}, numRows);
+        assertTableEqualsValues(expectedSliced, RowAccessiblesTestUtils.toRowAccessible(slicedOutput2), true);
+        assertTableEqualsValues(expectedMapped, RowAccessiblesTestUtils.toRowAccessible(mappedOutput2), true);
+        assertEquals(1, source.m_numClose.get());
+
+        // A table that reads the source twice in sequence (so the second read can't keep up with the first) still
+        // gives correct results, by falling back to a private scan.
+        // (TestRowWriteAccessible holds at most 16 rows, so we concatenate two slices of 8 rows.)
+        final VirtualTable half = new VirtualTable(sourceIds[0], new SourceTableProperties(source)).slice(4, 12);
+        final VirtualTable twiceSliced = half.concatenate(half);
+        final Object[][] expectedTwice = new Object[16][];
+        Arrays.setAll(expectedTwice, i -> new Object[]{4 + i % 8, "row" + (4 + i % 8)});
+        source.m_numClose.set(0);
+        final TestRowWriteAccessible twiceOutput = RowAccessiblesTestUtils.createRowWriteAccessible(twiceSliced.getSchema());
+        final TestRowWriteAccessible mappedOutput3 = RowAccessiblesTestUtils.createRowWriteAccessible(mapped.getSchema());
+        new SharedScanExecutor(List.of(twiceSliced.getProducingTransform(), mapped.getProducingTransform()), 2,
+            runnable -> new Thread(runnable).start()).write(inputs, List.of(twiceOutput, mappedOutput3));
+        assertTableEqualsValues(expectedTwice, RowAccessiblesTestUtils.toRowAccessible(twiceOutput), true);
+        assertTableEqualsValues(expectedMapped, RowAccessiblesTestUtils.toRowAccessible(mappedOutput3), true);
+        assertEquals(2, source.m_numClose.get()); // the shared scan, and the private scan of the second slice
+
+        // Without maxWait, a table that is ahead waits for a slow consumer to catch up instead of detaching.
+        source.m_numClose.set(0);
+        source.m_numForward.set(0);
+        final TestRowWriteAccessible mappedOutput4 = RowAccessiblesTestUtils.createRowWriteAccessible(mapped.getSchema());
+        final long[] slowSum = new long[1];
+        new SharedScanExecutor(tables.subList(1, 3), 2, null, runnable -> new Thread(runnable).start()).execute(inputs,
+            List.of(cursor -> assertEquals(16, copyRows(cursor, mappedOutput4)), cursor -> {
+                final IntAccess.IntReadAccess value = cursor.access().getAccess(0);
+                while (cursor.forward()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                    slowSum[0] += value.getIntValue();
+                }
+            }));
+        assertTableEqualsValues(expectedMapped, RowAccessiblesTestUtils.toRowAccessible(mappedOutput4), true);
+        assertEquals(120, slowSum[0]);
+        assertEquals(1, source.m_numClose.get());
+        assertTrue(source.m_numForward.get() <= 17);
+        assertThrows(IllegalArgumentException.class,
+            () -> new SharedScanExecutor(tables, 2, Duration.ofSeconds(-1), Runnable::run));
+
+        // The number of consumers must match the number of tables
+        assertThrows(IllegalArgumentException.class, () -> executor.execute(inputs, List.of(observer)));
+    }
+
+    /**
+     * A {@code RowWriteAccessible} whose {@code WriteCursor} fails to commit rows.
+     */
+    private static RowWriteAccessible failingRowWriteAccessible(final ColumnarSchema schema) {
+        return new RowWriteAccessible() {
+            @Override
+            public ColumnarSchema getSchema() {
+                return schema;
+            }
+
+            @Override
+            public WriteCursor<WriteAccessRow> getWriteCursor() {
+                final WriteCursor<WriteAccessRow> delegate =
+                    RowAccessiblesTestUtils.createRowWriteAccessible(schema).getWriteCursor();
+                return new WriteCursor<>() {
+                    @Override
+                    public WriteAccessRow access() {
+                        return delegate.access();
+                    }
+
+                    @Override
+                    public void commit() throws IOException {
+                        throw new IOException("commit failed");
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void finish() throws IOException {
+                        delegate.finish();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+                };
+            }
+
+            @Override
+            public void close() {
+                // nothing to close
+            }
+        };
+    }
+
+    @Test(timeout = 10000)
+    public void testSharedScanExecutorOppositeOrder() throws IOException {
+        final UUID[] sourceIds = new UUID[]{randomUUID(), randomUUID()};
+        final RowAccessible[] sources = new RowAccessible[]{dataSequentialScan()[0], dataSequentialScan()[0]};
+        final Map<UUID, RowAccessible> inputs = Map.of(sourceIds[0], sources[0], sourceIds[1], sources[1]);
+        final VirtualTable a = new VirtualTable(sourceIds[0], new SourceTableProperties(sources[0]));
+        final VirtualTable b = new VirtualTable(sourceIds[1], new SourceTableProperties(sources[1]));
+        final List<TableTransform> tables =
+            List.of(a.concatenate(b).getProducingTransform(), b.concatenate(a).getProducingTransform());
+
+        // Two tables that read two shared sources in opposite order wait for each other. This is detected, instead
+        // of waiting indefinitely.
+        final SharedScanExecutor executor =
+            new SharedScanExecutor(tables, 2, null, runnable -> new Thread(runnable).start());
+        assertArrayEquals(new long[]{32, 32}, executor.run(inputs));
+
+        // A table whose cursor is closed early no longer holds back the other table (even at sources that it never
+        // started to read).
+        final long[] numRows = new long[1];
+        executor.execute(inputs, List.of( //
+            cursor -> assertTrue(cursor.forward()), //
+            cursor -> numRows[0] = CapExecutor.push(cursor, () -> {
+            })));
+        assertEquals(32, numRows[0]);
+    }
+
+    private static long copyRows(final Cursor<ReadAccessRow> cursor, final TestRowWriteAccessible output) {
+        long numRows = 0;
+        try (var writeCursor = output.getWriteCursor()) {
+            while (cursor.forward()) {
+                writeCursor.access().setFrom(cursor.access());
+                writeCursor.commit();
+                numRows++;
+            }
+            writeCursor.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return numRows;
+    }
+
+
+
+    @Test
+    public void testPushExecution() throws IOException {
+        final MapperFactory twice = MapperFactory.of(ColumnarSchema.of(INT), (inputs, outputs) -> {
+            final IntAccess.IntReadAccess i = (IntAccess.IntReadAccess)inputs[0];
+            final IntAccess.IntWriteAccess o = (IntAccess.IntWriteAccess)outputs[0];
+            return () -> o.setIntValue(2 * i.getIntValue());
+        });
+        final List<Object[]> observations = new ArrayList<>();
+        final ObserverFactory observer = inputs -> {
+            final IntAccess.IntReadAccess mapped = (IntAccess.IntReadAccess)inputs[0];
+            final LongAccess.LongReadAccess index = (LongAccess.LongReadAccess)inputs[1];
+            return () -> observations.add(new Object[]{mapped.getIntValue(), index.getLongValue()});
+        };
+        final RowAccessible[] sources = dataSequentialScan();
+        final UUID[] sourceIds = new UUID[]{randomUUID()};
+        final Map<UUID, RowAccessible> inputs = Map.of(sourceIds[0], sources[0]);
+        final VirtualTable table = new VirtualTable(sourceIds[0], new SourceTableProperties(sources[0])) //
+            .appendMap(new int[]{0}, twice) //
+            .filterRows(new int[]{0}, RowFilterFactory.intPredicate(i -> i % 3 != 0)) //
+            .appendRowIndex() //
+            .observe(new int[]{2, 3}, observer);
+        final int[] rows = IntStream.range(0, 16).filter(i -> i % 3 != 0).toArray();
+        final Object[][] expectedValues = new Object[rows.length][];
+        final Object[][] expectedObservations = new Object[rows.length][];
+        Arrays.setAll(expectedValues, k -> new Object[]{rows[k], "row" + rows[k], 2 * rows[k], (long)k});
+        Arrays.setAll(expectedObservations, k -> new Object[]{2 * rows[k], (long)k});
+
+        // Pushing rows through the CAP gives the same rows and observations as pulling them.
+        final RowAccessible rowAccessible = createRowAccessible(table, sourceIds, sources, false);
+        final List<Object[]> pushed = new ArrayList<>();
+        try (final Cursor<ReadAccessRow> cursor = rowAccessible.createCursor()) {
+            final ReadAccessRow access = cursor.access();
+            final long numRows = CapExecutor.push(cursor, () -> pushed.add(new Object[]{
+                access.<IntAccess.IntReadAccess> getAccess(0).getIntValue(),
+                access.<StringAccess.StringReadAccess> getAccess(1).getStringValue(),
+                access.<IntAccess.IntReadAccess> getAccess(2).getIntValue(),
+                access.<LongAccess.LongReadAccess> getAccess(3).getLongValue()}));
+            assertEquals(rows.length, numRows);
+            assertFalse(cursor.forward());
+        }
+        assertArrayEquals(expectedValues, pushed.toArray());
+        assertArrayEquals(expectedObservations, observations.toArray());
+
+        // A cursor that was reset to a row range pushes only the rows in the range.
+        observations.clear();
+        try (final Cursor<ReadAccessRow> cursor = rowAccessible.createCursor()) {
+            ((ResettableCursor<ReadAccessRow>)cursor).reset(2, 5);
+            final IntAccess.IntReadAccess value = cursor.access().getAccess(0);
+            final List<Integer> values = new ArrayList<>();
+            assertEquals(3, CapExecutor.push(cursor, () -> values.add(value.getIntValue())));
+            assertEquals(List.of(rows[2], rows[3], rows[4]), values);
+        }
+
+        // Write the rows of the table to a RowWriteAccessible.
+        observations.clear();
+        final GraphVirtualTableExecutor executor = new GraphVirtualTableExecutor(table.getProducingTransform());
+        final TestRowWriteAccessible output = RowAccessiblesTestUtils.createRowWriteAccessible(table.getSchema());
+        assertEquals(rows.length, executor.write(inputs, output));
+        assertTableEqualsValues(expectedValues, RowAccessiblesTestUtils.toRowAccessible(output), true);
+        assertArrayEquals(expectedObservations, observations.toArray());
+
+        // An IOException from committing a row is passed on (not wrapped in an UncheckedIOException).
+        final RowWriteAccessible failing = failingRowWriteAccessible(table.getSchema());
+        assertThrows(IOException.class, () -> executor.write(inputs, failing));
+        assertThrows(IOException.class, () -> new SharedScanExecutor(List.of(table.getProducingTransform())) //
+            .write(inputs, List.of(failing)));
+
+        // Run the table only for the observations, also partitioned, and with shared scans.
+        observations.clear();
+        assertEquals(rows.length, executor.run(inputs));
+        assertArrayEquals(expectedObservations, observations.toArray());
+        observations.clear();
+        final GraphVirtualTableExecutor partitioned =
+            new GraphVirtualTableExecutor(table.partitionRoundRobin(2).getProducingTransform());
+        assertEquals(rows.length, partitioned.run(inputs));
+        assertArrayEquals(expectedObservations, observations.toArray());
+        observations.clear();
+        final VirtualTable other = new VirtualTable(sourceIds[0], new SourceTableProperties(sources[0]));
+        final long[] numRows = new SharedScanExecutor(List.of(table.getProducingTransform(), other.getProducingTransform()))
+            .run(inputs);
+        assertArrayEquals(new long[]{rows.length, 16}, numRows);
+        assertArrayEquals(expectedObservations, observations.toArray());
+    }
+
+
+
+    @Test
+    public void testParallelMaterializer() throws IOException {
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final MapperFactory twice = MapperFactory.of(ColumnarSchema.of(INT), (inputs, outputs) -> {
+            final IntAccess.IntReadAccess i = (IntAccess.IntReadAccess)inputs[0];
+            final IntAccess.IntWriteAccess o = (IntAccess.IntWriteAccess)outputs[0];
+            return () -> {
+                if (i.getIntValue() == 13 && threads.contains("fail")) {
+                    throw new IllegalStateException("mapper failed");
+                }
+                threads.add(Thread.currentThread().getName());
+                o.setIntValue(2 * i.getIntValue());
+            };
+        });
+        final RowAccessible[] sources = dataSequentialScan();
+        final UUID[] sourceIds = new UUID[]{randomUUID()};
+        final Map<UUID, RowAccessible> inputs = Map.of(sourceIds[0], sources[0]);
+        final VirtualTable table = new VirtualTable(sourceIds[0], new SourceTableProperties(sources[0])) //
+            .appendMap(new int[]{0}, twice);
+        final Object[][] expectedValues = new Object[16][];
+        Arrays.setAll(expectedValues, i -> new Object[]{i, "row" + i, 2 * i});
+
+        // A random-access table is computed in batches of 3 rows by 4 threads, and written in order.
+        final TestRowWriteAccessible output = RowAccessiblesTestUtils.createRowWriteAccessible(table.getSchema());
+        assertEquals(16, ParallelMaterializer.materialize(table, inputs, output, 4, 3));
+        assertTableEqualsValues(expectedValues, RowAccessiblesTestUtils.toRowAccessible(output), true);
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+
+        // A table without random access is written sequentially.
+        threads.clear();
+        final VirtualTable filtered = table.filterRows(new int[]{0}, RowFilterFactory.intPredicate(i -> i % 2 == 0));
+        final Object[][] expectedFiltered = new Object[8][];
+        Arrays.setAll(expectedFiltered, i -> expectedValues[2 * i]);
+        final TestRowWriteAccessible filteredOutput =
+            RowAccessiblesTestUtils.createRowWriteAccessible(filtered.getSchema());
+        assertEquals(8, ParallelMaterializer.materialize(filtered, inputs, filteredOutput, 4, 3));
+        assertTableEqualsValues(expectedFiltered, RowAccessiblesTestUtils.toRowAccessible(filteredOutput), true);
+        assertEquals(Set.of(Thread.currentThread().getName()), threads);
+
+        // A failure while computing a batch is re-thrown.
+        threads.add("fail");
+        final TestRowWriteAccessible failedOutput = RowAccessiblesTestUtils.createRowWriteAccessible(table.getSchema());
+        final CountingRowAccessible counting = new CountingRowAccessible((RandomRowAccessible)sources[0]);
+        final VirtualTable countingTable = new VirtualTable(sourceIds[0], new SourceTableProperties(counting)) //
+            .appendMap(new int[]{0}, twice);
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> ParallelMaterializer
+            .materialize(countingTable, Map.of(sourceIds[0], counting), failedOutput, 4, 3));
+        assertEquals("mapper failed", exception.getMessage());
+
+        // All worker cursors are closed when materialize() returns
+        assertTrue(counting.m_numCreate.get() > 0);
+        assertEquals(counting.m_numCreate.get(), counting.m_numClose.get());
+    }
 }
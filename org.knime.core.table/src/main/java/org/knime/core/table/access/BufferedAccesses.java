@@ -412,6 +412,7 @@ private static final class BufferedFloatAccess extends AbstractBufferedAccess
             @Override
             public void setFloatValue(final float value) {
                 m_value = value;
+                m_isMissing = false;
             }
 
             @Override
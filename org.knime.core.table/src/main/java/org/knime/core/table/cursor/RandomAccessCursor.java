@@ -45,6 +45,8 @@
  */
 package org.knime.core.table.cursor;
 
+import java.util.function.IntConsumer;
+
 /**
  * Cursor that provides random access via the {@link #moveTo(long)} method.
  *
@@ -63,4 +65,24 @@
      * @throws IndexOutOfBoundsException if {@code row<0} or the table contains less than {@code row+1} rows.
      */
     void moveTo(long row);
+
+    /**
+     * Move this cursor to each of the given {@code rows} in turn, and call {@code action.accept(i)} while this
+     * cursor is at row {@code rows[i]}. This is called exactly once for each {@code i}.
+     * <p>
+     * The rows may be visited in any order, and the position of this cursor afterwards is unspecified. This allows
+     * implementations to gather many rows more efficiently than by separate {@link #moveTo(long)} calls, for example
+     * by visiting the rows in ascending order, by moving to duplicate rows only once, and by reading runs of
+     * consecutive rows sequentially. The default implementation visits the rows in the given order.
+     *
+     * @param rows indices of the rows to move to
+     * @param action called with the index into {@code rows} of each visited row
+     * @throws IndexOutOfBoundsException if any row is {@code <0} or the table contains less than {@code row+1} rows.
+     */
+    default void moveTo(final long[] rows, final IntConsumer action) {
+        for (int i = 0; i < rows.length; i++) {
+            moveTo(rows[i]);
+            action.accept(i);
+        }
+    }
 }
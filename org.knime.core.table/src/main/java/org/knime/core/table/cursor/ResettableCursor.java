@@ -0,0 +1,87 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.cursor;
+
+/**
+ * Cursor that can be rewound to iterate its rows (or a range of its rows) again.
+ * <p>
+ * Resetting a cursor is typically much cheaper than creating a new one: Everything that was set up for the cursor
+ * (for example, the operators executing a virtual table, their buffers, and mapper instances) is re-used. The
+ * {@link #access()} remains the same instance.
+ *
+ * @param <A> type of access
+ *
+ * @noreference This interface is not intended to be referenced by clients.
+ * @noimplement This interface is not intended to be implemented by clients.
+ */
+public interface ResettableCursor<A> extends Cursor<A> {
+
+    /**
+     * Rewind this cursor to before its first row. The next {@link #forward()} provides the first row again.
+     * <p>
+     * This may also be called after {@link #close()}, in which case the cursor is re-opened (and must be closed
+     * again).
+     */
+    default void reset() {
+        reset(-1, -1);
+    }
+
+    /**
+     * Rewind this cursor to before the first row of the given {@code [from,to)} row range. Subsequent calls to
+     * {@link #forward()} provide only the rows in that range. The range is relative to the rows of the selection that
+     * this cursor was created with (not to the range of a previous {@code reset}).
+     * <p>
+     * {@code from < 0} indicates an unconstrained range. {@code to < from} is permitted and indicates an empty row
+     * range (if {@code from >= 0}).
+     * <p>
+     * This may also be called after {@link #close()}, in which case the cursor is re-opened (and must be closed
+     * again).
+     *
+     * @param from start of row range (inclusive)
+     * @param to end of row range (exclusive)
+     */
+    void reset(long from, long to);
+}
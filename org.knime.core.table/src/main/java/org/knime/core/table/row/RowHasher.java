@@ -0,0 +1,273 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.row;
+
+import java.util.Arrays;
+
+import org.knime.core.table.access.BooleanAccess.BooleanReadAccess;
+import org.knime.core.table.access.ByteAccess.ByteReadAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleReadAccess;
+import org.knime.core.table.access.FloatAccess.FloatReadAccess;
+import org.knime.core.table.access.IntAccess.IntReadAccess;
+import org.knime.core.table.access.ListAccess.ListReadAccess;
+import org.knime.core.table.access.LongAccess.LongReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.StringAccess.StringReadAccess;
+import org.knime.core.table.access.StructAccess.StructReadAccess;
+import org.knime.core.table.access.VarBinaryAccess.VarBinaryReadAccess;
+import org.knime.core.table.schema.BooleanDataSpec;
+import org.knime.core.table.schema.ByteDataSpec;
+import org.knime.core.table.schema.ColumnarSchema;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.schema.DoubleDataSpec;
+import org.knime.core.table.schema.FloatDataSpec;
+import org.knime.core.table.schema.IntDataSpec;
+import org.knime.core.table.schema.ListDataSpec;
+import org.knime.core.table.schema.LongDataSpec;
+import org.knime.core.table.schema.StringDataSpec;
+import org.knime.core.table.schema.StructDataSpec;
+import org.knime.core.table.schema.VarBinaryDataSpec;
+import org.knime.core.table.schema.VoidDataSpec;
+
+/**
+ * Computes 64-bit hash codes of the current values of selected columns of a {@link ReadAccessRow}.
+ * <p>
+ * Equal values have equal hash codes. Hashing does not allocate (except for reading var-binary values, if the access
+ * does). The hash codes are not persistent, they may change between versions.
+ */
+public final class RowHasher {
+
+    /**
+     * Computes a 64-bit hash code of the current value of a {@code ReadAccess}. The value must not be missing.
+     */
+    @FunctionalInterface
+    public interface AccessHasher {
+
+        /**
+         * @param access the access to hash. The current value must not be missing.
+         * @return the hash code of the current value of {@code access}
+         */
+        long hash(ReadAccess access);
+    }
+
+    private static final long SEED = 0x9e3779b97f4a7c15L;
+
+    private static final long MISSING = 0x5851f42d4c957f2dL;
+
+    private final int[] m_columns;
+
+    private final AccessHasher[] m_hashers;
+
+    private RowHasher(final int[] columns, final AccessHasher[] hashers) {
+        m_columns = columns;
+        m_hashers = hashers;
+    }
+
+    /**
+     * Create a {@code RowHasher} for rows with the given {@code schema}, hashing the values of the given
+     * {@code columns}.
+     *
+     * @param schema the schema of the rows to hash
+     * @param columns indices of the columns to hash
+     * @return a new {@code RowHasher}
+     */
+    public static RowHasher create(final ColumnarSchema schema, final int... columns) {
+        final AccessHasher[] hashers = new AccessHasher[columns.length];
+        Arrays.setAll(hashers, i -> hasher(schema.getSpec(columns[i])));
+        return new RowHasher(columns.clone(), hashers);
+    }
+
+    /**
+     * Compute the hash code of the current values of the selected columns of {@code row}.
+     *
+     * @param row the row to hash
+     * @return the hash code
+     */
+    public long hash(final ReadAccessRow row) {
+        long h = SEED;
+        for (int i = 0; i < m_columns.length; i++) {
+            h = combine(h, hashNullable(m_hashers[i], row.getAccess(m_columns[i])));
+        }
+        return mix(h);
+    }
+
+    /**
+     * Create an {@code AccessHasher} for accesses with the given {@code spec}.
+     *
+     * @param spec the DataSpec of the accesses to hash
+     * @return hasher
+     */
+    public static AccessHasher hasher(final DataSpec spec) {
+        return spec.accept(ValueHashers.INSTANCE);
+    }
+
+    private static long hashNullable(final AccessHasher hasher, final ReadAccess access) {
+        return access.isMissing() ? MISSING : hasher.hash(access);
+    }
+
+    private static long combine(final long h, final long value) {
+        return Long.rotateLeft(h ^ (value * 0x87c37b91114253d5L), 31) * 0x4cf5ad432745937fL;
+    }
+
+    /**
+     * The "fmix64" finalizer of MurmurHash3.
+     */
+    private static long mix(final long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class ValueHashers implements DataSpec.Mapper<AccessHasher> {
+
+        static final ValueHashers INSTANCE = new ValueHashers();
+
+        @Override
+        public AccessHasher visit(final BooleanDataSpec spec) {
+            return a -> ((BooleanReadAccess)a).getBooleanValue() ? 1 : 0;
+        }
+
+        @Override
+        public AccessHasher visit(final ByteDataSpec spec) {
+            return a -> ((ByteReadAccess)a).getByteValue();
+        }
+
+        @Override
+        public AccessHasher visit(final DoubleDataSpec spec) {
+            return a -> Double.doubleToLongBits(((DoubleReadAccess)a).getDoubleValue());
+        }
+
+        @Override
+        public AccessHasher visit(final FloatDataSpec spec) {
+            return a -> Float.floatToIntBits(((FloatReadAccess)a).getFloatValue());
+        }
+
+        @Override
+        public AccessHasher visit(final IntDataSpec spec) {
+            return a -> ((IntReadAccess)a).getIntValue();
+        }
+
+        @Override
+        public AccessHasher visit(final LongDataSpec spec) {
+            return a -> ((LongReadAccess)a).getLongValue();
+        }
+
+        @Override
+        public AccessHasher visit(final VarBinaryDataSpec spec) {
+            return a -> {
+                final byte[] bytes = ((VarBinaryReadAccess)a).getByteArray();
+                long h = combine(SEED, bytes.length);
+                long word = 0;
+                for (int i = 0; i < bytes.length; i++) {
+                    word = (word << 8) | (bytes[i] & 0xff);
+                    if ((i & 7) == 7) {
+                        h = combine(h, word);
+                        word = 0;
+                    }
+                }
+                return combine(h, word);
+            };
+        }
+
+        @Override
+        public AccessHasher visit(final VoidDataSpec spec) {
+            return a -> 0;
+        }
+
+        @Override
+        public AccessHasher visit(final StructDataSpec spec) {
+            final int size = spec.size();
+            final AccessHasher[] inner = new AccessHasher[size];
+            Arrays.setAll(inner, i -> hasher(spec.getDataSpec(i)));
+            return a -> {
+                final StructReadAccess struct = (StructReadAccess)a;
+                long h = SEED;
+                for (int i = 0; i < size; i++) {
+                    h = combine(h, hashNullable(inner[i], struct.getAccess(i)));
+                }
+                return h;
+            };
+        }
+
+        @Override
+        public AccessHasher visit(final ListDataSpec listDataSpec) {
+            final AccessHasher inner = hasher(listDataSpec.getInner());
+            return a -> {
+                final ListReadAccess list = (ListReadAccess)a;
+                final int size = list.size();
+                final ReadAccess element = list.getAccess();
+                long h = combine(SEED, size);
+                for (int i = 0; i < size; i++) {
+                    list.setIndex(i);
+                    h = combine(h, list.isMissing(i) ? MISSING : inner.hash(element));
+                }
+                return h;
+            };
+        }
+
+        @Override
+        public AccessHasher visit(final StringDataSpec spec) {
+            return a -> {
+                final String value = ((StringReadAccess)a).getStringValue();
+                final int length = value.length();
+                long h = combine(SEED, length);
+                long word = 0;
+                for (int i = 0; i < length; i++) {
+                    word = (word << 16) | value.charAt(i);
+                    if ((i & 3) == 3) {
+                        h = combine(h, word);
+                        word = 0;
+                    }
+                }
+                return combine(h, word);
+            };
+        }
+    }
+}
@@ -55,6 +55,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 import org.knime.core.table.cursor.Cursor;
@@ -63,14 +64,26 @@
 import org.knime.core.table.schema.ColumnarSchema;
 import org.knime.core.table.schema.DataSpec;
 import org.knime.core.table.schema.DataSpecs.DataSpecWithTraits;
+import org.knime.core.table.schema.LongDataSpec;
 import org.knime.core.table.schema.traits.DataTraits;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.Aggregation;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.Window;
 import org.knime.core.table.virtual.spec.AppendMapTransformSpec;
 import org.knime.core.table.virtual.spec.AppendMissingValuesTransformSpec;
 import org.knime.core.table.virtual.spec.AppendTransformSpec;
 import org.knime.core.table.virtual.spec.ConcatenateTransformSpec;
+import org.knime.core.table.virtual.spec.DistinctTransformSpec;
+import org.knime.core.table.virtual.spec.ExchangeTransformSpec;
+import org.knime.core.table.virtual.spec.ExchangeTransformSpec.Partitioning;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec.FlatMapperFactory;
+import org.knime.core.table.virtual.spec.JoinTransformSpec;
+import org.knime.core.table.virtual.spec.JoinTransformSpec.JoinType;
 import org.knime.core.table.virtual.spec.MapTransformSpec;
 import org.knime.core.table.virtual.spec.MapTransformSpec.MapperFactory;
 import org.knime.core.table.virtual.spec.MapTransformUtils;
+import org.knime.core.table.virtual.spec.MergeSortedTransformSpec;
 import org.knime.core.table.virtual.spec.ObserverTransformSpec;
 import org.knime.core.table.virtual.spec.ObserverTransformSpec.ObserverFactory;
 import org.knime.core.table.virtual.spec.ObserverTransformUtils;
@@ -80,10 +93,12 @@
 import org.knime.core.table.virtual.spec.RowIndexTransformSpec;
 import org.knime.core.table.virtual.spec.SelectColumnsTransformSpec;
 import org.knime.core.table.virtual.spec.SliceTransformSpec;
+import org.knime.core.table.virtual.spec.SortTransformSpec;
 import org.knime.core.table.virtual.spec.SourceTableProperties;
 import org.knime.core.table.virtual.spec.SourceTableProperties.CursorType;
 import org.knime.core.table.virtual.spec.SourceTransformSpec;
 import org.knime.core.table.virtual.spec.TableTransformSpec;
+import org.knime.core.table.virtual.spec.TakeTransformSpec;
 
 import com.google.common.collect.Collections2;
 
@@ -102,12 +117,8 @@ public final class VirtualTable {
     //     Resulting table doesn't know size but can be iterated.
 
     // 2. Additional methods:
-    // --- FlatMap (Row to Rows)
     // --- Predicate<Row>
-    // --- aggregate() - e.g. sum over column or mean or
-    // --- (later) sort() with indication that table is sorted
     // --- (later) join() ...
-    // --- for infinite case (later): rows to row (windowing aggregate)
 
     // 3. Optimization of graph
     // --- simple optimization can be done while actually building the graph (e.g. squash two subsequent column filters
@@ -117,9 +128,6 @@ public final class VirtualTable {
 
     // 4. make all of that an interface and provide proper naming
 
-    // Regarding the sized vs unsized, unsorted vs sorted, etc. distinctions: check how Java 8 streams do this ("stream
-    // characteristics").
-
     /**
      * Construct a VirtualTable that wraps a source table with the given UUID and properties.
      *
@@ -319,6 +327,22 @@ public VirtualTable map(final int[] columnIndices,
         return appendRowIndex().map(columns, factory);
     }
 
+    /**
+     * Create a {@code new VirtualTable} in which each row of this {@code VirtualTable} is replaced by zero or more
+     * rows. The new rows consist of the columns of the original row, followed by the columns produced by a
+     * {@link FlatMapTransformSpec.FlatMapper FlatMapper}. The flat mapper reads the given {@code columnIndices} of the
+     * original row (in the given order) and produces the new rows one at a time, so they are never buffered.
+     *
+     * @param columnIndices the indices of the columns that are inputs to the flat mapper
+     * @param flatMapperFactory creates flat mappers
+     * @return the flat-mapped table
+     */
+    public VirtualTable flatMap(final int[] columnIndices, final FlatMapperFactory flatMapperFactory) {
+        final TableTransformSpec transformSpec = new FlatMapTransformSpec(columnIndices, flatMapperFactory);
+        final ColumnarSchema schema = ColumnarSchemas.append(List.of(m_schema, flatMapperFactory.getOutputSchema()));
+        return new VirtualTable(new TableTransform(m_transform, transformSpec), schema);
+    }
+
     /**
      * Create a {@code new VirtualTable} by including only rows from this {@code
      * VirtualTable} that match a given predicate. This is defined by an array of {@code n} column indices that form the
@@ -339,6 +363,281 @@ public VirtualTable filterRows(final int[] columnIndices, final RowFilterFactory
         return new VirtualTable(new TableTransform(m_transform, transformSpec), m_schema);
     }
 
+    /**
+     * Sort the rows of this table by the values in the given key columns.
+     * <p>
+     * Rows are compared by the first key column, ties are broken by the second key column, and so on. Missing values
+     * come last in ascending order and first in descending order. The sort is stable.
+     * <p>
+     * Sorting is a blocking operation: the whole input is consumed before the first row of the sorted table is
+     * available. Up to {@link SortTransformSpec#DEFAULT_MAX_BUFFERED_ROWS} rows are sorted in memory. Larger inputs
+     * are sorted in runs which are spilled to disk and merged.
+     *
+     * @param columnIndices the indices of the key columns (in order of precedence)
+     * @param ascending for each key column, whether to sort in ascending ({@code true}) or descending ({@code false})
+     *            order
+     * @return the sorted table
+     */
+    public VirtualTable sort(final int[] columnIndices, final boolean[] ascending) {
+        return sort(columnIndices, ascending, SortTransformSpec.DEFAULT_MAX_BUFFERED_ROWS);
+    }
+
+    /**
+     * Sort the rows of this table by the values in the given key columns. (See {@link #sort(int[], boolean[])}.)
+     *
+     * @param columnIndices the indices of the key columns (in order of precedence)
+     * @param ascending for each key column, whether to sort in ascending ({@code true}) or descending ({@code false})
+     *            order
+     * @param maxBufferedRows maximum number of rows to sort in memory before spilling sorted runs to disk
+     * @return the sorted table
+     */
+    public VirtualTable sort(final int[] columnIndices, final boolean[] ascending, final long maxBufferedRows) {
+        final TableTransformSpec transformSpec = new SortTransformSpec(columnIndices, ascending, maxBufferedRows);
+        return new VirtualTable(new TableTransform(m_transform, transformSpec), m_schema);
+    }
+
+    /**
+     * Get the first {@code k} rows of this table, when sorted by the values in the given key columns. This is
+     * equivalent to {@code sort(columnIndices, ascending).slice(0, k)}.
+     * <p>
+     * Only the {@code k} smallest rows seen so far are buffered in a bounded heap, so the input is never sorted
+     * completely. (If {@code k} exceeds {@link SortTransformSpec#DEFAULT_MAX_BUFFERED_ROWS}, the input is sorted as by
+     * {@link #sort(int[], boolean[])}, but only the first {@code k} rows of each sorted run are spilled.) If the
+     * table is already known to be sorted by the key columns, this is just a slice.
+     *
+     * @param columnIndices the indices of the key columns (in order of precedence)
+     * @param ascending for each key column, whether to sort in ascending ({@code true}) or descending ({@code false})
+     *            order
+     * @param k the maximum number of rows to keep
+     * @return the first {@code k} rows of the sorted table
+     */
+    public VirtualTable topK(final int[] columnIndices, final boolean[] ascending, final long k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative");
+        }
+        final TableTransformSpec transformSpec =
+            new SortTransformSpec(columnIndices, ascending, SortTransformSpec.DEFAULT_MAX_BUFFERED_ROWS, k);
+        return new VirtualTable(new TableTransform(m_transform, transformSpec), m_schema);
+    }
+
+    /**
+     * Merge this table with the given {@code tables} into one table that is sorted by the values in the given key
+     * columns.
+     * <p>
+     * This table and all {@code tables} must have the same schema, and each must already be sorted by the key columns
+     * (as by {@link #sort(int[], boolean[])}). The result is the same as {@code concatenate(tables).sort(columnIndices,
+     * ascending)}, but the merge is streaming: it reads all tables in lock-step, and never buffers more than one row of
+     * each table.
+     *
+     * @param tables the other tables to merge with this table
+     * @param columnIndices the indices of the key columns (in order of precedence)
+     * @param ascending for each key column, whether the tables are sorted in ascending ({@code true}) or descending
+     *            ({@code false}) order
+     * @return the merged table
+     */
+    public VirtualTable mergeSorted(final List<VirtualTable> tables, final int[] columnIndices,
+        final boolean[] ascending) {
+        final TableTransformSpec transformSpec = new MergeSortedTransformSpec(columnIndices, ascending);
+        final List<ColumnarSchema> schemas = collectSchemas(tables);
+        final ColumnarSchema schema = ColumnarSchemas.concatenate(schemas);
+        final List<TableTransform> transforms = collectTransforms(tables);
+        return new VirtualTable(new TableTransform(transforms, transformSpec), schema);
+    }
+
+    /**
+     * Gather the rows of this table with the given row indices. The {@code i}-th row of the result is the row at index
+     * {@code rowIndices[i]} of this table. Row indices may occur in any order, and any number of times.
+     * <p>
+     * This table must support random access. The result supports random access. When the result is read
+     * sequentially, the row indices are sorted in blocks, so that this table is accessed in ascending row order.
+     *
+     * @param rowIndices the indices of the rows to gather
+     * @return the gathered rows
+     */
+    public VirtualTable take(final long[] rowIndices) {
+        final TableTransformSpec transformSpec = new TakeTransformSpec(rowIndices);
+        return new VirtualTable(new TableTransform(m_transform, transformSpec), m_schema);
+    }
+
+    /**
+     * Gather the rows of this table with the row indices given by the values in a {@code LONG} column of another
+     * table. The {@code i}-th row of the result is the row of this table at the index given by the {@code i}-th value
+     * of the index column. The index column must not contain missing values.
+     * <p>
+     * This table must support random access. The result supports the same cursor type as the {@code indices} table.
+     *
+     * @param indices the table containing the row indices
+     * @param column the index of the {@code LONG} column of {@code indices} containing the row indices
+     * @return the gathered rows
+     */
+    public VirtualTable take(final VirtualTable indices, final int column) {
+        if (!(indices.getSchema().getSpec(column) instanceof LongDataSpec)) {
+            throw new IllegalArgumentException("row indices must be a LONG column");
+        }
+        final TableTransformSpec transformSpec = new TakeTransformSpec();
+        final List<TableTransform> transforms = List.of(m_transform, indices.selectColumns(column).m_transform);
+        return new VirtualTable(new TableTransform(transforms, transformSpec), m_schema);
+    }
+
+    /**
+     * Group the rows of this table by the values in the given group columns, and compute the given aggregations for
+     * each group.
+     * <p>
+     * The resulting table has the group columns followed by one column per aggregation. See
+     * {@link AggregateTransformSpec} for details. Up to {@link AggregateTransformSpec#DEFAULT_MAX_GROUPS} groups are
+     * aggregated in memory. If there are more groups, partial aggregates are spilled to disk and merged.
+     *
+     * @param groupColumns the indices of the columns to group by
+     * @param aggregations the aggregations to compute
+     * @return the aggregated table
+     */
+    public VirtualTable aggregate(final int[] groupColumns, final Aggregation... aggregations) {
+        return aggregate(groupColumns, List.of(aggregations), AggregateTransformSpec.DEFAULT_MAX_GROUPS);
+    }
+
+    /**
+     * Group the rows of this table by the values in the given group columns, and compute the given aggregations for
+     * each group. (See {@link #aggregate(int[], Aggregation...)}.)
+     *
+     * @param groupColumns the indices of the columns to group by
+     * @param aggregations the aggregations to compute
+     * @param maxGroups maximum number of groups to aggregate in memory before spilling partial aggregates to disk
+     * @return the aggregated table
+     */
+    public VirtualTable aggregate(final int[] groupColumns, final List<Aggregation> aggregations,
+        final long maxGroups) {
+        final AggregateTransformSpec transformSpec = new AggregateTransformSpec(groupColumns, aggregations, maxGroups);
+        final ColumnarSchema schema = transformSpec.getOutputSchema(m_schema);
+        return new VirtualTable(new TableTransform(m_transform, transformSpec), schema);
+    }
+
+    /**
+     * Group the rows of each window of consecutive rows of this table by the values in the given group columns, and
+     * compute the given aggregations for each group.
+     * <p>
+     * The aggregated table has the group columns, followed by one column per aggregation, followed by a {@code LONG}
+     * column holding the index of the first row of the window. See {@link AggregateTransformSpec} for details. The
+     * aggregated rows of a window are produced as soon as the last row of the window has been read, so this can be
+     * applied to {@link SourceTableProperties#isUnbounded() unbounded} tables.
+     *
+     * @param groupColumns the indices of the columns to group by
+     * @param window the windows of rows to aggregate separately
+     * @param aggregations the aggregations to compute
+     * @return the aggregated table
+     */
+    public VirtualTable aggregate(final int[] groupColumns, final Window window, final Aggregation... aggregations) {
+        final AggregateTransformSpec transformSpec = new AggregateTransformSpec(groupColumns, List.of(aggregations),
+            AggregateTransformSpec.DEFAULT_MAX_GROUPS, Objects.requireNonNull(window));
+        final ColumnarSchema schema = transformSpec.getOutputSchema(m_schema);
+        return new VirtualTable(new TableTransform(m_transform, transformSpec), schema);
+    }
+
+    /**
+     * Join this table (the "left" table) with the {@code other} table (the "right" table) on equal values in the
+     * given key columns.
+     * <p>
+     * The joined table has all columns of this table, followed by all columns of the {@code other} table. See
+     * {@link JoinTransformSpec} for details. The join is executed as a hash join. Up to
+     * {@link JoinTransformSpec#DEFAULT_MAX_BUILD_ROWS} rows of the smaller table are held in memory. If the smaller
+     * table has more rows, both tables are partitioned to disk.
+     *
+     * @param other the right table
+     * @param leftKeys the indices of the key columns in this table
+     * @param rightKeys the indices of the key columns in the {@code other} table
+     * @param joinType the join type
+     * @return the joined table
+     */
+    public VirtualTable join(final VirtualTable other, final int[] leftKeys, final int[] rightKeys,
+        final JoinType joinType) {
+        return join(other, leftKeys, rightKeys, joinType, JoinTransformSpec.DEFAULT_MAX_BUILD_ROWS);
+    }
+
+    /**
+     * Join this table (the "left" table) with the {@code other} table (the "right" table) on equal values in the
+     * given key columns. (See {@link #join(VirtualTable, int[], int[], JoinType)}.)
+     *
+     * @param other the right table
+     * @param leftKeys the indices of the key columns in this table
+     * @param rightKeys the indices of the key columns in the {@code other} table
+     * @param joinType the join type
+     * @param maxBuildRows maximum number of build rows to hold in memory before partitioning to disk
+     * @return the joined table
+     */
+    public VirtualTable join(final VirtualTable other, final int[] leftKeys, final int[] rightKeys,
+        final JoinType joinType, final long maxBuildRows) {
+        final JoinTransformSpec transformSpec = new JoinTransformSpec(leftKeys, rightKeys, joinType, maxBuildRows);
+        for (int i = 0; i < leftKeys.length; i++) {
+            final DataSpec leftSpec = m_schema.getSpec(leftKeys[i]);
+            final DataSpec rightSpec = other.m_schema.getSpec(rightKeys[i]);
+            if (!leftSpec.equals(rightSpec)) {
+                throw new IllegalArgumentException("key columns " + leftKeys[i] + " and " + rightKeys[i]
+                    + " have different types (" + leftSpec + " and " + rightSpec + ")");
+            }
+        }
+        final List<VirtualTable> tables = List.of(other);
+        final ColumnarSchema schema = ColumnarSchemas.append(collectSchemas(tables));
+        return new VirtualTable(new TableTransform(collectTransforms(tables), transformSpec), schema);
+    }
+
+    /**
+     * Remove duplicate rows from this table. Rows are duplicates if they have equal values in all of the given key
+     * columns. Of each set of duplicates, only the first row is retained.
+     * <p>
+     * See {@link DistinctTransformSpec} for details. If the rows are known to be sorted by the key columns, duplicates
+     * are removed in a single pass with constant memory. Otherwise, up to {@link DistinctTransformSpec#DEFAULT_MAX_KEYS}
+     * distinct key values are held in memory. Rows with further key values are spilled to disk and deduplicated after
+     * the rest of the input.
+     *
+     * @param columnIndices the indices of the key columns
+     * @return the deduplicated table
+     */
+    public VirtualTable distinct(final int... columnIndices) {
+        return distinct(columnIndices, DistinctTransformSpec.DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * Remove duplicate rows from this table. (See {@link #distinct(int...)}.)
+     *
+     * @param columnIndices the indices of the key columns
+     * @param maxKeys maximum number of distinct key values to hold in memory before spilling rows to disk
+     * @return the deduplicated table
+     */
+    public VirtualTable distinct(final int[] columnIndices, final long maxKeys) {
+        final TableTransformSpec transformSpec = new DistinctTransformSpec(columnIndices, maxKeys);
+        return new VirtualTable(new TableTransform(m_transform, transformSpec), m_schema);
+    }
+
+    /**
+     * Split this table into {@code numPartitions} partitions by the hash of the values in the given key columns. Rows
+     * with equal key values end up in the same partition.
+     * <p>
+     * See {@link ExchangeTransformSpec} for details. The exchange must be the last transform of a table. The
+     * partitions are obtained by {@link org.knime.core.table.virtual.exec.VirtualTableExecutor#execute executing} the
+     * returned table, which produces one {@code RowAccessible} per partition.
+     *
+     * @param numPartitions the number of partitions
+     * @param columnIndices the indices of the key columns
+     * @return the partitioned table
+     */
+    public VirtualTable partitionByHash(final int numPartitions, final int... columnIndices) {
+        final TableTransformSpec transformSpec =
+            new ExchangeTransformSpec(numPartitions, Partitioning.HASH, columnIndices);
+        return new VirtualTable(new TableTransform(m_transform, transformSpec), m_schema);
+    }
+
+    /**
+     * Split this table into {@code numPartitions} partitions, assigning rows to partitions round-robin. (See
+     * {@link #partitionByHash(int, int...)}.)
+     *
+     * @param numPartitions the number of partitions
+     * @return the partitioned table
+     */
+    public VirtualTable partitionRoundRobin(final int numPartitions) {
+        final TableTransformSpec transformSpec =
+            new ExchangeTransformSpec(numPartitions, Partitioning.ROUND_ROBIN, new int[0]);
+        return new VirtualTable(new TableTransform(m_transform, transformSpec), m_schema);
+    }
+
     public VirtualTable observe(final int[] columnIndices, final ObserverFactory observerFactory) {
         final ObserverTransformSpec transformSpec = new ObserverTransformSpec(columnIndices, observerFactory);
         return new VirtualTable(new TableTransform(m_transform, transformSpec), m_schema);
@@ -0,0 +1,308 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.exec;
+
+import org.knime.core.table.access.BooleanAccess.BooleanReadAccess;
+import org.knime.core.table.access.BooleanAccess.BooleanWriteAccess;
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.ByteAccess.ByteReadAccess;
+import org.knime.core.table.access.ByteAccess.ByteWriteAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleReadAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleWriteAccess;
+import org.knime.core.table.access.FloatAccess.FloatReadAccess;
+import org.knime.core.table.access.FloatAccess.FloatWriteAccess;
+import org.knime.core.table.access.IntAccess.IntReadAccess;
+import org.knime.core.table.access.IntAccess.IntWriteAccess;
+import org.knime.core.table.access.LongAccess.LongReadAccess;
+import org.knime.core.table.access.LongAccess.LongWriteAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.StringAccess.StringReadAccess;
+import org.knime.core.table.access.StringAccess.StringWriteAccess;
+import org.knime.core.table.schema.BooleanDataSpec;
+import org.knime.core.table.schema.ByteDataSpec;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.schema.DoubleDataSpec;
+import org.knime.core.table.schema.FloatDataSpec;
+import org.knime.core.table.schema.IntDataSpec;
+import org.knime.core.table.schema.LongDataSpec;
+import org.knime.core.table.schema.StringDataSpec;
+
+/**
+ * The values of one column of a {@link RowAccessiblePublisher.RowBatch}. Values of primitive and string columns are
+ * stored in one array per column (and batch). Values of other (nested or binary) columns are buffered per value.
+ * <p>
+ * The values are read through a single access per column, which is {@link #moveTo moved} to a row.
+ */
+abstract class BatchColumn {
+
+    /**
+     * Holds the value of the row that this column was last {@link #moveTo moved} to.
+     */
+    final BufferedAccess m_access;
+
+    private final boolean[] m_missing;
+
+    BatchColumn(final DataSpec spec, final int capacity) {
+        m_access = BufferedAccesses.createBufferedAccess(spec);
+        m_missing = new boolean[capacity];
+    }
+
+    /**
+     * Create a column with room for {@code capacity} values of the given {@code spec}.
+     */
+    static BatchColumn create(final DataSpec spec, final int capacity) {
+        if (spec instanceof BooleanDataSpec) {
+            return new BooleanColumn(spec, capacity);
+        } else if (spec instanceof ByteDataSpec) {
+            return new ByteColumn(spec, capacity);
+        } else if (spec instanceof IntDataSpec) {
+            return new IntColumn(spec, capacity);
+        } else if (spec instanceof LongDataSpec) {
+            return new LongColumn(spec, capacity);
+        } else if (spec instanceof FloatDataSpec) {
+            return new FloatColumn(spec, capacity);
+        } else if (spec instanceof DoubleDataSpec) {
+            return new DoubleColumn(spec, capacity);
+        } else if (spec instanceof StringDataSpec) {
+            return new StringColumn(spec, capacity);
+        } else {
+            return new BufferedColumn(spec, capacity);
+        }
+    }
+
+    /**
+     * Set the value of the given {@code row} to the current value of {@code access}.
+     */
+    final void set(final int row, final ReadAccess access) {
+        m_missing[row] = access.isMissing();
+        if (!m_missing[row]) {
+            setValue(row, access);
+        }
+    }
+
+    /**
+     * Load the value of the given {@code row} into {@link #m_access}.
+     *
+     * @return {@link #m_access}
+     */
+    final ReadAccess moveTo(final int row) {
+        if (m_missing[row]) {
+            m_access.setMissing();
+        } else {
+            loadValue(row);
+        }
+        return m_access;
+    }
+
+    abstract void setValue(int row, ReadAccess access);
+
+    abstract void loadValue(int row);
+
+    private static final class BooleanColumn extends BatchColumn {
+
+        private final boolean[] m_values;
+
+        BooleanColumn(final DataSpec spec, final int capacity) {
+            super(spec, capacity);
+            m_values = new boolean[capacity];
+        }
+
+        @Override
+        void setValue(final int row, final ReadAccess access) {
+            m_values[row] = ((BooleanReadAccess)access).getBooleanValue();
+        }
+
+        @Override
+        void loadValue(final int row) {
+            ((BooleanWriteAccess)m_access).setBooleanValue(m_values[row]);
+        }
+    }
+
+    private static final class ByteColumn extends BatchColumn {
+
+        private final byte[] m_values;
+
+        ByteColumn(final DataSpec spec, final int capacity) {
+            super(spec, capacity);
+            m_values = new byte[capacity];
+        }
+
+        @Override
+        void setValue(final int row, final ReadAccess access) {
+            m_values[row] = ((ByteReadAccess)access).getByteValue();
+        }
+
+        @Override
+        void loadValue(final int row) {
+            ((ByteWriteAccess)m_access).setByteValue(m_values[row]);
+        }
+    }
+
+    private static final class IntColumn extends BatchColumn {
+
+        private final int[] m_values;
+
+        IntColumn(final DataSpec spec, final int capacity) {
+            super(spec, capacity);
+            m_values = new int[capacity];
+        }
+
+        @Override
+        void setValue(final int row, final ReadAccess access) {
+            m_values[row] = ((IntReadAccess)access).getIntValue();
+        }
+
+        @Override
+        void loadValue(final int row) {
+            ((IntWriteAccess)m_access).setIntValue(m_values[row]);
+        }
+    }
+
+    private static final class LongColumn extends BatchColumn {
+
+        private final long[] m_values;
+
+        LongColumn(final DataSpec spec, final int capacity) {
+            super(spec, capacity);
+            m_values = new long[capacity];
+        }
+
+        @Override
+        void setValue(final int row, final ReadAccess access) {
+            m_values[row] = ((LongReadAccess)access).getLongValue();
+        }
+
+        @Override
+        void loadValue(final int row) {
+            ((LongWriteAccess)m_access).setLongValue(m_values[row]);
+        }
+    }
+
+    private static final class FloatColumn extends BatchColumn {
+
+        private final float[] m_values;
+
+        FloatColumn(final DataSpec spec, final int capacity) {
+            super(spec, capacity);
+            m_values = new float[capacity];
+        }
+
+        @Override
+        void setValue(final int row, final ReadAccess access) {
+            m_values[row] = ((FloatReadAccess)access).getFloatValue();
+        }
+
+        @Override
+        void loadValue(final int row) {
+            ((FloatWriteAccess)m_access).setFloatValue(m_values[row]);
+        }
+    }
+
+    private static final class DoubleColumn extends BatchColumn {
+
+        private final double[] m_values;
+
+        DoubleColumn(final DataSpec spec, final int capacity) {
+            super(spec, capacity);
+            m_values = new double[capacity];
+        }
+
+        @Override
+        void setValue(final int row, final ReadAccess access) {
+            m_values[row] = ((DoubleReadAccess)access).getDoubleValue();
+        }
+
+        @Override
+        void loadValue(final int row) {
+            ((DoubleWriteAccess)m_access).setDoubleValue(m_values[row]);
+        }
+    }
+
+    private static final class StringColumn extends BatchColumn {
+
+        private final String[] m_values;
+
+        StringColumn(final DataSpec spec, final int capacity) {
+            super(spec, capacity);
+            m_values = new String[capacity];
+        }
+
+        @Override
+        void setValue(final int row, final ReadAccess access) {
+            m_values[row] = ((StringReadAccess)access).getStringValue();
+        }
+
+        @Override
+        void loadValue(final int row) {
+            ((StringWriteAccess)m_access).setStringValue(m_values[row]);
+        }
+    }
+
+    private static final class BufferedColumn extends BatchColumn {
+
+        private final DataSpec m_spec;
+
+        private final BufferedAccess[] m_values;
+
+        BufferedColumn(final DataSpec spec, final int capacity) {
+            super(spec, capacity);
+            m_spec = spec;
+            m_values = new BufferedAccess[capacity];
+        }
+
+        @Override
+        void setValue(final int row, final ReadAccess access) {
+            m_values[row] = BufferedAccesses.createBufferedAccess(m_spec);
+            m_values[row].setFrom(access);
+        }
+
+        @Override
+        void loadValue(final int row) {
+            m_access.setFrom(m_values[row]);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.exec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.WriteAccess;
+import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.cursor.RandomAccessCursor;
+import org.knime.core.table.cursor.WriteCursor;
+import org.knime.core.table.row.DefaultReadAccessRow;
+import org.knime.core.table.row.RandomRowAccessible;
+import org.knime.core.table.row.ReadAccessRow;
+import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.RowWriteAccessible;
+import org.knime.core.table.row.Selection;
+import org.knime.core.table.row.WriteAccessRow;
+import org.knime.core.table.schema.ColumnarSchema;
+
+/**
+ * An in-memory copy of all rows of a {@code RowAccessible}, held in {@link BufferedAccess}es.
+ * <p>
+ * The rows are never modified after {@link #copyOf copying}, so cursors can be created and used concurrently.
+ */
+final class BufferedRowAccessible implements RandomRowAccessible {
+
+    private final ColumnarSchema m_schema;
+
+    private final List<BufferedAccess[]> m_rows;
+
+    private BufferedRowAccessible(final ColumnarSchema schema, final List<BufferedAccess[]> rows) {
+        m_schema = schema;
+        m_rows = rows;
+    }
+
+    /**
+     * Read all rows of {@code table} into memory.
+     *
+     * @param table the table to copy
+     * @return in-memory copy of {@code table}
+     * @throws IOException if reading {@code table} fails
+     */
+    static BufferedRowAccessible copyOf(final RowAccessible table) throws IOException {
+        final ColumnarSchema schema = table.getSchema();
+        final List<BufferedAccess[]> rows = new ArrayList<>();
+        try (final Cursor<ReadAccessRow> cursor = table.createCursor()) {
+            final ReadAccessRow access = cursor.access();
+            while (cursor.forward()) {
+                rows.add(copyRow(schema, access));
+            }
+        }
+        return new BufferedRowAccessible(schema, rows);
+    }
+
+    /**
+     * Copy the values of the current row of {@code access} into new {@code BufferedAccess}es.
+     *
+     * @param schema the schema of the row
+     * @param access the row to copy
+     * @return one {@code BufferedAccess} per column, holding the values of the row
+     */
+    static BufferedAccess[] copyRow(final ColumnarSchema schema, final ReadAccessRow access) {
+        final int numColumns = schema.numColumns();
+        final BufferedAccess[] row = new BufferedAccess[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            row[i] = BufferedAccesses.createBufferedAccess(schema.getSpec(i));
+            row[i].setFrom(access.getAccess(i));
+        }
+        return row;
+    }
+
+    /**
+     * Write a row (as created by {@link #copyRow}) to {@code cursor}, and commit it.
+     *
+     * @param row the row to write
+     * @param cursor the cursor to write to
+     * @throws IOException if writing fails
+     */
+    static void writeRow(final BufferedAccess[] row, final WriteCursor<WriteAccessRow> cursor) throws IOException {
+        final WriteAccessRow access = cursor.access();
+        for (int i = 0; i < row.length; i++) {
+            access.<WriteAccess> getWriteAccess(i).setFrom(row[i]);
+        }
+        cursor.commit();
+    }
+
+    /**
+     * Write all rows to {@code output}, and {@link WriteCursor#finish() finish} writing.
+     *
+     * @param output the table to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(final RowWriteAccessible output) throws IOException {
+        try (final WriteCursor<WriteAccessRow> cursor = output.getWriteCursor()) {
+            for (BufferedAccess[] row : m_rows) {
+                writeRow(row, cursor);
+            }
+            cursor.finish();
+        }
+    }
+
+    @Override
+    public ColumnarSchema getSchema() {
+        return m_schema;
+    }
+
+    @Override
+    public RandomAccessCursor<ReadAccessRow> createCursor() {
+        return createCursor(Selection.all());
+    }
+
+    @Override
+    public RandomAccessCursor<ReadAccessRow> createCursor(final Selection selection) {
+        return new BufferedCursor(selection);
+    }
+
+    @Override
+    public long size() {
+        return m_rows.size();
+    }
+
+    @Override
+    public void close() {
+        // nothing to close
+    }
+
+    private final class BufferedCursor implements RandomAccessCursor<ReadAccessRow> {
+
+        private final DelegatingReadAccess[] m_accesses;
+
+        private final ReadAccessRow m_access;
+
+        private final int m_fromIndex;
+
+        private final int m_toIndex;
+
+        private int m_index;
+
+        BufferedCursor(final Selection selection) {
+            final int numColumns = m_schema.numColumns();
+            m_accesses = new DelegatingReadAccess[numColumns];
+            for (int i = 0; i < numColumns; i++) {
+                if (selection.columns().isSelected(i)) {
+                    m_accesses[i] = DelegatingReadAccesses.createDelegatingAccess(m_schema.getSpec(i));
+                }
+            }
+            m_access = new DefaultReadAccessRow(numColumns, i -> m_accesses[i]);
+            if (selection.rows().allSelected()) {
+                m_fromIndex = 0;
+                m_toIndex = m_rows.size();
+            } else {
+                m_fromIndex = (int)Math.min(selection.rows().fromIndex(), m_rows.size());
+                m_toIndex = (int)Math.min(selection.rows().toIndex(), m_rows.size());
+            }
+            m_index = m_fromIndex - 1;
+        }
+
+        @Override
+        public ReadAccessRow access() {
+            return m_access;
+        }
+
+        @Override
+        public boolean canForward() {
+            return m_index + 1 < m_toIndex;
+        }
+
+        @Override
+        public boolean forward() {
+            if (canForward()) {
+                setIndex(m_index + 1);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void moveTo(final long row) {
+            final long index = row + m_fromIndex;
+            if (row < 0 || index >= m_toIndex) {
+                throw new IndexOutOfBoundsException(row);
+            }
+            setIndex((int)index);
+        }
+
+        private void setIndex(final int index) {
+            m_index = index;
+            final ReadAccess[] row = m_rows.get(index);
+            for (int i = 0; i < m_accesses.length; i++) {
+                if (m_accesses[i] != null) {
+                    m_accesses[i].setDelegateAccess(row[i]);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+}
@@ -45,16 +45,24 @@
  */
 package org.knime.core.table.virtual.exec;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.cursor.WriteCursor;
+import org.knime.core.table.row.ReadAccessRow;
 import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.RowWriteAccessible;
+import org.knime.core.table.row.WriteAccessRow;
 import org.knime.core.table.virtual.TableTransform;
 import org.knime.core.table.virtual.graph.debug.VirtualTableDebugging;
 import org.knime.core.table.virtual.graph.exec.CapExecutor;
 import org.knime.core.table.virtual.graph.rag.TableTransformGraph;
 import org.knime.core.table.virtual.graph.rag.TableTransformUtil;
+import org.knime.core.table.virtual.spec.ExchangeTransformSpec;
 
 // TODO (TP) replace VirtualTableExecutor with just this class?
 public class GraphVirtualTableExecutor implements VirtualTableExecutor {
@@ -70,17 +78,110 @@ public static RowAccessible createRowAccessible(final TableTransform leafTransfo
 
     private final TableTransformGraph m_tableTransformGraph;
 
+    /**
+     * If the leaf transform is an exchange, it is not part of {@code m_tableTransformGraph}, but splits its output
+     * into partitions. Otherwise {@code null}.
+     */
+    private final ExchangeTransformSpec m_exchange;
+
+    /**
+     * Create an executor for the virtual table produced by {@code leafTransform}. The table is optimized once, and
+     * can then be {@link #execute executed} any number of times (also concurrently from several threads).
+     *
+     * @param leafTransform the transform producing the virtual table
+     */
     public GraphVirtualTableExecutor(final TableTransform leafTransform) {
-        m_tableTransformGraph = new TableTransformGraph(leafTransform);
+        final TableTransformGraph graph;
+        if (leafTransform.getSpec() instanceof ExchangeTransformSpec exchange) {
+            m_exchange = exchange;
+            graph = new TableTransformGraph(leafTransform.getPrecedingTransforms().get(0));
+        } else {
+            m_exchange = null;
+            graph = new TableTransformGraph(leafTransform);
+        }
         try (var logger = VirtualTableDebugging.createLogger()) {
-            TableTransformUtil.optimize(m_tableTransformGraph, logger);
+            TableTransformUtil.optimize(graph, logger);
         }
+        // The copy is not modified by concurrent executions (see TableTransformGraph.copy())
+        m_tableTransformGraph = graph.copy();
     }
 
     @Override
     public List<RowAccessible> execute(final Map<UUID, RowAccessible> inputs) {
         // TODO (TP) rename? return just RowAccessible?
+        if (m_exchange != null) {
+            return CapExecutor.createPartitionedRowAccessibles(m_tableTransformGraph, m_exchange, inputs);
+        }
         final RowAccessible rows = CapExecutor.createRowAccessible(m_tableTransformGraph, inputs);
         return List.of(rows);
     }
+
+    /**
+     * Execute the virtual table only for its side effects (for example, OBSERVERs), discarding the rows. The rows are
+     * {@link CapExecutor#push pushed} through the CAP. If the table is partitioned, all partitions are executed one
+     * after the other.
+     *
+     * @param inputs the source tables
+     * @return the number of rows
+     * @throws IOException if reading the rows fails
+     */
+    public long run(final Map<UUID, RowAccessible> inputs) throws IOException {
+        long numRows = 0;
+        for (RowAccessible rows : execute(inputs)) {
+            try (final Cursor<ReadAccessRow> cursor = rows.createCursor()) {
+                numRows += CapExecutor.push(cursor, () -> {
+                });
+            }
+        }
+        return numRows;
+    }
+
+    /**
+     * Execute the virtual table, and write its rows to {@code output}. The rows are {@link CapExecutor#push pushed}
+     * through the CAP into the {@code WriteCursor}. If the table is partitioned, the partitions are written one after
+     * the other. When all rows have been written, the {@code WriteCursor} is {@code finish()}ed and closed. The
+     * {@code output} itself is not closed.
+     *
+     * @param inputs the source tables
+     * @param output the table to write to
+     * @return the number of rows written
+     * @throws IOException if reading or writing the rows fails
+     */
+    public long write(final Map<UUID, RowAccessible> inputs, final RowWriteAccessible output) throws IOException {
+        long numRows = 0;
+        try (final WriteCursor<WriteAccessRow> writeCursor = output.getWriteCursor()) {
+            for (RowAccessible rows : execute(inputs)) {
+                try (final Cursor<ReadAccessRow> cursor = rows.createCursor()) {
+                    numRows += write(cursor, writeCursor);
+                }
+            }
+            writeCursor.finish();
+        }
+        return numRows;
+    }
+
+    /**
+     * {@link CapExecutor#push Push} all rows of {@code cursor} into {@code writeCursor}. Does not {@code finish()} the
+     * {@code writeCursor}.
+     *
+     * @return the number of rows written
+     * @throws IOException if reading or writing the rows fails
+     */
+    static long write(final Cursor<ReadAccessRow> cursor, final WriteCursor<WriteAccessRow> writeCursor)
+        throws IOException {
+        final ReadAccessRow readAccess = cursor.access();
+        final WriteAccessRow writeAccess = writeCursor.access();
+        try {
+            return CapExecutor.push(cursor, () -> {
+                writeAccess.setFrom(readAccess);
+                try {
+                    writeCursor.commit();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 }
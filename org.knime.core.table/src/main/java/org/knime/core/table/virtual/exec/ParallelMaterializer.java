@@ -0,0 +1,316 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.exec;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.cursor.RandomAccessCursor;
+import org.knime.core.table.cursor.WriteCursor;
+import org.knime.core.table.row.RandomRowAccessible;
+import org.knime.core.table.row.ReadAccessRow;
+import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.RowWriteAccessible;
+import org.knime.core.table.row.WriteAccessRow;
+import org.knime.core.table.schema.ColumnarSchema;
+import org.knime.core.table.virtual.VirtualTable;
+
+/**
+ * Materializes a virtual table into a {@code RowWriteAccessible}, computing the rows with several threads.
+ * <p>
+ * If the virtual table supports random access (and so has a known number of rows), its rows are split into
+ * consecutive batches. Worker threads compute the batches (each with its own cursor, moving to the rows of the batch)
+ * and buffer the rows. The calling thread writes the batches to a single {@code WriteCursor}, in order. At most
+ * {@code 2 * parallelism} batches are computed ahead of the batch being written, so memory use is bounded.
+ * <p>
+ * Otherwise (or if {@code parallelism == 1}), the rows are {@link GraphVirtualTableExecutor#write written}
+ * sequentially in the calling thread.
+ */
+public final class ParallelMaterializer {
+
+    /**
+     * The default number of rows per batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private static final AtomicInteger NEXT_THREAD_ID = new AtomicInteger();
+
+    private ParallelMaterializer() {
+    }
+
+    /**
+     * Materialize {@code table} into {@code output}, using {@code parallelism} threads to compute the rows, in batches
+     * of {@link #DEFAULT_BATCH_SIZE} rows.
+     *
+     * @param table the virtual table
+     * @param sources the source tables of the virtual table
+     * @param output the table to write to
+     * @param parallelism the number of threads computing rows
+     * @return the number of rows written
+     * @throws IOException if reading or writing fails
+     */
+    public static long materialize(final VirtualTable table, final Map<UUID, RowAccessible> sources,
+        final RowWriteAccessible output, final int parallelism) throws IOException {
+        return materialize(table, sources, output, parallelism, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Materialize {@code table} into {@code output}, using {@code parallelism} threads to compute the rows. When all
+     * rows have been written, the output {@code WriteCursor} is {@code finish()}ed and closed. The {@code output}
+     * itself is not closed.
+     *
+     * @param table the virtual table
+     * @param sources the source tables of the virtual table
+     * @param output the table to write to
+     * @param parallelism the number of threads computing rows
+     * @param batchSize the number of rows per batch
+     * @return the number of rows written
+     * @throws IOException if reading or writing fails
+     */
+    public static long materialize(final VirtualTable table, final Map<UUID, RowAccessible> sources,
+        final RowWriteAccessible output, final int parallelism, final int batchSize) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive (got " + parallelism + ")");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive (got " + batchSize + ")");
+        }
+        final RowAccessible rows =
+            GraphVirtualTableExecutor.createRowAccessible(table.getProducingTransform(), sources);
+        final long numRows = rows.size();
+        try (final WriteCursor<WriteAccessRow> writeCursor = output.getWriteCursor()) {
+            final long numWritten;
+            if (parallelism > 1 && rows instanceof RandomRowAccessible randomRows && numRows > batchSize) {
+                numWritten = new ParallelWrite(randomRows, numRows, parallelism, batchSize).writeTo(writeCursor);
+            } else {
+                try (final Cursor<ReadAccessRow> cursor = rows.createCursor()) {
+                    numWritten = GraphVirtualTableExecutor.write(cursor, writeCursor);
+                }
+            }
+            writeCursor.finish();
+            return numWritten;
+        }
+    }
+
+    /**
+     * Computes batches of rows in worker threads, and writes them in order in the calling thread.
+     */
+    private static final class ParallelWrite {
+
+        private final RandomRowAccessible m_rows;
+
+        private final ColumnarSchema m_schema;
+
+        private final long m_numRows;
+
+        private final int m_parallelism;
+
+        private final int m_batchSize;
+
+        private final long m_numBatches;
+
+        /**
+         * The maximum number of batches that are computed but not yet written.
+         */
+        private final int m_window;
+
+        /**
+         * Permits to compute a batch. A permit is acquired before a worker claims the next batch, and released after
+         * a batch has been written. So there are at most {@link #m_window} unwritten batches.
+         */
+        private final Semaphore m_permits;
+
+        /**
+         * The index of the next batch to be claimed by a worker.
+         */
+        private final AtomicLong m_nextBatch = new AtomicLong();
+
+        /**
+         * Batch {@code b} is passed from the worker to the writer in slot {@code b % m_window}. Because the unwritten
+         * batches are consecutive, and there are at most {@code m_window} of them, a slot is only re-used after its
+         * batch has been written.
+         */
+        private final AtomicReferenceArray<CompletableFuture<BufferedAccess[][]>> m_slots;
+
+        /**
+         * Completed exceptionally if a worker fails, and normally when the writer is done. The workers stop when this
+         * is completed.
+         */
+        private final CompletableFuture<Void> m_abort = new CompletableFuture<>();
+
+        ParallelWrite(final RandomRowAccessible rows, final long numRows, final int parallelism,
+            final int batchSize) {
+            m_rows = rows;
+            m_schema = rows.getSchema();
+            m_numRows = numRows;
+            m_parallelism = parallelism;
+            m_batchSize = batchSize;
+            m_numBatches = (numRows + batchSize - 1) / batchSize;
+            m_window = 2 * parallelism;
+            m_permits = new Semaphore(m_window);
+            m_slots = new AtomicReferenceArray<>(m_window);
+            for (int i = 0; i < m_window; i++) {
+                m_slots.set(i, new CompletableFuture<>());
+            }
+        }
+
+        long writeTo(final WriteCursor<WriteAccessRow> writeCursor) throws IOException {
+            final ExecutorService workers = Executors.newFixedThreadPool(m_parallelism, runnable -> {
+                final Thread thread = new Thread(runnable, "materialize-" + NEXT_THREAD_ID.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                for (int i = 0; i < m_parallelism; i++) {
+                    workers.execute(this::work);
+                }
+                long numWritten = 0;
+                for (long b = 0; b < m_numBatches; b++) {
+                    final int slot = (int)(b % m_window);
+                    CompletableFuture.anyOf(m_slots.get(slot), m_abort).get();
+                    if (m_abort.isCompletedExceptionally()) {
+                        m_abort.get();
+                    }
+                    final BufferedAccess[][] batch = m_slots.get(slot).get();
+                    m_slots.set(slot, new CompletableFuture<>());
+                    m_permits.release();
+                    for (BufferedAccess[] row : batch) {
+                        BufferedRowAccessible.writeRow(row, writeCursor);
+                    }
+                    numWritten += batch.length;
+                }
+                return numWritten;
+            } catch (InterruptedException e) { // NOSONAR
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while materializing");
+            } catch (ExecutionException e) {
+                throw unwrap(e.getCause());
+            } finally {
+                m_abort.complete(null);
+                workers.shutdownNow();
+                awaitTermination(workers);
+            }
+        }
+
+        /**
+         * Wait until all workers have stopped (and closed their cursors). If the calling thread is interrupted, this
+         * keeps waiting, and re-sets the interrupt flag afterwards.
+         */
+        private static void awaitTermination(final ExecutorService workers) {
+            boolean interrupted = false;
+            boolean terminated = false;
+            while (!terminated) {
+                try {
+                    terminated = workers.awaitTermination(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) { // NOSONAR
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Claim and compute batches, until all batches have been claimed (or the writer is done, or a worker failed).
+         */
+        private void work() {
+            try (final RandomAccessCursor<ReadAccessRow> cursor = m_rows.createCursor()) {
+                while (!m_abort.isDone()) {
+                    m_permits.acquire();
+                    final long b = m_nextBatch.getAndIncrement();
+                    if (b >= m_numBatches) {
+                        return;
+                    }
+                    m_slots.get((int)(b % m_window)).complete(read(cursor, b));
+                }
+            } catch (InterruptedException e) { // NOSONAR
+                // the writer is done (or failed)
+            } catch (IOException e) {
+                m_abort.completeExceptionally(new UncheckedIOException(e));
+            } catch (RuntimeException | Error e) { // NOSONAR
+                m_abort.completeExceptionally(e);
+            }
+        }
+
+        private BufferedAccess[][] read(final RandomAccessCursor<ReadAccessRow> cursor, final long b) {
+            final long from = b * m_batchSize;
+            final int numRows = (int)Math.min(m_batchSize, m_numRows - from);
+            final BufferedAccess[][] batch = new BufferedAccess[numRows][];
+            final ReadAccessRow access = cursor.access();
+            for (int r = 0; r < numRows; r++) {
+                cursor.moveTo(from + r);
+                batch[r] = BufferedRowAccessible.copyRow(m_schema, access);
+            }
+            return batch;
+        }
+
+        private static IOException unwrap(final Throwable cause) {
+            if (cause instanceof UncheckedIOException e) {
+                return e.getCause();
+            } else if (cause instanceof RuntimeException e) {
+                throw e;
+            } else if (cause instanceof Error e) {
+                throw e;
+            }
+            return new IOException(cause);
+        }
+    }
+}
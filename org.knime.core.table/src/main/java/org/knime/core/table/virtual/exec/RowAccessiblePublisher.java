@@ -0,0 +1,362 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.row.ReadAccessRow;
+import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.Selection;
+import org.knime.core.table.schema.ColumnarSchema;
+import org.knime.core.table.virtual.VirtualTable;
+
+/**
+ * Publishes the rows of a {@code RowAccessible} as a {@link Flow.Publisher} of {@link RowBatch}es.
+ * <p>
+ * Every subscriber gets its own {@code Cursor}, which is created when the first batch is requested. Rows are only read
+ * from the cursor when the subscriber has requested batches (backpressure), so no thread is blocked while the
+ * subscriber is not ready to receive more rows. Reading rows and signalling the subscriber happens in tasks on the
+ * given {@code Executor}. At most one such task runs at a time per subscriber, so the cursor is never used
+ * concurrently.
+ * <p>
+ * The cursor is closed after the last batch was published (before {@code onComplete}), if reading fails (before
+ * {@code onError}), and when the subscription is {@link Flow.Subscription#cancel() cancelled}. The
+ * {@code RowAccessible} itself is not closed.
+ */
+public final class RowAccessiblePublisher implements Flow.Publisher<RowAccessiblePublisher.RowBatch> {
+
+    /**
+     * The default maximum number of rows per {@link RowBatch}.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final RowAccessible m_rows;
+
+    private final Selection m_selection;
+
+    private final int m_batchSize;
+
+    private final Executor m_executor;
+
+    /**
+     * Publish all rows of {@code rows} in batches of {@link #DEFAULT_BATCH_SIZE}, using the
+     * {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param rows the rows to publish
+     */
+    public RowAccessiblePublisher(final RowAccessible rows) {
+        this(rows, Selection.all(), DEFAULT_BATCH_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param rows the rows to publish
+     * @param selection the selected rows and columns. Non-selected columns are {@code null} in the published batches.
+     * @param batchSize the maximum number of rows per batch
+     * @param executor executes the tasks that read rows and signal subscribers
+     */
+    public RowAccessiblePublisher(final RowAccessible rows, final Selection selection, final int batchSize,
+        final Executor executor) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive (got " + batchSize + ")");
+        }
+        m_rows = rows;
+        m_selection = selection;
+        m_batchSize = batchSize;
+        m_executor = executor;
+    }
+
+    /**
+     * Publish the rows of a {@code VirtualTable}, in batches of {@link #DEFAULT_BATCH_SIZE}, using the
+     * {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param table the virtual table
+     * @param sources the source tables of the virtual table
+     * @return a publisher of the rows of {@code table}
+     */
+    public static RowAccessiblePublisher of(final VirtualTable table, final Map<UUID, RowAccessible> sources) {
+        return new RowAccessiblePublisher(
+            GraphVirtualTableExecutor.createRowAccessible(table.getProducingTransform(), sources));
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super RowBatch> subscriber) {
+        Objects.requireNonNull(subscriber);
+        final RowSubscription subscription = new RowSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * A batch of consecutive rows, stored column-wise (values of primitive and string columns in one array per
+     * column). The values are copied, so a batch remains valid after it has been published.
+     * <p>
+     * A batch should only be read by one thread at a time.
+     */
+    public static final class RowBatch {
+
+        private final ColumnarSchema m_schema;
+
+        /**
+         * {@code m_columns[c]} holds the values of column {@code c}, or is {@code null} if the column is not selected.
+         */
+        private final BatchColumn[] m_columns;
+
+        private int m_numRows;
+
+        private RowBatch(final ColumnarSchema schema, final ReadAccessRow access, final int capacity) {
+            m_schema = schema;
+            m_columns = new BatchColumn[schema.numColumns()];
+            for (int c = 0; c < m_columns.length; c++) {
+                if (access.getAccess(c) != null) {
+                    m_columns[c] = BatchColumn.create(schema.getSpec(c), capacity);
+                }
+            }
+        }
+
+        private void add(final ReadAccessRow access) {
+            for (int c = 0; c < m_columns.length; c++) {
+                if (m_columns[c] != null) {
+                    m_columns[c].set(m_numRows, access.getAccess(c));
+                }
+            }
+            m_numRows++;
+        }
+
+        /**
+         * @return the schema of the rows
+         */
+        public ColumnarSchema getSchema() {
+            return m_schema;
+        }
+
+        /**
+         * @return the number of rows in this batch
+         */
+        public int numRows() {
+            return m_numRows;
+        }
+
+        /**
+         * Get the value of a column in a row of this batch.
+         * <p>
+         * There is one access per column, which is moved to the requested row by this method. So the returned access
+         * holds the value only until {@code getAccess} is called again for the same column.
+         *
+         * @param <A> the type of the access
+         * @param column the column index
+         * @param row the row index (within this batch)
+         * @return the access holding the value, or {@code null} if the column is not selected
+         */
+        public <A extends ReadAccess> A getAccess(final int column, final int row) {
+            Objects.checkIndex(row, m_numRows);
+            if (m_columns[column] == null) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            final A access = (A)m_columns[column].moveTo(row);
+            return access;
+        }
+    }
+
+    private final class RowSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super RowBatch> m_subscriber;
+
+        /**
+         * The number of requested but not yet published batches.
+         */
+        private final AtomicLong m_demand = new AtomicLong();
+
+        /**
+         * The number of signals ({@link #request}, {@link #cancel}) that have not been handled by {@link #drain()}. A
+         * new drain task is started when this becomes non-zero.
+         */
+        private final AtomicInteger m_signals = new AtomicInteger();
+
+        private volatile boolean m_cancelled;
+
+        private volatile IllegalArgumentException m_invalidRequest;
+
+        // The following fields are only accessed in drain(), which is never executed concurrently.
+
+        private Cursor<ReadAccessRow> m_cursor;
+
+        private boolean m_done;
+
+        RowSubscription(final Flow.Subscriber<? super RowBatch> subscriber) {
+            m_subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                m_invalidRequest = new IllegalArgumentException("requested number of batches must be positive");
+            } else {
+                m_demand.accumulateAndGet(n, (d, m) -> d + m < 0 ? Long.MAX_VALUE : d + m);
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            m_cancelled = true;
+            signal();
+        }
+
+        private void signal() {
+            if (m_signals.getAndIncrement() == 0) {
+                m_executor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Publish batches while there is demand, and handle cancellation. Runs until all signals have been handled.
+         */
+        private void drain() {
+            int signals = m_signals.get();
+            while (true) {
+                if (!m_done) {
+                    try {
+                        publish();
+                    } catch (RuntimeException e) { // NOSONAR
+                        // If m_done, the subscription was cancelled and closing the cursor failed. The subscriber is
+                        // not interested in that anymore.
+                        if (!m_done) {
+                            finish(e);
+                        }
+                    }
+                }
+                signals = m_signals.addAndGet(-signals);
+                if (signals == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void publish() {
+            if (m_cancelled) {
+                m_done = true;
+                closeCursor();
+                return;
+            }
+            if (m_invalidRequest != null) {
+                finish(m_invalidRequest);
+                return;
+            }
+            while (m_demand.get() > 0 && !m_cancelled) {
+                if (m_cursor == null) {
+                    m_cursor = m_rows.createCursor(m_selection);
+                }
+                final ReadAccessRow access = m_cursor.access();
+                final RowBatch batch = new RowBatch(m_rows.getSchema(), access, m_batchSize);
+                boolean exhausted = false;
+                while (batch.numRows() < m_batchSize) {
+                    if (!m_cursor.forward()) {
+                        exhausted = true;
+                        break;
+                    }
+                    batch.add(access);
+                }
+                if (batch.numRows() > 0) {
+                    m_demand.decrementAndGet();
+                    m_subscriber.onNext(batch);
+                }
+                if (exhausted) {
+                    finish(null);
+                    return;
+                }
+            }
+            if (m_cancelled) {
+                m_done = true;
+                closeCursor();
+            }
+        }
+
+        /**
+         * Close the cursor and signal {@code onComplete} (if {@code error == null}) or {@code onError}.
+         */
+        private void finish(final Throwable error) {
+            m_done = true;
+            Throwable failure = error;
+            try {
+                closeCursor();
+            } catch (RuntimeException e) { // NOSONAR
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+            if (failure == null) {
+                m_subscriber.onComplete();
+            } else {
+                m_subscriber.onError(failure);
+            }
+        }
+
+        private void closeCursor() {
+            if (m_cursor != null) {
+                final Cursor<ReadAccessRow> cursor = m_cursor;
+                m_cursor = null;
+                try {
+                    cursor.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.cursor.WriteCursor;
+import org.knime.core.table.row.ReadAccessRow;
+import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.RowWriteAccessible;
+import org.knime.core.table.row.WriteAccessRow;
+import org.knime.core.table.virtual.TableTransform;
+import org.knime.core.table.virtual.graph.debug.VirtualTableDebugging;
+import org.knime.core.table.virtual.graph.exec.CapExecutor;
+import org.knime.core.table.virtual.graph.rag.TableTransformGraph;
+import org.knime.core.table.virtual.graph.rag.TableTransformUtil;
+import org.knime.core.table.virtual.spec.ExchangeTransformSpec;
+
+/**
+ * Executes several virtual tables over the same source tables together, such that every source table is read only
+ * once ("shared scan").
+ * <p>
+ * Each virtual table is executed in its own thread, and its rows are passed to a {@link RowConsumer} (or written to a
+ * {@code RowWriteAccessible}). Source tables that are read by several of the virtual tables are read by a single
+ * cursor, and the rows are buffered (up to a {@link #DEFAULT_BUFFER_SIZE maximum number}) until all virtual tables
+ * have read them. This is useful when several outputs are derived from the same large input (for example, several
+ * filtered or mapped variants of a table, or an output and a few observers collecting statistics).
+ * <p>
+ * If a consumer falls behind the others by more than the buffer size, the others wait for it to catch up. If one
+ * virtual table reads a source table at very different positions (for example, self-joins), or if all virtual tables
+ * wait for each other (for example, because they read several source tables in different order), a virtual table that
+ * is ahead continues with a private scan of the source table instead, so that the execution never deadlocks as long as
+ * all virtual tables are executed concurrently. Optionally, a maximum waiting time can be given, after which a virtual
+ * table that is ahead continues with a private scan as well (for executors that might not run all virtual tables
+ * concurrently).
+ */
+public final class SharedScanExecutor {
+
+    /**
+     * The default maximum number of rows buffered per shared source table.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    /**
+     * The default maximum time a virtual table waits for the others to catch up, if executed by a given
+     * {@code Executor}.
+     */
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(1);
+
+    private static final AtomicInteger NEXT_THREAD_ID = new AtomicInteger();
+
+    /**
+     * Consumes the rows of one of the virtual tables.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+
+        /**
+         * Consume the rows of {@code cursor}. The cursor is closed after this method returns.
+         *
+         * @param cursor cursor over the rows of the virtual table
+         * @throws IOException if consuming the rows fails
+         */
+        void accept(Cursor<ReadAccessRow> cursor) throws IOException;
+    }
+
+    private final List<TableTransformGraph> m_tableTransformGraphs;
+
+    private final int m_bufferSize;
+
+    private final Duration m_maxWait;
+
+    private final Executor m_executor;
+
+    /**
+     * Create an executor for the virtual tables produced by {@code leafTransforms}, which executes each virtual table
+     * in a new (daemon) thread, and buffers up to {@link #DEFAULT_BUFFER_SIZE} rows per shared source table. Virtual
+     * tables that are ahead wait for the others to catch up, unless all of them are waiting.
+     *
+     * @param leafTransforms the transforms producing the virtual tables
+     */
+    public SharedScanExecutor(final List<TableTransform> leafTransforms) {
+        this(leafTransforms, DEFAULT_BUFFER_SIZE, null, SharedScanExecutor::startThread);
+    }
+
+    /**
+     * Create an executor for the virtual tables produced by {@code leafTransforms}. Virtual tables that are ahead
+     * wait at most {@link #DEFAULT_MAX_WAIT} for the others to catch up.
+     *
+     * @param leafTransforms the transforms producing the virtual tables
+     * @param bufferSize the maximum number of rows buffered per shared source table (at least {@code 2})
+     * @param executor executes each virtual table. This should execute all the virtual tables concurrently (for
+     *            example, by using a thread per task), otherwise the source tables are not shared.
+     */
+    public SharedScanExecutor(final List<TableTransform> leafTransforms, final int bufferSize,
+        final Executor executor) {
+        this(leafTransforms, bufferSize, DEFAULT_MAX_WAIT, executor);
+    }
+
+    /**
+     * Create an executor for the virtual tables produced by {@code leafTransforms}. The tables are optimized once, and
+     * can then be executed any number of times.
+     *
+     * @param leafTransforms the transforms producing the virtual tables
+     * @param bufferSize the maximum number of rows buffered per shared source table (at least {@code 2})
+     * @param maxWait how long a virtual table that is ahead waits for the others to catch up before it continues with
+     *            a private scan of the source table, or {@code null} to wait until all virtual tables are waiting. If
+     *            {@code null}, {@code executor} must execute all the virtual tables concurrently, otherwise the
+     *            execution deadlocks.
+     * @param executor executes each virtual table. This should execute all the virtual tables concurrently (for
+     *            example, by using a thread per task), otherwise the source tables are not shared.
+     */
+    public SharedScanExecutor(final List<TableTransform> leafTransforms, final int bufferSize,
+        final Duration maxWait, final Executor executor) {
+        if (bufferSize < 2) {
+            throw new IllegalArgumentException("bufferSize must be at least 2 (got " + bufferSize + ")");
+        }
+        if (maxWait != null && maxWait.isNegative()) {
+            throw new IllegalArgumentException("maxWait must not be negative (got " + maxWait + ")");
+        }
+        m_tableTransformGraphs = new ArrayList<>();
+        for (TableTransform leafTransform : leafTransforms) {
+            if (leafTransform.getSpec() instanceof ExchangeTransformSpec) {
+                throw new IllegalArgumentException("Partitioned tables cannot be executed with shared scans");
+            }
+            final TableTransformGraph graph = new TableTransformGraph(leafTransform);
+            try (var logger = VirtualTableDebugging.createLogger()) {
+                TableTransformUtil.optimize(graph, logger);
+            }
+            // The copy is not modified by executions (see TableTransformGraph.copy())
+            m_tableTransformGraphs.add(graph.copy());
+        }
+        m_bufferSize = bufferSize;
+        m_maxWait = maxWait;
+        m_executor = executor;
+    }
+
+    /**
+     * Execute the virtual tables, and pass the rows of the {@code i}-th virtual table to the {@code i}-th consumer.
+     * Returns when all consumers are done.
+     *
+     * @param inputs the source tables
+     * @param consumers one consumer for each virtual table
+     * @throws IOException if any of the consumers failed with an {@code IOException}. (If several consumers fail,
+     *             the other exceptions are {@link Throwable#addSuppressed suppressed}.)
+     */
+    public void execute(final Map<UUID, RowAccessible> inputs, final List<? extends RowConsumer> consumers)
+        throws IOException {
+        if (consumers.size() != m_tableTransformGraphs.size()) {
+            throw new IllegalArgumentException("Expected " + m_tableTransformGraphs.size() + " consumers (got "
+                + consumers.size() + ")");
+        }
+        final List<Cursor<ReadAccessRow>> cursors =
+            CapExecutor.createSharedScanCursors(m_tableTransformGraphs, inputs, m_bufferSize, m_maxWait);
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < cursors.size(); i++) {
+            final Cursor<ReadAccessRow> cursor = cursors.get(i);
+            final RowConsumer consumer = consumers.get(i);
+            futures.add(CompletableFuture.runAsync(() -> {
+                try (cursor) {
+                    consumer.accept(cursor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, m_executor));
+        }
+        awaitAll(futures);
+    }
+
+    /**
+     * Execute the virtual tables only for their side effects (for example, OBSERVERs), discarding the rows. The rows
+     * are {@link CapExecutor#push pushed} through the CAPs.
+     *
+     * @param inputs the source tables
+     * @return the number of rows of each virtual table
+     * @throws IOException if reading the rows fails
+     */
+    public long[] run(final Map<UUID, RowAccessible> inputs) throws IOException {
+        final long[] numRows = new long[m_tableTransformGraphs.size()];
+        final List<RowConsumer> consumers = new ArrayList<>();
+        for (int i = 0; i < numRows.length; i++) {
+            final int table = i;
+            consumers.add(cursor -> numRows[table] = CapExecutor.push(cursor, () -> {
+            }));
+        }
+        execute(inputs, consumers);
+        return numRows;
+    }
+
+    /**
+     * Execute the virtual tables, and write the rows of the {@code i}-th virtual table to the {@code i}-th output.
+     * When all rows have been written, the output {@code WriteCursor} is {@code finish()}ed and closed. The outputs
+     * themselves are not closed.
+     *
+     * @param inputs the source tables
+     * @param outputs one output for each virtual table
+     * @return the number of rows written to each output
+     * @throws IOException if reading or writing fails
+     */
+    public long[] write(final Map<UUID, RowAccessible> inputs, final List<? extends RowWriteAccessible> outputs)
+        throws IOException {
+        final long[] numRows = new long[outputs.size()];
+        final List<RowConsumer> consumers = new ArrayList<>();
+        for (int i = 0; i < outputs.size(); i++) {
+            final int output = i;
+            consumers.add(cursor -> numRows[output] = write(cursor, outputs.get(output)));
+        }
+        execute(inputs, consumers);
+        return numRows;
+    }
+
+    private static long write(final Cursor<ReadAccessRow> cursor, final RowWriteAccessible output)
+        throws IOException {
+        try (final WriteCursor<WriteAccessRow> writeCursor = output.getWriteCursor()) {
+            final long numRows = GraphVirtualTableExecutor.write(cursor, writeCursor);
+            writeCursor.finish();
+            return numRows;
+        }
+    }
+
+    /**
+     * Wait for all {@code futures} to complete, and rethrow the first failure (with the others suppressed).
+     */
+    private static void awaitAll(final List<CompletableFuture<Void>> futures) throws IOException {
+        Throwable failure = null;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause() instanceof UncheckedIOException u ? u.getCause() : e.getCause();
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure instanceof IOException e) {
+            throw e;
+        } else if (failure instanceof RuntimeException e) {
+            throw e;
+        } else if (failure instanceof Error e) {
+            throw e;
+        } else if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    private static void startThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, "shared-scan-" + NEXT_THREAD_ID.getAndIncrement());
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.RowWriteAccessible;
+
+/**
+ * Executes large numbers of small, independent virtual tables ("jobs") concurrently.
+ * <p>
+ * Each job runs in three stages, so that threads doing CPU work never block on I/O:
+ * <ol>
+ * <li>The source tables of the job are prefetched, that is, all their rows are read into memory. This runs on the
+ * <em>blocking executor</em>.</li>
+ * <li>The virtual table is executed on the prefetched sources, and the rows are consumed by the job (or copied into
+ * memory for {@link #submitMaterialize materialization}). This is where all mapper, filter, and aggregation work
+ * happens. It runs on the <em>compute executor</em>, which should be a bounded pool of platform threads.</li>
+ * <li>For {@link #submitMaterialize materialization}, the result rows are written to the output table, and writing is
+ * finished (which flushes the output). This runs on the blocking executor again.</li>
+ * </ol>
+ * The {@link #create(int) default} blocking executor starts a virtual thread per task if the Java runtime supports
+ * virtual threads (Java 21+), and otherwise uses an unbounded pool of platform threads. No locks are held while
+ * blocking in the prefetch and write stages, so virtual threads are not pinned to their carrier threads.
+ * <p>
+ * Because the sources are copied into memory completely, this is only suitable for small source tables.
+ */
+public final class VirtualTableJobExecutor implements AutoCloseable {
+
+    private final ExecutorService m_blockingExecutor;
+
+    private final ExecutorService m_computeExecutor;
+
+    /**
+     * Whether the executors were created by (and should be shut down by) this {@code VirtualTableJobExecutor}.
+     */
+    private final boolean m_ownsExecutors;
+
+    /**
+     * Create a {@code VirtualTableJobExecutor} with the given executors. The executors are not shut down when this
+     * {@code VirtualTableJobExecutor} is {@link #close() closed}.
+     *
+     * @param blockingExecutor executes the prefetch and write stages of jobs. This may block on I/O, so it should use
+     *            virtual threads or an unbounded number of platform threads.
+     * @param computeExecutor executes the virtual tables. This should be a bounded pool of platform threads.
+     */
+    public VirtualTableJobExecutor(final ExecutorService blockingExecutor, final ExecutorService computeExecutor) {
+        this(blockingExecutor, computeExecutor, false);
+    }
+
+    private VirtualTableJobExecutor(final ExecutorService blockingExecutor, final ExecutorService computeExecutor,
+        final boolean ownsExecutors) {
+        m_blockingExecutor = blockingExecutor;
+        m_computeExecutor = computeExecutor;
+        m_ownsExecutors = ownsExecutors;
+    }
+
+    /**
+     * Create a {@code VirtualTableJobExecutor} with one compute thread per available processor.
+     *
+     * @return a new {@code VirtualTableJobExecutor}
+     */
+    public static VirtualTableJobExecutor create() {
+        return create(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a {@code VirtualTableJobExecutor} with the given number of compute threads. The blocking executor starts a
+     * virtual thread per task if supported by the Java runtime. The executors are shut down when the
+     * {@code VirtualTableJobExecutor} is {@link #close() closed}.
+     *
+     * @param numComputeThreads the number of (platform) threads executing virtual tables
+     * @return a new {@code VirtualTableJobExecutor}
+     */
+    public static VirtualTableJobExecutor create(final int numComputeThreads) {
+        if (numComputeThreads < 1) {
+            throw new IllegalArgumentException("numComputeThreads must be positive (got " + numComputeThreads + ")");
+        }
+        return new VirtualTableJobExecutor(createBlockingExecutor(),
+            Executors.newFixedThreadPool(numComputeThreads, daemonThreadFactory("virtual-table-compute-")), true);
+    }
+
+    /**
+     * Submit a job that executes a virtual table and consumes its rows.
+     * <p>
+     * The {@code job} runs on the compute executor. It should only read the given {@code RowAccessible}, and not
+     * block on I/O. The {@code RowAccessible} must not be used after {@code job} returns.
+     *
+     * @param <T> the result type
+     * @param executor the virtual table to execute (may be shared by any number of jobs)
+     * @param inputs the source tables of the virtual table
+     * @param job consumes the rows of the virtual table and computes the result
+     * @return the result of {@code job}
+     */
+    public <T> CompletableFuture<T> submit(final VirtualTableExecutor executor, final Map<UUID, RowAccessible> inputs,
+        final Function<? super RowAccessible, ? extends T> job) {
+        return prefetch(inputs).thenApplyAsync(sources -> job.apply(execute(executor, sources)), m_computeExecutor);
+    }
+
+    /**
+     * Submit a job that executes a virtual table and writes its rows to {@code output}.
+     * <p>
+     * The rows are copied into memory on the compute executor, and then written to {@code output} on the blocking
+     * executor. When writing is finished, the output {@code WriteCursor} is {@code finish()}ed and closed. The
+     * {@code output} itself is not closed.
+     *
+     * @param executor the virtual table to execute (may be shared by any number of jobs)
+     * @param inputs the source tables of the virtual table
+     * @param output the table to write to
+     * @return the number of rows written
+     */
+    public CompletableFuture<Long> submitMaterialize(final VirtualTableExecutor executor,
+        final Map<UUID, RowAccessible> inputs, final RowWriteAccessible output) {
+        return submit(executor, inputs, VirtualTableJobExecutor::copyOf) //
+            .thenApplyAsync(rows -> {
+                try {
+                    rows.writeTo(output);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return rows.size();
+            }, m_blockingExecutor);
+    }
+
+    private CompletableFuture<Map<UUID, RowAccessible>> prefetch(final Map<UUID, RowAccessible> inputs) {
+        return CompletableFuture.supplyAsync(() -> {
+            final Map<UUID, RowAccessible> sources = new HashMap<>();
+            inputs.forEach((uuid, table) -> sources.put(uuid, copyOf(table)));
+            return sources;
+        }, m_blockingExecutor);
+    }
+
+    private static RowAccessible execute(final VirtualTableExecutor executor, final Map<UUID, RowAccessible> sources) {
+        final List<RowAccessible> outputs = executor.execute(sources);
+        if (outputs.size() != 1) {
+            throw new IllegalArgumentException("Jobs must produce a single table (got " + outputs.size() + ")");
+        }
+        return outputs.get(0);
+    }
+
+    private static BufferedRowAccessible copyOf(final RowAccessible table) {
+        try {
+            return BufferedRowAccessible.copyOf(table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Shut down the executors, if they were created by this {@code VirtualTableJobExecutor}. Jobs that have already
+     * been submitted are completed.
+     */
+    @Override
+    public void close() {
+        if (m_ownsExecutors) {
+            m_blockingExecutor.shutdown();
+            m_computeExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Create an executor that starts a virtual thread per task, if the Java runtime supports virtual threads.
+     * Otherwise, create an unbounded pool of (daemon) platform threads.
+     */
+    private static ExecutorService createBlockingExecutor() {
+        try {
+            // Executors.newVirtualThreadPerTaskExecutor() is only available in Java 21+
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) { // NOSONAR
+            return Executors.newCachedThreadPool(daemonThreadFactory("virtual-table-io-"));
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String prefix) {
+        final AtomicInteger nextId = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix + nextId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
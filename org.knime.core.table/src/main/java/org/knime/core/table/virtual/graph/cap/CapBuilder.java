@@ -49,22 +49,38 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import org.knime.core.table.schema.ColumnarSchema;
 import org.knime.core.table.virtual.graph.rag.AccessId;
 import org.knime.core.table.virtual.graph.rag.BranchGraph;
+import org.knime.core.table.virtual.graph.rag.SpecType;
 import org.knime.core.table.virtual.graph.rag.TableTransformGraph;
 import org.knime.core.table.virtual.graph.rag.TableTransformGraphProperties;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.AggregateFunction;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.Aggregation;
+import org.knime.core.table.virtual.spec.DistinctTransformSpec;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec;
+import org.knime.core.table.virtual.spec.JoinTransformSpec;
 import org.knime.core.table.virtual.spec.MapTransformSpec;
+import org.knime.core.table.virtual.spec.MergeSortedTransformSpec;
 import org.knime.core.table.virtual.spec.ObserverTransformSpec;
 import org.knime.core.table.virtual.spec.RowFilterTransformSpec;
 import org.knime.core.table.virtual.spec.RowIndexTransformSpec;
 import org.knime.core.table.virtual.spec.SliceTransformSpec;
+import org.knime.core.table.virtual.spec.SortTransformSpec;
 import org.knime.core.table.virtual.spec.SourceTableProperties;
+import org.knime.core.table.virtual.spec.SourceTableProperties.CursorType;
 import org.knime.core.table.virtual.spec.SourceTransformSpec;
+import org.knime.core.table.virtual.spec.TakeTransformSpec;
 
 public class CapBuilder {
 
@@ -104,21 +120,76 @@ private int nextCapNodeIndex() {
 
     private CapNode appendBranch(final BranchGraph.BranchEdge branch) {
         // append predecessor branches
+        final int branchStart = nextCapNodeIndex();
         final List<CapNode> heads = new ArrayList<>();
         branch.target().branches().forEach(b -> heads.add(appendBranch(b)));
 
+        // source outputs that are only fetched for rows passing the filters of this branch
+        final Set<AccessId> late = lateAccesses(branch);
+
         // current head while building this branch
-        CapNode capNode = appendBranchTarget(branch.target(), heads);
+        CapNode capNode = appendBranchTarget(branch.target(), heads, branchStart, late);
+        final int branchTarget = capNode.index();
 
         // append inner nodes
-        for (BranchGraph.InnerNode innerNode : branch.innerNodes()) {
-            capNode = appendInnerNode(innerNode, capNode);
+        final List<BranchGraph.InnerNode> innerNodes = branch.innerNodes();
+        final int lastFilter = late.isEmpty() ? -1 : lastRowFilter(innerNodes);
+        for (int i = 0; i < innerNodes.size(); i++) {
+            capNode = appendInnerNode(innerNodes.get(i), capNode);
+            if (i == lastFilter) {
+                capNode = new CapNodeMaterialize(nextCapNodeIndex(), capNode.index(), branchTarget);
+                m_cap.add(capNode);
+            }
         }
 
         return capNode;
     }
 
-    private CapNode appendBranchTarget(final BranchGraph.BranchNode branchTarget, final List<CapNode> prededessors) {
+    /**
+     * Late materialization: If the given {@code branch} starts at a SOURCE that supports random access and
+     * {@link SourceTableProperties#isLateMaterialization() requests late materialization}, and contains ROWFILTERs,
+     * then the SOURCE outputs that are not used up to (and including) the last ROWFILTER need only be fetched for the
+     * rows that pass the filters.
+     *
+     * @return the (representative) SOURCE outputs that can be fetched late
+     */
+    private static Set<AccessId> lateAccesses(final BranchGraph.BranchEdge branch) {
+        final TableTransformGraph.Node node = branch.target().node();
+        final List<BranchGraph.InnerNode> innerNodes = branch.innerNodes();
+        final int lastFilter = lastRowFilter(innerNodes);
+        if (node.type() != SpecType.SOURCE || lastFilter < 0) {
+            return Set.of();
+        }
+        final SourceTableProperties properties = node.<SourceTransformSpec>getTransformSpec().getProperties();
+        if (!properties.supportsRandomAccess() || !properties.isLateMaterialization()) {
+            return Set.of();
+        }
+        final Set<AccessId> late = new HashSet<>();
+        node.out().accesses().forEach(a -> late.add(a.find()));
+        for (int i = 0; i <= lastFilter; i++) {
+            innerNodes.get(i).node().in(0).accesses().forEach(a -> late.remove(a.find()));
+        }
+        return late;
+    }
+
+    /**
+     * @return the index of the last ROWFILTER in {@code innerNodes}, or {@code -1} if there is none
+     */
+    private static int lastRowFilter(final List<BranchGraph.InnerNode> innerNodes) {
+        for (int i = innerNodes.size() - 1; i >= 0; i--) {
+            if (innerNodes.get(i).node().type() == SpecType.ROWFILTER) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param branchStart index of the first CAP node of the predecessor branches
+     * @param late (representative) SOURCE outputs that are fetched late
+     */
+    private CapNode appendBranchTarget(final BranchGraph.BranchNode branchTarget, final List<CapNode> prededessors,
+        final int branchStart, final Set<AccessId> late) {
 
         final TableTransformGraph.Node node = branchTarget.node();
         final int numPredecessors = prededessors.size();
@@ -136,7 +207,11 @@ private CapNode appendBranchTarget(final BranchGraph.BranchNode branchTarget, fi
                 final SourceTransformSpec spec = node.getTransformSpec();
                 final UUID uuid = spec.getSourceIdentifier();
                 final int[] columns = outputs.stream().mapToInt(a -> a.find().producer().index()).toArray();
-                capNode = new CapNodeSource(nextCapNodeIndex(), uuid, columns, spec.getRowRange());
+                final boolean[] lateColumns = new boolean[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    lateColumns[i] = late.contains(outputs.get(i).find());
+                }
+                capNode = new CapNodeSource(nextCapNodeIndex(), uuid, columns, spec.getRowRange(), lateColumns);
                 m_sourceSchemas.put(uuid, spec.getSchema());
             }
             case APPEND -> { // NOSONAR
@@ -153,10 +228,109 @@ private CapNode appendBranchTarget(final BranchGraph.BranchNode branchTarget, fi
                     predecessorSizes);
             }
             case CONCATENATE -> {
+                for (int i = 0; i < numPredecessors - 1; ++i) {
+                    checkBounded(node.in(i), "concatenate another table to");
+                }
                 final CapAccessId[][] capInputs = new CapAccessId[numPredecessors][];
                 Arrays.setAll(capInputs, i -> capAccessIdsFor(node.in(i).accesses()));
                 capNode = new CapNodeConcatenate(nextCapNodeIndex(), capInputs, predecessorIndices, predecessorSizes);
             }
+            case SORT -> { // NOSONAR
+                checkBounded(node.in(0), "sort");
+                final SortTransformSpec spec = node.getTransformSpec();
+                final CapAccessId[] inputs = capAccessIdsFor(node.in(0).accesses());
+                final int numKeys = spec.getColumnSelection().length;
+                final Map<CapAccessId, Integer> buffered = new LinkedHashMap<>();
+                final int[] indices = distinctIndices(inputs, buffered);
+                final int[] keys = Arrays.copyOfRange(indices, 0, numKeys);
+                final int[] sortOutputs = Arrays.copyOfRange(indices, numKeys, indices.length);
+                capNode = new CapNodeSort(nextCapNodeIndex(), buffered.keySet().toArray(CapAccessId[]::new),
+                    predecessorIndices[0], branchStart, keys, spec.getAscending(), sortOutputs,
+                    spec.getMaxBufferedRows(), spec.getLimit());
+            }
+            case MERGE -> { // NOSONAR
+                final MergeSortedTransformSpec spec = node.getTransformSpec();
+                final int numKeys = spec.getColumnSelection().length;
+                final CapAccessId[][] capInputs = new CapAccessId[numPredecessors][];
+                Arrays.setAll(capInputs, i -> capAccessIdsFor(node.in(i).accesses()));
+                final int[] keys = IntStream.range(0, numKeys).toArray();
+                final int[] mergeOutputs = IntStream.range(numKeys, capInputs[0].length).toArray();
+                capNode = new CapNodeMerge(nextCapNodeIndex(), capInputs, predecessorIndices, keys, spec.getAscending(),
+                    mergeOutputs);
+            }
+            case TAKE -> { // NOSONAR
+                if (TableTransformGraphProperties.supportedCursorType(node.in(0)) != CursorType.RANDOMACCESS) {
+                    throw new IllegalArgumentException("TAKE requires random access to its input table");
+                }
+                final TakeTransformSpec spec = node.getTransformSpec();
+                final CapAccessId[] inputs = capAccessIdsFor(node.in(0).accesses());
+                if (spec.hasIndexTable()) {
+                    final CapAccessId indexInput = capAccessIdsFor(node.in(1).accesses())[0];
+                    capNode = new CapNodeTake(nextCapNodeIndex(), inputs, predecessorIndices[0], branchStart,
+                        indexInput, predecessorIndices[1], null);
+                } else {
+                    final long[] rows = spec.getRowIndices();
+                    final long size = predecessorSizes[0];
+                    if (size >= 0 && LongStream.of(rows).anyMatch(row -> row >= size)) {
+                        throw new IllegalArgumentException(
+                            "TAKE row index out of bounds (table has " + size + " rows)");
+                    }
+                    capNode = new CapNodeTake(nextCapNodeIndex(), inputs, predecessorIndices[0], branchStart, null, -1,
+                        rows);
+                }
+            }
+            case AGGREGATE -> { // NOSONAR
+                final AggregateTransformSpec spec = node.getTransformSpec();
+                if (!spec.isWindowed()) {
+                    checkBounded(node.in(0), "aggregate (without window)");
+                }
+                final CapAccessId[] inputs = capAccessIdsFor(node.in(0).accesses());
+                final AggregateFunction[] functions =
+                    spec.getAggregations().stream().map(Aggregation::function).toArray(AggregateFunction[]::new);
+                final int[] columns = outputs.stream().mapToInt(a -> a.find().producer().index()).toArray();
+                capNode = new CapNodeAggregate(nextCapNodeIndex(), inputs, predecessorIndices[0],
+                    spec.getGroupColumns().length, functions, spec.getAggregationInputs(), columns,
+                    spec.getMaxGroups(), spec.getWindow());
+            }
+            case JOIN -> { // NOSONAR
+                final JoinTransformSpec spec = node.getTransformSpec();
+                final int numKeys = spec.getLeftKeys().length;
+                final CapAccessId[][] inputs = new CapAccessId[2][];
+                final int[][] keys = new int[2][];
+                final int[][] joinOutputs = new int[2][];
+                for (int i = 0; i < 2; i++) {
+                    final Map<CapAccessId, Integer> buffered = new LinkedHashMap<>();
+                    final int[] indices = distinctIndices(capAccessIdsFor(node.in(i).accesses()), buffered);
+                    inputs[i] = buffered.keySet().toArray(CapAccessId[]::new);
+                    keys[i] = Arrays.copyOfRange(indices, 0, numKeys);
+                    joinOutputs[i] = Arrays.copyOfRange(indices, numKeys, indices.length);
+                }
+                // Build the hash table on the bounded side, if the other side is
+                // unbounded. Otherwise, on the smaller side, if known.
+                // Otherwise, build on the right side.
+                final boolean leftUnbounded = TableTransformGraphProperties.isUnbounded(node.in(0));
+                final boolean rightUnbounded = TableTransformGraphProperties.isUnbounded(node.in(1));
+                if (leftUnbounded && rightUnbounded) {
+                    throw new IllegalArgumentException("Cannot join two unbounded tables");
+                }
+                final boolean buildLeft = rightUnbounded || (!leftUnbounded && predecessorSizes[0] >= 0
+                    && (predecessorSizes[1] < 0 || predecessorSizes[0] < predecessorSizes[1]));
+                capNode = new CapNodeJoin(nextCapNodeIndex(), inputs, predecessorIndices, keys, joinOutputs,
+                    spec.getJoinType(), buildLeft ? 0 : 1, spec.getMaxBuildRows());
+            }
+            case DISTINCT -> { // NOSONAR
+                final DistinctTransformSpec spec = node.getTransformSpec();
+                final CapAccessId[] inputs = capAccessIdsFor(node.in(0).accesses());
+                final int numKeys = spec.getColumnSelection().length;
+                final Map<CapAccessId, Integer> distinct = new LinkedHashMap<>();
+                final int[] indices = distinctIndices(inputs, distinct);
+                final int[] keys = Arrays.copyOfRange(indices, 0, numKeys);
+                final int[] distinctOutputs = Arrays.copyOfRange(indices, numKeys, indices.length);
+                final boolean sorted = TableTransformGraphProperties.isClusteredBy(node.in(0),
+                    node.in(0).accesses().subList(0, numKeys));
+                capNode = new CapNodeDistinct(nextCapNodeIndex(), distinct.keySet().toArray(CapAccessId[]::new),
+                    predecessorIndices[0], keys, distinctOutputs, sorted, spec.getMaxKeys());
+            }
             default -> throw new IllegalStateException();
         }
 
@@ -198,6 +372,14 @@ private CapNode appendInnerNode(final BranchGraph.InnerNode innerNode, final Cap
                 capNode = new CapNodeRowIndex(nextCapNodeIndex(), predecessor.index(), spec.getOffset());
                 createCapAccessIdsFor(outputs, capNode);
             }
+            case FLATMAP -> { // NOSONAR
+                final FlatMapTransformSpec spec = node.getTransformSpec();
+                final List<AccessId> outputs = node.out().accesses();
+                final int[] columns = outputs.stream().mapToInt(a -> a.find().producer().index()).toArray();
+                capNode = new CapNodeFlatMap(nextCapNodeIndex(), capInputs, predecessor.index(), columns,
+                    spec.getFlatMapperFactory());
+                createCapAccessIdsFor(outputs, capNode);
+            }
             case OBSERVER -> {
                 final ObserverTransformSpec spec = node.getTransformSpec();
                 capNode =
@@ -210,6 +392,40 @@ private CapNode appendInnerNode(final BranchGraph.InnerNode innerNode, final Cap
         return capNode;
     }
 
+    /**
+     * Operations that need to see all rows of their input before producing rows cannot be applied to an unbounded
+     * input.
+     *
+     * @throws IllegalArgumentException if the rows arriving at {@code port} are unbounded
+     */
+    private static void checkBounded(final TableTransformGraph.Port port, final String operation) {
+        if (TableTransformGraphProperties.isUnbounded(port)) {
+            throw new IllegalArgumentException("Cannot " + operation + " an unbounded table");
+        }
+    }
+
+    /**
+     * Collect the distinct elements of {@code inputs} into {@code distinct}, such that every distinct input is
+     * buffered only once, even if it is used both as a key and as an output.
+     *
+     * @param inputs the inputs
+     * @param distinct the distinct inputs, mapped to their index (in insertion order)
+     * @return for each element of {@code inputs}, its index in {@code distinct}
+     */
+    private static int[] distinctIndices(final CapAccessId[] inputs, final Map<CapAccessId, Integer> distinct) {
+        final int[] indices = new int[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            final Integer j = distinct.get(inputs[i]);
+            if (j == null) {
+                indices[i] = distinct.size();
+                distinct.put(inputs[i], indices[i]);
+            } else {
+                indices[i] = j;
+            }
+        }
+        return indices;
+    }
+
     /**
      * Append the given {@code capNode} to the plan.
      * Remember the association to corresponding {@code ragNode}.
@@ -0,0 +1,172 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.cap;
+
+import java.util.Arrays;
+
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.AggregateFunction;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.Window;
+
+/**
+ * Represents a group-by aggregation in the CAP.
+ * <p>
+ * A {@code CapNodeAggregate} consumes all rows of its predecessor, and then produces one row per group. The first
+ * {@link #numGroupColumns()} {@link #inputs() inputs} are the group columns. For each aggregation, the
+ * {@link #functions() aggregate function} is applied to the input given by {@link #aggregationInputs()}.
+ * <p>
+ * The (virtual) result row of an aggregation consists of the group columns followed by one column per aggregation.
+ * The {@link #cols() column selection} specifies which of these are provided as outputs of this node.
+ * <p>
+ * If there is a {@link #window() window}, the rows of each window are aggregated separately, and the result row has
+ * an additional column holding the index of the first row of the window.
+ */
+public class CapNodeAggregate extends CapNode {
+
+    private final CapAccessId[] inputs;
+    private final int predecessor;
+    private final int numGroupColumns;
+    private final AggregateFunction[] functions;
+    private final int[] aggregationInputs;
+    private final int[] cols;
+    private final long maxGroups;
+    private final Window window;
+
+    public CapNodeAggregate(final int index, final CapAccessId[] inputs, final int predecessor,
+            final int numGroupColumns, final AggregateFunction[] functions, final int[] aggregationInputs,
+            final int[] cols, final long maxGroups, final Window window) {
+        super(index, CapNodeType.AGGREGATE);
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.numGroupColumns = numGroupColumns;
+        this.functions = functions;
+        this.aggregationInputs = aggregationInputs;
+        this.cols = cols;
+        this.maxGroups = maxGroups;
+        this.window = window;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AGGREGATE(");
+        sb.append("inputs=").append(Arrays.toString(inputs));
+        sb.append(", predecessor=").append(predecessor);
+        sb.append(", numGroupColumns=").append(numGroupColumns);
+        sb.append(", functions=").append(Arrays.toString(functions));
+        sb.append(", aggregationInputs=").append(Arrays.toString(aggregationInputs));
+        sb.append(", cols=").append(Arrays.toString(cols));
+        sb.append(", maxGroups=").append(maxGroups);
+        if (window != null) {
+            sb.append(", window=").append(window);
+        }
+        sb.append(')');
+        return sb.toString();
+    }
+
+    /**
+     * @return the {@code CapAccessId}s (producer-slot pairs) of the group columns, followed by the aggregated columns
+     */
+    public CapAccessId[] inputs() {
+        return inputs;
+    }
+
+    /**
+     * A {@code CapNodeAggregate} has exactly one predecessor. The predecessor is forwarded until it is exhausted
+     * before the first group is produced. (With a {@link #window() window}, the predecessor is forwarded until the last
+     * row of the next window.)
+     *
+     * @return the index of the predecessor node in the CAP list.
+     */
+    public int predecessor() {
+        return predecessor;
+    }
+
+    /**
+     * @return the number of group columns (the first {@code numGroupColumns} elements of {@link #inputs()})
+     */
+    public int numGroupColumns() {
+        return numGroupColumns;
+    }
+
+    /**
+     * @return the aggregate function of each aggregation
+     */
+    public AggregateFunction[] functions() {
+        return functions;
+    }
+
+    /**
+     * @return for each aggregation the index into {@link #inputs()} of the aggregated column, or {@code -1} if the
+     *         aggregation counts rows
+     */
+    public int[] aggregationInputs() {
+        return aggregationInputs;
+    }
+
+    /**
+     * {@code cols()[i]} is the index in the result row (group columns followed by aggregations, followed by the window
+     * start, if there is a {@link #window() window}) of the column that is provided at output slot {@code i} of this
+     * node.
+     *
+     * @return the column selection of the result row
+     */
+    public int[] cols() {
+        return cols;
+    }
+
+    /**
+     * @return the maximum number of groups to aggregate in memory before spilling partial aggregates to disk
+     */
+    public long maxGroups() {
+        return maxGroups;
+    }
+
+    /**
+     * @return the windows of rows that are aggregated separately, or {@code null} if all rows are aggregated together
+     */
+    public Window window() {
+        return window;
+    }
+}
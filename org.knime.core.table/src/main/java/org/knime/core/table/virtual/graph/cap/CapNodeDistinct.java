@@ -0,0 +1,138 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.cap;
+
+import java.util.Arrays;
+
+/**
+ * Represents a duplicate removal operation in the CAP.
+ * <p>
+ * A {@code CapNodeDistinct} forwards its predecessor and produces only those rows whose {@link #keys() key values}
+ * have not been seen before. The {@link #keys() keys} and the {@link #outputs() outputs} are given as indices into
+ * {@link #inputs()}. (If a key column is also forwarded to the outputs, it only occurs once in {@code inputs}.)
+ * <p>
+ * If the predecessor is {@link #sorted() sorted} by the keys, each row only needs to be compared to the previous row.
+ */
+public class CapNodeDistinct extends CapNode {
+
+    private final CapAccessId[] inputs;
+    private final int predecessor;
+    private final int[] keys;
+    private final int[] outputs;
+    private final boolean sorted;
+    private final long maxKeys;
+
+    public CapNodeDistinct(final int index, final CapAccessId[] inputs, final int predecessor, final int[] keys,
+            final int[] outputs, final boolean sorted, final long maxKeys) {
+        super(index, CapNodeType.DISTINCT);
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.keys = keys;
+        this.outputs = outputs;
+        this.sorted = sorted;
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DISTINCT(");
+        sb.append("inputs=").append(Arrays.toString(inputs));
+        sb.append(", predecessor=").append(predecessor);
+        sb.append(", keys=").append(Arrays.toString(keys));
+        sb.append(", outputs=").append(Arrays.toString(outputs));
+        sb.append(", sorted=").append(sorted);
+        sb.append(", maxKeys=").append(maxKeys);
+        sb.append(')');
+        return sb.toString();
+    }
+
+    /**
+     * @return the {@code CapAccessId}s (producer-slot pairs) of the {@code ReadAccess}es that are consumed by this node
+     */
+    public CapAccessId[] inputs() {
+        return inputs;
+    }
+
+    /**
+     * A {@code CapNodeDistinct} has exactly one predecessor.
+     *
+     * @return the index of the predecessor node in the CAP list.
+     */
+    public int predecessor() {
+        return predecessor;
+    }
+
+    /**
+     * @return indices into {@link #inputs()} of the distinct keys
+     */
+    public int[] keys() {
+        return keys;
+    }
+
+    /**
+     * {@code outputs()[i]} is the index into {@link #inputs()} of the column that is provided at output slot {@code i}
+     * of this node.
+     *
+     * @return indices into {@link #inputs()} of the output columns
+     */
+    public int[] outputs() {
+        return outputs;
+    }
+
+    /**
+     * @return whether the predecessor rows are sorted such that rows with equal keys are adjacent
+     */
+    public boolean sorted() {
+        return sorted;
+    }
+
+    /**
+     * @return the maximum number of distinct keys to hold in memory before spilling rows to disk
+     */
+    public long maxKeys() {
+        return maxKeys;
+    }
+}
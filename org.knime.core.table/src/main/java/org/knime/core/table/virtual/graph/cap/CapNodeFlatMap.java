@@ -0,0 +1,136 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.cap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec.FlatMapperFactory;
+
+/**
+ * Represents a flat-map operation in the CAP.
+ * <p>
+ * A {@code CapNodeFlatMap} knows the {@code CapAccessId}s (producer-slot pairs) of the {@code ReadAccess}es required by
+ * the flat mapper, the flat mapper factory, the {@code DataSpecs} of the flat mapper outputs, the column selection of
+ * the columns produced by the flat mapper, and the index of the predecessor {@code CapNode}.
+ * <p>
+ * The columns of the predecessor are forwarded as they are: the predecessor stays on the same row while the flat
+ * mapper produces the output rows for it.
+ */
+public class CapNodeFlatMap extends CapNode {
+
+    private final CapAccessId[] inputs;
+    private final int predecessor;
+    private final List<DataSpec> flatMapOutputSpecs;
+    private final int[] cols;
+    private final FlatMapperFactory flatMapperFactory;
+
+    public CapNodeFlatMap(final int index, final CapAccessId[] inputs, final int predecessor, final int[] cols,
+            final FlatMapperFactory flatMapperFactory) {
+        super(index, CapNodeType.FLATMAP);
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.flatMapOutputSpecs = flatMapperFactory.getOutputSchema().specStream().collect(Collectors.toList());
+        this.cols = cols;
+        this.flatMapperFactory = flatMapperFactory;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("FLATMAP(");
+        sb.append("inputs=").append(Arrays.toString(inputs));
+        sb.append(", predecessor=").append(predecessor);
+        sb.append(", flatMapOutputSpecs=").append(flatMapOutputSpecs);
+        sb.append(", cols=").append(Arrays.toString(cols));
+        sb.append(", flatMapperFactory=").append(flatMapperFactory);
+        sb.append(')');
+        return sb.toString();
+    }
+
+    /**
+     * @return the {@code CapAccessId}s (producer-slot pairs) of the {@code ReadAccess}es required by the flat mapper
+     */
+    public CapAccessId[] inputs() {
+        return inputs;
+    }
+
+    /**
+     * A {@code CapNodeFlatMap} has exactly one predecessor. Calling {@code forward()} on the (instantiation of the)
+     * flat map will produce the next output row for the current row of the predecessor, or call {@code forward()} on
+     * the (instantiation of the) predecessor if there are no more output rows for the current row.
+     *
+     * @return the index of the predecessor node in the CAP list.
+     */
+    public int predecessor() {
+        return predecessor;
+    }
+
+    /**
+     * @return DataSpecs of the columns produced by the flat mapper
+     */
+    public List<DataSpec> flatMapOutputSpecs() {
+        return flatMapOutputSpecs;
+    }
+
+    /**
+     * {@code cols()[i]} is the index of a column produced by the flat mapper. {@code i} is the output slot index of
+     * this node which holds the column. (See {@link CapNodeMap#cols()}.)
+     *
+     * @return the column selection of the flat mapper outputs
+     */
+    public int[] cols() {
+        return cols;
+    }
+
+    /**
+     * @return the flat mapper factory
+     */
+    public FlatMapperFactory flatMapperFactory() {
+        return flatMapperFactory;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.cap;
+
+import java.util.Arrays;
+
+import org.knime.core.table.virtual.spec.JoinTransformSpec.JoinType;
+
+/**
+ * Represents a hash join in the CAP.
+ * <p>
+ * A {@code CapNodeJoin} has two predecessors, the left ({@code 0}) and the right ({@code 1}) table. All rows of the
+ * {@link #buildSide() build side} predecessor are consumed and buffered first. Then the rows of the other (probe side)
+ * predecessor are streamed and joined with the buffered rows.
+ * <p>
+ * For each side {@code s}, {@link #inputs() inputs()[s]} are the accesses of that side that are used by the join.
+ * The {@link #keys() keys} and {@link #outputs() outputs} of that side are given as indices into
+ * {@code inputs()[s]}. (If a key column is also forwarded to the outputs, it is only buffered once.) The outputs of
+ * the left side come first, followed by the outputs of the right side.
+ */
+public class CapNodeJoin extends CapNode {
+
+    private final CapAccessId[][] inputs;
+    private final int[] predecessors;
+    private final int[][] keys;
+    private final int[][] outputs;
+    private final JoinType joinType;
+    private final int buildSide;
+    private final long maxBuildRows;
+
+    public CapNodeJoin(final int index, final CapAccessId[][] inputs, final int[] predecessors, final int[][] keys,
+            final int[][] outputs, final JoinType joinType, final int buildSide, final long maxBuildRows) {
+        super(index, CapNodeType.JOIN);
+        this.inputs = inputs;
+        this.predecessors = predecessors;
+        this.keys = keys;
+        this.outputs = outputs;
+        this.joinType = joinType;
+        this.buildSide = buildSide;
+        this.maxBuildRows = maxBuildRows;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("JOIN(");
+        sb.append("inputs=").append(Arrays.deepToString(inputs));
+        sb.append(", predecessors=").append(Arrays.toString(predecessors));
+        sb.append(", keys=").append(Arrays.deepToString(keys));
+        sb.append(", outputs=").append(Arrays.deepToString(outputs));
+        sb.append(", joinType=").append(joinType);
+        sb.append(", buildSide=").append(buildSide);
+        sb.append(", maxBuildRows=").append(maxBuildRows);
+        sb.append(')');
+        return sb.toString();
+    }
+
+    /**
+     * @return for the left and the right side, the {@code CapAccessId}s (producer-slot pairs) of the
+     *         {@code ReadAccess}es that are used by the join
+     */
+    public CapAccessId[][] inputs() {
+        return inputs;
+    }
+
+    /**
+     * @return the indices of the left and the right predecessor node in the CAP list.
+     */
+    public int[] predecessors() {
+        return predecessors;
+    }
+
+    /**
+     * @return for the left and the right side, indices into {@code inputs()[side]} of the join keys
+     */
+    public int[][] keys() {
+        return keys;
+    }
+
+    /**
+     * {@code outputs()[s][i]} is the index into {@code inputs()[s]} of the column that is provided at the
+     * {@code i}-th output slot of side {@code s}. (The output slots of the right side follow those of the left side.)
+     *
+     * @return for the left and the right side, indices into {@code inputs()[side]} of the output columns
+     */
+    public int[][] outputs() {
+        return outputs;
+    }
+
+    /**
+     * @return the join type
+     */
+    public JoinType joinType() {
+        return joinType;
+    }
+
+    /**
+     * @return which predecessor is buffered in the hash table: {@code 0} (left) or {@code 1} (right)
+     */
+    public int buildSide() {
+        return buildSide;
+    }
+
+    /**
+     * @return the maximum number of build rows to hold in memory before partitioning to disk
+     */
+    public long maxBuildRows() {
+        return maxBuildRows;
+    }
+}
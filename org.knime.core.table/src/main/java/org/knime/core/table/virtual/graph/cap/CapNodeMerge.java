@@ -0,0 +1,129 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.cap;
+
+import java.util.Arrays;
+
+/**
+ * Represents a k-way merge of sorted predecessors in the CAP.
+ * <p>
+ * Each predecessor is assumed to be sorted by its {@link #keys() keys}. The {@code CapNodeMerge} produces the rows of
+ * all predecessors, always choosing the predecessor with the smallest current row next. The keys and the
+ * {@link #outputs() outputs} are given as indices into the {@link #inputs() inputs} of the respective predecessor,
+ * and are the same for all predecessors.
+ */
+public class CapNodeMerge extends CapNode {
+
+    private final CapAccessId[][] inputs;
+    private final int[] predecessors;
+    private final int[] keys;
+    private final boolean[] ascending;
+    private final int[] outputs;
+
+    public CapNodeMerge(final int index, final CapAccessId[][] inputs, final int[] predecessors, final int[] keys,
+            final boolean[] ascending, final int[] outputs) {
+        super(index, CapNodeType.MERGE);
+        this.inputs = inputs;
+        this.predecessors = predecessors;
+        this.keys = keys;
+        this.ascending = ascending;
+        this.outputs = outputs;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MERGE(");
+        sb.append("inputs=").append(Arrays.deepToString(inputs));
+        sb.append(", predecessors=").append(Arrays.toString(predecessors));
+        sb.append(", keys=").append(Arrays.toString(keys));
+        sb.append(", ascending=").append(Arrays.toString(ascending));
+        sb.append(", outputs=").append(Arrays.toString(outputs));
+        sb.append(')');
+        return sb.toString();
+    }
+
+    /**
+     * {@code inputs()[p]} are the {@code CapAccessId}s (producer-slot pairs) of the {@code ReadAccess}es of
+     * predecessor {@code p}.
+     *
+     * @return the inputs of each predecessor
+     */
+    public CapAccessId[][] inputs() {
+        return inputs;
+    }
+
+    /**
+     * The {@link #index() index} of each predecessor in the CAP list.
+     * These are always all {@code < this.index()}.
+     */
+    public int[] predecessors() {
+        return predecessors;
+    }
+
+    /**
+     * @return indices into {@code inputs()[p]} of the merge keys (in order of precedence)
+     */
+    public int[] keys() {
+        return keys;
+    }
+
+    /**
+     * @return for each merge key, whether the predecessors are sorted in ascending order
+     */
+    public boolean[] ascending() {
+        return ascending;
+    }
+
+    /**
+     * {@code outputs()[i]} is the index into {@code inputs()[p]} of the access that is provided at output slot
+     * {@code i} of this node, while the current row comes from predecessor {@code p}.
+     *
+     * @return indices into {@code inputs()[p]} of the output columns
+     */
+    public int[] outputs() {
+        return outputs;
+    }
+}
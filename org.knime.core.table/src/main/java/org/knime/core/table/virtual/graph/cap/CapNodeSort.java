@@ -0,0 +1,163 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.cap;
+
+import java.util.Arrays;
+
+/**
+ * Represents a sort operation in the CAP.
+ * <p>
+ * A {@code CapNodeSort} consumes all rows of its predecessor, buffering the {@link #inputs() inputs}, and then
+ * produces the buffered rows in sorted order. The {@link #keys() sort keys} and the {@link #outputs() outputs} are
+ * given as indices into {@code inputs}. (If a key column is also forwarded to the outputs, it is only buffered
+ * once.) If a {@link #limit() limit} is given, only the first {@code limit} sorted rows are produced.
+ * <p>
+ * The nodes from {@link #predecessorBranchStart()} (inclusive) to {@link #index()} (exclusive) in the CAP list form
+ * the branch that feeds the sort. These nodes are not used by any other node. This is exploited to assemble the
+ * predecessor branch with sequential cursors, even if the sorted table is accessed randomly.
+ */
+public class CapNodeSort extends CapNode {
+
+    private final CapAccessId[] inputs;
+    private final int predecessor;
+    private final int predecessorBranchStart;
+    private final int[] keys;
+    private final boolean[] ascending;
+    private final int[] outputs;
+    private final long maxBufferedRows;
+    private final long limit;
+
+    public CapNodeSort(final int index, final CapAccessId[] inputs, final int predecessor,
+            final int predecessorBranchStart, final int[] keys, final boolean[] ascending, final int[] outputs,
+            final long maxBufferedRows, final long limit) {
+        super(index, CapNodeType.SORT);
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.predecessorBranchStart = predecessorBranchStart;
+        this.keys = keys;
+        this.ascending = ascending;
+        this.outputs = outputs;
+        this.maxBufferedRows = maxBufferedRows;
+        this.limit = limit;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SORT(");
+        sb.append("inputs=").append(Arrays.toString(inputs));
+        sb.append(", predecessor=").append(predecessor);
+        sb.append(", predecessorBranchStart=").append(predecessorBranchStart);
+        sb.append(", keys=").append(Arrays.toString(keys));
+        sb.append(", ascending=").append(Arrays.toString(ascending));
+        sb.append(", outputs=").append(Arrays.toString(outputs));
+        sb.append(", maxBufferedRows=").append(maxBufferedRows);
+        sb.append(", limit=").append(limit);
+        sb.append(')');
+        return sb.toString();
+    }
+
+    /**
+     * @return the {@code CapAccessId}s (producer-slot pairs) of the {@code ReadAccess}es that are buffered by the sort
+     */
+    public CapAccessId[] inputs() {
+        return inputs;
+    }
+
+    /**
+     * A {@code CapNodeSort} has exactly one predecessor. The predecessor is forwarded until it is exhausted before the
+     * first sorted row is produced.
+     *
+     * @return the index of the predecessor node in the CAP list.
+     */
+    public int predecessor() {
+        return predecessor;
+    }
+
+    /**
+     * @return the index of the first node of the predecessor branch in the CAP list.
+     */
+    public int predecessorBranchStart() {
+        return predecessorBranchStart;
+    }
+
+    /**
+     * @return indices into {@link #inputs()} of the sort keys (in order of precedence)
+     */
+    public int[] keys() {
+        return keys;
+    }
+
+    /**
+     * @return for each sort key, whether to sort in ascending order
+     */
+    public boolean[] ascending() {
+        return ascending;
+    }
+
+    /**
+     * {@code outputs()[i]} is the index into {@link #inputs()} of the buffered column that is provided at output slot
+     * {@code i} of this node.
+     *
+     * @return indices into {@link #inputs()} of the output columns
+     */
+    public int[] outputs() {
+        return outputs;
+    }
+
+    /**
+     * @return the maximum number of rows to sort in memory before spilling sorted runs to disk
+     */
+    public long maxBufferedRows() {
+        return maxBufferedRows;
+    }
+
+    /**
+     * @return the maximum number of sorted rows to produce, or {@code -1} to produce all rows
+     */
+    public long limit() {
+        return limit;
+    }
+}
@@ -63,6 +63,7 @@ public class CapNodeSource extends CapNode {
     private final int[] cols;
     private final long fromRow;
     private final long toRow;
+    private final boolean[] late;
 
     /**
      * @param index index of this node in the CAP list.
@@ -71,11 +72,24 @@ public class CapNodeSource extends CapNode {
      * @param range the row range selected on the source table
      */
     public CapNodeSource(final int index, final UUID uuid, final int[] cols, final RowRangeSelection range) {
+        this(index, uuid, cols, range, new boolean[cols.length]);
+    }
+
+    /**
+     * @param index index of this node in the CAP list.
+     * @param uuid  the UUID of the source table
+     * @param cols  the column indices of the selected source columns.
+     * @param range the row range selected on the source table
+     * @param late  for each selected column, whether it is fetched late
+     */
+    public CapNodeSource(final int index, final UUID uuid, final int[] cols, final RowRangeSelection range,
+        final boolean[] late) {
         super(index, CapNodeType.SOURCE);
         this.uuid = uuid;
         this.cols = cols;
         this.fromRow = range.fromIndex();
         this.toRow = range.toIndex();
+        this.late = late;
     }
 
     @Override
@@ -85,6 +99,9 @@ public String toString() {
         sb.append(", cols=").append(Arrays.toString(cols));
         sb.append(", fromRow=").append(fromRow);
         sb.append(", toRow=").append(toRow);
+        if (hasLateColumns()) {
+            sb.append(", late=").append(Arrays.toString(late));
+        }
         sb.append(')');
         return sb.toString();
     }
@@ -128,4 +145,26 @@ public long fromRow() {
     public long toRow() {
         return toRow;
     }
+
+    /**
+     * Get, for each of the {@link #cols() selected columns}, whether it is fetched late. The values of late columns
+     * are only valid after a subsequent {@link CapNodeMaterialize} has been forwarded.
+     *
+     * @return for each selected column, whether it is fetched late
+     */
+    public boolean[] late() {
+        return late;
+    }
+
+    /**
+     * @return {@code true} if any of the selected columns is {@link #late() fetched late}
+     */
+    public boolean hasLateColumns() {
+        for (boolean l : late) {
+            if (l) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.cap;
+
+import java.util.Arrays;
+
+/**
+ * Represents gathering rows by row index in the CAP.
+ * <p>
+ * The {@code i}-th row produced by a {@code CapNodeTake} is the row at index {@code rows()[i]} of its
+ * {@link #predecessor() predecessor}, or (if {@link #rows()} is {@code null}) the row at the index given by the
+ * {@link #indexInput() index input} in the {@code i}-th row of the {@link #indexPredecessor() index predecessor}. The
+ * {@link #inputs() inputs} from the predecessor are provided at the output slots of this node.
+ * <p>
+ * The nodes from {@link #predecessorBranchStart()} (inclusive) to {@link #predecessor()} (inclusive) in the CAP list
+ * form the branch that provides the rows to gather. These nodes are not used by any other node. This is exploited to
+ * assemble this branch with random-access cursors, even if the gathered rows are read sequentially.
+ */
+public class CapNodeTake extends CapNode {
+
+    private final CapAccessId[] inputs;
+    private final int predecessor;
+    private final int predecessorBranchStart;
+    private final CapAccessId indexInput;
+    private final int indexPredecessor;
+    private final long[] rows;
+
+    public CapNodeTake(final int index, final CapAccessId[] inputs, final int predecessor,
+            final int predecessorBranchStart, final CapAccessId indexInput, final int indexPredecessor,
+            final long[] rows) {
+        super(index, CapNodeType.TAKE);
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.predecessorBranchStart = predecessorBranchStart;
+        this.indexInput = indexInput;
+        this.indexPredecessor = indexPredecessor;
+        this.rows = rows;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TAKE(");
+        sb.append("inputs=").append(Arrays.toString(inputs));
+        sb.append(", predecessor=").append(predecessor);
+        sb.append(", predecessorBranchStart=").append(predecessorBranchStart);
+        if (rows == null) {
+            sb.append(", indexInput=").append(indexInput);
+            sb.append(", indexPredecessor=").append(indexPredecessor);
+        } else {
+            sb.append(", numRows=").append(rows.length);
+        }
+        sb.append(')');
+        return sb.toString();
+    }
+
+    /**
+     * {@code inputs()[i]} is the {@code CapAccessId} (producer-slot pair) of the {@code ReadAccess} of the predecessor
+     * that is provided at output slot {@code i} of this node.
+     *
+     * @return the inputs from the predecessor
+     */
+    public CapAccessId[] inputs() {
+        return inputs;
+    }
+
+    /**
+     * The predecessor is the table that rows are gathered from. It is accessed randomly.
+     *
+     * @return the index of the predecessor node in the CAP list.
+     */
+    public int predecessor() {
+        return predecessor;
+    }
+
+    /**
+     * @return the index of the first node of the predecessor branch in the CAP list.
+     */
+    public int predecessorBranchStart() {
+        return predecessorBranchStart;
+    }
+
+    /**
+     * @return the {@code CapAccessId} of the {@code LONG} row index from the index predecessor, or {@code null} if
+     *         {@link #rows()} are given
+     */
+    public CapAccessId indexInput() {
+        return indexInput;
+    }
+
+    /**
+     * @return the index of the index predecessor node in the CAP list, or {@code -1} if {@link #rows()} are given
+     */
+    public int indexPredecessor() {
+        return indexPredecessor;
+    }
+
+    /**
+     * @return the row indices to gather, or {@code null} if the row indices are read from the index predecessor
+     */
+    public long[] rows() {
+        return rows;
+    }
+}
@@ -56,4 +56,12 @@ public enum CapNodeType {
     APPEND, //
     CONCATENATE, //
     CONSUMER, //
+    SORT, //
+    MERGE, //
+    TAKE, //
+    AGGREGATE, //
+    JOIN, //
+    DISTINCT, //
+    FLATMAP, //
+    MATERIALIZE, //
 }
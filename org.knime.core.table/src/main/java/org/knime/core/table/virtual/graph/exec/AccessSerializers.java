@@ -0,0 +1,316 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.knime.core.table.access.BooleanAccess.BooleanReadAccess;
+import org.knime.core.table.access.BooleanAccess.BooleanWriteAccess;
+import org.knime.core.table.access.ByteAccess.ByteReadAccess;
+import org.knime.core.table.access.ByteAccess.ByteWriteAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleReadAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleWriteAccess;
+import org.knime.core.table.access.FloatAccess.FloatReadAccess;
+import org.knime.core.table.access.FloatAccess.FloatWriteAccess;
+import org.knime.core.table.access.IntAccess.IntReadAccess;
+import org.knime.core.table.access.IntAccess.IntWriteAccess;
+import org.knime.core.table.access.ListAccess.ListReadAccess;
+import org.knime.core.table.access.ListAccess.ListWriteAccess;
+import org.knime.core.table.access.LongAccess.LongReadAccess;
+import org.knime.core.table.access.LongAccess.LongWriteAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.StringAccess.StringReadAccess;
+import org.knime.core.table.access.StringAccess.StringWriteAccess;
+import org.knime.core.table.access.StructAccess.StructReadAccess;
+import org.knime.core.table.access.StructAccess.StructWriteAccess;
+import org.knime.core.table.access.VarBinaryAccess.VarBinaryReadAccess;
+import org.knime.core.table.access.VarBinaryAccess.VarBinaryWriteAccess;
+import org.knime.core.table.access.WriteAccess;
+import org.knime.core.table.schema.BooleanDataSpec;
+import org.knime.core.table.schema.ByteDataSpec;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.schema.DoubleDataSpec;
+import org.knime.core.table.schema.FloatDataSpec;
+import org.knime.core.table.schema.IntDataSpec;
+import org.knime.core.table.schema.ListDataSpec;
+import org.knime.core.table.schema.LongDataSpec;
+import org.knime.core.table.schema.StringDataSpec;
+import org.knime.core.table.schema.StructDataSpec;
+import org.knime.core.table.schema.VarBinaryDataSpec;
+import org.knime.core.table.schema.VoidDataSpec;
+
+/**
+ * Binary (de)serialization of the current values of {@code ReadAccess}es to {@code DataOutput}, and from
+ * {@code DataInput} into {@code WriteAccess}es. This is used to spill buffered rows to temporary files.
+ * <p>
+ * The format is not meant for persistence: it is only guaranteed that a value written by an {@code AccessWriter}
+ * can be read back by an {@code AccessReader} for the same {@code DataSpec} in the same process.
+ */
+final class AccessSerializers {
+
+    private AccessSerializers() {
+    }
+
+    @FunctionalInterface
+    interface AccessWriter {
+        void write(ReadAccess access, DataOutput output) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface AccessReader {
+        void read(DataInput input, WriteAccess access) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(ReadAccess access, DataOutput output) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ValueReader {
+        void read(DataInput input, WriteAccess access) throws IOException;
+    }
+
+    /**
+     * Create an {@code AccessWriter} for accesses with the given {@code spec}.
+     */
+    static AccessWriter writer(final DataSpec spec) {
+        final ValueWriter value = spec.accept(Writers.INSTANCE);
+        return (access, output) -> {
+            if (access.isMissing()) {
+                output.writeBoolean(true);
+            } else {
+                output.writeBoolean(false);
+                value.write(access, output);
+            }
+        };
+    }
+
+    /**
+     * Create an {@code AccessReader} for accesses with the given {@code spec}.
+     */
+    static AccessReader reader(final DataSpec spec) {
+        final ValueReader value = spec.accept(Readers.INSTANCE);
+        return (input, access) -> {
+            if (input.readBoolean()) {
+                access.setMissing();
+            } else {
+                value.read(input, access);
+            }
+        };
+    }
+
+    private static final class Writers implements DataSpec.Mapper<ValueWriter> {
+
+        static final Writers INSTANCE = new Writers();
+
+        @Override
+        public ValueWriter visit(final BooleanDataSpec spec) {
+            return (a, out) -> out.writeBoolean(((BooleanReadAccess)a).getBooleanValue());
+        }
+
+        @Override
+        public ValueWriter visit(final ByteDataSpec spec) {
+            return (a, out) -> out.writeByte(((ByteReadAccess)a).getByteValue());
+        }
+
+        @Override
+        public ValueWriter visit(final DoubleDataSpec spec) {
+            return (a, out) -> out.writeDouble(((DoubleReadAccess)a).getDoubleValue());
+        }
+
+        @Override
+        public ValueWriter visit(final FloatDataSpec spec) {
+            return (a, out) -> out.writeFloat(((FloatReadAccess)a).getFloatValue());
+        }
+
+        @Override
+        public ValueWriter visit(final IntDataSpec spec) {
+            return (a, out) -> out.writeInt(((IntReadAccess)a).getIntValue());
+        }
+
+        @Override
+        public ValueWriter visit(final LongDataSpec spec) {
+            return (a, out) -> out.writeLong(((LongReadAccess)a).getLongValue());
+        }
+
+        @Override
+        public ValueWriter visit(final VarBinaryDataSpec spec) {
+            return (a, out) -> writeBytes(((VarBinaryReadAccess)a).getByteArray(), out);
+        }
+
+        @Override
+        public ValueWriter visit(final VoidDataSpec spec) {
+            return (a, out) -> {
+            };
+        }
+
+        @Override
+        public ValueWriter visit(final StructDataSpec spec) {
+            final AccessWriter[] inner = new AccessWriter[spec.size()];
+            Arrays.setAll(inner, i -> writer(spec.getDataSpec(i)));
+            return (a, out) -> {
+                final StructReadAccess struct = (StructReadAccess)a;
+                for (int i = 0; i < inner.length; i++) {
+                    inner[i].write(struct.getAccess(i), out);
+                }
+            };
+        }
+
+        @Override
+        public ValueWriter visit(final ListDataSpec listDataSpec) {
+            final AccessWriter inner = writer(listDataSpec.getInner());
+            return (a, out) -> {
+                final ListReadAccess list = (ListReadAccess)a;
+                final int size = list.size();
+                out.writeInt(size);
+                final ReadAccess element = list.getAccess();
+                for (int i = 0; i < size; i++) {
+                    list.setIndex(i);
+                    inner.write(element, out);
+                }
+            };
+        }
+
+        @Override
+        public ValueWriter visit(final StringDataSpec spec) {
+            return (a, out) -> writeBytes(((StringReadAccess)a).getStringValue().getBytes(StandardCharsets.UTF_8), out);
+        }
+
+        private static void writeBytes(final byte[] bytes, final DataOutput out) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static final class Readers implements DataSpec.Mapper<ValueReader> {
+
+        static final Readers INSTANCE = new Readers();
+
+        @Override
+        public ValueReader visit(final BooleanDataSpec spec) {
+            return (in, a) -> ((BooleanWriteAccess)a).setBooleanValue(in.readBoolean());
+        }
+
+        @Override
+        public ValueReader visit(final ByteDataSpec spec) {
+            return (in, a) -> ((ByteWriteAccess)a).setByteValue(in.readByte());
+        }
+
+        @Override
+        public ValueReader visit(final DoubleDataSpec spec) {
+            return (in, a) -> ((DoubleWriteAccess)a).setDoubleValue(in.readDouble());
+        }
+
+        @Override
+        public ValueReader visit(final FloatDataSpec spec) {
+            return (in, a) -> ((FloatWriteAccess)a).setFloatValue(in.readFloat());
+        }
+
+        @Override
+        public ValueReader visit(final IntDataSpec spec) {
+            return (in, a) -> ((IntWriteAccess)a).setIntValue(in.readInt());
+        }
+
+        @Override
+        public ValueReader visit(final LongDataSpec spec) {
+            return (in, a) -> ((LongWriteAccess)a).setLongValue(in.readLong());
+        }
+
+        @Override
+        public ValueReader visit(final VarBinaryDataSpec spec) {
+            return (in, a) -> ((VarBinaryWriteAccess)a).setByteArray(readBytes(in));
+        }
+
+        @Override
+        public ValueReader visit(final VoidDataSpec spec) {
+            return (in, a) -> {
+            };
+        }
+
+        @Override
+        public ValueReader visit(final StructDataSpec spec) {
+            final AccessReader[] inner = new AccessReader[spec.size()];
+            Arrays.setAll(inner, i -> reader(spec.getDataSpec(i)));
+            return (in, a) -> {
+                final StructWriteAccess struct = (StructWriteAccess)a;
+                for (int i = 0; i < inner.length; i++) {
+                    inner[i].read(in, struct.getWriteAccess(i));
+                }
+            };
+        }
+
+        @Override
+        public ValueReader visit(final ListDataSpec listDataSpec) {
+            final AccessReader inner = reader(listDataSpec.getInner());
+            return (in, a) -> {
+                final ListWriteAccess list = (ListWriteAccess)a;
+                final int size = in.readInt();
+                list.create(size);
+                final WriteAccess element = list.getWriteAccess();
+                for (int i = 0; i < size; i++) {
+                    list.setWriteIndex(i);
+                    inner.read(in, element);
+                }
+            };
+        }
+
+        @Override
+        public ValueReader visit(final StringDataSpec spec) {
+            return (in, a) -> ((StringWriteAccess)a).setStringValue(new String(readBytes(in), StandardCharsets.UTF_8));
+        }
+
+        private static byte[] readBytes(final DataInput in) throws IOException {
+            final byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return bytes;
+        }
+    }
+}
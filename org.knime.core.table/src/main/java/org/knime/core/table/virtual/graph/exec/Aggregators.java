@@ -0,0 +1,619 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import org.knime.core.table.access.ByteAccess.ByteReadAccess;
+import org.knime.core.table.access.ByteAccess.ByteWriteAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleReadAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleWriteAccess;
+import org.knime.core.table.access.FloatAccess.FloatReadAccess;
+import org.knime.core.table.access.FloatAccess.FloatWriteAccess;
+import org.knime.core.table.access.IntAccess.IntReadAccess;
+import org.knime.core.table.access.IntAccess.IntWriteAccess;
+import org.knime.core.table.access.LongAccess.LongReadAccess;
+import org.knime.core.table.access.LongAccess.LongWriteAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.WriteAccess;
+import org.knime.core.table.schema.ByteDataSpec;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.schema.DoubleDataSpec;
+import org.knime.core.table.schema.FloatDataSpec;
+import org.knime.core.table.schema.IntDataSpec;
+import org.knime.core.table.schema.LongDataSpec;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.AggregateFunction;
+
+/**
+ * Implementations of {@link AggregateFunction}s.
+ * <p>
+ * An {@link Aggregator} holds the aggregation state of all groups in primitive arrays, indexed by group id. The state
+ * of a group can be written to {@code WriteAccess}es (a "partial aggregate"), and partial aggregates can be merged
+ * into the state of a group.
+ */
+final class Aggregators {
+
+    private Aggregators() {
+    }
+
+    interface Aggregator {
+
+        /**
+         * Make sure that the state arrays can hold at least {@code numGroups} groups.
+         */
+        void ensureCapacity(int numGroups);
+
+        /**
+         * Accumulate the current value of the input access into the state of {@code group}.
+         */
+        void accumulate(int group);
+
+        /**
+         * @return the {@code DataSpec}s of the partial aggregate
+         */
+        DataSpec[] stateSpecs();
+
+        /**
+         * Write the state of {@code group} to {@code state[offset], state[offset+1], ...}.
+         */
+        void writeState(int group, WriteAccess[] state, int offset);
+
+        /**
+         * Merge the partial aggregate {@code state[offset], state[offset+1], ...} into the state of {@code group}.
+         */
+        void mergeState(int group, ReadAccess[] state, int offset);
+
+        /**
+         * @return the {@code DataSpec} of the aggregation result
+         */
+        DataSpec resultSpec();
+
+        /**
+         * Write the aggregation result of {@code group} to {@code result}.
+         */
+        void writeResult(int group, WriteAccess result);
+
+        /**
+         * Reset the state of all groups.
+         */
+        void clear();
+    }
+
+    /**
+     * Create an {@code Aggregator}.
+     *
+     * @param function the aggregate function
+     * @param inputSpec the {@code DataSpec} of the aggregated column, or {@code null} to count rows
+     * @param input the aggregated column. This may be {@code null} if the aggregator is only used to
+     *            {@link Aggregator#mergeState merge} partial aggregates.
+     * @return a new {@code Aggregator}
+     */
+    static Aggregator create(final AggregateFunction function, final DataSpec inputSpec, final ReadAccess input) {
+        if (function == AggregateFunction.COUNT) {
+            return new Count(inputSpec == null ? null : input);
+        }
+        if (!AggregateFunction.isNumeric(inputSpec)) {
+            throw new IllegalArgumentException(function + " can only be applied to numeric columns");
+        }
+        final boolean integral = AggregateFunction.isIntegral(inputSpec);
+        return switch (function) {
+            case SUM -> integral //
+                ? new LongSum(longValue(inputSpec), input) //
+                : new DoubleSum(doubleValue(inputSpec), input);
+            case MIN, MAX -> integral //
+                ? new LongMinMax(function == AggregateFunction.MAX, inputSpec, input) //
+                : new DoubleMinMax(function == AggregateFunction.MAX, inputSpec, input);
+            case MEAN -> new Mean(integral ? longValue(inputSpec)::applyAsLong : doubleValue(inputSpec), input);
+            default -> throw new IllegalArgumentException("Unexpected aggregate function: " + function);
+        };
+    }
+
+    private static ToLongFunction<ReadAccess> longValue(final DataSpec spec) {
+        if (spec instanceof ByteDataSpec) {
+            return a -> ((ByteReadAccess)a).getByteValue();
+        } else if (spec instanceof IntDataSpec) {
+            return a -> ((IntReadAccess)a).getIntValue();
+        } else {
+            return a -> ((LongReadAccess)a).getLongValue();
+        }
+    }
+
+    private static ToDoubleFunction<ReadAccess> doubleValue(final DataSpec spec) {
+        if (spec instanceof FloatDataSpec) {
+            return a -> ((FloatReadAccess)a).getFloatValue();
+        } else {
+            return a -> ((DoubleReadAccess)a).getDoubleValue();
+        }
+    }
+
+    private static long getLong(final ReadAccess access) {
+        return ((LongReadAccess)access).getLongValue();
+    }
+
+    private static void setLong(final WriteAccess access, final long value) {
+        ((LongWriteAccess)access).setLongValue(value);
+    }
+
+    private static double getDouble(final ReadAccess access) {
+        return ((DoubleReadAccess)access).getDoubleValue();
+    }
+
+    private static void setDouble(final WriteAccess access, final double value) {
+        ((DoubleWriteAccess)access).setDoubleValue(value);
+    }
+
+    private static final DataSpec LONG = LongDataSpec.INSTANCE;
+
+    private static final DataSpec DOUBLE = DoubleDataSpec.INSTANCE;
+
+    private static int grow(final int capacity, final int numGroups) {
+        return Math.max(numGroups, Math.max(16, 2 * capacity));
+    }
+
+    /**
+     * Counts non-missing values of the input, or rows if the input is {@code null}.
+     */
+    private static final class Count implements Aggregator {
+
+        private final ReadAccess m_input;
+
+        private long[] m_counts = new long[0];
+
+        Count(final ReadAccess input) {
+            m_input = input;
+        }
+
+        @Override
+        public void ensureCapacity(final int numGroups) {
+            if (numGroups > m_counts.length) {
+                m_counts = Arrays.copyOf(m_counts, grow(m_counts.length, numGroups));
+            }
+        }
+
+        @Override
+        public void accumulate(final int group) {
+            if (m_input == null || !m_input.isMissing()) {
+                ++m_counts[group];
+            }
+        }
+
+        @Override
+        public DataSpec[] stateSpecs() {
+            return new DataSpec[]{LONG};
+        }
+
+        @Override
+        public void writeState(final int group, final WriteAccess[] state, final int offset) {
+            setLong(state[offset], m_counts[group]);
+        }
+
+        @Override
+        public void mergeState(final int group, final ReadAccess[] state, final int offset) {
+            m_counts[group] += getLong(state[offset]);
+        }
+
+        @Override
+        public DataSpec resultSpec() {
+            return LONG;
+        }
+
+        @Override
+        public void writeResult(final int group, final WriteAccess result) {
+            setLong(result, m_counts[group]);
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(m_counts, 0);
+        }
+    }
+
+    /**
+     * Base class for aggregators that track whether any non-missing value was seen in a group. The partial aggregate
+     * is missing if no value was seen.
+     */
+    private abstract static class SeenAggregator implements Aggregator {
+
+        final ReadAccess m_input;
+
+        final BitSet m_seen = new BitSet();
+
+        int m_capacity;
+
+        SeenAggregator(final ReadAccess input) {
+            m_input = input;
+        }
+
+        @Override
+        public final void ensureCapacity(final int numGroups) {
+            if (numGroups > m_capacity) {
+                m_capacity = grow(m_capacity, numGroups);
+                resize(m_capacity);
+            }
+        }
+
+        abstract void resize(int capacity);
+
+        @Override
+        public final void accumulate(final int group) {
+            if (!m_input.isMissing()) {
+                accumulateValue(group, !m_seen.get(group));
+                m_seen.set(group);
+            }
+        }
+
+        /**
+         * Accumulate the (non-missing) current input value.
+         *
+         * @param first whether this is the first value seen in {@code group}
+         */
+        abstract void accumulateValue(int group, boolean first);
+
+        @Override
+        public final void writeState(final int group, final WriteAccess[] state, final int offset) {
+            if (m_seen.get(group)) {
+                writeValue(group, state[offset]);
+            } else {
+                state[offset].setMissing();
+            }
+        }
+
+        @Override
+        public final void mergeState(final int group, final ReadAccess[] state, final int offset) {
+            if (!state[offset].isMissing()) {
+                mergeValue(group, state[offset], !m_seen.get(group));
+                m_seen.set(group);
+            }
+        }
+
+        abstract void mergeValue(int group, ReadAccess state, boolean first);
+
+        @Override
+        public final void writeResult(final int group, final WriteAccess result) {
+            if (m_seen.get(group)) {
+                writeValue(group, result);
+            } else {
+                result.setMissing();
+            }
+        }
+
+        abstract void writeValue(int group, WriteAccess access);
+
+        @Override
+        public final DataSpec[] stateSpecs() {
+            return new DataSpec[]{resultSpec()};
+        }
+
+        @Override
+        public void clear() {
+            m_seen.clear();
+        }
+    }
+
+    private static final class LongSum extends SeenAggregator {
+
+        private final ToLongFunction<ReadAccess> m_value;
+
+        private long[] m_sums = new long[0];
+
+        LongSum(final ToLongFunction<ReadAccess> value, final ReadAccess input) {
+            super(input);
+            m_value = value;
+        }
+
+        @Override
+        void resize(final int capacity) {
+            m_sums = Arrays.copyOf(m_sums, capacity);
+        }
+
+        @Override
+        void accumulateValue(final int group, final boolean first) {
+            m_sums[group] += m_value.applyAsLong(m_input);
+        }
+
+        @Override
+        void mergeValue(final int group, final ReadAccess state, final boolean first) {
+            m_sums[group] += getLong(state);
+        }
+
+        @Override
+        void writeValue(final int group, final WriteAccess access) {
+            setLong(access, m_sums[group]);
+        }
+
+        @Override
+        public DataSpec resultSpec() {
+            return LONG;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            Arrays.fill(m_sums, 0);
+        }
+    }
+
+    private static final class DoubleSum extends SeenAggregator {
+
+        private final ToDoubleFunction<ReadAccess> m_value;
+
+        private double[] m_sums = new double[0];
+
+        DoubleSum(final ToDoubleFunction<ReadAccess> value, final ReadAccess input) {
+            super(input);
+            m_value = value;
+        }
+
+        @Override
+        void resize(final int capacity) {
+            m_sums = Arrays.copyOf(m_sums, capacity);
+        }
+
+        @Override
+        void accumulateValue(final int group, final boolean first) {
+            m_sums[group] += m_value.applyAsDouble(m_input);
+        }
+
+        @Override
+        void mergeValue(final int group, final ReadAccess state, final boolean first) {
+            m_sums[group] += getDouble(state);
+        }
+
+        @Override
+        void writeValue(final int group, final WriteAccess access) {
+            setDouble(access, m_sums[group]);
+        }
+
+        @Override
+        public DataSpec resultSpec() {
+            return DOUBLE;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            Arrays.fill(m_sums, 0);
+        }
+    }
+
+    /**
+     * Minimum or maximum of {@code BYTE}, {@code INT}, or {@code LONG} values. The partial aggregate has the same type
+     * as the input.
+     */
+    private static final class LongMinMax extends SeenAggregator {
+
+        private final boolean m_max;
+
+        private final DataSpec m_spec;
+
+        private final ToLongFunction<ReadAccess> m_value;
+
+        private long[] m_values = new long[0];
+
+        LongMinMax(final boolean max, final DataSpec spec, final ReadAccess input) {
+            super(input);
+            m_max = max;
+            m_spec = spec;
+            m_value = longValue(spec);
+        }
+
+        @Override
+        void resize(final int capacity) {
+            m_values = Arrays.copyOf(m_values, capacity);
+        }
+
+        @Override
+        void accumulateValue(final int group, final boolean first) {
+            combine(group, m_value.applyAsLong(m_input), first);
+        }
+
+        @Override
+        void mergeValue(final int group, final ReadAccess state, final boolean first) {
+            combine(group, m_value.applyAsLong(state), first);
+        }
+
+        private void combine(final int group, final long value, final boolean first) {
+            if (first || (m_max ? value > m_values[group] : value < m_values[group])) {
+                m_values[group] = value;
+            }
+        }
+
+        @Override
+        void writeValue(final int group, final WriteAccess access) {
+            final long value = m_values[group];
+            if (m_spec instanceof ByteDataSpec) {
+                ((ByteWriteAccess)access).setByteValue((byte)value);
+            } else if (m_spec instanceof IntDataSpec) {
+                ((IntWriteAccess)access).setIntValue((int)value);
+            } else {
+                setLong(access, value);
+            }
+        }
+
+        @Override
+        public DataSpec resultSpec() {
+            return m_spec;
+        }
+    }
+
+    /**
+     * Minimum or maximum of {@code FLOAT} or {@code DOUBLE} values. Values are compared like {@link Double#compare},
+     * that is, {@code NaN} is greater than any other value. The partial aggregate has the same type as the input.
+     */
+    private static final class DoubleMinMax extends SeenAggregator {
+
+        private final boolean m_max;
+
+        private final DataSpec m_spec;
+
+        private final ToDoubleFunction<ReadAccess> m_value;
+
+        private double[] m_values = new double[0];
+
+        DoubleMinMax(final boolean max, final DataSpec spec, final ReadAccess input) {
+            super(input);
+            m_max = max;
+            m_spec = spec;
+            m_value = doubleValue(spec);
+        }
+
+        @Override
+        void resize(final int capacity) {
+            m_values = Arrays.copyOf(m_values, capacity);
+        }
+
+        @Override
+        void accumulateValue(final int group, final boolean first) {
+            combine(group, m_value.applyAsDouble(m_input), first);
+        }
+
+        @Override
+        void mergeValue(final int group, final ReadAccess state, final boolean first) {
+            combine(group, m_value.applyAsDouble(state), first);
+        }
+
+        private void combine(final int group, final double value, final boolean first) {
+            if (first) {
+                m_values[group] = value;
+            } else {
+                final int c = Double.compare(value, m_values[group]);
+                if (m_max ? c > 0 : c < 0) {
+                    m_values[group] = value;
+                }
+            }
+        }
+
+        @Override
+        void writeValue(final int group, final WriteAccess access) {
+            if (m_spec instanceof FloatDataSpec) {
+                ((FloatWriteAccess)access).setFloatValue((float)m_values[group]);
+            } else {
+                setDouble(access, m_values[group]);
+            }
+        }
+
+        @Override
+        public DataSpec resultSpec() {
+            return m_spec;
+        }
+    }
+
+    /**
+     * Arithmetic mean. The partial aggregate is the sum and count of the non-missing values.
+     */
+    private static final class Mean implements Aggregator {
+
+        private final ToDoubleFunction<ReadAccess> m_value;
+
+        private final ReadAccess m_input;
+
+        private double[] m_sums = new double[0];
+
+        private long[] m_counts = new long[0];
+
+        Mean(final ToDoubleFunction<ReadAccess> value, final ReadAccess input) {
+            m_value = value;
+            m_input = input;
+        }
+
+        @Override
+        public void ensureCapacity(final int numGroups) {
+            if (numGroups > m_counts.length) {
+                final int capacity = grow(m_counts.length, numGroups);
+                m_sums = Arrays.copyOf(m_sums, capacity);
+                m_counts = Arrays.copyOf(m_counts, capacity);
+            }
+        }
+
+        @Override
+        public void accumulate(final int group) {
+            if (!m_input.isMissing()) {
+                m_sums[group] += m_value.applyAsDouble(m_input);
+                ++m_counts[group];
+            }
+        }
+
+        @Override
+        public DataSpec[] stateSpecs() {
+            return new DataSpec[]{DOUBLE, LONG};
+        }
+
+        @Override
+        public void writeState(final int group, final WriteAccess[] state, final int offset) {
+            setDouble(state[offset], m_sums[group]);
+            setLong(state[offset + 1], m_counts[group]);
+        }
+
+        @Override
+        public void mergeState(final int group, final ReadAccess[] state, final int offset) {
+            m_sums[group] += getDouble(state[offset]);
+            m_counts[group] += getLong(state[offset + 1]);
+        }
+
+        @Override
+        public DataSpec resultSpec() {
+            return DOUBLE;
+        }
+
+        @Override
+        public void writeResult(final int group, final WriteAccess result) {
+            if (m_counts[group] == 0) {
+                result.setMissing();
+            } else {
+                setDouble(result, m_sums[group] / m_counts[group]);
+            }
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(m_sums, 0);
+            Arrays.fill(m_counts, 0);
+        }
+    }
+}
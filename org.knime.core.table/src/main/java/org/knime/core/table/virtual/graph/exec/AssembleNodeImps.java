@@ -53,32 +53,74 @@
 import org.knime.core.table.row.RowAccessible;
 import org.knime.core.table.virtual.graph.cap.CapAccessId;
 import org.knime.core.table.virtual.graph.cap.CapNode;
+import org.knime.core.table.virtual.graph.cap.CapNodeAggregate;
 import org.knime.core.table.virtual.graph.cap.CapNodeAppend;
 import org.knime.core.table.virtual.graph.cap.CapNodeConcatenate;
 import org.knime.core.table.virtual.graph.cap.CapNodeConsumer;
+import org.knime.core.table.virtual.graph.cap.CapNodeDistinct;
+import org.knime.core.table.virtual.graph.cap.CapNodeFlatMap;
+import org.knime.core.table.virtual.graph.cap.CapNodeJoin;
 import org.knime.core.table.virtual.graph.cap.CapNodeMap;
+import org.knime.core.table.virtual.graph.cap.CapNodeMaterialize;
+import org.knime.core.table.virtual.graph.cap.CapNodeMerge;
 import org.knime.core.table.virtual.graph.cap.CapNodeMissing;
 import org.knime.core.table.virtual.graph.cap.CapNodeObserver;
 import org.knime.core.table.virtual.graph.cap.CapNodeRowFilter;
 import org.knime.core.table.virtual.graph.cap.CapNodeRowIndex;
 import org.knime.core.table.virtual.graph.cap.CapNodeSlice;
+import org.knime.core.table.virtual.graph.cap.CapNodeSort;
 import org.knime.core.table.virtual.graph.cap.CapNodeSource;
+import org.knime.core.table.virtual.graph.cap.CapNodeTake;
+import org.knime.core.table.virtual.graph.cap.CapNodeType;
 
 class AssembleNodeImps {
 
     private final List<SequentialNodeImp> imps;
 
+    private final ForwardDeadline deadline = new ForwardDeadline();
+
+    /**
+     * The SOURCE whose row indices are the row indices of the CONSUMER, or {@code null}.
+     */
+    private SequentialNodeImpSource rowRangeSource;
+
     public AssembleNodeImps( //
             final List<CapNode> cap, //
             final List<RowAccessible> sources) {
 
         imps = new ArrayList<>(cap.size());
+
+        // The predecessor branches of TAKE nodes are accessed randomly. They
+        // are assembled (by AssembleRandomAccessibleNodeImps) when the TAKE
+        // node is reached.
+        final boolean[] randomAccess = new boolean[cap.size()];
+        for (CapNode node : cap) {
+            if (node.type() == CapNodeType.TAKE) {
+                final CapNodeTake take = (CapNodeTake)node;
+                Arrays.fill(randomAccess, take.predecessorBranchStart(), take.predecessor() + 1, true);
+            }
+        }
+
         final Iterator<RowAccessible> sourceIter = sources.iterator();
         for (CapNode node : cap) {
+            if (randomAccess[node.index()]) {
+                if (node.type() == CapNodeType.SOURCE) {
+                    sourceIter.next();
+                }
+                imps.add(null);
+                continue;
+            }
             switch (node.type()) {
                 case SOURCE: {
                     final CapNodeSource source = (CapNodeSource)node;
-                    imps.add(new SequentialNodeImpSource(sourceIter.next(), source.cols(), source.fromRow(), source.toRow()));
+                    imps.add(new SequentialNodeImpSource(sourceIter.next(), source.cols(), source.late(),
+                            source.fromRow(), source.toRow(), deadline));
+                    break;
+                }
+                case MATERIALIZE: {
+                    final CapNodeMaterialize materialize = (CapNodeMaterialize)node;
+                    imps.add(new SequentialNodeImpMaterialize(imps.get(materialize.predecessor()),
+                            (SequentialNodeImpSource)imps.get(materialize.source())));
                     break;
                 }
                 case MISSING: {
@@ -94,8 +136,14 @@ public AssembleNodeImps( //
                 case ROWFILTER: {
                     final CapNodeRowFilter rowfilter = (CapNodeRowFilter)node;
                     final AccessImp[] inputs = accessImps(rowfilter.inputs());
-                    imps.add(
-                            new SequentialNodeImpRowFilter(inputs, imps.get(rowfilter.predecessor()), rowfilter.filterFactory()));
+                    final SequentialNodeImp predecessor = imps.get(rowfilter.predecessor());
+                    if (predecessor instanceof SequentialNodeImpSource source
+                        && source.useIndex(inputs, rowfilter.filterFactory())) {
+                        // the SOURCE only produces rows that pass the filter
+                        imps.add(source);
+                    } else {
+                        imps.add(new SequentialNodeImpRowFilter(inputs, predecessor, rowfilter.filterFactory()));
+                    }
                     break;
                 }
                 case MAP: {
@@ -105,6 +153,13 @@ public AssembleNodeImps( //
                             map.mapperFactory()));
                     break;
                 }
+                case FLATMAP: {
+                    final CapNodeFlatMap flatMap = (CapNodeFlatMap)node;
+                    final AccessImp[] inputs = accessImps(flatMap.inputs());
+                    imps.add(new SequentialNodeImpFlatMap(inputs, imps.get(flatMap.predecessor()),
+                            flatMap.flatMapOutputSpecs(), flatMap.cols(), flatMap.flatMapperFactory()));
+                    break;
+                }
                 case OBSERVER: {
                     final CapNodeObserver observer = (CapNodeObserver)node;
                     final AccessImp[] inputs = accessImps(observer.inputs());
@@ -140,10 +195,81 @@ public AssembleNodeImps( //
                     imps.add(new SequentialNodeImpConsumer(inputs, predecessor));
                     break;
                 }
+                case SORT: {
+                    final CapNodeSort sort = (CapNodeSort)node;
+                    final AccessImp[] inputs = accessImps(sort.inputs());
+                    imps.add(new SequentialNodeImpSort(inputs, imps.get(sort.predecessor()), sort.keys(), sort.ascending(),
+                            sort.outputs(), sort.maxBufferedRows(), sort.limit()));
+                    break;
+                }
+                case MERGE: {
+                    final CapNodeMerge merge = (CapNodeMerge)node;
+                    final CapAccessId[][] capInputs = merge.inputs();
+                    final AccessImp[][] inputs = new AccessImp[capInputs.length][];
+                    Arrays.setAll(inputs, i -> accessImps(capInputs[i]));
+                    final SequentialNodeImp[] predecessors = nodeImps(merge.predecessors());
+                    imps.add(new SequentialNodeImpMerge(inputs, predecessors, merge.keys(), merge.ascending(),
+                            merge.outputs()));
+                    break;
+                }
+                case TAKE: {
+                    final CapNodeTake take = (CapNodeTake)node;
+                    final AssembleRandomAccessibleNodeImps branch = new AssembleRandomAccessibleNodeImps(
+                            cap.subList(0, take.predecessor() + 1), sources, take.predecessorBranchStart());
+                    final AccessImp[] inputs = branch.accessImps(take.inputs());
+                    final RandomAccessNodeImp predecessor = branch.getNodeImp(take.predecessor());
+                    if (take.rows() != null) {
+                        imps.add(new SequentialNodeImpTake(inputs, predecessor, take.rows()));
+                    } else {
+                        final AccessImp indexInput = accessImps(new CapAccessId[]{take.indexInput()})[0];
+                        imps.add(new SequentialNodeImpTake(inputs, predecessor, indexInput,
+                                imps.get(take.indexPredecessor())));
+                    }
+                    break;
+                }
+                case AGGREGATE: {
+                    final CapNodeAggregate aggregate = (CapNodeAggregate)node;
+                    final AccessImp[] inputs = accessImps(aggregate.inputs());
+                    if (aggregate.window() == null) {
+                        imps.add(new SequentialNodeImpAggregate(inputs, imps.get(aggregate.predecessor()),
+                                aggregate.numGroupColumns(), aggregate.functions(), aggregate.aggregationInputs(),
+                                aggregate.cols(), aggregate.maxGroups()));
+                    } else {
+                        imps.add(new SequentialNodeImpWindowAggregate(inputs, imps.get(aggregate.predecessor()),
+                                aggregate.numGroupColumns(), aggregate.functions(), aggregate.aggregationInputs(),
+                                aggregate.cols(), aggregate.maxGroups(), aggregate.window()));
+                    }
+                    break;
+                }
+                case JOIN: {
+                    final CapNodeJoin join = (CapNodeJoin)node;
+                    final AccessImp[][] inputs = new AccessImp[2][];
+                    Arrays.setAll(inputs, i -> accessImps(join.inputs()[i]));
+                    final SequentialNodeImp[] predecessors = new SequentialNodeImp[2];
+                    Arrays.setAll(predecessors, i -> imps.get(join.predecessors()[i]));
+                    imps.add(new SequentialNodeImpJoin(inputs, predecessors, join.keys(), join.outputs(),
+                            join.joinType(), join.buildSide(), join.maxBuildRows()));
+                    break;
+                }
+                case DISTINCT: {
+                    final CapNodeDistinct distinct = (CapNodeDistinct)node;
+                    final AccessImp[] inputs = accessImps(distinct.inputs());
+                    imps.add(new SequentialNodeImpDistinct(inputs, imps.get(distinct.predecessor()), distinct.keys(),
+                            distinct.outputs(), distinct.sorted(), distinct.maxKeys()));
+                    break;
+                }
                 default:
                     throw new IllegalStateException("Unexpected value: " + node.type());
             }
         }
+
+        if (cap.stream().filter(node -> node.type() == CapNodeType.SOURCE).count() == 1 && cap.stream()
+            .allMatch(node -> switch (node.type()) {
+                case SOURCE, MAP, CONSUMER -> true;
+                default -> false;
+            }) && sources.get(0).size() >= 0) {
+            rowRangeSource = (SequentialNodeImpSource)imps.get(0);
+        }
     }
 
     public SequentialNodeImp getTerminator()
@@ -151,6 +277,13 @@ public SequentialNodeImp getTerminator()
         return imps.get(imps.size() - 1);
     }
 
+    /**
+     * Get the deadline shared by all SOURCE {@code SequentialNodeImp}s.
+     */
+    ForwardDeadline getDeadline() {
+        return deadline;
+    }
+
     public SequentialNodeImpConsumer getConsumer()
     {
         SequentialNodeImp imp = getTerminator();
@@ -160,7 +293,25 @@ public SequentialNodeImpConsumer getConsumer()
         throw new IllegalArgumentException("CAP doesn't end with CONSUMER");
     }
 
-    private AccessImp[] accessImps(final CapAccessId[] capAccessIds) {
+    /**
+     * Get the SOURCE whose row indices are the row indices of the CONSUMER. This is the case if the CAP consists of a
+     * single SOURCE (with a known number of rows) followed only by MAPs. A row range of the CONSUMER can then be
+     * {@link SequentialNodeImpSource#restrictRows read from the SOURCE} directly.
+     *
+     * @return the SOURCE, or {@code null} if the CAP does not preserve row indices
+     */
+    SequentialNodeImpSource getRowRangeSource() {
+        return rowRangeSource;
+    }
+
+    /**
+     * Get the {@code SequentialNodeImp} for the CAP node with the given index.
+     */
+    SequentialNodeImp getNodeImp(final int capNodeIndex) {
+        return imps.get(capNodeIndex);
+    }
+
+    AccessImp[] accessImps(final CapAccessId[] capAccessIds) {
         final AccessImp[] accessImps = new AccessImp[capAccessIds.length];
         Arrays.setAll(accessImps, i -> {
             final CapAccessId a = capAccessIds[i];
@@ -61,7 +61,10 @@
 import org.knime.core.table.virtual.graph.cap.CapNodeObserver;
 import org.knime.core.table.virtual.graph.cap.CapNodeRowIndex;
 import org.knime.core.table.virtual.graph.cap.CapNodeSlice;
+import org.knime.core.table.virtual.graph.cap.CapNodeSort;
 import org.knime.core.table.virtual.graph.cap.CapNodeSource;
+import org.knime.core.table.virtual.graph.cap.CapNodeTake;
+import org.knime.core.table.virtual.graph.cap.CapNodeType;
 
 class AssembleRandomAccessibleNodeImps {
 
@@ -70,9 +73,38 @@ class AssembleRandomAccessibleNodeImps {
     public AssembleRandomAccessibleNodeImps(
             final List<CapNode> cap,
             final List<RowAccessible> sources) {
+        this(cap, sources, 0);
+    }
+
+    /**
+     * Assemble only the nodes from {@code branchStart} (inclusive) to the end of {@code cap}. (The sources of nodes
+     * before {@code branchStart} are skipped.) This is used to assemble the predecessor branch of a TAKE node.
+     */
+    AssembleRandomAccessibleNodeImps(
+            final List<CapNode> cap,
+            final List<RowAccessible> sources,
+            final int branchStart) {
         imps = new ArrayList<>(cap.size());
+
+        // The predecessor branches of SORT nodes are read sequentially. They
+        // are assembled (by AssembleNodeImps) when the SORT node is reached.
+        final boolean[] sequential = new boolean[cap.size()];
+        Arrays.fill(sequential, 0, branchStart, true);
+        for (CapNode node : cap) {
+            if (node.type() == CapNodeType.SORT) {
+                Arrays.fill(sequential, ((CapNodeSort)node).predecessorBranchStart(), node.index(), true);
+            }
+        }
+
         final Iterator<RowAccessible> sourceIter = sources.iterator();
         for (CapNode node : cap) {
+            if (sequential[node.index()]) {
+                if (node.type() == CapNodeType.SOURCE) {
+                    sourceIter.next();
+                }
+                imps.add(null);
+                continue;
+            }
             switch (node.type()) {
                 case SOURCE: {
                     final CapNodeSource source = (CapNodeSource)node;
@@ -139,6 +171,27 @@ public AssembleRandomAccessibleNodeImps(
                     imps.add(new RandomAccessNodeImpConsumer(inputs, predecessor));
                     break;
                 }
+                case SORT: {
+                    final CapNodeSort sort = (CapNodeSort)node;
+                    final AssembleNodeImps branch = new AssembleNodeImps(cap.subList(0, sort.index()), sources);
+                    final AccessImp[] inputs = branch.accessImps(sort.inputs());
+                    imps.add(new RandomAccessNodeImpSort(inputs, branch.getNodeImp(sort.predecessor()), sort.keys(),
+                            sort.ascending(), sort.outputs(), sort.maxBufferedRows(), sort.limit()));
+                    break;
+                }
+                case TAKE: {
+                    final CapNodeTake take = (CapNodeTake)node;
+                    final AccessImp[] inputs = accessImps(take.inputs());
+                    final RandomAccessNodeImp predecessor = imps.get(take.predecessor());
+                    if (take.rows() != null) {
+                        imps.add(new RandomAccessNodeImpTake(inputs, predecessor, take.rows()));
+                    } else {
+                        final AccessImp indexInput = accessImps(new CapAccessId[]{take.indexInput()})[0];
+                        imps.add(new RandomAccessNodeImpTake(inputs, predecessor, indexInput,
+                                imps.get(take.indexPredecessor())));
+                    }
+                    break;
+                }
                 default:
                     throw new IllegalStateException("Unexpected value: " + node.type());
             }
@@ -158,7 +211,14 @@ public RandomAccessNodeImpConsumer getConsumer()
         throw new IllegalArgumentException("CAP doesn't end with CONSUMER");
     }
 
-    private AccessImp[] accessImps(final CapAccessId[] capAccessIds) {
+    /**
+     * Get the {@code RandomAccessNodeImp} for the CAP node with the given index.
+     */
+    RandomAccessNodeImp getNodeImp(final int capNodeIndex) {
+        return imps.get(capNodeIndex);
+    }
+
+    AccessImp[] accessImps(final CapAccessId[] capAccessIds) {
         final AccessImp[] accessImps = new AccessImp[capAccessIds.length];
         Arrays.setAll(accessImps, i -> {
             final CapAccessId a = capAccessIds[i];
@@ -46,20 +46,57 @@
 package org.knime.core.table.virtual.graph.exec;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.cursor.AwaitingCursor;
+import org.knime.core.table.cursor.ResettableCursor;
 import org.knime.core.table.row.ReadAccessRow;
 import org.knime.core.table.virtual.graph.exec.CapRowAccessible.CapCursorData;
 
-class CapCursor implements Cursor<ReadAccessRow> {
+/**
+ * Cursor that executes a CAP.
+ * <p>
+ * The cursor supports waiting for the next row with a {@link #forward(long, TimeUnit) timeout}. The timeout applies
+ * to those sources whose cursors are {@link AwaitingCursor}s (other sources block until the next row is available).
+ * If a source times out, {@code forward} may be called again, as long as the rows of the timed out source only pass
+ * through streaming operations (MAP, ROWFILTER, SLICE, ROWINDEX, OBSERVER, FLATMAP, windowed AGGREGATE) on the way to
+ * the cursor. Otherwise, the cursor should not be used after a timeout.
+ * <p>
+ * The cursor can be {@link #reset(long, long) reset} to iterate the rows again (or a range of them), re-using the
+ * assembled {@code NodeImp}s. If the CAP preserves row indices (a single SOURCE followed only by MAPs), a restricted
+ * row range is read from the SOURCE directly. Otherwise, it is implemented by skipping rows at the consumer: Skipped
+ * rows are forwarded through the CAP, but lazily evaluated mappers are not run for them.
+ */
+class CapCursor implements AwaitingCursor<ReadAccessRow>, ResettableCursor<ReadAccessRow> {
 
     final SequentialNodeImpConsumer node;
 
+    private final ForwardDeadline deadline;
+
     private final ReadAccessRow access;
 
+    /**
+     * The SOURCE that a row range can be pushed down to, or {@code null}.
+     */
+    private final SequentialNodeImpSource rowRangeSource;
+
+    /**
+     * Number of rows to skip before the next row is provided.
+     */
+    private long numSkip;
+
+    /**
+     * Number of rows that may still be provided.
+     */
+    private long numRemaining = Long.MAX_VALUE;
+
     public CapCursor(final CapCursorData data)
     {
-        node = data.assembleConsumer();
+        final AssembleNodeImps imps = data.assemble();
+        node = imps.getConsumer();
+        deadline = imps.getDeadline();
+        rowRangeSource = imps.getRowRangeSource();
         node.create();
         access = data.createReadAccessRow(node::getOutput);
     }
@@ -71,7 +108,97 @@ public ReadAccessRow access() {
 
     @Override
     public boolean forward() {
-        return node.forward();
+        return skipToStart() && forwardInRange();
+    }
+
+    @Override
+    public boolean forward(final long timeout, final TimeUnit unit) throws TimeoutException, InterruptedException {
+        deadline.set(timeout, unit);
+        try {
+            return skipToStart() && forwardInRange();
+        } catch (ForwardDeadline.AwaitException e) { // NOSONAR the cause is re-thrown
+            if (e.getCause() instanceof InterruptedException interrupted) {
+                throw interrupted;
+            }
+            throw (TimeoutException)e.getCause();
+        } finally {
+            deadline.clear();
+        }
+    }
+
+    /**
+     * Skip rows until the start of the row range is reached.
+     *
+     * @return {@code false} if the end of the table was reached before the start of the row range
+     */
+    boolean skipToStart() {
+        while (numSkip > 0) {
+            if (!node.forward()) {
+                numSkip = 0;
+                numRemaining = 0;
+                return false;
+            }
+            --numSkip;
+        }
+        return true;
+    }
+
+    private boolean forwardInRange() {
+        if (numRemaining > 0 && node.forward()) {
+            --numRemaining;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Forward until the end, and run {@code sink} for every row. Rows are {@link SequentialNodeImp#push pushed}
+     * through the CAP, unless the cursor was {@link #reset(long, long) reset} to a restricted row range.
+     *
+     * @param sink run for every row
+     * @return the number of rows
+     */
+    long push(final Runnable sink) {
+        if (numSkip > 0 || numRemaining != Long.MAX_VALUE) {
+            long numRows = 0;
+            while (forward()) {
+                sink.run();
+                ++numRows;
+            }
+            return numRows;
+        }
+        final long[] numRows = {0};
+        node.push(() -> {
+            sink.run();
+            ++numRows[0];
+        });
+        return numRows[0];
+    }
+
+    /**
+     * @return whether the next row would be in the row range (provided the table has one more row)
+     */
+    boolean inRange() {
+        return numRemaining > 0;
+    }
+
+    @Override
+    public void reset(final long from, final long to) {
+        if (rowRangeSource != null) {
+            rowRangeSource.restrictRows(from, to);
+            node.reset();
+            numSkip = 0;
+            numRemaining = Long.MAX_VALUE;
+            return;
+        }
+        node.reset();
+        if (from < 0) {
+            numSkip = 0;
+            numRemaining = Long.MAX_VALUE;
+        } else {
+            numSkip = from;
+            numRemaining = Math.max(0, to - from);
+        }
     }
 
     @Override
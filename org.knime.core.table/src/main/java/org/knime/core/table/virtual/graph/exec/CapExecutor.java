@@ -45,11 +45,24 @@
  */
 package org.knime.core.table.virtual.graph.exec;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.row.ReadAccessRow;
 import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.Selection;
+import org.knime.core.table.virtual.graph.cap.CapBuilder;
+import org.knime.core.table.virtual.graph.cap.CursorAssemblyPlan;
+import org.knime.core.table.virtual.graph.exec.CapRowAccessible.CapCursorData;
+import org.knime.core.table.virtual.graph.rag.BranchGraph;
 import org.knime.core.table.virtual.graph.rag.TableTransformGraph;
+import org.knime.core.table.virtual.graph.rag.TableTransformUtil;
+import org.knime.core.table.virtual.spec.ExchangeTransformSpec;
 import org.knime.core.table.virtual.spec.SourceTableProperties.CursorType;
 
 public class CapExecutor {
@@ -62,8 +75,11 @@ public class CapExecutor {
     public static RowAccessible createRowAccessible(
             final TableTransformGraph tableTransformGraph,
             final Map<UUID, RowAccessible> uuidRowAccessibleMap) {
-        var cursorType = tableTransformGraph.supportedCursorType();
-        return createRowAccessible(tableTransformGraph, cursorType, uuidRowAccessibleMap);
+        // Range filters on sorted random-access sources are resolved into
+        // slices first, because that may enable random access.
+        var graph = TableTransformUtil.rangeFiltersToSlices(tableTransformGraph, uuidRowAccessibleMap);
+        var cursorType = graph.supportedCursorType();
+        return createRowAccessibleWithSlices(graph, cursorType, uuidRowAccessibleMap);
     }
 
     /**
@@ -76,6 +92,18 @@ public static RowAccessible createRowAccessible(
             final TableTransformGraph tableTransformGraph,
             final CursorType cursorType,
             final Map<UUID, RowAccessible> uuidRowAccessibleMap) {
+        var graph = TableTransformUtil.rangeFiltersToSlices(tableTransformGraph, uuidRowAccessibleMap);
+        return createRowAccessibleWithSlices(graph, cursorType, uuidRowAccessibleMap);
+    }
+
+    /**
+     * Like {@link #createRowAccessible(TableTransformGraph, CursorType, Map)}, for a {@code tableTransformGraph} whose
+     * range filters have already been {@link TableTransformUtil#rangeFiltersToSlices resolved}.
+     */
+    private static RowAccessible createRowAccessibleWithSlices(
+            final TableTransformGraph tableTransformGraph,
+            final CursorType cursorType,
+            final Map<UUID, RowAccessible> uuidRowAccessibleMap) {
         var schema = tableTransformGraph.createSchema();
         return switch (cursorType) {
             case BASIC -> new CapRowAccessible(tableTransformGraph, schema, uuidRowAccessibleMap);
@@ -83,4 +111,104 @@ public static RowAccessible createRowAccessible(
             case RANDOMACCESS -> new CapRandomRowAccessible(tableTransformGraph, schema, uuidRowAccessibleMap);
         };
     }
+
+    /**
+     * Create one {@code RowAccessible} for each partition of the table described by {@code tableTransformGraph}. The
+     * partitions are filled in a single pass over the table, when a cursor is first created on any of them.
+     *
+     * @param tableTransformGraph the table to partition
+     * @param exchange how to partition the table
+     * @param uuidRowAccessibleMap the source tables
+     * @return list of {@code exchange.getNumPartitions()} partitions
+     */
+    public static List<RowAccessible> createPartitionedRowAccessibles(
+            final TableTransformGraph tableTransformGraph,
+            final ExchangeTransformSpec exchange,
+            final Map<UUID, RowAccessible> uuidRowAccessibleMap) {
+        final RowAccessible rows = createRowAccessible(tableTransformGraph, CursorType.BASIC, uuidRowAccessibleMap);
+        return Exchange.partition(rows, exchange);
+    }
+
+    /**
+     * Forward {@code cursor} until the end, and run {@code sink} for every row (when {@code cursor.access()} holds the
+     * values of that row).
+     * <p>
+     * If {@code cursor} is a sequential cursor created by this class (by a {@code RowAccessible} or by
+     * {@link #createSharedScanCursors}), the rows are pushed through the CAP: The loop runs at the SOURCE (or the
+     * first non-streaming node), and every row passes through the streaming nodes (MAP, ROWFILTER, ROWINDEX, OBSERVER)
+     * without a chain of {@code forward()} calls. This is faster if the rows are only needed for side effects, for
+     * example, for copying them to a {@code RowWriteAccessible}, or for running OBSERVERs. For other cursors, this
+     * just calls {@code forward()} in a loop.
+     *
+     * @param cursor the cursor
+     * @param sink run for every row
+     * @return the number of rows
+     */
+    public static long push(final Cursor<ReadAccessRow> cursor, final Runnable sink) {
+        if (cursor instanceof CapCursor capCursor) {
+            return capCursor.push(sink);
+        }
+        long numRows = 0;
+        while (cursor.forward()) {
+            sink.run();
+            ++numRows;
+        }
+        return numRows;
+    }
+
+    /**
+     * Create one {@code Cursor} for each of the tables described by {@code tableTransformGraphs}. Source tables that
+     * are read by several of the tables are scanned only once: The rows are read by a shared cursor and buffered
+     * (up to {@code bufferSize} rows per source table) until all tables have read them.
+     * <p>
+     * The returned cursors should be used concurrently, each in its own thread. A cursor that gets ahead of the others
+     * by more than {@code bufferSize} rows waits for them to catch up. If all the other cursors are waiting as well
+     * (for example, because they read shared source tables in a different order), or if they don't make progress
+     * within {@code maxWait} (for example, because all cursors are used in the same thread), the cursor continues
+     * with a private scan of the source table instead. So, if {@code maxWait} is given, consuming the cursors one after
+     * the other gives correct results, but is slow, and does not share the scans. If {@code maxWait} is {@code null},
+     * the cursors must be used concurrently. A cursor that is closed no longer holds back the others.
+     *
+     * @param tableTransformGraphs the tables to read
+     * @param uuidRowAccessibleMap the source tables
+     * @param bufferSize the maximum number of rows buffered per shared source table (at least {@code 2})
+     * @param maxWait how long a cursor waits for the others to make progress before it continues with a private scan,
+     *            or {@code null} to wait indefinitely
+     * @return one cursor for each of {@code tableTransformGraphs}
+     */
+    public static List<Cursor<ReadAccessRow>> createSharedScanCursors(
+            final List<TableTransformGraph> tableTransformGraphs,
+            final Map<UUID, RowAccessible> uuidRowAccessibleMap,
+            final int bufferSize,
+            final Duration maxWait) {
+        final List<CursorAssemblyPlan> caps = new ArrayList<>();
+        final List<List<RowAccessible>> sources = new ArrayList<>();
+        final List<Integer> numColumns = new ArrayList<>();
+        for (TableTransformGraph tableTransformGraph : tableTransformGraphs) {
+            // appendSelection() copies the graph, so that building the CAP doesn't modify tableTransformGraph
+            final TableTransformGraph graph = TableTransformUtil.appendSelection(
+                TableTransformUtil.rangeFiltersToSlices(tableTransformGraph, uuidRowAccessibleMap), Selection.all());
+            final CursorAssemblyPlan cap = CapBuilder.createCursorAssemblyPlan(new BranchGraph(graph));
+            caps.add(cap);
+            sources.add(CapExecutorUtils.getSources(cap, uuidRowAccessibleMap));
+            numColumns.add(graph.createSchema().numColumns());
+        }
+        final SharedScan.Pipelines pipelines = new SharedScan.Pipelines();
+        final List<List<RowAccessible>> shared = SharedScan.share(caps, sources, bufferSize, maxWait, pipelines);
+        final List<Cursor<ReadAccessRow>> cursors = new ArrayList<>();
+        for (int i = 0; i < caps.size(); i++) {
+            final int pipeline = i;
+            cursors.add(new CapCursor(new CapCursorData(caps.get(i), shared.get(i), numColumns.get(i), null)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        pipelines.close(pipeline);
+                    }
+                }
+            });
+        }
+        return cursors;
+    }
 }
@@ -48,6 +48,7 @@
 import static org.knime.core.table.virtual.graph.cap.CapNodeType.SOURCE;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -65,6 +66,10 @@ class CapExecutorUtils {
      * Get list of sources occurring in {@code CursorAssemblyPlan}. The list
      * contains one source for each {@code CapNodeSource} in the order in which
      * they occur in the CAP.
+     * <p>
+     * The returned list is unmodifiable, because it is shared by all cursors
+     * created from the same {@code CapCursorData} (possibly in different
+     * threads).
      */
     static List<RowAccessible> getSources(final CursorAssemblyPlan cap,
         final Map<UUID, ? extends RowAccessible> uuidRowAccessibleMap) {
@@ -84,6 +89,6 @@ static List<RowAccessible> getSources(final CursorAssemblyPlan cap,
                 sources.add(a);
             }
         }
-        return sources;
+        return Collections.unmodifiableList(sources);
     }
 }
@@ -57,6 +57,6 @@ public CapLookaheadCursor(final CapCursorData data) {
 
     @Override
     public boolean canForward() {
-        return node.canForward();
+        return skipToStart() && inRange() && node.canForward();
     }
 }
@@ -46,18 +46,34 @@
 package org.knime.core.table.virtual.graph.exec;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
 
 import org.knime.core.table.cursor.RandomAccessCursor;
+import org.knime.core.table.cursor.ResettableCursor;
 import org.knime.core.table.row.ReadAccessRow;
 import org.knime.core.table.virtual.graph.exec.CapRowAccessible.CapCursorData;
 
-class CapRandomAccessCursor implements RandomAccessCursor<ReadAccessRow> {
+class CapRandomAccessCursor implements RandomAccessCursor<ReadAccessRow>, ResettableCursor<ReadAccessRow> {
 
     private final RandomAccessNodeImpConsumer node;
 
     private final ReadAccessRow access;
 
-    private final long numRows;
+    /**
+     * Number of rows of the table (disregarding the row range of {@link #reset(long, long)}).
+     */
+    private final long numTableRows;
+
+    /**
+     * Index in the table of the first row of the current row range.
+     */
+    private long offset;
+
+    /**
+     * Number of rows in the current row range.
+     */
+    private long numRows;
 
     private long nextRow;
 
@@ -65,7 +81,8 @@ class CapRandomAccessCursor implements RandomAccessCursor<ReadAccessRow> {
         node = data.assembleRandomAccessConsumer();
         node.create();
         access = data.createReadAccessRow(node::getOutput);
-        numRows = data.numRows();
+        numTableRows = data.numRows();
+        numRows = numTableRows;
         nextRow = 0;
     }
 
@@ -77,7 +94,7 @@ public ReadAccessRow access() {
     @Override
     public boolean forward() {
         if ( canForward() ) {
-            node.moveTo(nextRow++);
+            node.moveTo(offset + nextRow++);
             return true;
         }
         return false;
@@ -92,7 +109,81 @@ public boolean canForward() {
     public void moveTo(long row) {
         if (row < 0 || row >= numRows)
             throw new IndexOutOfBoundsException();
-        node.moveTo(row);
+        node.moveTo(offset + row);
+    }
+
+    @Override
+    public void moveTo(final long[] rows, final IntConsumer action) {
+        for (long row : rows) {
+            if (row < 0 || row >= numRows) {
+                throw new IndexOutOfBoundsException();
+            }
+        }
+        if (offset == 0) {
+            gather(node, rows, action);
+        } else {
+            final long[] tableRows = new long[rows.length];
+            Arrays.setAll(tableRows, i -> offset + rows[i]);
+            gather(node, tableRows, action);
+        }
+    }
+
+    @Override
+    public void reset(final long from, final long to) {
+        node.reset();
+        if (from < 0) {
+            offset = 0;
+            numRows = numTableRows;
+        } else {
+            offset = Math.min(from, numTableRows);
+            numRows = Math.max(0, Math.min(to, numTableRows) - offset);
+        }
+        nextRow = 0;
+    }
+
+    /**
+     * Move {@code node} to each of the given {@code rows}, and call {@code action.accept(i)} while it is at row
+     * {@code rows[i]}.
+     * <p>
+     * The rows are sorted and duplicates are removed, and then the distinct rows are passed to
+     * {@link RandomAccessNodeImp#moveTo(long[], int, int, IntConsumer)} in one batch. For duplicate rows, the
+     * {@code action} is called for each occurrence while {@code node} is at that row.
+     *
+     * @param node the node to move
+     * @param rows indices of the rows to move to, in any order, possibly with duplicates
+     * @param action called with the index into {@code rows} of each visited row
+     */
+    static void gather(final RandomAccessNodeImp node, final long[] rows, final IntConsumer action) {
+        final long[] distinct = rows.clone();
+        Arrays.sort(distinct);
+        int numDistinct = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[numDistinct++] = distinct[i];
+            }
+        }
+
+        // group the positions in rows by distinct row (counting sort)
+        final int[] slots = new int[rows.length];
+        final int[] start = new int[numDistinct + 1];
+        for (int i = 0; i < rows.length; i++) {
+            slots[i] = Arrays.binarySearch(distinct, 0, numDistinct, rows[i]);
+            start[slots[i] + 1]++;
+        }
+        for (int j = 0; j < numDistinct; j++) {
+            start[j + 1] += start[j];
+        }
+        final int[] positions = new int[rows.length];
+        final int[] next = Arrays.copyOf(start, numDistinct);
+        for (int i = 0; i < rows.length; i++) {
+            positions[next[slots[i]]++] = i;
+        }
+
+        node.moveTo(distinct, 0, numDistinct, j -> {
+            for (int k = start[j]; k < start[j + 1]; k++) {
+                action.accept(positions[k]);
+            }
+        });
     }
 
     @Override
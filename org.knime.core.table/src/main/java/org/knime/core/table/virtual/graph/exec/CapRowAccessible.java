@@ -46,6 +46,8 @@
 package org.knime.core.table.virtual.graph.exec;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -69,8 +71,26 @@
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
+/**
+ * A {@link RowAccessible} that executes a {@link TableTransformGraph} by assembling cursors from a
+ * {@link CursorAssemblyPlan}.
+ * <p>
+ * {@link #createCursor(Selection)} and {@link #size()} may be called concurrently from any number of threads. The
+ * {@code CursorAssemblyPlan} for each {@code Selection} is built only once (also if several threads request it at the
+ * same time) and then cached. Building a plan only reads the {@code TableTransformGraph} (which is a private copy, see
+ * constructor) and the map of available sources (which is an unmodifiable copy). Everything else that is built for a
+ * cursor, in particular the {@code NodeImp}s and their mappers and buffers, belongs to that cursor only.
+ * <p>
+ * The cursors themselves are not thread-safe, each cursor must only be used by one thread at a time. The source
+ * {@code RowAccessible}s and the mapper factories of the virtual table must support concurrent
+ * {@link RowAccessible#createCursor(Selection) createCursor} and {@code createMapper} calls, respectively.
+ */
 class CapRowAccessible implements RowAccessible {
 
+    /**
+     * Private copy of the graph. Its accesses are fully path-compressed (see {@link TableTransformGraph#copy()}), so
+     * that copying it (in {@link #createCursorData}) does not modify it. This makes it safe to share between threads.
+     */
     private final TableTransformGraph m_tableTransformGraph;
 
     private final ColumnarSchema m_schema;
@@ -83,9 +103,9 @@ class CapRowAccessible implements RowAccessible {
         final TableTransformGraph tableTransformGraph, //
         final ColumnarSchema schema, //
         final Map<UUID, RowAccessible> availableSources) {
-        m_tableTransformGraph = tableTransformGraph;
+        m_tableTransformGraph = tableTransformGraph.copy();
         m_schema = schema;
-        m_availableSources = availableSources;
+        m_availableSources = Collections.unmodifiableMap(new HashMap<>(availableSources));
 
         // TODO (TP) Should we add Caffeine as a dependency?
         //           The Guava doc recommends to prefer it over com.google.common.cache
@@ -125,8 +145,8 @@ public void close() throws IOException {
 
     record CapCursorData(CursorAssemblyPlan cap, List<RowAccessible> sources, int numColumns, int[] selectedColumns) {
 
-        SequentialNodeImpConsumer assembleConsumer() {
-            return new AssembleNodeImps(cap.nodes(), sources).getConsumer();
+        AssembleNodeImps assemble() {
+            return new AssembleNodeImps(cap.nodes(), sources);
         }
 
         RandomAccessNodeImpConsumer assembleRandomAccessConsumer() {
@@ -0,0 +1,304 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.row.DefaultReadAccessRow;
+import org.knime.core.table.row.ReadAccessRow;
+import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.RowHasher;
+import org.knime.core.table.row.Selection;
+import org.knime.core.table.schema.ColumnarSchema;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.virtual.spec.ExchangeTransformSpec;
+import org.knime.core.table.virtual.spec.ExchangeTransformSpec.Partitioning;
+
+/**
+ * Splits the rows of an input {@code RowAccessible} into partitions, according to an {@link ExchangeTransformSpec}.
+ * <p>
+ * All partitions are filled in a single pass over the input, when a cursor is first created on (or the size is
+ * requested from) any of the partition {@code RowAccessible}s. Each partition is buffered in a {@link SpillFile}.
+ * After that, cursors on the partitions can be used concurrently. The spill files are deleted, and the input is
+ * closed, when all partitions have been closed.
+ */
+final class Exchange {
+
+    private final RowAccessible m_input;
+
+    private final ExchangeTransformSpec m_spec;
+
+    private final DataSpec[] m_specs;
+
+    /**
+     * The filled partitions, or {@code null} if they have not been filled yet.
+     */
+    private SpillFile[] m_partitions;
+
+    private int m_numOpenPartitions;
+
+    /**
+     * Guards {@link #m_partitions} and {@link #m_numOpenPartitions}. This is a {@code ReentrantLock} instead of a
+     * monitor, because filling and releasing the partitions blocks on file I/O while holding the lock, which would
+     * pin virtual threads to their carrier.
+     */
+    private final ReentrantLock m_lock = new ReentrantLock();
+
+    private Exchange(final RowAccessible input, final ExchangeTransformSpec spec) {
+        m_input = input;
+        m_spec = spec;
+        final ColumnarSchema schema = input.getSchema();
+        m_specs = new DataSpec[schema.numColumns()];
+        Arrays.setAll(m_specs, schema::getSpec);
+        m_numOpenPartitions = spec.getNumPartitions();
+    }
+
+    /**
+     * Create one {@code RowAccessible} for each partition of {@code input}.
+     *
+     * @param input the rows to partition
+     * @param spec how to partition the rows
+     * @return list of {@code spec.getNumPartitions()} partitions
+     */
+    static List<RowAccessible> partition(final RowAccessible input, final ExchangeTransformSpec spec) {
+        final Exchange exchange = new Exchange(input, spec);
+        final List<RowAccessible> partitions = new ArrayList<>();
+        for (int i = 0; i < spec.getNumPartitions(); i++) {
+            partitions.add(exchange.new Partition(i));
+        }
+        return partitions;
+    }
+
+    private SpillFile getPartition(final int index) {
+        m_lock.lock();
+        try {
+            if (m_partitions == null) {
+                fill();
+            }
+            return m_partitions[index];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    private void fill() throws IOException {
+        final int numPartitions = m_spec.getNumPartitions();
+        final SpillFile[] partitions = new SpillFile[numPartitions];
+        try {
+            for (int i = 0; i < numPartitions; i++) {
+                partitions[i] = new SpillFile(m_specs);
+            }
+            try (final Cursor<ReadAccessRow> cursor = m_input.createCursor()) {
+                final ReadAccessRow row = cursor.access();
+                final ReadAccess[] accesses = new ReadAccess[m_specs.length];
+                Arrays.setAll(accesses, row::getAccess);
+                final RowHasher hasher = m_spec.getPartitioning() == Partitioning.HASH //
+                    ? RowHasher.create(m_input.getSchema(), m_spec.getColumnSelection()) //
+                    : null;
+                final long[] rowIndex = {0};
+                CapExecutor.push(cursor, () -> {
+                    final long key = hasher == null ? rowIndex[0]++ : hasher.hash(row);
+                    try {
+                        partitions[Math.floorMod(key, numPartitions)].write(accesses);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            for (SpillFile partition : partitions) {
+                partition.finishWriting();
+            }
+        } catch (IOException | RuntimeException e) { // NOSONAR
+            closeAll(partitions, e);
+            throw e;
+        }
+        m_partitions = partitions;
+    }
+
+    private void release() throws IOException {
+        m_lock.lock();
+        try {
+            if (--m_numOpenPartitions == 0) {
+                try {
+                    if (m_partitions != null) {
+                        closeAll(m_partitions, null);
+                    }
+                } finally {
+                    m_input.close();
+                }
+            }
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    private static void closeAll(final SpillFile[] files, final Exception exception) throws IOException {
+        IOException failure = null;
+        for (SpillFile file : files) {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) { // NOSONAR
+                    if (exception != null) {
+                        exception.addSuppressed(e);
+                    } else if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private final class Partition implements RowAccessible {
+
+        private final int m_index;
+
+        private boolean m_closed;
+
+        Partition(final int index) {
+            m_index = index;
+        }
+
+        @Override
+        public ColumnarSchema getSchema() {
+            return m_input.getSchema();
+        }
+
+        @Override
+        public Cursor<ReadAccessRow> createCursor() {
+            return createCursor(Selection.all());
+        }
+
+        @Override
+        public Cursor<ReadAccessRow> createCursor(final Selection selection) {
+            try {
+                return new PartitionCursor(getPartition(m_index).reader(), m_specs, selection);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public long size() {
+            return getPartition(m_index).numRows();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!m_closed) {
+                m_closed = true;
+                release();
+            }
+        }
+    }
+
+    private static final class PartitionCursor implements Cursor<ReadAccessRow> {
+
+        private final SpillFile.Reader m_reader;
+
+        private final BufferedAccess[] m_row;
+
+        private final ReadAccessRow m_access;
+
+        private final long m_toIndex;
+
+        private long m_nextIndex;
+
+        PartitionCursor(final SpillFile.Reader reader, final DataSpec[] specs, final Selection selection)
+            throws IOException {
+            m_reader = reader;
+            m_row = new BufferedAccess[specs.length];
+            Arrays.setAll(m_row, i -> BufferedAccesses.createBufferedAccess(specs[i]));
+            m_access = new DefaultReadAccessRow(m_row.length, i -> m_row[i]);
+            final Selection.RowRangeSelection rows = selection.rows();
+            m_toIndex = rows.allSelected() ? Long.MAX_VALUE : rows.toIndex();
+            final long fromIndex = rows.allSelected() ? 0 : rows.fromIndex();
+            while (m_nextIndex < fromIndex && m_reader.read(m_row)) {
+                ++m_nextIndex;
+            }
+        }
+
+        @Override
+        public ReadAccessRow access() {
+            return m_access;
+        }
+
+        @Override
+        public boolean forward() {
+            if (m_nextIndex >= m_toIndex) {
+                return false;
+            }
+            try {
+                if (m_reader.read(m_row)) {
+                    ++m_nextIndex;
+                    return true;
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            m_reader.close();
+        }
+    }
+}
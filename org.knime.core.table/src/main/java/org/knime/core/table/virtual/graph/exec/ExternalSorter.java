@@ -0,0 +1,520 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.schema.DataSpec;
+
+/**
+ * Sorts rows with fixed {@code DataSpec}s.
+ * <p>
+ * Rows are {@link #add added} (copied into buffers) until {@code maxBufferedRows} is reached. Then the buffered rows
+ * are sorted and spilled to a temporary file as a sorted run, and the buffers are re-used for the next run. After the
+ * last row has been added, {@link #finish()} sorts the remaining buffered rows. The sorted rows are then
+ * {@link #next() iterated} by a k-way merge of the sorted runs. If no run was spilled, the sorted rows can also be
+ * {@link #get(long) accessed} randomly.
+ * <p>
+ * Sorting is stable: rows that compare equal are produced in the order in which they were added.
+ * <p>
+ * Optionally, only the first {@code limit} sorted rows are produced. If {@code limit <= maxBufferedRows}, only the
+ * {@code limit} smallest rows added so far are buffered in a bounded heap, so the input is never sorted completely
+ * and nothing is spilled. Otherwise, spilled runs are truncated to {@code limit} rows.
+ */
+final class ExternalSorter implements Closeable {
+
+    /**
+     * Maximum number of runs that are merged at once. If there are more runs, they are merged into larger runs first.
+     */
+    private static final int MAX_MERGE_FAN_IN = 64;
+
+    private final DataSpec[] m_specs;
+
+    private final Comparator<ReadAccess[]> m_comparator;
+
+    private final long m_maxBufferedRows;
+
+    private final long m_limit;
+
+    /**
+     * Buffered rows. Only the first {@code m_numBuffered} are valid, the rest are re-usable buffers.
+     */
+    private final List<BufferedAccess[]> m_rows = new ArrayList<>();
+
+    private int m_numBuffered;
+
+    private final List<SpillFile> m_runs = new ArrayList<>();
+
+    private long m_numRows;
+
+    private boolean m_finished;
+
+    /**
+     * Index of the next in-memory row to return, if there are no spilled runs.
+     */
+    private int m_nextRow;
+
+    private Merger m_merger;
+
+    /**
+     * The number of sorted rows returned by {@link #next()} so far.
+     */
+    private long m_numReturned;
+
+    /**
+     * If only the first {@code m_limit} rows are kept in a bounded heap, this is a max-heap (the largest row at the
+     * head). Otherwise, {@code null}.
+     */
+    private final PriorityQueue<HeapEntry> m_heap;
+
+    /**
+     * A buffered row in the bounded heap. Rows that compare equal are ordered by {@code m_seq}, the index at which the
+     * row was added, to keep the sort stable.
+     */
+    private static final class HeapEntry {
+
+        private final BufferedAccess[] m_row;
+
+        private long m_seq;
+
+        HeapEntry(final BufferedAccess[] row) {
+            m_row = row;
+        }
+    }
+
+    /**
+     * @param specs the DataSpecs of the row elements
+     * @param keys indices of the row elements to sort by (in order of precedence)
+     * @param ascending for each key, whether to sort in ascending order
+     * @param maxBufferedRows maximum number of rows to sort in memory before spilling a sorted run
+     */
+    ExternalSorter(final DataSpec[] specs, final int[] keys, final boolean[] ascending, final long maxBufferedRows) {
+        this(specs, keys, ascending, maxBufferedRows, -1);
+    }
+
+    /**
+     * @param specs the DataSpecs of the row elements
+     * @param keys indices of the row elements to sort by (in order of precedence)
+     * @param ascending for each key, whether to sort in ascending order
+     * @param maxBufferedRows maximum number of rows to sort in memory before spilling a sorted run
+     * @param limit maximum number of sorted rows to produce, or {@code -1} to produce all rows
+     */
+    ExternalSorter(final DataSpec[] specs, final int[] keys, final boolean[] ascending, final long maxBufferedRows,
+        final long limit) {
+        m_specs = specs;
+        m_comparator = ReadAccessComparators.rowComparator(specs, keys, ascending);
+        m_maxBufferedRows = Math.min(maxBufferedRows, Integer.MAX_VALUE - 8);
+        m_limit = limit < 0 ? Long.MAX_VALUE : limit;
+        if (m_limit <= m_maxBufferedRows) {
+            final Comparator<HeapEntry> order = (e1, e2) -> {
+                final int c = m_comparator.compare(e1.m_row, e2.m_row);
+                return c != 0 ? c : Long.compare(e1.m_seq, e2.m_seq);
+            };
+            m_heap = new PriorityQueue<>(order.reversed());
+        } else {
+            m_heap = null;
+        }
+    }
+
+    /**
+     * Add a copy of the current values of {@code row}.
+     */
+    void add(final ReadAccess[] row) throws IOException {
+        if (m_heap != null) {
+            addToHeap(row);
+            return;
+        }
+        if (m_numBuffered >= m_maxBufferedRows) {
+            spill();
+        }
+        final BufferedAccess[] buffer;
+        if (m_numBuffered < m_rows.size()) {
+            buffer = m_rows.get(m_numBuffered);
+        } else {
+            buffer = new BufferedAccess[m_specs.length];
+            Arrays.setAll(buffer, i -> BufferedAccesses.createBufferedAccess(m_specs[i]));
+            m_rows.add(buffer);
+        }
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i].setFrom(row[i]);
+        }
+        ++m_numBuffered;
+        ++m_numRows;
+    }
+
+    /**
+     * Add a copy of the current values of {@code row} to the bounded heap, if it is among the {@code m_limit}
+     * smallest rows so far.
+     */
+    private void addToHeap(final ReadAccess[] row) {
+        final HeapEntry entry;
+        if (m_heap.size() < m_limit) {
+            final BufferedAccess[] buffer = new BufferedAccess[m_specs.length];
+            Arrays.setAll(buffer, i -> BufferedAccesses.createBufferedAccess(m_specs[i]));
+            entry = new HeapEntry(buffer);
+        } else if (m_limit > 0 && m_comparator.compare(row, m_heap.peek().m_row) < 0) {
+            // NB: Rows that compare equal to the largest row are not added,
+            //     because they come after it in the (stable) sort order.
+            entry = m_heap.poll();
+        } else {
+            ++m_numRows;
+            return;
+        }
+        for (int i = 0; i < entry.m_row.length; i++) {
+            entry.m_row[i].setFrom(row[i]);
+        }
+        entry.m_seq = m_numRows++;
+        m_heap.add(entry);
+    }
+
+    private void sortBuffered() {
+        m_rows.subList(0, m_numBuffered).sort(m_comparator);
+    }
+
+    private void spill() throws IOException {
+        sortBuffered();
+        final SpillFile run = new SpillFile(m_specs);
+        m_runs.add(run);
+        // rows beyond the limit can never be produced
+        final long numRows = Math.min(m_numBuffered, m_limit);
+        for (int r = 0; r < numRows; r++) {
+            run.write(m_rows.get(r));
+        }
+        m_numBuffered = 0;
+    }
+
+    /**
+     * Finish adding rows, and prepare for iterating the sorted rows.
+     */
+    void finish() throws IOException {
+        if (m_finished) {
+            return;
+        }
+        m_finished = true;
+        if (m_heap != null) {
+            final HeapEntry[] entries = m_heap.toArray(HeapEntry[]::new);
+            m_heap.clear();
+            Arrays.sort(entries, m_heap.comparator().reversed());
+            for (HeapEntry entry : entries) {
+                m_rows.add(entry.m_row);
+            }
+            m_numBuffered = entries.length;
+            return;
+        }
+        sortBuffered();
+        if (!m_runs.isEmpty()) {
+            while (m_runs.size() >= MAX_MERGE_FAN_IN) {
+                mergeRuns();
+            }
+            m_merger = new Merger(m_runs, m_rows.subList(0, m_numBuffered));
+        }
+    }
+
+    /**
+     * Merge the first {@code MAX_MERGE_FAN_IN} runs into one new run. (The merged run replaces the merged runs at the
+     * front of the run list, to preserve stability.)
+     */
+    private void mergeRuns() throws IOException {
+        final List<SpillFile> runs = new ArrayList<>(m_runs.subList(0, MAX_MERGE_FAN_IN));
+        m_runs.removeAll(runs);
+        final SpillFile merged = new SpillFile(m_specs);
+        m_runs.add(0, merged);
+        try (Merger merger = new Merger(runs, List.of())) {
+            while (merger.hasNext()) {
+                merged.write(merger.next());
+            }
+        } finally {
+            for (SpillFile run : runs) {
+                run.close();
+            }
+        }
+    }
+
+    /**
+     * @return the total number of rows added (including rows beyond the limit)
+     */
+    long numRows() {
+        return m_numRows;
+    }
+
+    /**
+     * @return {@code true} if all rows are held in memory, that is, the sorted rows can be accessed by {@link #get}.
+     */
+    boolean isInMemory() {
+        return m_runs.isEmpty();
+    }
+
+    /**
+     * Get the row at the given {@code index} (in sorted order). This requires that all rows are held in memory (see
+     * {@link #isInMemory()}).
+     */
+    ReadAccess[] get(final long index) {
+        if (!isInMemory()) {
+            throw new IllegalStateException("sorted rows were spilled and cannot be accessed randomly");
+        }
+        if (index < 0 || index >= Math.min(m_numBuffered, m_limit)) {
+            throw new IndexOutOfBoundsException();
+        }
+        return m_rows.get((int)index);
+    }
+
+    /**
+     * Start iterating the sorted rows from the beginning again. This requires that all rows are held in memory (see
+     * {@link #isInMemory()}).
+     */
+    void rewind() {
+        if (!isInMemory()) {
+            throw new IllegalStateException("sorted rows were spilled and cannot be iterated again");
+        }
+        m_nextRow = 0;
+        m_numReturned = 0;
+    }
+
+    /**
+     * @return whether there are more sorted rows
+     */
+    boolean hasNext() {
+        if (m_numReturned >= m_limit) {
+            return false;
+        }
+        return m_merger == null ? m_nextRow < m_numBuffered : m_merger.hasNext();
+    }
+
+    /**
+     * Get the next sorted row. The returned row is only valid until the next call to {@code next()}.
+     */
+    ReadAccess[] next() throws IOException {
+        ++m_numReturned;
+        return m_merger == null ? m_rows.get(m_nextRow++) : m_merger.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        if (m_merger != null) {
+            try {
+                m_merger.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        for (SpillFile run : m_runs) {
+            try {
+                run.close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                }
+            }
+        }
+        m_runs.clear();
+        m_rows.clear();
+        if (m_heap != null) {
+            m_heap.clear();
+        }
+        m_numBuffered = 0;
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * A sorted run that is merged. Runs are compared by their current row, ties are broken by the order of the runs.
+     */
+    private abstract static class Run {
+
+        final int m_order;
+
+        Run(final int order) {
+            m_order = order;
+        }
+
+        abstract ReadAccess[] current();
+
+        /**
+         * @return {@code false} if the run is exhausted
+         */
+        abstract boolean advance() throws IOException;
+
+        void close() throws IOException {
+        }
+    }
+
+    private final class FileRun extends Run {
+
+        private final SpillFile.Reader m_reader;
+
+        // Rows are read alternately into two buffers. This keeps the
+        // previous row valid while the run is advanced to the next row.
+        private BufferedAccess[] m_row;
+
+        private BufferedAccess[] m_spare;
+
+        FileRun(final int order, final SpillFile file) throws IOException {
+            super(order);
+            m_reader = file.reader();
+            m_row = createRowBuffer();
+            m_spare = createRowBuffer();
+        }
+
+        private BufferedAccess[] createRowBuffer() {
+            final BufferedAccess[] row = new BufferedAccess[m_specs.length];
+            Arrays.setAll(row, i -> BufferedAccesses.createBufferedAccess(m_specs[i]));
+            return row;
+        }
+
+        @Override
+        ReadAccess[] current() {
+            return m_row;
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            final BufferedAccess[] row = m_spare;
+            if (m_reader.read(row)) {
+                m_spare = m_row;
+                m_row = row;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        void close() throws IOException {
+            m_reader.close();
+        }
+    }
+
+    private static final class MemoryRun extends Run {
+
+        private final List<BufferedAccess[]> m_rows;
+
+        private int m_index = -1;
+
+        MemoryRun(final int order, final List<BufferedAccess[]> rows) {
+            super(order);
+            m_rows = rows;
+        }
+
+        @Override
+        ReadAccess[] current() {
+            return m_rows.get(m_index);
+        }
+
+        @Override
+        boolean advance() {
+            return ++m_index < m_rows.size();
+        }
+    }
+
+    /**
+     * K-way merge of sorted runs.
+     */
+    private final class Merger implements Closeable {
+
+        private final List<Run> m_all = new ArrayList<>();
+
+        private final PriorityQueue<Run> m_queue;
+
+        Merger(final List<SpillFile> files, final List<BufferedAccess[]> memory) throws IOException {
+            m_queue = new PriorityQueue<>(files.size() + 1, (r1, r2) -> {
+                final int c = m_comparator.compare(r1.current(), r2.current());
+                return c != 0 ? c : Integer.compare(r1.m_order, r2.m_order);
+            });
+            for (SpillFile file : files) {
+                add(new FileRun(m_all.size(), file));
+            }
+            add(new MemoryRun(m_all.size(), memory));
+        }
+
+        private void add(final Run run) throws IOException {
+            m_all.add(run);
+            if (run.advance()) {
+                m_queue.add(run);
+            }
+        }
+
+        boolean hasNext() {
+            return !m_queue.isEmpty();
+        }
+
+        ReadAccess[] next() throws IOException {
+            // NB: Advancing the run doesn't invalidate the returned row (see FileRun).
+            final Run run = m_queue.poll();
+            final ReadAccess[] row = run.current();
+            if (run.advance()) {
+                m_queue.add(run);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException exception = null;
+            for (Run run : m_all) {
+                try {
+                    run.close();
+                } catch (IOException e) {
+                    if (exception == null) {
+                        exception = e;
+                    }
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+}
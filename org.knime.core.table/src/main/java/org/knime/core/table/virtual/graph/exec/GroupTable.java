@@ -0,0 +1,606 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import org.knime.core.table.access.BooleanAccess.BooleanReadAccess;
+import org.knime.core.table.access.BooleanAccess.BooleanWriteAccess;
+import org.knime.core.table.access.ByteAccess.ByteReadAccess;
+import org.knime.core.table.access.ByteAccess.ByteWriteAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleReadAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleWriteAccess;
+import org.knime.core.table.access.FloatAccess.FloatReadAccess;
+import org.knime.core.table.access.FloatAccess.FloatWriteAccess;
+import org.knime.core.table.access.IntAccess.IntReadAccess;
+import org.knime.core.table.access.IntAccess.IntWriteAccess;
+import org.knime.core.table.access.LongAccess.LongReadAccess;
+import org.knime.core.table.access.LongAccess.LongWriteAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.WriteAccess;
+import org.knime.core.table.schema.BooleanDataSpec;
+import org.knime.core.table.schema.ByteDataSpec;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.schema.DoubleDataSpec;
+import org.knime.core.table.schema.FloatDataSpec;
+import org.knime.core.table.schema.IntDataSpec;
+import org.knime.core.table.schema.ListDataSpec;
+import org.knime.core.table.schema.LongDataSpec;
+import org.knime.core.table.schema.StringDataSpec;
+import org.knime.core.table.schema.StructDataSpec;
+import org.knime.core.table.schema.VarBinaryDataSpec;
+import org.knime.core.table.schema.VoidDataSpec;
+import org.knime.core.table.virtual.graph.exec.AccessSerializers.AccessReader;
+import org.knime.core.table.virtual.graph.exec.AccessSerializers.AccessWriter;
+
+/**
+ * A hash table that assigns dense group ids ({@code 0, 1, 2, ...}) to the distinct values of a fixed set of key
+ * {@code ReadAccess}es. {@link #groupOf(boolean)} looks up (and optionally inserts) the current values of the key
+ * accesses.
+ * <p>
+ * Use {@link #create(ReadAccess[])} to get an implementation that is specialized for the key {@code DataSpec}s: A
+ * single primitive key ({@code BOOLEAN}, {@code BYTE}, {@code INT}, {@code LONG}, {@code FLOAT}, {@code DOUBLE}) is
+ * stored as a {@code long} without boxing. All other keys (strings, multiple columns, ...) are serialized and stored
+ * as byte arrays. In both cases the table uses open addressing with linear probing. A missing value is a distinct key
+ * value.
+ */
+abstract class GroupTable {
+
+    /**
+     * Create a {@code GroupTable} for the given key accesses.
+     *
+     * @param keys the key accesses. {@link #groupOf(boolean)} looks up their current values.
+     * @return a new {@code GroupTable}
+     */
+    static GroupTable create(final ReadAccess[] keys) {
+        if (keys.length == 0) {
+            return new NoKeyGroupTable();
+        }
+        if (keys.length == 1) {
+            final LongKeyCodec codec = longKeyCodec(keys[0].getDataSpec());
+            if (codec != null) {
+                return new LongKeyGroupTable(keys[0], codec);
+            }
+        }
+        return new BytesKeyGroupTable(keys);
+    }
+
+    /**
+     * Get the group id of the current key values. If there is no such group yet, and {@code insert == true}, a new
+     * group is created with id {@link #numGroups()}.
+     *
+     * @param insert whether to create a new group, if the key values are not found
+     * @return group id, or {@code -1} if the key values are not found and {@code insert == false}
+     */
+    abstract int groupOf(boolean insert);
+
+    /**
+     * @return the number of groups
+     */
+    abstract int numGroups();
+
+    /**
+     * Get the hash code of the current key values (without looking them up). This is consistent with
+     * {@link #hash(int)}.
+     */
+    abstract int hash();
+
+    /**
+     * Get the hash code of the key values of the given {@code group}. Equal key values have equal hash codes in all
+     * {@code GroupTable}s with the same key {@code DataSpec}s.
+     */
+    abstract int hash(int group);
+
+    /**
+     * Write the key values of the given {@code group} to {@code keys}.
+     */
+    abstract void getKey(int group, WriteAccess[] keys);
+
+    /**
+     * Remove all groups.
+     */
+    abstract void clear();
+
+    /**
+     * The "fmix64" finalizer of MurmurHash3, folded to {@code int}.
+     */
+    static int mix(final long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int)h;
+    }
+
+    /**
+     * Hash code used for the missing key value.
+     */
+    private static final int MISSING_HASH = mix(0x9e3779b97f4a7c15L);
+
+    private static final class NoKeyGroupTable extends GroupTable {
+
+        private boolean m_hasGroup;
+
+        @Override
+        int groupOf(final boolean insert) {
+            if (!m_hasGroup && insert) {
+                m_hasGroup = true;
+            }
+            return m_hasGroup ? 0 : -1;
+        }
+
+        @Override
+        int numGroups() {
+            return m_hasGroup ? 1 : 0;
+        }
+
+        @Override
+        int hash() {
+            return 0;
+        }
+
+        @Override
+        int hash(final int group) {
+            return 0;
+        }
+
+        @Override
+        void getKey(final int group, final WriteAccess[] keys) {
+            // no keys
+        }
+
+        @Override
+        void clear() {
+            m_hasGroup = false;
+        }
+    }
+
+    /**
+     * Open addressing with linear probing. The slots hold {@code group + 1}, {@code 0} marks an empty slot.
+     */
+    private abstract static class OpenAddressingGroupTable extends GroupTable {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] m_slots = new int[INITIAL_CAPACITY];
+
+        private int[] m_hashes = new int[INITIAL_CAPACITY];
+
+        private int m_numGroups;
+
+        /**
+         * @return whether the current key values equal the key of {@code group}
+         */
+        abstract boolean keyEquals(int group);
+
+        /**
+         * Store the current key values as the key of the new {@code group}.
+         */
+        abstract void storeKey(int group);
+
+        /**
+         * Find the group of the current key values, which have the given {@code hash}.
+         */
+        final int find(final int hash, final boolean insert) {
+            final int mask = m_slots.length - 1;
+            int i = hash & mask;
+            while (true) {
+                final int group = m_slots[i] - 1;
+                if (group < 0) {
+                    return insert ? insert(i, hash) : -1;
+                }
+                if (m_hashes[group] == hash && keyEquals(group)) {
+                    return group;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        private int insert(final int slot, final int hash) {
+            final int group = m_numGroups++;
+            if (group == m_hashes.length) {
+                m_hashes = Arrays.copyOf(m_hashes, 2 * group);
+            }
+            m_hashes[group] = hash;
+            storeKey(group);
+            m_slots[slot] = group + 1;
+            if (2 * m_numGroups > m_slots.length) {
+                rehash(2 * m_slots.length);
+            }
+            return group;
+        }
+
+        private void rehash(final int capacity) {
+            final int[] slots = new int[capacity];
+            final int mask = capacity - 1;
+            for (int group = 0; group < m_numGroups; group++) {
+                int i = m_hashes[group] & mask;
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = group + 1;
+            }
+            m_slots = slots;
+        }
+
+        @Override
+        final int numGroups() {
+            return m_numGroups;
+        }
+
+        @Override
+        final int hash(final int group) {
+            return m_hashes[group];
+        }
+
+        @Override
+        void clear() {
+            // keep the capacity, it will likely be needed again
+            Arrays.fill(m_slots, 0);
+            m_numGroups = 0;
+        }
+    }
+
+    /**
+     * Get the {@code LongKeyCodec} for values of the given {@code spec}.
+     *
+     * @return codec, or {@code null} if {@code spec} is not a primitive type
+     */
+    static LongKeyCodec longKeyCodec(final DataSpec spec) {
+        return spec.accept(LongKeyCodecs.INSTANCE);
+    }
+
+    /**
+     * Reads and writes a primitive key value as a {@code long}. Booleans and integral values are encoded such that
+     * their order is the order of the encoded {@code long}s, floating point values are encoded by their bits.
+     */
+    interface LongKeyCodec {
+        long get(ReadAccess access);
+
+        void set(WriteAccess access, long value);
+    }
+
+    private static final class LongKeyGroupTable extends OpenAddressingGroupTable {
+
+        private final ReadAccess m_key;
+
+        private final LongKeyCodec m_codec;
+
+        private long[] m_keys = new long[16];
+
+        private long m_currentKey;
+
+        private int m_missingGroup = -1;
+
+        LongKeyGroupTable(final ReadAccess key, final LongKeyCodec codec) {
+            m_key = key;
+            m_codec = codec;
+        }
+
+        @Override
+        int groupOf(final boolean insert) {
+            if (m_key.isMissing()) {
+                if (m_missingGroup < 0 && insert) {
+                    m_missingGroup = find(MISSING_HASH, true);
+                }
+                return m_missingGroup;
+            }
+            m_currentKey = m_codec.get(m_key);
+            return find(mix(m_currentKey), insert);
+        }
+
+        @Override
+        int hash() {
+            return m_key.isMissing() ? MISSING_HASH : mix(m_codec.get(m_key));
+        }
+
+        @Override
+        boolean keyEquals(final int group) {
+            return group != m_missingGroup && m_keys[group] == m_currentKey;
+        }
+
+        @Override
+        void storeKey(final int group) {
+            if (group == m_keys.length) {
+                m_keys = Arrays.copyOf(m_keys, 2 * group);
+            }
+            m_keys[group] = m_currentKey;
+        }
+
+        @Override
+        void getKey(final int group, final WriteAccess[] keys) {
+            if (group == m_missingGroup) {
+                keys[0].setMissing();
+            } else {
+                m_codec.set(keys[0], m_keys[group]);
+            }
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            m_missingGroup = -1;
+        }
+    }
+
+    private static final class LongKeyCodecs implements DataSpec.Mapper<LongKeyCodec> {
+
+        static final LongKeyCodecs INSTANCE = new LongKeyCodecs();
+
+        @Override
+        public LongKeyCodec visit(final BooleanDataSpec spec) {
+            return new LongKeyCodec() {
+                @Override
+                public long get(final ReadAccess access) {
+                    return ((BooleanReadAccess)access).getBooleanValue() ? 1 : 0;
+                }
+
+                @Override
+                public void set(final WriteAccess access, final long value) {
+                    ((BooleanWriteAccess)access).setBooleanValue(value != 0);
+                }
+            };
+        }
+
+        @Override
+        public LongKeyCodec visit(final ByteDataSpec spec) {
+            return new LongKeyCodec() {
+                @Override
+                public long get(final ReadAccess access) {
+                    return ((ByteReadAccess)access).getByteValue();
+                }
+
+                @Override
+                public void set(final WriteAccess access, final long value) {
+                    ((ByteWriteAccess)access).setByteValue((byte)value);
+                }
+            };
+        }
+
+        @Override
+        public LongKeyCodec visit(final DoubleDataSpec spec) {
+            return new LongKeyCodec() {
+                @Override
+                public long get(final ReadAccess access) {
+                    return Double.doubleToLongBits(((DoubleReadAccess)access).getDoubleValue());
+                }
+
+                @Override
+                public void set(final WriteAccess access, final long value) {
+                    ((DoubleWriteAccess)access).setDoubleValue(Double.longBitsToDouble(value));
+                }
+            };
+        }
+
+        @Override
+        public LongKeyCodec visit(final FloatDataSpec spec) {
+            return new LongKeyCodec() {
+                @Override
+                public long get(final ReadAccess access) {
+                    return Float.floatToIntBits(((FloatReadAccess)access).getFloatValue());
+                }
+
+                @Override
+                public void set(final WriteAccess access, final long value) {
+                    ((FloatWriteAccess)access).setFloatValue(Float.intBitsToFloat((int)value));
+                }
+            };
+        }
+
+        @Override
+        public LongKeyCodec visit(final IntDataSpec spec) {
+            return new LongKeyCodec() {
+                @Override
+                public long get(final ReadAccess access) {
+                    return ((IntReadAccess)access).getIntValue();
+                }
+
+                @Override
+                public void set(final WriteAccess access, final long value) {
+                    ((IntWriteAccess)access).setIntValue((int)value);
+                }
+            };
+        }
+
+        @Override
+        public LongKeyCodec visit(final LongDataSpec spec) {
+            return new LongKeyCodec() {
+                @Override
+                public long get(final ReadAccess access) {
+                    return ((LongReadAccess)access).getLongValue();
+                }
+
+                @Override
+                public void set(final WriteAccess access, final long value) {
+                    ((LongWriteAccess)access).setLongValue(value);
+                }
+            };
+        }
+
+        @Override
+        public LongKeyCodec visit(final VarBinaryDataSpec spec) {
+            return null;
+        }
+
+        @Override
+        public LongKeyCodec visit(final VoidDataSpec spec) {
+            return null;
+        }
+
+        @Override
+        public LongKeyCodec visit(final StructDataSpec spec) {
+            return null;
+        }
+
+        @Override
+        public LongKeyCodec visit(final ListDataSpec listDataSpec) {
+            return null;
+        }
+
+        @Override
+        public LongKeyCodec visit(final StringDataSpec spec) {
+            return null;
+        }
+    }
+
+    /**
+     * A {@code ByteArrayOutputStream} that exposes its buffer, to avoid copying.
+     */
+    private static final class KeyBuffer extends ByteArrayOutputStream {
+
+        byte[] bytes() {
+            return buf;
+        }
+
+        int length() {
+            return count;
+        }
+    }
+
+    private static final class BytesKeyGroupTable extends OpenAddressingGroupTable {
+
+        private final ReadAccess[] m_keyAccesses;
+
+        private final AccessWriter[] m_writers;
+
+        private final AccessReader[] m_readers;
+
+        private final KeyBuffer m_buffer = new KeyBuffer();
+
+        private final DataOutputStream m_output = new DataOutputStream(m_buffer);
+
+        private byte[][] m_keys = new byte[16][];
+
+        BytesKeyGroupTable(final ReadAccess[] keys) {
+            m_keyAccesses = keys;
+            m_writers = new AccessWriter[keys.length];
+            Arrays.setAll(m_writers, i -> AccessSerializers.writer(keys[i].getDataSpec()));
+            m_readers = new AccessReader[keys.length];
+            Arrays.setAll(m_readers, i -> AccessSerializers.reader(keys[i].getDataSpec()));
+        }
+
+        @Override
+        int groupOf(final boolean insert) {
+            return find(serializeCurrentKey(), insert);
+        }
+
+        @Override
+        int hash() {
+            return serializeCurrentKey();
+        }
+
+        /**
+         * Serialize the current key values into {@code m_buffer}.
+         *
+         * @return the hash code of the serialized key
+         */
+        private int serializeCurrentKey() {
+            m_buffer.reset();
+            try {
+                for (int i = 0; i < m_writers.length; i++) {
+                    m_writers[i].write(m_keyAccesses[i], m_output);
+                }
+            } catch (IOException e) {
+                // cannot happen, we are writing to memory
+                throw new UncheckedIOException(e);
+            }
+            return hashBytes(m_buffer.bytes(), m_buffer.length());
+        }
+
+        /**
+         * FNV-1a, finalized by {@link #mix(long)}.
+         */
+        private static int hashBytes(final byte[] bytes, final int length) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < length; i++) {
+                h ^= bytes[i];
+                h *= 0x100000001b3L;
+            }
+            return mix(h);
+        }
+
+        @Override
+        boolean keyEquals(final int group) {
+            final byte[] key = m_keys[group];
+            return Arrays.equals(key, 0, key.length, m_buffer.bytes(), 0, m_buffer.length());
+        }
+
+        @Override
+        void storeKey(final int group) {
+            if (group == m_keys.length) {
+                m_keys = Arrays.copyOf(m_keys, 2 * group);
+            }
+            m_keys[group] = m_buffer.toByteArray();
+        }
+
+        @Override
+        void getKey(final int group, final WriteAccess[] keys) {
+            final DataInputStream input = new DataInputStream(new ByteArrayInputStream(m_keys[group]));
+            try {
+                for (int i = 0; i < m_readers.length; i++) {
+                    m_readers[i].read(input, keys[i]);
+                }
+            } catch (IOException e) {
+                // cannot happen, we are reading from memory
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            Arrays.fill(m_keys, null);
+        }
+    }
+}
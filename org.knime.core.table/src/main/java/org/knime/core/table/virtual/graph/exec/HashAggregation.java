@@ -0,0 +1,405 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.virtual.graph.exec.Aggregators.Aggregator;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.AggregateFunction;
+
+/**
+ * Hash-based group-by aggregation with spilling.
+ * <p>
+ * Input rows are {@link #add() added} by looking up the group of the current key values in a {@link GroupTable}, and
+ * accumulating the current input values into the {@link Aggregator}s. If the number of groups exceeds
+ * {@code maxGroups}, the partial aggregates of all groups are spilled to {@value #NUM_PARTITIONS} temporary files,
+ * partitioned by the hash of the group key, and aggregation continues with an empty table.
+ * <p>
+ * After {@link #finish()}, the aggregated rows (key values followed by aggregation results) are {@link #next()
+ * iterated}. If partial aggregates were spilled, the partitions are merged one after the other. (Equal keys always end
+ * up in the same partition, so each partition can be merged independently.) If a partition still has too many groups,
+ * it is partitioned recursively, using the next bits of the hash.
+ */
+final class HashAggregation implements Closeable {
+
+    private static final int PARTITION_BITS = 4;
+
+    private static final int NUM_PARTITIONS = 1 << PARTITION_BITS;
+
+    /**
+     * Partitions are not split beyond this level. (Each level uses {@code PARTITION_BITS} of the 32 bit hash, starting
+     * with the highest bits. The lowest bits are used for addressing the slots of the {@code GroupTable}.)
+     */
+    private static final int MAX_LEVEL = 4;
+
+    private final DataSpec[] m_keySpecs;
+
+    private final AggregateFunction[] m_functions;
+
+    private final DataSpec[] m_inputSpecs;
+
+    private final long m_maxGroups;
+
+    /**
+     * Aggregates the input rows.
+     */
+    private final Table m_input;
+
+    /**
+     * Row buffer for writing partial aggregates (keys followed by aggregator states).
+     */
+    private final BufferedAccess[] m_spillRow;
+
+    /**
+     * Row buffer for reading partial aggregates.
+     */
+    private final BufferedAccess[] m_mergeRow;
+
+    /**
+     * Merges partial aggregates read into {@code m_mergeRow}.
+     */
+    private Table m_merge;
+
+    /**
+     * Level-0 partitions, or {@code null} if nothing was spilled yet.
+     */
+    private SpillFile[] m_spilled;
+
+    private final Deque<Partition> m_partitions = new ArrayDeque<>();
+
+    private final BufferedAccess[] m_row;
+
+    private Table m_output;
+
+    private int m_nextGroup;
+
+    private record Partition(SpillFile file, int level) {
+    }
+
+    /**
+     * @param keys the key (group column) accesses
+     * @param functions the aggregate functions
+     * @param inputs the aggregated accesses (one per function, {@code null} to count rows)
+     * @param maxGroups maximum number of groups to aggregate in memory before spilling partial aggregates
+     */
+    HashAggregation(final ReadAccess[] keys, final AggregateFunction[] functions, final ReadAccess[] inputs,
+        final long maxGroups) {
+        m_keySpecs = specs(keys);
+        m_functions = functions;
+        m_inputSpecs = specs(inputs);
+        m_maxGroups = maxGroups;
+        m_input = new Table(keys, inputs);
+
+        final DataSpec[] partialSpecs = Arrays.copyOf(m_keySpecs, m_keySpecs.length + m_input.m_numStates);
+        int j = m_keySpecs.length;
+        for (Aggregator aggregator : m_input.m_aggregators) {
+            for (DataSpec spec : aggregator.stateSpecs()) {
+                partialSpecs[j++] = spec;
+            }
+        }
+        m_spillRow = createRow(partialSpecs);
+        m_mergeRow = createRow(partialSpecs);
+
+        final DataSpec[] resultSpecs = Arrays.copyOf(m_keySpecs, m_keySpecs.length + functions.length);
+        for (int i = 0; i < functions.length; i++) {
+            resultSpecs[m_keySpecs.length + i] = m_input.m_aggregators[i].resultSpec();
+        }
+        m_row = createRow(resultSpecs);
+    }
+
+    private static DataSpec[] specs(final ReadAccess[] accesses) {
+        final DataSpec[] specs = new DataSpec[accesses.length];
+        Arrays.setAll(specs, i -> accesses[i] == null ? null : accesses[i].getDataSpec());
+        return specs;
+    }
+
+    private static BufferedAccess[] createRow(final DataSpec[] specs) {
+        final BufferedAccess[] row = new BufferedAccess[specs.length];
+        Arrays.setAll(row, i -> BufferedAccesses.createBufferedAccess(specs[i]));
+        return row;
+    }
+
+    /**
+     * A {@code GroupTable} and the {@code Aggregator}s holding the aggregation state of its groups.
+     */
+    private final class Table {
+
+        private final GroupTable m_groups;
+
+        private final Aggregator[] m_aggregators;
+
+        private final int m_numStates;
+
+        Table(final ReadAccess[] keys, final ReadAccess[] inputs) {
+            m_groups = GroupTable.create(keys);
+            m_aggregators = new Aggregator[m_functions.length];
+            Arrays.setAll(m_aggregators, i -> Aggregators.create(m_functions[i], m_inputSpecs[i], inputs[i]));
+            m_numStates = Arrays.stream(m_aggregators).mapToInt(a -> a.stateSpecs().length).sum();
+        }
+
+        /**
+         * Get the group of the current key values, inserting a new group if there are less than {@code maxGroups}
+         * groups (or if {@code force == true}).
+         *
+         * @return group id, or {@code -1} if there is no such group and the table is full
+         */
+        int groupOf(final boolean force) {
+            final int group = m_groups.groupOf(force || m_groups.numGroups() < m_maxGroups);
+            if (group >= 0) {
+                for (Aggregator aggregator : m_aggregators) {
+                    aggregator.ensureCapacity(group + 1);
+                }
+            }
+            return group;
+        }
+
+        int numGroups() {
+            return m_groups.numGroups();
+        }
+
+        /**
+         * Write the partial aggregates of all groups to {@code partitions} and clear this table.
+         */
+        void spill(final SpillFile[] partitions, final int level) throws IOException {
+            final int shift = Integer.SIZE - PARTITION_BITS * (level + 1);
+            final int numKeys = m_keySpecs.length;
+            for (int group = 0; group < numGroups(); group++) {
+                final int p = (m_groups.hash(group) >>> shift) & (NUM_PARTITIONS - 1);
+                if (partitions[p] == null) {
+                    partitions[p] = new SpillFile(specs(m_spillRow));
+                }
+                m_groups.getKey(group, m_spillRow);
+                int offset = numKeys;
+                for (Aggregator aggregator : m_aggregators) {
+                    aggregator.writeState(group, m_spillRow, offset);
+                    offset += aggregator.stateSpecs().length;
+                }
+                partitions[p].write(m_spillRow);
+            }
+            clear();
+        }
+
+        void writeResult(final int group, final BufferedAccess[] row) {
+            m_groups.getKey(group, row);
+            final int numKeys = m_keySpecs.length;
+            for (int i = 0; i < m_aggregators.length; i++) {
+                m_aggregators[i].writeResult(group, row[numKeys + i]);
+            }
+        }
+
+        void clear() {
+            m_groups.clear();
+            for (Aggregator aggregator : m_aggregators) {
+                aggregator.clear();
+            }
+        }
+    }
+
+    /**
+     * Add the current values of the key and input accesses.
+     */
+    void add() throws IOException {
+        int group = m_input.groupOf(false);
+        if (group < 0) {
+            if (m_spilled == null) {
+                m_spilled = new SpillFile[NUM_PARTITIONS];
+            }
+            m_input.spill(m_spilled, 0);
+            group = m_input.groupOf(true);
+        }
+        for (Aggregator aggregator : m_input.m_aggregators) {
+            aggregator.accumulate(group);
+        }
+    }
+
+    /**
+     * Finish adding rows, and prepare for iterating the aggregated rows.
+     */
+    void finish() throws IOException {
+        if (m_spilled == null) {
+            if (m_keySpecs.length == 0) {
+                // without group columns there is always exactly one group
+                m_input.groupOf(true);
+            }
+            m_output = m_input;
+        } else {
+            m_input.spill(m_spilled, 0);
+            for (SpillFile file : m_spilled) {
+                if (file != null) {
+                    m_partitions.add(new Partition(file, 0));
+                }
+            }
+            m_spilled = null;
+        }
+    }
+
+    /**
+     * @return whether there are more aggregated rows
+     */
+    boolean hasNext() throws IOException {
+        while (m_output == null || m_nextGroup >= m_output.numGroups()) {
+            if (m_partitions.isEmpty()) {
+                return false;
+            }
+            m_output = merge(m_partitions.removeFirst());
+            m_nextGroup = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Get the next aggregated row (key values followed by aggregation results). The returned row is only valid until
+     * the next call to {@code next()}.
+     */
+    ReadAccess[] next() throws IOException {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more rows");
+        }
+        m_output.writeResult(m_nextGroup++, m_row);
+        return m_row;
+    }
+
+    /**
+     * The row buffer returned by {@link #next()}.
+     */
+    ReadAccess[] row() {
+        return m_row;
+    }
+
+    /**
+     * Merge the partial aggregates in the given partition. If there are too many groups, the partition is split, and
+     * the sub-partitions are queued for merging.
+     *
+     * @return the table containing the merged groups, or {@code null} if the partition was split
+     */
+    private Table merge(final Partition partition) throws IOException {
+        if (m_merge == null) {
+            final ReadAccess[] keys = Arrays.copyOf(m_mergeRow, m_keySpecs.length, ReadAccess[].class);
+            m_merge = new Table(keys, new ReadAccess[m_functions.length]);
+        } else {
+            m_merge.clear();
+        }
+        final boolean force = partition.level() + 1 >= MAX_LEVEL;
+        SpillFile[] split = null;
+        try (SpillFile file = partition.file(); SpillFile.Reader reader = file.reader()) {
+            while (reader.read(m_mergeRow)) {
+                int group = m_merge.groupOf(force);
+                if (group < 0) {
+                    if (split == null) {
+                        split = new SpillFile[NUM_PARTITIONS];
+                    }
+                    m_merge.spill(split, partition.level() + 1);
+                    group = m_merge.groupOf(true);
+                }
+                int offset = m_keySpecs.length;
+                for (Aggregator aggregator : m_merge.m_aggregators) {
+                    aggregator.mergeState(group, m_mergeRow, offset);
+                    offset += aggregator.stateSpecs().length;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            closeAll(split);
+            throw e;
+        }
+        if (split == null) {
+            return m_merge;
+        }
+        try {
+            m_merge.spill(split, partition.level() + 1);
+        } catch (IOException e) {
+            closeAll(split);
+            throw e;
+        }
+        for (int p = NUM_PARTITIONS - 1; p >= 0; p--) {
+            if (split[p] != null) {
+                m_partitions.addFirst(new Partition(split[p], partition.level() + 1));
+            }
+        }
+        return null;
+    }
+
+    private static void closeAll(final SpillFile[] files) throws IOException {
+        if (files != null) {
+            for (SpillFile file : files) {
+                if (file != null) {
+                    file.close();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        try {
+            closeAll(m_spilled);
+        } catch (IOException e) {
+            exception = e;
+        }
+        for (Partition partition : m_partitions) {
+            try {
+                partition.file().close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                }
+            }
+        }
+        m_partitions.clear();
+        m_spilled = null;
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
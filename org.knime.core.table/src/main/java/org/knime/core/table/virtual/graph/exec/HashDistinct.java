@@ -0,0 +1,290 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.schema.DataSpec;
+
+/**
+ * Removes rows with duplicate key values from a stream of rows.
+ * <p>
+ * The distinct key values seen so far are held in a {@link GroupTable}. Rows are pulled from the input, and
+ * {@link #next()} stops at every row with a key value that was not seen before. Such rows are not copied, that is,
+ * {@link #row()} is the input row itself.
+ * <p>
+ * If there are more than {@code maxKeys} distinct key values, no more key values are added to the table. Rows with key
+ * values that are not in the table are then written to one of {@value #NUM_PARTITIONS} temporary files, by the hash of
+ * their key values. Duplicate rows always end up in the same partition, so the partitions can be deduplicated one
+ * after the other, after the input is exhausted. If a partition again has too many distinct key values, it is
+ * partitioned recursively, using the next bits of the hash.
+ */
+final class HashDistinct implements Closeable {
+
+    private static final int PARTITION_BITS = 4;
+
+    private static final int NUM_PARTITIONS = 1 << PARTITION_BITS;
+
+    /**
+     * Partitions are not split beyond this level. (Each level uses {@code PARTITION_BITS} of the 32 bit hash, starting
+     * with the highest bits. The lowest bits are used for addressing the slots of the {@code GroupTable}.)
+     */
+    private static final int MAX_LEVEL = 4;
+
+    private final ReadAccess[] m_input;
+
+    private final int[] m_keyIndices;
+
+    private final BooleanSupplier m_forward;
+
+    private final long m_maxKeys;
+
+    /**
+     * The key accesses of {@code m_table}. They are pointed to the keys of the current row.
+     */
+    private final DelegatingReadAccess[] m_keys;
+
+    private final GroupTable m_table;
+
+    /**
+     * Buffer for reading partitioned rows.
+     */
+    private final BufferedAccess[] m_buffer;
+
+    /**
+     * The current row, either {@code m_input} or {@code m_buffer}.
+     */
+    private ReadAccess[] m_row;
+
+    /**
+     * The level of the rows that are currently deduplicated. Rows that don't fit into the table are partitioned using
+     * the hash bits of this level.
+     */
+    private int m_level;
+
+    /**
+     * Partitions of the rows that didn't fit into the table, or {@code null} if nothing was spilled (yet).
+     */
+    private SpillFile[] m_spilled;
+
+    private final Deque<Partition> m_partitions = new ArrayDeque<>();
+
+    private SpillFile m_file;
+
+    private SpillFile.Reader m_reader;
+
+    private record Partition(SpillFile file, int level) {
+    }
+
+    /**
+     * @param input the input row accesses
+     * @param keys indices of the input row elements that are the distinct keys
+     * @param forward forwards the input to the next row, returns {@code false} if there are no more rows
+     * @param maxKeys maximum number of distinct key values to hold in memory before spilling rows to disk
+     */
+    HashDistinct(final ReadAccess[] input, final int[] keys, final BooleanSupplier forward, final long maxKeys) {
+        m_input = input;
+        m_keyIndices = keys;
+        m_forward = forward;
+        m_maxKeys = Math.min(maxKeys, Integer.MAX_VALUE - 8);
+        m_keys = new DelegatingReadAccess[keys.length];
+        Arrays.setAll(m_keys, i -> DelegatingReadAccesses.createDelegatingAccess(input[keys[i]].getDataSpec()));
+        m_table = GroupTable.create(m_keys);
+        final DataSpec[] specs = specs(input);
+        m_buffer = new BufferedAccess[specs.length];
+        Arrays.setAll(m_buffer, i -> BufferedAccesses.createBufferedAccess(specs[i]));
+        m_row = input;
+    }
+
+    private static DataSpec[] specs(final ReadAccess[] row) {
+        final DataSpec[] specs = new DataSpec[row.length];
+        Arrays.setAll(specs, i -> row[i].getDataSpec());
+        return specs;
+    }
+
+    /**
+     * Advance to the next row with a key value that was not seen before.
+     *
+     * @return {@code false} if there are no more such rows
+     */
+    boolean next() throws IOException {
+        while (true) {
+            if (!forwardRow()) {
+                if (!nextPartition()) {
+                    return false;
+                }
+                continue;
+            }
+            for (int i = 0; i < m_keys.length; i++) {
+                m_keys[i].setDelegateAccess(m_row[m_keyIndices[i]]);
+            }
+            final int numGroups = m_table.numGroups();
+            if (numGroups < m_maxKeys || m_level >= MAX_LEVEL) {
+                if (m_table.groupOf(true) == numGroups) {
+                    return true;
+                }
+            } else if (m_table.groupOf(false) < 0) {
+                spill();
+            }
+        }
+    }
+
+    /**
+     * The current row. It is only valid until the next call to {@link #next()}.
+     */
+    ReadAccess[] row() {
+        return m_row;
+    }
+
+    private boolean forwardRow() throws IOException {
+        if (m_row == m_input) {
+            return m_forward.getAsBoolean();
+        }
+        return m_reader != null && m_reader.read(m_buffer);
+    }
+
+    /**
+     * Write the current row to the partition given by the hash of its key values.
+     */
+    private void spill() throws IOException {
+        if (m_spilled == null) {
+            m_spilled = new SpillFile[NUM_PARTITIONS];
+        }
+        final int shift = Integer.SIZE - PARTITION_BITS * (m_level + 1);
+        final int p = (m_table.hash() >>> shift) & (NUM_PARTITIONS - 1);
+        if (m_spilled[p] == null) {
+            m_spilled[p] = new SpillFile(specs(m_row));
+        }
+        m_spilled[p].write(m_row);
+    }
+
+    /**
+     * Queue the spilled partitions of the current level (at the front of the queue, in order), and open the next
+     * partition.
+     *
+     * @return {@code false} if there are no more partitions
+     */
+    private boolean nextPartition() throws IOException {
+        closeFile();
+        m_table.clear();
+        if (m_spilled != null) {
+            for (int p = NUM_PARTITIONS - 1; p >= 0; p--) {
+                if (m_spilled[p] != null) {
+                    m_partitions.addFirst(new Partition(m_spilled[p], m_level + 1));
+                }
+            }
+            m_spilled = null;
+        }
+        if (m_partitions.isEmpty()) {
+            return false;
+        }
+        final Partition partition = m_partitions.removeFirst();
+        m_file = partition.file();
+        m_reader = m_file.reader();
+        m_level = partition.level();
+        m_row = m_buffer;
+        return true;
+    }
+
+    private void closeFile() throws IOException {
+        try {
+            if (m_reader != null) {
+                m_reader.close();
+            }
+        } finally {
+            m_reader = null;
+            if (m_file != null) {
+                final SpillFile file = m_file;
+                m_file = null;
+                file.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        final List<SpillFile> files = new ArrayList<>();
+        if (m_spilled != null) {
+            files.addAll(Arrays.asList(m_spilled));
+            m_spilled = null;
+        }
+        m_partitions.forEach(partition -> files.add(partition.file()));
+        m_partitions.clear();
+        IOException exception = null;
+        try {
+            closeFile();
+        } catch (IOException e) {
+            exception = e;
+        }
+        for (SpillFile file : files) {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    if (exception == null) {
+                        exception = e;
+                    }
+                }
+            }
+        }
+        m_table.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
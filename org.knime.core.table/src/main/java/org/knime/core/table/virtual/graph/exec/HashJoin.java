@@ -0,0 +1,557 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.schema.DataSpec;
+
+/**
+ * Hash join of a "build" and a "probe" side.
+ * <p>
+ * Build rows are {@link #addBuild added} (copied into buffers) and indexed by their key values in a
+ * {@link GroupTable}. After {@link #finishBuild()}, the probe rows are pulled from the probe input, and each probe row
+ * is joined with the matching build rows. {@link #next()} iterates the joined pairs of a {@link #buildRow() build row}
+ * and a {@link #probeRow() probe row}. For outer joins, one of them is {@code null} for rows without join partner.
+ * Rows with missing key values never match.
+ * <p>
+ * If there are more than {@code maxBuildRows} build rows, the build rows and then all probe rows are partitioned into
+ * {@value #NUM_PARTITIONS} temporary files by the hash of their key values (a grace hash join). Matching rows always
+ * end up in the same partition, so the partitions can be joined one after the other. If the build side of a partition
+ * is still too large, it is partitioned recursively, using the next bits of the hash.
+ */
+final class HashJoin implements Closeable {
+
+    private static final int PARTITION_BITS = 4;
+
+    private static final int NUM_PARTITIONS = 1 << PARTITION_BITS;
+
+    /**
+     * Partitions are not split beyond this level. (Each level uses {@code PARTITION_BITS} of the 32 bit hash, starting
+     * with the highest bits. The lowest bits are used for addressing the slots of the {@code GroupTable}.)
+     */
+    private static final int MAX_LEVEL = 4;
+
+    private final DataSpec[] m_buildSpecs;
+
+    private final int[] m_buildKeys;
+
+    private final ReadAccess[] m_probeInput;
+
+    private final BooleanSupplier m_probeForward;
+
+    private final int[] m_probeKeys;
+
+    private final boolean m_buildOuter;
+
+    private final boolean m_probeOuter;
+
+    private final long m_maxBuildRows;
+
+    /**
+     * The key accesses of {@code m_table}. They are pointed to the keys of a build or probe row for lookup.
+     */
+    private final DelegatingReadAccess[] m_keys;
+
+    private final GroupTable m_table;
+
+    /**
+     * Buffered build rows. Only the first {@code m_numRows} are valid, the rest are re-usable buffers.
+     */
+    private final List<BufferedAccess[]> m_rows = new ArrayList<>();
+
+    private int m_numRows;
+
+    /**
+     * The buffered build rows of each group form a linked list, in the order in which they were added.
+     * {@code m_first[g]} and {@code m_last[g]} are the first and last row of group {@code g}, {@code m_next[r]} is the
+     * row following row {@code r} in its group (or {@code -1}).
+     */
+    private int[] m_first = new int[16];
+
+    private int[] m_last = new int[16];
+
+    private int[] m_next = new int[16];
+
+    /**
+     * The buffered build rows that have been matched by a probe row. (Only used for outer joins on the build side.)
+     */
+    private final BitSet m_matched = new BitSet();
+
+    /**
+     * Level-0 build partitions, or {@code null} if nothing was spilled.
+     */
+    private SpillFile[] m_buildPartitions;
+
+    private final Deque<Partition> m_partitions = new ArrayDeque<>();
+
+    /**
+     * Buffers for reading partitioned rows.
+     */
+    private final BufferedAccess[] m_buildBuffer;
+
+    private final BufferedAccess[] m_probeBuffer;
+
+    private boolean m_partitioned;
+
+    private SpillFile m_probeFile;
+
+    private SpillFile.Reader m_probeReader;
+
+    /**
+     * The current probe row.
+     */
+    private ReadAccess[] m_probeRow;
+
+    /**
+     * The next build row matching the current probe row, or {@code -1}.
+     */
+    private int m_match = -1;
+
+    /**
+     * When all probe rows have been processed, the next build row to check for being unmatched. {@code -1} while
+     * probing.
+     */
+    private int m_unmatched = -1;
+
+    private ReadAccess[] m_buildRowOut;
+
+    private ReadAccess[] m_probeRowOut;
+
+    /**
+     * A pair of build and probe partitions with equal hash bits. Either file may be {@code null}, if there are no rows
+     * for that side.
+     */
+    private record Partition(SpillFile build, SpillFile probe, int level) {
+    }
+
+    /**
+     * @param buildSpecs the DataSpecs of the build row elements
+     * @param buildKeys indices of the build row elements that are the join keys
+     * @param probeInput the probe row accesses
+     * @param probeKeys indices of the probe row elements that are the join keys (must have the same DataSpecs as the
+     *            build keys)
+     * @param probeForward forwards the probe input to the next row, returns {@code false} if there are no more rows
+     * @param buildOuter whether to produce build rows without join partner
+     * @param probeOuter whether to produce probe rows without join partner
+     * @param maxBuildRows maximum number of build rows to hold in memory before partitioning to disk
+     */
+    HashJoin(final DataSpec[] buildSpecs, final int[] buildKeys, final ReadAccess[] probeInput, final int[] probeKeys,
+        final BooleanSupplier probeForward, final boolean buildOuter, final boolean probeOuter,
+        final long maxBuildRows) {
+        m_buildSpecs = buildSpecs;
+        m_buildKeys = buildKeys;
+        m_probeInput = probeInput;
+        m_probeForward = probeForward;
+        m_probeKeys = probeKeys;
+        m_buildOuter = buildOuter;
+        m_probeOuter = probeOuter;
+        m_maxBuildRows = Math.min(maxBuildRows, Integer.MAX_VALUE - 8);
+        m_keys = new DelegatingReadAccess[buildKeys.length];
+        Arrays.setAll(m_keys, i -> DelegatingReadAccesses.createDelegatingAccess(buildSpecs[buildKeys[i]]));
+        m_table = GroupTable.create(m_keys);
+        m_buildBuffer = createRow(buildSpecs);
+        final DataSpec[] probeSpecs = new DataSpec[probeInput.length];
+        Arrays.setAll(probeSpecs, i -> probeInput[i].getDataSpec());
+        m_probeBuffer = createRow(probeSpecs);
+    }
+
+    private static BufferedAccess[] createRow(final DataSpec[] specs) {
+        final BufferedAccess[] row = new BufferedAccess[specs.length];
+        Arrays.setAll(row, i -> BufferedAccesses.createBufferedAccess(specs[i]));
+        return row;
+    }
+
+    private static DataSpec[] specs(final ReadAccess[] row) {
+        final DataSpec[] specs = new DataSpec[row.length];
+        Arrays.setAll(specs, i -> row[i].getDataSpec());
+        return specs;
+    }
+
+    /**
+     * Point the key accesses of the hash table to the given elements of {@code row}.
+     *
+     * @return {@code true} if any of the key values is missing
+     */
+    private boolean setKeys(final ReadAccess[] row, final int[] keys) {
+        boolean missing = false;
+        for (int i = 0; i < keys.length; i++) {
+            m_keys[i].setDelegateAccess(row[keys[i]]);
+            missing |= row[keys[i]].isMissing();
+        }
+        return missing;
+    }
+
+    /**
+     * Add a copy of the current values of the build {@code row}.
+     */
+    void addBuild(final ReadAccess[] row) throws IOException {
+        if (m_buildPartitions == null && m_numRows >= m_maxBuildRows) {
+            m_buildPartitions = new SpillFile[NUM_PARTITIONS];
+            for (int r = 0; r < m_numRows; r++) {
+                write(m_buildPartitions, m_rows.get(r), m_buildKeys, m_buildOuter, 0);
+            }
+            clearTable();
+        }
+        if (m_buildPartitions != null) {
+            write(m_buildPartitions, row, m_buildKeys, m_buildOuter, 0);
+        } else {
+            final BufferedAccess[] buffer = bufferRow(m_numRows);
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i].setFrom(row[i]);
+            }
+            insertBuffered();
+        }
+    }
+
+    /**
+     * Get the buffer for build row {@code r}, creating it if necessary.
+     */
+    private BufferedAccess[] bufferRow(final int r) {
+        if (r < m_rows.size()) {
+            return m_rows.get(r);
+        }
+        final BufferedAccess[] buffer = createRow(m_buildSpecs);
+        m_rows.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Insert the buffered build row {@code m_numRows} into the hash table.
+     */
+    private void insertBuffered() {
+        final int r = m_numRows;
+        final boolean missing = setKeys(m_rows.get(r), m_buildKeys);
+        if (missing && !m_buildOuter) {
+            // the row can never match, and is not part of the result
+            return;
+        }
+        ++m_numRows;
+        if (r == m_next.length) {
+            m_next = Arrays.copyOf(m_next, 2 * r);
+        }
+        m_next[r] = -1;
+        if (!missing) {
+            final int numGroups = m_table.numGroups();
+            final int group = m_table.groupOf(true);
+            if (group == numGroups) {
+                if (group == m_first.length) {
+                    m_first = Arrays.copyOf(m_first, 2 * group);
+                    m_last = Arrays.copyOf(m_last, 2 * group);
+                }
+                m_first[group] = r;
+            } else {
+                m_next[m_last[group]] = r;
+            }
+            m_last[group] = r;
+        }
+    }
+
+    private void clearTable() {
+        m_table.clear();
+        m_numRows = 0;
+        m_matched.clear();
+        m_match = -1;
+        m_unmatched = -1;
+    }
+
+    /**
+     * Write the current values of {@code row} to the partition given by the hash of its key values.
+     *
+     * @param outer whether rows with missing key values need to be kept
+     */
+    private void write(final SpillFile[] partitions, final ReadAccess[] row, final int[] keys, final boolean outer,
+        final int level) throws IOException {
+        if (setKeys(row, keys) && !outer) {
+            return;
+        }
+        final int shift = Integer.SIZE - PARTITION_BITS * (level + 1);
+        final int p = (m_table.hash() >>> shift) & (NUM_PARTITIONS - 1);
+        if (partitions[p] == null) {
+            partitions[p] = new SpillFile(specs(row));
+        }
+        partitions[p].write(row);
+    }
+
+    /**
+     * Finish adding build rows, and prepare for iterating the joined rows.
+     * <p>
+     * If the build rows were partitioned, this consumes the probe input and partitions the probe rows.
+     */
+    void finishBuild() throws IOException {
+        m_probeRow = m_probeInput;
+        if (m_buildPartitions == null) {
+            return;
+        }
+        m_partitioned = true;
+        final SpillFile[] probePartitions = new SpillFile[NUM_PARTITIONS];
+        try {
+            while (m_probeForward.getAsBoolean()) {
+                write(probePartitions, m_probeInput, m_probeKeys, m_probeOuter, 0);
+            }
+        } catch (IOException | RuntimeException e) {
+            closeAll(probePartitions);
+            throw e;
+        }
+        queuePartitions(m_buildPartitions, probePartitions, 0);
+        m_buildPartitions = null;
+        m_probeRow = m_probeBuffer;
+        nextPartition();
+    }
+
+    /**
+     * Queue the given partitions (at the front of the queue, in order). Partitions that cannot produce any joined
+     * rows are deleted.
+     */
+    private void queuePartitions(final SpillFile[] build, final SpillFile[] probe, final int level)
+        throws IOException {
+        for (int p = NUM_PARTITIONS - 1; p >= 0; p--) {
+            final boolean needed = build[p] == null //
+                ? probe[p] != null && m_probeOuter //
+                : probe[p] != null || m_buildOuter;
+            if (needed) {
+                m_partitions.addFirst(new Partition(build[p], probe[p], level));
+            } else {
+                closeAll(new SpillFile[]{build[p], probe[p]});
+            }
+        }
+    }
+
+    /**
+     * Load the build rows of the next partition and open its probe rows.
+     *
+     * @return {@code false} if there are no more partitions
+     */
+    private boolean nextPartition() throws IOException {
+        closeProbeFile();
+        clearTable();
+        while (!m_partitions.isEmpty()) {
+            final Partition partition = m_partitions.removeFirst();
+            final SpillFile build = partition.build();
+            if (build != null && build.numRows() > m_maxBuildRows && partition.level() + 1 < MAX_LEVEL) {
+                split(partition);
+                continue;
+            }
+            if (build != null) {
+                try (build; SpillFile.Reader reader = build.reader()) {
+                    while (reader.read(bufferRow(m_numRows))) {
+                        insertBuffered();
+                    }
+                }
+            }
+            m_probeFile = partition.probe();
+            m_probeReader = m_probeFile == null ? null : m_probeFile.reader();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Split the given partition into sub-partitions, using the next bits of the hash.
+     */
+    private void split(final Partition partition) throws IOException {
+        final int level = partition.level() + 1;
+        final SpillFile[] build = new SpillFile[NUM_PARTITIONS];
+        final SpillFile[] probe = new SpillFile[NUM_PARTITIONS];
+        try {
+            repartition(partition.build(), m_buildBuffer, build, m_buildKeys, m_buildOuter, level);
+            repartition(partition.probe(), m_probeBuffer, probe, m_probeKeys, m_probeOuter, level);
+        } catch (IOException | RuntimeException e) {
+            closeAll(build);
+            closeAll(probe);
+            throw e;
+        }
+        queuePartitions(build, probe, level);
+    }
+
+    private void repartition(final SpillFile file, final BufferedAccess[] buffer, final SpillFile[] partitions,
+        final int[] keys, final boolean outer, final int level) throws IOException {
+        if (file != null) {
+            try (file; SpillFile.Reader reader = file.reader()) {
+                while (reader.read(buffer)) {
+                    write(partitions, buffer, keys, outer, level);
+                }
+            }
+        }
+    }
+
+    private boolean forwardProbe() throws IOException {
+        if (!m_partitioned) {
+            return m_probeForward.getAsBoolean();
+        }
+        return m_probeReader != null && m_probeReader.read(m_probeBuffer);
+    }
+
+    /**
+     * Advance to the next joined row.
+     *
+     * @return {@code false} if there are no more joined rows
+     */
+    boolean next() throws IOException {
+        while (true) {
+            if (m_match >= 0) {
+                final int r = m_match;
+                m_match = m_next[r];
+                if (m_buildOuter) {
+                    m_matched.set(r);
+                }
+                m_buildRowOut = m_rows.get(r);
+                m_probeRowOut = m_probeRow;
+                return true;
+            }
+            if (m_unmatched < 0) {
+                if (forwardProbe()) {
+                    final boolean missing = setKeys(m_probeRow, m_probeKeys);
+                    final int group = missing ? -1 : m_table.groupOf(false);
+                    if (group >= 0) {
+                        m_match = m_first[group];
+                    } else if (m_probeOuter) {
+                        m_buildRowOut = null;
+                        m_probeRowOut = m_probeRow;
+                        return true;
+                    }
+                    continue;
+                }
+                m_unmatched = 0;
+            }
+            if (m_buildOuter) {
+                final int r = m_matched.nextClearBit(m_unmatched);
+                if (r < m_numRows) {
+                    m_unmatched = r + 1;
+                    m_buildRowOut = m_rows.get(r);
+                    m_probeRowOut = null;
+                    return true;
+                }
+            }
+            if (!m_partitioned || !nextPartition()) {
+                m_buildRowOut = null;
+                m_probeRowOut = null;
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The build row of the current joined row, or {@code null} if the probe row has no join partner.
+     */
+    ReadAccess[] buildRow() {
+        return m_buildRowOut;
+    }
+
+    /**
+     * The probe row of the current joined row, or {@code null} if the build row has no join partner.
+     */
+    ReadAccess[] probeRow() {
+        return m_probeRowOut;
+    }
+
+    private void closeProbeFile() throws IOException {
+        try {
+            if (m_probeReader != null) {
+                m_probeReader.close();
+            }
+        } finally {
+            m_probeReader = null;
+            if (m_probeFile != null) {
+                final SpillFile file = m_probeFile;
+                m_probeFile = null;
+                file.close();
+            }
+        }
+    }
+
+    private static void closeAll(final SpillFile[] files) throws IOException {
+        IOException exception = null;
+        for (SpillFile file : files) {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    if (exception == null) {
+                        exception = e;
+                    }
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        final List<SpillFile> files = new ArrayList<>();
+        if (m_buildPartitions != null) {
+            files.addAll(Arrays.asList(m_buildPartitions));
+            m_buildPartitions = null;
+        }
+        for (Partition partition : m_partitions) {
+            files.add(partition.build());
+            files.add(partition.probe());
+        }
+        m_partitions.clear();
+        try {
+            closeProbeFile();
+        } finally {
+            closeAll(files.toArray(SpillFile[]::new));
+            m_rows.clear();
+            clearTable();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.knime.core.table.cursor.RandomAccessCursor;
+import org.knime.core.table.row.RandomRowAccessible;
+import org.knime.core.table.row.ReadAccessRow;
+import org.knime.core.table.row.Selection;
+import org.knime.core.table.schema.ColumnarSchema;
+import org.knime.core.table.virtual.spec.RowFilterTransformSpec.RangeFilterFactory;
+
+/**
+ * A {@link RandomRowAccessible} with {@link SecondaryIndex secondary indexes} over some of its columns.
+ * <p>
+ * When used as a source table for executing a virtual table, a {@link RangeFilterFactory range filter} directly on a
+ * column that is the first key column of one of the indexes is executed by an index lookup: Only the matching rows are
+ * read from the source table (by random access), instead of reading and testing every row.
+ * <p>
+ * The indexes can be re-used for any number of executions (as long as the underlying table does not change).
+ */
+public final class IndexedRowAccessible implements RandomRowAccessible {
+
+    private final RandomRowAccessible m_table;
+
+    private final List<SecondaryIndex> m_indexes;
+
+    /**
+     * @param table the indexed table
+     * @param indexes indexes {@link SecondaryIndex#create created} over {@code table}
+     */
+    public IndexedRowAccessible(final RandomRowAccessible table, final SecondaryIndex... indexes) {
+        m_table = table;
+        m_indexes = List.of(indexes);
+    }
+
+    /**
+     * Get an index whose first key column is the given {@code column}.
+     *
+     * @param column a column index
+     * @return an index on {@code column}, or {@code null} if there is none
+     */
+    public SecondaryIndex getIndex(final int column) {
+        return m_indexes.stream() //
+            .filter(index -> index.getColumns()[0] == column) //
+            .findFirst().orElse(null);
+    }
+
+    @Override
+    public ColumnarSchema getSchema() {
+        return m_table.getSchema();
+    }
+
+    @Override
+    public RandomAccessCursor<ReadAccessRow> createCursor() {
+        return m_table.createCursor();
+    }
+
+    @Override
+    public RandomAccessCursor<ReadAccessRow> createCursor(final Selection selection) {
+        return m_table.createCursor(selection);
+    }
+
+    @Override
+    public long size() {
+        return m_table.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        m_table.close();
+    }
+}
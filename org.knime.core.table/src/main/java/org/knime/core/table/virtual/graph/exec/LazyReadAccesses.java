@@ -0,0 +1,335 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import org.knime.core.table.access.BooleanAccess.BooleanReadAccess;
+import org.knime.core.table.access.ByteAccess.ByteReadAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleReadAccess;
+import org.knime.core.table.access.FloatAccess.FloatReadAccess;
+import org.knime.core.table.access.IntAccess.IntReadAccess;
+import org.knime.core.table.access.LongAccess.LongReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.StringAccess.StringReadAccess;
+import org.knime.core.table.access.VarBinaryAccess.VarBinaryReadAccess;
+import org.knime.core.table.schema.BooleanDataSpec;
+import org.knime.core.table.schema.ByteDataSpec;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.schema.DoubleDataSpec;
+import org.knime.core.table.schema.FloatDataSpec;
+import org.knime.core.table.schema.IntDataSpec;
+import org.knime.core.table.schema.ListDataSpec;
+import org.knime.core.table.schema.LongDataSpec;
+import org.knime.core.table.schema.StringDataSpec;
+import org.knime.core.table.schema.StructDataSpec;
+import org.knime.core.table.schema.VarBinaryDataSpec;
+import org.knime.core.table.schema.VarBinaryDataSpec.ObjectDeserializer;
+import org.knime.core.table.schema.VarBinaryDataSpec.ObjectSerializer;
+import org.knime.core.table.schema.VoidDataSpec;
+
+/**
+ * {@code ReadAccess}es that run an {@code evaluate} callback before every read, and then read from a wrapped access.
+ * This is used to compute values lazily, on first read (see {@link SequentialNodeImpMap}).
+ * <p>
+ * Only accesses for flat {@code DataSpec}s are supported. The element accesses of lists and structs are obtained once
+ * and read later, so reading them cannot be intercepted.
+ */
+final class LazyReadAccesses {
+
+    private LazyReadAccesses() {
+    }
+
+    /**
+     * Whether {@link #createLazyAccess} supports accesses with the given {@code spec}.
+     *
+     * @param spec the DataSpec
+     * @return {@code true} if lazy accesses with the given {@code spec} can be created
+     */
+    static boolean supports(final DataSpec spec) {
+        return !(spec instanceof StructDataSpec || spec instanceof ListDataSpec);
+    }
+
+    /**
+     * Create a {@code ReadAccess} that calls {@code evaluate} before reading from {@code access}.
+     *
+     * @param access the access to read from
+     * @param evaluate called before every read
+     * @return lazy access
+     * @throws IllegalArgumentException if the spec of {@code access} is not {@link #supports supported}
+     */
+    static ReadAccess createLazyAccess(final ReadAccess access, final Runnable evaluate) {
+        if (!supports(access.getDataSpec())) {
+            throw new IllegalArgumentException("lazy accesses are not supported for " + access.getDataSpec());
+        }
+        return access.getDataSpec().accept(new DataSpecToLazyReadAccessMapper(access, evaluate));
+    }
+
+    private static final class DataSpecToLazyReadAccessMapper implements DataSpec.Mapper<ReadAccess> {
+
+        private final ReadAccess m_access;
+
+        private final Runnable m_evaluate;
+
+        DataSpecToLazyReadAccessMapper(final ReadAccess access, final Runnable evaluate) {
+            m_access = access;
+            m_evaluate = evaluate;
+        }
+
+        @Override
+        public ReadAccess visit(final BooleanDataSpec spec) {
+            return new LazyBooleanReadAccess((BooleanReadAccess)m_access, m_evaluate);
+        }
+
+        @Override
+        public ReadAccess visit(final ByteDataSpec spec) {
+            return new LazyByteReadAccess((ByteReadAccess)m_access, m_evaluate);
+        }
+
+        @Override
+        public ReadAccess visit(final DoubleDataSpec spec) {
+            return new LazyDoubleReadAccess((DoubleReadAccess)m_access, m_evaluate);
+        }
+
+        @Override
+        public ReadAccess visit(final FloatDataSpec spec) {
+            return new LazyFloatReadAccess((FloatReadAccess)m_access, m_evaluate);
+        }
+
+        @Override
+        public ReadAccess visit(final IntDataSpec spec) {
+            return new LazyIntReadAccess((IntReadAccess)m_access, m_evaluate);
+        }
+
+        @Override
+        public ReadAccess visit(final LongDataSpec spec) {
+            return new LazyLongReadAccess((LongReadAccess)m_access, m_evaluate);
+        }
+
+        @Override
+        public ReadAccess visit(final VarBinaryDataSpec spec) {
+            return new LazyVarBinaryReadAccess((VarBinaryReadAccess)m_access, m_evaluate);
+        }
+
+        @Override
+        public ReadAccess visit(final VoidDataSpec spec) {
+            return new AbstractLazyReadAccess<>(m_access, m_evaluate) {
+            };
+        }
+
+        @Override
+        public ReadAccess visit(final StructDataSpec spec) {
+            throw new IllegalArgumentException();
+        }
+
+        @Override
+        public ReadAccess visit(final ListDataSpec listDataSpec) {
+            throw new IllegalArgumentException();
+        }
+
+        @Override
+        public ReadAccess visit(final StringDataSpec spec) {
+            return new LazyStringReadAccess((StringReadAccess)m_access, m_evaluate);
+        }
+    }
+
+    private static final class LazyBooleanReadAccess extends AbstractLazyReadAccess<BooleanReadAccess>
+        implements BooleanReadAccess {
+
+        LazyBooleanReadAccess(final BooleanReadAccess access, final Runnable evaluate) {
+            super(access, evaluate);
+        }
+
+        @Override
+        public boolean getBooleanValue() {
+            return access().getBooleanValue();
+        }
+    }
+
+    private static final class LazyByteReadAccess extends AbstractLazyReadAccess<ByteReadAccess>
+        implements ByteReadAccess {
+
+        LazyByteReadAccess(final ByteReadAccess access, final Runnable evaluate) {
+            super(access, evaluate);
+        }
+
+        @Override
+        public byte getByteValue() {
+            return access().getByteValue();
+        }
+    }
+
+    private static final class LazyDoubleReadAccess extends AbstractLazyReadAccess<DoubleReadAccess>
+        implements DoubleReadAccess {
+
+        LazyDoubleReadAccess(final DoubleReadAccess access, final Runnable evaluate) {
+            super(access, evaluate);
+        }
+
+        @Override
+        public double getDoubleValue() {
+            return access().getDoubleValue();
+        }
+    }
+
+    private static final class LazyFloatReadAccess extends AbstractLazyReadAccess<FloatReadAccess>
+        implements FloatReadAccess {
+
+        LazyFloatReadAccess(final FloatReadAccess access, final Runnable evaluate) {
+            super(access, evaluate);
+        }
+
+        @Override
+        public float getFloatValue() {
+            return access().getFloatValue();
+        }
+    }
+
+    private static final class LazyIntReadAccess extends AbstractLazyReadAccess<IntReadAccess>
+        implements IntReadAccess {
+
+        LazyIntReadAccess(final IntReadAccess access, final Runnable evaluate) {
+            super(access, evaluate);
+        }
+
+        @Override
+        public int getIntValue() {
+            return access().getIntValue();
+        }
+    }
+
+    private static final class LazyLongReadAccess extends AbstractLazyReadAccess<LongReadAccess>
+        implements LongReadAccess {
+
+        LazyLongReadAccess(final LongReadAccess access, final Runnable evaluate) {
+            super(access, evaluate);
+        }
+
+        @Override
+        public long getLongValue() {
+            return access().getLongValue();
+        }
+    }
+
+    private static final class LazyStringReadAccess extends AbstractLazyReadAccess<StringReadAccess>
+        implements StringReadAccess {
+
+        LazyStringReadAccess(final StringReadAccess access, final Runnable evaluate) {
+            super(access, evaluate);
+        }
+
+        @Override
+        public String getStringValue() {
+            return access().getStringValue();
+        }
+    }
+
+    private static final class LazyVarBinaryReadAccess extends AbstractLazyReadAccess<VarBinaryReadAccess>
+        implements VarBinaryReadAccess {
+
+        LazyVarBinaryReadAccess(final VarBinaryReadAccess access, final Runnable evaluate) {
+            super(access, evaluate);
+        }
+
+        @Override
+        public byte[] getByteArray() {
+            return access().getByteArray();
+        }
+
+        @Override
+        public <T> T getObject(final ObjectDeserializer<T> deserializer) {
+            return access().getObject(deserializer);
+        }
+
+        @Override
+        public boolean hasObjectAndSerializer() {
+            return access().hasObjectAndSerializer();
+        }
+
+        @Override
+        public ObjectSerializer<?> getSerializer() {
+            return access().getSerializer();
+        }
+
+        @Override
+        public <T> T getObject() {
+            return access().getObject();
+        }
+    }
+
+    private abstract static class AbstractLazyReadAccess<A extends ReadAccess> implements ReadAccess {
+
+        private final A m_access;
+
+        private final Runnable m_evaluate;
+
+        AbstractLazyReadAccess(final A access, final Runnable evaluate) {
+            m_access = access;
+            m_evaluate = evaluate;
+        }
+
+        /**
+         * Evaluate (if necessary) and return the wrapped access.
+         */
+        protected A access() {
+            m_evaluate.run();
+            return m_access;
+        }
+
+        @Override
+        public boolean isMissing() {
+            return access().isMissing();
+        }
+
+        @Override
+        public DataSpec getDataSpec() {
+            return m_access.getDataSpec();
+        }
+
+        @Override
+        public String toString() {
+            return access().toString();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.virtual.spec.MapTransformSpec.MapperFactory;
+
+/**
+ * Wraps a mapper of a {@link MapperFactory#isDeterministic() deterministic} {@code MapperFactory}, and caches its
+ * output values by input values.
+ * <p>
+ * The cache is bounded, and approximates least-recently-used eviction with two generations: Entries are added to the
+ * current generation. When the current generation is full, it becomes the previous generation, and the old previous
+ * generation is dropped. Entries found in the previous generation are copied to the current generation. Each
+ * generation is a {@link GroupTable} over the input accesses, with the output values stored per group.
+ */
+final class MemoizingMapper implements Runnable {
+
+    /**
+     * The default maximum number of cached input values (for both generations).
+     */
+    static final int DEFAULT_CACHE_SIZE = 1 << 13;
+
+    private final BufferedAccess[] m_outputs;
+
+    private final Runnable m_mapper;
+
+    private final int m_generationSize;
+
+    private Generation m_current;
+
+    private Generation m_previous;
+
+    /**
+     * Cached input values, and the output values for each group of input values.
+     */
+    private static final class Generation {
+
+        private final GroupTable m_inputs;
+
+        /**
+         * Output values, indexed by group. The list is not shrunk on {@link #clear()}, the buffers are re-used.
+         */
+        private final List<BufferedAccess[]> m_outputs = new ArrayList<>();
+
+        Generation(final ReadAccess[] inputs) {
+            m_inputs = GroupTable.create(inputs);
+        }
+
+        void clear() {
+            m_inputs.clear();
+        }
+    }
+
+    /**
+     * @param inputs the input accesses of the mapper
+     * @param outputs the output accesses of the mapper
+     * @param mapperFactory a deterministic MapperFactory
+     * @param cacheSize maximum number of cached input values
+     */
+    MemoizingMapper(final ReadAccess[] inputs, final BufferedAccess[] outputs, final MapperFactory mapperFactory,
+        final int cacheSize) {
+        m_outputs = outputs;
+        m_mapper = mapperFactory.createMapper(inputs, outputs);
+        m_generationSize = Math.max(1, cacheSize / 2);
+        m_current = new Generation(inputs);
+        m_previous = new Generation(inputs);
+    }
+
+    @Override
+    public void run() {
+        final int group = m_current.m_inputs.groupOf(false);
+        if (group >= 0) {
+            copy(m_current.m_outputs.get(group), m_outputs);
+            return;
+        }
+
+        final int previousGroup = m_previous.m_inputs.groupOf(false);
+        if (previousGroup >= 0) {
+            copy(m_previous.m_outputs.get(previousGroup), m_outputs);
+        } else {
+            m_mapper.run();
+        }
+
+        if (m_current.m_inputs.numGroups() >= m_generationSize) {
+            final Generation g = m_previous;
+            m_previous = m_current;
+            m_current = g;
+            m_current.clear();
+        }
+        final int newGroup = m_current.m_inputs.groupOf(true);
+        if (newGroup == m_current.m_outputs.size()) {
+            final BufferedAccess[] values = new BufferedAccess[m_outputs.length];
+            Arrays.setAll(values, i -> BufferedAccesses.createBufferedAccess(m_outputs[i].getDataSpec()));
+            m_current.m_outputs.add(values);
+        }
+        copy(m_outputs, m_current.m_outputs.get(newGroup));
+    }
+
+    private static void copy(final BufferedAccess[] from, final BufferedAccess[] to) {
+        for (int i = 0; i < from.length; i++) {
+            to[i].setFrom(from[i]);
+        }
+    }
+}
@@ -68,6 +68,17 @@ interface NodeImp {
      */
     void create();
 
+    /**
+     * Rewind this {@code NodeImp} to the state after {@link #create}, re-opening it if it was {@link #close closed}.
+     * (A sequential {@code NodeImp} provides its first row again on the next {@code forward()}.) Predecessors are
+     * {@link #reset} recursively, unless this {@code NodeImp} can rewind without reading them again (for example,
+     * a SORT that holds all sorted rows in memory).
+     * <p>
+     * The output {@code ReadAccess}es (via {@link #getOutput}) remain the same instances, and mappers, filters,
+     * observers, and buffers are re-used.
+     */
+    void reset();
+
     /**
      * Recursively call {@link #close} on all predecessors. Then do any clean-up
      * this {@code NodeImp} itself requires.
@@ -45,6 +45,8 @@
  */
 package org.knime.core.table.virtual.graph.exec;
 
+import java.util.function.IntConsumer;
+
 interface RandomAccessNodeImp extends NodeImp {
 
     /**
@@ -56,4 +58,24 @@ interface RandomAccessNodeImp extends NodeImp {
      * @param row index of the row to move to
      */
     void moveTo(long row);
+
+    /**
+     * Move to each of the rows {@code rows[from]}, ..., {@code rows[to-1]} in turn, and call {@code action.accept(i)}
+     * after moving to {@code rows[i]}. The given rows are strictly ascending. The rows may be visited in any order.
+     * <p>
+     * Implementations should forward the whole batch to their predecessors, so that, for example,
+     * {@link RandomAccessNodeImpConcatenate concatenate} switches predecessors only once per predecessor, and sources
+     * can gather the rows in one batch. The default implementation calls {@link #moveTo(long)} for each row.
+     *
+     * @param rows indices of the rows to move to
+     * @param from index of the first row in {@code rows} (inclusive)
+     * @param to index of the last row in {@code rows} (exclusive)
+     * @param action called with the index into {@code rows} of each visited row
+     */
+    default void moveTo(final long[] rows, final int from, final int to, final IntConsumer action) {
+        for (int i = from; i < to; i++) {
+            moveTo(rows[i]);
+            action.accept(i);
+        }
+    }
 }
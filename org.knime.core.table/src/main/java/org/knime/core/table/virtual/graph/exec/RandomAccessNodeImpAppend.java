@@ -165,6 +165,13 @@ public void create() {
         }
     }
 
+    @Override
+    public void reset() {
+        for (RandomAccessNodeImp predecessor : predecessors) {
+            predecessor.reset();
+        }
+    }
+
     @Override
     public void moveTo(final long row) {
         // NB no bounds checking here, this is done in CapRandomAccessCursor
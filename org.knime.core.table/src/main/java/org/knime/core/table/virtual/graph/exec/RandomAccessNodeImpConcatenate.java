@@ -47,6 +47,7 @@
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.function.IntConsumer;
 
 import org.knime.core.table.access.DelegatingReadAccesses;
 import org.knime.core.table.access.ReadAccess;
@@ -150,6 +151,13 @@ public void create() {
         }
     }
 
+    @Override
+    public void reset() {
+        for (RandomAccessNodeImp predecessor : predecessors) {
+            predecessor.reset();
+        }
+    }
+
     @Override
     public void moveTo(final long row) {
         // NB no bounds checking here, this is done in CapRandomAccessCursor
@@ -165,6 +173,31 @@ public void moveTo(final long row) {
         predecessor.moveTo(row - predecessorFromRow);
     }
 
+    @Override
+    public void moveTo(final long[] rows, final int from, final int to, final IntConsumer action) {
+        // The rows are ascending, so we visit each predecessor at most once,
+        // and pass all rows that fall into it on in one batch.
+        int i = from;
+        while (i < to) {
+            if (rows[i] < predecessorFromRow || rows[i] >= predecessorToRow) {
+                int p = Arrays.binarySearch(predecessorStarts, rows[i]);
+                if (p < 0) {
+                    p = -p - 2;
+                }
+                link(p);
+            }
+            int j = i + 1;
+            while (j < to && rows[j] < predecessorToRow) {
+                j++;
+            }
+            final int start = i;
+            final long[] predecessorRows = new long[j - i];
+            Arrays.setAll(predecessorRows, k -> rows[start + k] - predecessorFromRow);
+            predecessor.moveTo(predecessorRows, 0, predecessorRows.length, k -> action.accept(start + k));
+            i = j;
+        }
+    }
+
     @Override
     public void close() throws IOException {
         for (RandomAccessNodeImp predecessor : predecessors) {
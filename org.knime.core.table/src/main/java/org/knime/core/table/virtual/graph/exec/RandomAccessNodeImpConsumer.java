@@ -46,6 +46,7 @@
 package org.knime.core.table.virtual.graph.exec;
 
 import java.io.IOException;
+import java.util.function.IntConsumer;
 
 import org.knime.core.table.access.ReadAccess;
 
@@ -84,11 +85,21 @@ public void create() {
         link();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+    }
+
     @Override
     public void moveTo(final long row) {
         predecessor.moveTo(row);
     }
 
+    @Override
+    public void moveTo(final long[] rows, final int from, final int to, final IntConsumer action) {
+        predecessor.moveTo(rows, from, to, action);
+    }
+
     @Override
     public void close() throws IOException {
         predecessor.close();
@@ -48,6 +48,7 @@
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 import org.knime.core.table.access.BufferedAccesses;
 import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
@@ -70,6 +71,16 @@ class RandomAccessNodeImpMap implements RandomAccessNodeImp {
 
     private final RandomAccessNodeImp predecessor;
 
+    /**
+     * Whether the mapper is run lazily, on first read of an output for the current row.
+     */
+    private final boolean lazy;
+
+    /**
+     * Whether the mapper has been run for the current row (only used if {@code lazy}).
+     */
+    private boolean mapped;
+
     /**
      * @param mapOutputSpecs these accesses are needed as outputs for the {@code map()} function.
      * @param cols           these indices among {@code mapOutputSpecs} are the outputs of this NodeImp
@@ -90,8 +101,12 @@ class RandomAccessNodeImpMap implements RandomAccessNodeImp {
         this.mapperFactory = mapperFactory;
         Arrays.setAll(mapOutputs, i -> BufferedAccesses.createBufferedAccess(mapOutputSpecs.get(i)));
 
+        lazy = mapperFactory.supportsLazyEvaluation()
+            && Arrays.stream(cols).allMatch(c -> LazyReadAccesses.supports(mapOutputSpecs.get(c)));
         outputs = new ReadAccess[cols.length];
-        Arrays.setAll(outputs, i -> mapOutputs[cols[i]]);
+        Arrays.setAll(outputs, i -> lazy //
+            ? LazyReadAccesses.createLazyAccess(mapOutputs[cols[i]], this::mapIfNecessary) //
+            : mapOutputs[cols[i]]);
     }
 
     @Override
@@ -103,7 +118,9 @@ private void link() {
         for (int i = 0; i < inputs.length; i++) {
             mapInputs[i] = inputs[i].getReadAccess();
         }
-        mapper = mapperFactory.createMapper(mapInputs, mapOutputs);
+        mapper = mapperFactory.isDeterministic() //
+            ? new MemoizingMapper(mapInputs, mapOutputs, mapperFactory, MemoizingMapper.DEFAULT_CACHE_SIZE) //
+            : mapperFactory.createMapper(mapInputs, mapOutputs);
     }
 
     @Override
@@ -112,9 +129,46 @@ public void create() {
         link();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+    }
+
     @Override
     public void moveTo(final long row) {
         predecessor.moveTo(row);
+        if (lazy) {
+            mapped = false;
+        } else {
+            map();
+        }
+    }
+
+    @Override
+    public void moveTo(final long[] rows, final int from, final int to, final IntConsumer action) {
+        predecessor.moveTo(rows, from, to, i -> {
+            if (lazy) {
+                mapped = false;
+            } else {
+                map();
+            }
+            action.accept(i);
+        });
+    }
+
+    private void mapIfNecessary() {
+        if (!mapped) {
+            mapped = true;
+            map();
+        }
+    }
+
+    private void map() {
+        // As per buffered access contract, we need to set all fields to missing if we're writing to a new row.
+        // We don't know whether the user provided mapper will write a value to each cell, so we call setMissing.
+        for (BufferedAccess output : mapOutputs) {
+            output.setMissing();
+        }
         mapper.run();
     }
 
@@ -74,6 +74,12 @@ public void create() {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void reset() {
+        // should never be called
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void moveTo(final long row) {
         // should never be called
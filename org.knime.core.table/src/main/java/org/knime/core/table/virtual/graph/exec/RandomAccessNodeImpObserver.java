@@ -46,6 +46,7 @@
 package org.knime.core.table.virtual.graph.exec;
 
 import java.io.IOException;
+import java.util.function.IntConsumer;
 
 import org.knime.core.table.access.ReadAccess;
 import org.knime.core.table.virtual.spec.ObserverTransformSpec;
@@ -88,6 +89,11 @@ public void create() {
         link();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+    }
+
     @Override
     public void moveTo(final long row) {
         // NB no bounds checking here, this is done in CapRandomAccessCursor
@@ -95,6 +101,14 @@ public void moveTo(final long row) {
         observer.run();
     }
 
+    @Override
+    public void moveTo(final long[] rows, final int from, final int to, final IntConsumer action) {
+        predecessor.moveTo(rows, from, to, i -> {
+            observer.run();
+            action.accept(i);
+        });
+    }
+
     @Override
     public void close() throws IOException {
         predecessor.close();
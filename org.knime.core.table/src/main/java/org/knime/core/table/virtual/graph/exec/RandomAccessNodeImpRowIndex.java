@@ -48,6 +48,7 @@
 import static org.knime.core.table.schema.DataSpecs.LONG;
 
 import java.io.IOException;
+import java.util.function.IntConsumer;
 
 import org.knime.core.table.access.BufferedAccesses;
 import org.knime.core.table.access.LongAccess.LongWriteAccess;
@@ -80,6 +81,11 @@ public void create() {
         predecessor.create();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+    }
+
     @Override
     public void moveTo(final long row) {
         // NB no bounds checking here, this is done in CapRandomAccessCursor
@@ -87,6 +93,14 @@ public void moveTo(final long row) {
         access.setLongValue(row + offset);
     }
 
+    @Override
+    public void moveTo(final long[] rows, final int from, final int to, final IntConsumer action) {
+        predecessor.moveTo(rows, from, to, i -> {
+            access.setLongValue(rows[i] + offset);
+            action.accept(i);
+        });
+    }
+
     @Override
     public void close() throws IOException {
         predecessor.close();
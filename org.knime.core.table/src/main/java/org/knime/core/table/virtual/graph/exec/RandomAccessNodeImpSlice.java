@@ -46,6 +46,8 @@
 package org.knime.core.table.virtual.graph.exec;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
 
 import org.knime.core.table.access.ReadAccess;
 
@@ -75,12 +77,24 @@ public void create() {
         predecessor.create();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+    }
+
     @Override
     public void moveTo(final long row) {
         // NB no bounds checking here, this is done in CapRandomAccessCursor
         predecessor.moveTo(m_from + row);
     }
 
+    @Override
+    public void moveTo(final long[] rows, final int from, final int to, final IntConsumer action) {
+        final long[] predecessorRows = new long[to - from];
+        Arrays.setAll(predecessorRows, j -> m_from + rows[from + j]);
+        predecessor.moveTo(predecessorRows, 0, predecessorRows.length, j -> action.accept(from + j));
+    }
+
     @Override
     public void close() throws IOException {
         predecessor.close();
@@ -0,0 +1,167 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.schema.DataSpec;
+
+/**
+ * Sorts the rows of its (sequential) predecessor and provides random access to the sorted rows.
+ * <p>
+ * On the first {@code moveTo()}, all rows of the predecessor are consumed into an {@link ExternalSorter}, and the
+ * predecessor is closed. All rows must fit into memory, that is, the number of rows must not exceed
+ * {@code maxBufferedRows}.
+ */
+class RandomAccessNodeImpSort implements RandomAccessNodeImp {
+    private final AccessImp[] inputs;
+
+    private final SequentialNodeImp predecessor;
+
+    private final int[] keys;
+
+    private final boolean[] ascending;
+
+    private final int[] outputIndices;
+
+    private final long maxBufferedRows;
+
+    private final long limit;
+
+    private final DelegatingReadAccess[] outputs;
+
+    private ExternalSorter sorter;
+
+    private boolean predecessorClosed;
+
+    RandomAccessNodeImpSort(final AccessImp[] inputs, final SequentialNodeImp predecessor, final int[] keys,
+        final boolean[] ascending, final int[] outputIndices, final long maxBufferedRows, final long limit) {
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.keys = keys;
+        this.ascending = ascending;
+        this.outputIndices = outputIndices;
+        this.maxBufferedRows = maxBufferedRows;
+        this.limit = limit;
+        outputs = new DelegatingReadAccess[outputIndices.length];
+    }
+
+    @Override
+    public ReadAccess getOutput(final int i) {
+        return outputs[i];
+    }
+
+    @Override
+    public void create() {
+        predecessor.create();
+        for (int i = 0; i < outputs.length; i++) {
+            final DataSpec spec = inputs[outputIndices[i]].getReadAccess().getDataSpec();
+            outputs[i] = DelegatingReadAccesses.createDelegatingAccess(spec);
+        }
+    }
+
+    @Override
+    public void reset() {
+        if (sorter != null && sorter.isInMemory()) {
+            // re-use the sorted rows
+            sorter.rewind();
+            return;
+        }
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        predecessorClosed = false;
+        predecessor.reset();
+    }
+
+    @Override
+    public void moveTo(final long row) {
+        if (sorter == null) {
+            sorter = SequentialNodeImpSort.sort(inputs, predecessor, keys, ascending, maxBufferedRows, limit);
+            closePredecessor();
+            if (!sorter.isInMemory()) {
+                throw new IllegalStateException(
+                    "Cannot provide random access: the sorted table has more than " + maxBufferedRows + " rows");
+            }
+        }
+        final ReadAccess[] values = sorter.get(row);
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i].setDelegateAccess(values[outputIndices[i]]);
+        }
+    }
+
+    private void closePredecessor() {
+        if (!predecessorClosed) {
+            predecessorClosed = true;
+            try {
+                predecessor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (sorter != null) {
+                sorter.close();
+                sorter = null;
+            }
+        } finally {
+            if (!predecessorClosed) {
+                predecessorClosed = true;
+                predecessor.close();
+            }
+        }
+    }
+}
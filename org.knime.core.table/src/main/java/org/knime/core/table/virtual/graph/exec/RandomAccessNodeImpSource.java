@@ -46,24 +46,68 @@
 package org.knime.core.table.virtual.graph.exec;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
 
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
 import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.cursor.Cursor;
 import org.knime.core.table.cursor.RandomAccessCursor;
 import org.knime.core.table.row.ReadAccessRow;
 import org.knime.core.table.row.RowAccessible;
 import org.knime.core.table.row.Selection;
 
+/**
+ * Provides random access to the rows of a source table.
+ * <p>
+ * If rows are requested in ascending order (as {@link CapRandomAccessCursor#forward()} does), then after
+ * {@link #SEQUENTIAL_THRESHOLD} consecutive rows, a (sequential) cursor starting at the current row is opened on the
+ * source, and the following rows are read by {@code forward()} instead of {@code moveTo()}. This is typically much
+ * cheaper, and lets the source read ahead. When a row is requested that is not ahead of the sequential cursor, we fall
+ * back to random access.
+ */
 class RandomAccessNodeImpSource implements RandomAccessNodeImp {
+
+    /**
+     * Number of consecutive rows that must be requested in ascending order before switching to sequential access.
+     * (This is also the maximum number of rows the sequential cursor skips to reach the requested row.)
+     */
+    static final int SEQUENTIAL_THRESHOLD = 8;
+
     private final RowAccessible accessible;
 
     private final int[] cols;
 
     private final Selection selection;
 
-    private final ReadAccess[] outputs;
+    private final DelegatingReadAccess[] outputs;
 
     private RandomAccessCursor<ReadAccessRow> cursor;
 
+    /**
+     * The sequential cursor, or {@code null} if rows are currently accessed randomly.
+     */
+    private Cursor<ReadAccessRow> sequentialCursor;
+
+    /**
+     * The row that {@link #sequentialCursor} is at.
+     */
+    private long sequentialRow;
+
+    /**
+     * The row that {@link #cursor} was last moved to.
+     */
+    private long lastRow = -1;
+
+    /**
+     * Number of consecutive rows that have been requested in ascending order, ending with {@link #lastRow}.
+     */
+    private int numSequential;
+
+    private boolean closed;
+
     RandomAccessNodeImpSource(//
         final RowAccessible accessible, //
         final int[] cols, //
@@ -73,7 +117,7 @@ class RandomAccessNodeImpSource implements RandomAccessNodeImp {
         this.accessible = accessible;
         this.cols = cols;
         this.selection = Selection.all().retainColumns(cols).retainRows(fromRow, toRow);
-        outputs = new ReadAccess[cols.length];
+        outputs = new DelegatingReadAccess[cols.length];
     }
 
     @Override
@@ -85,17 +129,99 @@ public ReadAccess getOutput(final int i) {
     public void create() {
         cursor = (RandomAccessCursor<ReadAccessRow>)accessible.createCursor(selection);
         for (int i = 0; i < outputs.length; i++) {
-            outputs[i] = cursor.access().getAccess(cols[i]);
+            final ReadAccess access = cursor.access().getAccess(cols[i]);
+            if (outputs[i] == null) {
+                outputs[i] = DelegatingReadAccesses.createDelegatingAccess(access.getDataSpec());
+            }
+            outputs[i].setDelegateAccess(access);
+        }
+        lastRow = -1;
+        numSequential = 0;
+        closed = false;
+    }
+
+    @Override
+    public void reset() {
+        if (closed) {
+            create();
+        } else if (sequentialCursor != null) {
+            closeSequentialCursor();
         }
     }
 
     @Override
     public void moveTo(final long row) {
-        cursor.moveTo(row);
+        if (sequentialCursor != null) {
+            if (row >= sequentialRow && row - sequentialRow <= SEQUENTIAL_THRESHOLD) {
+                for (; sequentialRow < row; sequentialRow++) {
+                    sequentialCursor.forward();
+                }
+                return;
+            }
+            closeSequentialCursor();
+        }
+
+        numSequential = row == lastRow + 1 ? numSequential + 1 : 1;
+        lastRow = row;
+        if (numSequential >= SEQUENTIAL_THRESHOLD) {
+            openSequentialCursor(row);
+        } else {
+            cursor.moveTo(row);
+        }
+    }
+
+    /**
+     * Open a sequential cursor starting at the given {@code row}, and provide its accesses at the outputs.
+     */
+    private void openSequentialCursor(final long row) {
+        final long size = accessible.size();
+        sequentialCursor = accessible.createCursor(selection.retainRows(row, size < 0 ? Long.MAX_VALUE : size));
+        sequentialCursor.forward();
+        sequentialRow = row;
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i].setDelegateAccess(sequentialCursor.access().getAccess(cols[i]));
+        }
+    }
+
+    /**
+     * Close the sequential cursor, and provide the accesses of the random-access cursor at the outputs again.
+     */
+    private void closeSequentialCursor() {
+        try {
+            sequentialCursor.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        sequentialCursor = null;
+        numSequential = 0;
+        lastRow = -1;
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i].setDelegateAccess(cursor.access().getAccess(cols[i]));
+        }
+    }
+
+    @Override
+    public void moveTo(final long[] rows, final int from, final int to, final IntConsumer action) {
+        if (sequentialCursor != null) {
+            closeSequentialCursor();
+        }
+        final long[] sourceRows = from == 0 && to == rows.length ? rows : Arrays.copyOfRange(rows, from, to);
+        cursor.moveTo(sourceRows, j -> action.accept(from + j));
     }
 
     @Override
     public void close() throws IOException {
-        cursor.close();
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (sequentialCursor != null) {
+                sequentialCursor.close();
+                sequentialCursor = null;
+            }
+        } finally {
+            cursor.close();
+        }
     }
 }
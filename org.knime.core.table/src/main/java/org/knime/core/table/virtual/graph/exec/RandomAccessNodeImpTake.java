@@ -0,0 +1,165 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.LongAccess.LongReadAccess;
+import org.knime.core.table.access.ReadAccess;
+
+/**
+ * Provides random access to rows gathered by row index from its (random-access) predecessor.
+ * <p>
+ * The row indices are either given as an array, or read from an index predecessor (which is then also accessed
+ * randomly). Single rows are requested in the caller's order, so the predecessor is accessed in the order of the
+ * requested row indices. For {@link #moveTo(long[], int, int, IntConsumer) batches} of rows, the predecessor rows are
+ * gathered in ascending order.
+ */
+class RandomAccessNodeImpTake implements RandomAccessNodeImp {
+
+    private final AccessImp[] inputs;
+
+    private final RandomAccessNodeImp predecessor;
+
+    private final long[] rows;
+
+    private final AccessImp indexInput;
+
+    private final RandomAccessNodeImp indexPredecessor;
+
+    private final DelegatingReadAccess[] outputs;
+
+    private LongReadAccess index;
+
+    /**
+     * Gather the rows with the given indices.
+     */
+    RandomAccessNodeImpTake(final AccessImp[] inputs, final RandomAccessNodeImp predecessor, final long[] rows) {
+        this(inputs, predecessor, rows, null, null);
+    }
+
+    /**
+     * Gather the rows with the indices given by {@code indexInput} of {@code indexPredecessor}.
+     */
+    RandomAccessNodeImpTake(final AccessImp[] inputs, final RandomAccessNodeImp predecessor,
+        final AccessImp indexInput, final RandomAccessNodeImp indexPredecessor) {
+        this(inputs, predecessor, null, indexInput, indexPredecessor);
+    }
+
+    private RandomAccessNodeImpTake(final AccessImp[] inputs, final RandomAccessNodeImp predecessor,
+        final long[] rows, final AccessImp indexInput, final RandomAccessNodeImp indexPredecessor) {
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.rows = rows;
+        this.indexInput = indexInput;
+        this.indexPredecessor = indexPredecessor;
+        outputs = new DelegatingReadAccess[inputs.length];
+    }
+
+    @Override
+    public ReadAccess getOutput(final int i) {
+        return outputs[i];
+    }
+
+    @Override
+    public void create() {
+        predecessor.create();
+        for (int i = 0; i < outputs.length; i++) {
+            final ReadAccess access = inputs[i].getReadAccess();
+            outputs[i] = DelegatingReadAccesses.createDelegatingAccess(access.getDataSpec());
+            outputs[i].setDelegateAccess(access);
+        }
+        if (indexPredecessor != null) {
+            indexPredecessor.create();
+            index = (LongReadAccess)indexInput.getReadAccess();
+        }
+    }
+
+    @Override
+    public void reset() {
+        predecessor.reset();
+        if (indexPredecessor != null) {
+            indexPredecessor.reset();
+        }
+    }
+
+    @Override
+    public void moveTo(final long row) {
+        // NB no bounds checking here, this is done in CapRandomAccessCursor
+        if (rows != null) {
+            predecessor.moveTo(rows[(int)row]);
+        } else {
+            indexPredecessor.moveTo(row);
+            predecessor.moveTo(SequentialNodeImpTake.rowIndex(index));
+        }
+    }
+
+    @Override
+    public void moveTo(final long[] rows, final int from, final int to, final IntConsumer action) {
+        // Look up the row indices for the whole batch, and then gather the
+        // predecessor rows in ascending order.
+        final long[] predecessorRows = new long[to - from];
+        if (this.rows != null) {
+            Arrays.setAll(predecessorRows, j -> this.rows[(int)rows[from + j]]);
+        } else {
+            indexPredecessor.moveTo(rows, from, to,
+                i -> predecessorRows[i - from] = SequentialNodeImpTake.rowIndex(index));
+        }
+        CapRandomAccessCursor.gather(predecessor, predecessorRows, j -> action.accept(from + j));
+    }
+
+    @Override
+    public void close() throws IOException {
+        predecessor.close();
+        if (indexPredecessor != null) {
+            indexPredecessor.close();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.knime.core.table.access.BooleanAccess.BooleanReadAccess;
+import org.knime.core.table.access.ByteAccess.ByteReadAccess;
+import org.knime.core.table.access.DoubleAccess.DoubleReadAccess;
+import org.knime.core.table.access.FloatAccess.FloatReadAccess;
+import org.knime.core.table.access.IntAccess.IntReadAccess;
+import org.knime.core.table.access.ListAccess.ListReadAccess;
+import org.knime.core.table.access.LongAccess.LongReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.StringAccess.StringReadAccess;
+import org.knime.core.table.access.StructAccess.StructReadAccess;
+import org.knime.core.table.access.VarBinaryAccess.VarBinaryReadAccess;
+import org.knime.core.table.schema.BooleanDataSpec;
+import org.knime.core.table.schema.ByteDataSpec;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.schema.DoubleDataSpec;
+import org.knime.core.table.schema.FloatDataSpec;
+import org.knime.core.table.schema.IntDataSpec;
+import org.knime.core.table.schema.ListDataSpec;
+import org.knime.core.table.schema.LongDataSpec;
+import org.knime.core.table.schema.StringDataSpec;
+import org.knime.core.table.schema.StructDataSpec;
+import org.knime.core.table.schema.VarBinaryDataSpec;
+import org.knime.core.table.schema.VoidDataSpec;
+
+/**
+ * Comparators for the current values of {@code ReadAccess}es.
+ * <p>
+ * Missing values are considered greater than any non-missing value. Strings are compared by
+ * {@link String#compareTo}, var-binary values lexicographically as unsigned bytes, lists and structs lexicographically
+ * by their elements (a list that is a prefix of another list is smaller).
+ */
+final class ReadAccessComparators {
+
+    private ReadAccessComparators() {
+    }
+
+    /**
+     * Create a {@code Comparator} for the current values of {@code ReadAccess}es with the given {@code spec}.
+     *
+     * @param spec the DataSpec of the accesses to compare
+     * @return comparator
+     */
+    static Comparator<ReadAccess> comparator(final DataSpec spec) {
+        final Comparator<ReadAccess> values = spec.accept(ValueComparators.INSTANCE);
+        return (a, b) -> {
+            final boolean ma = a.isMissing();
+            final boolean mb = b.isMissing();
+            if (ma || mb) {
+                return Boolean.compare(ma, mb);
+            }
+            return values.compare(a, b);
+        };
+    }
+
+    /**
+     * Create a {@code Comparator} for the current values of {@code ReadAccess}es for each of the given {@code specs}.
+     *
+     * @param specs the DataSpecs of the accesses to compare
+     * @return list of comparators, one for each element of {@code specs}
+     */
+    static List<Comparator<ReadAccess>> comparators(final DataSpec... specs) {
+        return Arrays.stream(specs).map(ReadAccessComparators::comparator).toList();
+    }
+
+    /**
+     * Create a {@code Comparator} for rows, given as {@code ReadAccess[]} arrays with the given {@code specs}. Rows
+     * are compared by the values at the {@code keys} indices, in order of precedence.
+     *
+     * @param specs the DataSpecs of the row elements
+     * @param keys indices of the row elements to compare
+     * @param ascending for each key, whether to compare in ascending ({@code true}) or descending ({@code false})
+     *            order
+     * @return row comparator
+     */
+    static Comparator<ReadAccess[]> rowComparator(final DataSpec[] specs, final int[] keys,
+        final boolean[] ascending) {
+        final int numKeys = keys.length;
+        final DataSpec[] keySpecs = new DataSpec[numKeys];
+        Arrays.setAll(keySpecs, k -> specs[keys[k]]);
+        final List<Comparator<ReadAccess>> comparators = comparators(keySpecs);
+        final int[] signs = new int[numKeys];
+        Arrays.setAll(signs, k -> ascending[k] ? 1 : -1);
+        return (a, b) -> {
+            for (int k = 0; k < numKeys; k++) {
+                final int i = keys[k];
+                final int c = comparators.get(k).compare(a[i], b[i]);
+                if (c != 0) {
+                    return signs[k] * c;
+                }
+            }
+            return 0;
+        };
+    }
+
+    private static final class ValueComparators implements DataSpec.Mapper<Comparator<ReadAccess>> {
+
+        static final ValueComparators INSTANCE = new ValueComparators();
+
+        @Override
+        public Comparator<ReadAccess> visit(final BooleanDataSpec spec) {
+            return (a, b) -> Boolean.compare( //
+                ((BooleanReadAccess)a).getBooleanValue(), //
+                ((BooleanReadAccess)b).getBooleanValue());
+        }
+
+        @Override
+        public Comparator<ReadAccess> visit(final ByteDataSpec spec) {
+            return (a, b) -> Byte.compare( //
+                ((ByteReadAccess)a).getByteValue(), //
+                ((ByteReadAccess)b).getByteValue());
+        }
+
+        @Override
+        public Comparator<ReadAccess> visit(final DoubleDataSpec spec) {
+            return (a, b) -> Double.compare( //
+                ((DoubleReadAccess)a).getDoubleValue(), //
+                ((DoubleReadAccess)b).getDoubleValue());
+        }
+
+        @Override
+        public Comparator<ReadAccess> visit(final FloatDataSpec spec) {
+            return (a, b) -> Float.compare( //
+                ((FloatReadAccess)a).getFloatValue(), //
+                ((FloatReadAccess)b).getFloatValue());
+        }
+
+        @Override
+        public Comparator<ReadAccess> visit(final IntDataSpec spec) {
+            return (a, b) -> Integer.compare( //
+                ((IntReadAccess)a).getIntValue(), //
+                ((IntReadAccess)b).getIntValue());
+        }
+
+        @Override
+        public Comparator<ReadAccess> visit(final LongDataSpec spec) {
+            return (a, b) -> Long.compare( //
+                ((LongReadAccess)a).getLongValue(), //
+                ((LongReadAccess)b).getLongValue());
+        }
+
+        @Override
+        public Comparator<ReadAccess> visit(final VarBinaryDataSpec spec) {
+            return (a, b) -> Arrays.compareUnsigned( //
+                ((VarBinaryReadAccess)a).getByteArray(), //
+                ((VarBinaryReadAccess)b).getByteArray());
+        }
+
+        @Override
+        public Comparator<ReadAccess> visit(final VoidDataSpec spec) {
+            return (a, b) -> 0;
+        }
+
+        @Override
+        public Comparator<ReadAccess> visit(final StructDataSpec spec) {
+            final int size = spec.size();
+            final DataSpec[] innerSpecs = new DataSpec[size];
+            Arrays.setAll(innerSpecs, spec::getDataSpec);
+            final List<Comparator<ReadAccess>> inner = comparators(innerSpecs);
+            return (a, b) -> {
+                final StructReadAccess sa = (StructReadAccess)a;
+                final StructReadAccess sb = (StructReadAccess)b;
+                for (int i = 0; i < size; i++) {
+                    final int c = inner.get(i).compare(sa.getAccess(i), sb.getAccess(i));
+                    if (c != 0) {
+                        return c;
+                    }
+                }
+                return 0;
+            };
+        }
+
+        @Override
+        public Comparator<ReadAccess> visit(final ListDataSpec listDataSpec) {
+            final Comparator<ReadAccess> inner = comparator(listDataSpec.getInner());
+            return (a, b) -> {
+                if (a == b) {
+                    // the element accesses are shared, we cannot point them to different indices
+                    return 0;
+                }
+                final ListReadAccess la = (ListReadAccess)a;
+                final ListReadAccess lb = (ListReadAccess)b;
+                final int n = Math.min(la.size(), lb.size());
+                final ReadAccess ea = la.getAccess();
+                final ReadAccess eb = lb.getAccess();
+                for (int i = 0; i < n; i++) {
+                    la.setIndex(i);
+                    lb.setIndex(i);
+                    final int c = inner.compare(ea, eb);
+                    if (c != 0) {
+                        return c;
+                    }
+                }
+                return Integer.compare(la.size(), lb.size());
+            };
+        }
+
+        @Override
+        public Comparator<ReadAccess> visit(final StringDataSpec spec) {
+            return (a, b) -> ((StringReadAccess)a).getStringValue().compareTo(((StringReadAccess)b).getStringValue());
+        }
+    }
+}
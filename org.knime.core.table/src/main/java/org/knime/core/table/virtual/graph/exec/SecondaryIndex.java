@@ -0,0 +1,597 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.StringAccess.StringReadAccess;
+import org.knime.core.table.access.StringAccess.StringWriteAccess;
+import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.row.RandomRowAccessible;
+import org.knime.core.table.row.ReadAccessRow;
+import org.knime.core.table.row.Selection;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.schema.DoubleDataSpec;
+import org.knime.core.table.schema.FloatDataSpec;
+import org.knime.core.table.schema.StringDataSpec;
+import org.knime.core.table.virtual.graph.exec.GroupTable.LongKeyCodec;
+import org.knime.core.table.virtual.spec.RowFilterTransformSpec.RangeFilterFactory;
+
+/**
+ * An in-memory index over the values of one or more key columns of a {@link RandomRowAccessible}, for repeated
+ * lookups of the rows with given key values.
+ * <p>
+ * The index stores the key values of all rows column-wise (primitive values in a {@code long[]}, strings
+ * dictionary-encoded in an {@code int[]}), sorted by a permutation of the row indices that sorts the rows by their key
+ * values (lexicographically, in the order of {@link ReadAccessComparators}). Rows with equal key values are sorted by
+ * row index. Lookups binary-search the sorted key values. Optionally, the distinct key values are also put into a
+ * {@link GroupTable}, so that {@link #lookup(ReadAccess...) equality lookups} take constant time.
+ * <p>
+ * Lookups return the indices of the matching rows in ascending order. Lookups are thread-safe.
+ * <p>
+ * To use an index for executing {@link RangeFilterFactory range filters} on its first key column, pass the table as an
+ * {@link IndexedRowAccessible} source to the executor.
+ */
+public final class SecondaryIndex {
+
+    private final int[] m_columns;
+
+    /**
+     * The key values of all rows, sorted.
+     */
+    private final KeyColumn[] m_keys;
+
+    /**
+     * The key values at the current sorted position (see {@link #moveTo}).
+     */
+    private final ReadAccess[] m_current;
+
+    /**
+     * {@code m_rows[i]} is the index of the row with the key values at sorted position {@code i}.
+     */
+    private final long[] m_rows;
+
+    private final Comparator<ReadAccess[]> m_comparator;
+
+    /**
+     * Delegates to the key values of the looked-up rows.
+     */
+    private final DelegatingReadAccess[] m_probe;
+
+    /**
+     * Hash index of the distinct key values, or {@code null}.
+     */
+    private final GroupTable m_groups;
+
+    /**
+     * {@code [m_groupStart[g], m_groupStart[g+1])} is the range of sorted rows with the key values of group {@code g}.
+     */
+    private final int[] m_groupStart;
+
+    private SecondaryIndex(final int[] columns, final DataSpec[] specs, final KeyColumn[] keys, final long[] rows,
+        final boolean hashIndex) {
+        m_columns = columns;
+        m_keys = keys;
+        m_current = new ReadAccess[keys.length];
+        Arrays.setAll(m_current, i -> keys[i].m_access);
+        m_rows = rows;
+        m_comparator = keyComparator(specs);
+        m_probe = new DelegatingReadAccess[specs.length];
+        Arrays.setAll(m_probe, i -> DelegatingReadAccesses.createDelegatingAccess(specs[i]));
+
+        if (hashIndex) {
+            m_groups = GroupTable.create(m_probe);
+            final int[] groupStart = new int[rows.length + 1];
+            probe(m_current);
+            for (int i = 0; i < rows.length; i++) {
+                // the keys are sorted, so each group is a contiguous range that starts where the group is created
+                moveTo(i);
+                final int numGroups = m_groups.numGroups();
+                if (m_groups.groupOf(true) == numGroups) {
+                    groupStart[numGroups] = i;
+                }
+            }
+            final int numGroups = m_groups.numGroups();
+            groupStart[numGroups] = rows.length;
+            m_groupStart = Arrays.copyOf(groupStart, numGroups + 1);
+        } else {
+            m_groups = null;
+            m_groupStart = null;
+        }
+    }
+
+    /**
+     * Create an index over the given {@code columns} of {@code table}. This reads all rows of the table, and keeps the
+     * values of the key columns in memory.
+     *
+     * @param table the table to index
+     * @param hashIndex whether to also create a hash index for equality lookups
+     * @param columns indices of the key columns
+     * @return a new index
+     * @throws IllegalArgumentException if no columns are given, or if the table has too many rows
+     */
+    public static SecondaryIndex create(final RandomRowAccessible table, final boolean hashIndex,
+        final int... columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("at least one key column is required");
+        }
+        final long size = table.size();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(
+                "Cannot index tables with more than " + (Integer.MAX_VALUE - 8) + " rows");
+        }
+        final int numRows = (int)size;
+        final DataSpec[] specs = new DataSpec[columns.length];
+        Arrays.setAll(specs, i -> table.getSchema().getSpec(columns[i]));
+        final KeyColumn[] keys = new KeyColumn[columns.length];
+        Arrays.setAll(keys, i -> KeyColumn.create(specs[i], numRows));
+
+        try (Cursor<ReadAccessRow> cursor = table.createCursor(Selection.all().retainColumns(columns))) {
+            final ReadAccessRow access = cursor.access();
+            for (int row = 0; row < numRows && cursor.forward(); row++) {
+                for (int i = 0; i < columns.length; i++) {
+                    keys[i].set(row, access.getAccess(columns[i]));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final int[] order = new int[numRows];
+        Arrays.setAll(order, i -> i);
+        for (KeyColumn key : keys) {
+            key.finish();
+        }
+        sort(order, (a, b) -> {
+            for (KeyColumn key : keys) {
+                final int c = key.compare(a, b);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        }); // stable, so rows stay in order within keys
+        final long[] rows = new long[numRows];
+        Arrays.setAll(rows, i -> order[i]);
+        for (KeyColumn key : keys) {
+            key.permute(order);
+        }
+        return new SecondaryIndex(columns.clone(), specs, keys, rows, hashIndex);
+    }
+
+    private static Comparator<ReadAccess[]> keyComparator(final DataSpec[] specs) {
+        final int[] keyIndices = new int[specs.length];
+        Arrays.setAll(keyIndices, i -> i);
+        final boolean[] ascending = new boolean[specs.length];
+        Arrays.fill(ascending, true);
+        return ReadAccessComparators.rowComparator(specs, keyIndices, ascending);
+    }
+
+    /**
+     * @return the indices of the key columns
+     */
+    public int[] getColumns() {
+        return m_columns.clone();
+    }
+
+    /**
+     * @return the number of indexed rows
+     */
+    public long numRows() {
+        return m_rows.length;
+    }
+
+    /**
+     * Find the rows whose key values are equal to the current values of the given accesses. The accesses must have
+     * the {@code DataSpec}s of the key columns. Missing values are equal to each other.
+     *
+     * @param key the key values, one access per key column
+     * @return indices of the matching rows, in ascending order
+     */
+    public synchronized long[] lookup(final ReadAccess... key) {
+        if (key.length != m_columns.length) {
+            throw new IllegalArgumentException(
+                "expected " + m_columns.length + " key values (instead of " + key.length + ")");
+        }
+        if (m_groups != null) {
+            probe(key);
+            final int g = m_groups.groupOf(false);
+            return g < 0 ? new long[0] : rows(m_groupStart[g], m_groupStart[g + 1]);
+        }
+        final int from = search(i -> {
+            moveTo(i);
+            return m_comparator.compare(m_current, key) >= 0;
+        });
+        final int to = search(i -> {
+            moveTo(i);
+            return m_comparator.compare(m_current, key) > 0;
+        });
+        return rows(from, to);
+    }
+
+    /**
+     * Find the rows whose value in the first key column is accepted by the given {@code range}.
+     *
+     * @param range the range of values to find
+     * @return indices of the matching rows, in ascending order
+     */
+    public synchronized long[] lookup(final RangeFilterFactory range) {
+        final KeyColumn key = m_keys[0];
+        final ReadAccess access = key.m_access;
+        final IntSupplier comparison = range.createRangeComparison(access);
+        // Missing values are sorted last, and are never in the range.
+        final IntPredicate atOrAfter = threshold -> access.isMissing() || comparison.getAsInt() >= threshold;
+        final int from = search(i -> {
+            key.moveTo(i);
+            return atOrAfter.test(0);
+        });
+        final int to = search(i -> {
+            key.moveTo(i);
+            return atOrAfter.test(1);
+        });
+        return rows(from, to);
+    }
+
+    /**
+     * Find the first sorted position where {@code predicate} is {@code true}, or the number of rows if there is none.
+     * {@code predicate} must be monotonic over the sorted positions.
+     */
+    private int search(final IntPredicate predicate) {
+        int lo = 0;
+        int hi = m_rows.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (predicate.test(mid)) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Load the key values at sorted position {@code i} into {@link #m_current}.
+     */
+    private void moveTo(final int i) {
+        for (KeyColumn key : m_keys) {
+            key.moveTo(i);
+        }
+    }
+
+    private void probe(final ReadAccess[] key) {
+        for (int i = 0; i < m_probe.length; i++) {
+            m_probe[i].setDelegateAccess(key[i]);
+        }
+    }
+
+    /**
+     * @return the (sorted) indices of the rows at sorted positions {@code [from, to)}
+     */
+    private long[] rows(final int from, final int to) {
+        final long[] rows = Arrays.copyOfRange(m_rows, from, to);
+        Arrays.sort(rows);
+        return rows;
+    }
+
+    /**
+     * Stable merge sort of {@code a}, by the given {@code comparator}.
+     */
+    private static void sort(final int[] a, final IntBinaryOperator comparator) {
+        mergeSort(a.clone(), a, 0, a.length, comparator);
+    }
+
+    /**
+     * Sort {@code [from, to)} of {@code src} into {@code dst}. On entry, {@code src} and {@code dst} contain the same
+     * values in {@code [from, to)}.
+     */
+    private static void mergeSort(final int[] src, final int[] dst, final int from, final int to,
+        final IntBinaryOperator comparator) {
+        if (to - from < 2) {
+            return;
+        }
+        final int mid = (from + to) >>> 1;
+        mergeSort(dst, src, from, mid, comparator);
+        mergeSort(dst, src, mid, to, comparator);
+        for (int i = from, p = from, q = mid; i < to; i++) {
+            if (q >= to || (p < mid && comparator.applyAsInt(src[p], src[q]) <= 0)) {
+                dst[i] = src[p++];
+            } else {
+                dst[i] = src[q++];
+            }
+        }
+    }
+
+    /**
+     * The values of one key column, for all rows. {@link #moveTo(int) moveTo(i)} loads the value at position {@code i}
+     * into {@link #m_access}, so that it can be compared by {@link ReadAccessComparators} (and hashed by
+     * {@link GroupTable}).
+     */
+    private abstract static class KeyColumn {
+
+        final BufferedAccess m_access;
+
+        private BitSet m_missing = new BitSet();
+
+        KeyColumn(final DataSpec spec) {
+            m_access = BufferedAccesses.createBufferedAccess(spec);
+        }
+
+        static KeyColumn create(final DataSpec spec, final int numRows) {
+            final LongKeyCodec codec = GroupTable.longKeyCodec(spec);
+            if (codec != null) {
+                return new LongKeyColumn(spec, codec, numRows);
+            } else if (spec instanceof StringDataSpec) {
+                return new StringKeyColumn(spec, numRows);
+            } else {
+                return new BufferedKeyColumn(spec, numRows);
+            }
+        }
+
+        /**
+         * Set the value at position {@code i} to the current value of {@code access}.
+         */
+        final void set(final int i, final ReadAccess access) {
+            if (access.isMissing()) {
+                m_missing.set(i);
+            } else {
+                setValue(i, access);
+            }
+        }
+
+        /**
+         * Called after all values have been {@link #set}, before they are compared.
+         */
+        void finish() {
+        }
+
+        /**
+         * Compare the values at positions {@code i} and {@code j}, in the order of {@link ReadAccessComparators}.
+         */
+        final int compare(final int i, final int j) {
+            final boolean mi = m_missing.get(i);
+            final boolean mj = m_missing.get(j);
+            if (mi || mj) {
+                return Boolean.compare(mi, mj);
+            }
+            return compareValues(i, j);
+        }
+
+        /**
+         * Re-order the values, such that position {@code i} holds the value previously at position {@code order[i]}.
+         */
+        final void permute(final int[] order) {
+            final BitSet missing = new BitSet(order.length);
+            for (int i = 0; i < order.length; i++) {
+                if (m_missing.get(order[i])) {
+                    missing.set(i);
+                }
+            }
+            m_missing = missing;
+            permuteValues(order);
+        }
+
+        final void moveTo(final int i) {
+            if (m_missing.get(i)) {
+                m_access.setMissing();
+            } else {
+                loadValue(i);
+            }
+        }
+
+        abstract void setValue(int i, ReadAccess access);
+
+        abstract int compareValues(int i, int j);
+
+        abstract void permuteValues(int[] order);
+
+        abstract void loadValue(int i);
+    }
+
+    /**
+     * Primitive key values, encoded by a {@link LongKeyCodec}.
+     */
+    private static final class LongKeyColumn extends KeyColumn {
+
+        private final LongKeyCodec m_codec;
+
+        private final boolean m_double;
+
+        private final boolean m_float;
+
+        private long[] m_values;
+
+        LongKeyColumn(final DataSpec spec, final LongKeyCodec codec, final int numRows) {
+            super(spec);
+            m_codec = codec;
+            m_double = spec instanceof DoubleDataSpec;
+            m_float = spec instanceof FloatDataSpec;
+            m_values = new long[numRows];
+        }
+
+        @Override
+        void setValue(final int i, final ReadAccess access) {
+            m_values[i] = m_codec.get(access);
+        }
+
+        @Override
+        int compareValues(final int i, final int j) {
+            final long a = m_values[i];
+            final long b = m_values[j];
+            if (m_double) {
+                return Double.compare(Double.longBitsToDouble(a), Double.longBitsToDouble(b));
+            } else if (m_float) {
+                return Float.compare(Float.intBitsToFloat((int)a), Float.intBitsToFloat((int)b));
+            }
+            return Long.compare(a, b);
+        }
+
+        @Override
+        void permuteValues(final int[] order) {
+            final long[] values = new long[order.length];
+            Arrays.setAll(values, i -> m_values[order[i]]);
+            m_values = values;
+        }
+
+        @Override
+        void loadValue(final int i) {
+            m_codec.set(m_access, m_values[i]);
+        }
+    }
+
+    /**
+     * Dictionary-encoded string key values. When all values are set, the dictionary is sorted, so that codes compare
+     * like the strings.
+     */
+    private static final class StringKeyColumn extends KeyColumn {
+
+        private Map<String, Integer> m_codes = new HashMap<>();
+
+        private String[] m_dictionary;
+
+        private int[] m_values;
+
+        StringKeyColumn(final DataSpec spec, final int numRows) {
+            super(spec);
+            m_values = new int[numRows];
+        }
+
+        @Override
+        void setValue(final int i, final ReadAccess access) {
+            final String value = ((StringReadAccess)access).getStringValue();
+            m_values[i] = m_codes.computeIfAbsent(value, v -> m_codes.size());
+        }
+
+        @Override
+        void finish() {
+            final String[] dictionary = new String[m_codes.size()];
+            m_codes.forEach((value, code) -> dictionary[code] = value);
+            Arrays.sort(dictionary);
+            final int[] ranks = new int[dictionary.length];
+            for (int rank = 0; rank < dictionary.length; rank++) {
+                ranks[m_codes.get(dictionary[rank])] = rank;
+            }
+            for (int i = 0; i < m_values.length; i++) {
+                m_values[i] = ranks[m_values[i]];
+            }
+            m_dictionary = dictionary;
+            m_codes = null;
+        }
+
+        @Override
+        int compareValues(final int i, final int j) {
+            return Integer.compare(m_values[i], m_values[j]);
+        }
+
+        @Override
+        void permuteValues(final int[] order) {
+            final int[] values = new int[order.length];
+            Arrays.setAll(values, i -> m_values[order[i]]);
+            m_values = values;
+        }
+
+        @Override
+        void loadValue(final int i) {
+            ((StringWriteAccess)m_access).setStringValue(m_dictionary[m_values[i]]);
+        }
+    }
+
+    /**
+     * Key values of other (nested or binary) types, buffered per value.
+     */
+    private static final class BufferedKeyColumn extends KeyColumn {
+
+        private final DataSpec m_spec;
+
+        private final Comparator<ReadAccess> m_comparator;
+
+        private BufferedAccess[] m_values;
+
+        BufferedKeyColumn(final DataSpec spec, final int numRows) {
+            super(spec);
+            m_spec = spec;
+            m_comparator = ReadAccessComparators.comparator(spec);
+            m_values = new BufferedAccess[numRows];
+        }
+
+        @Override
+        void setValue(final int i, final ReadAccess access) {
+            m_values[i] = BufferedAccesses.createBufferedAccess(m_spec);
+            m_values[i].setFrom(access);
+        }
+
+        @Override
+        int compareValues(final int i, final int j) {
+            return m_comparator.compare(m_values[i], m_values[j]);
+        }
+
+        @Override
+        void permuteValues(final int[] order) {
+            final BufferedAccess[] values = new BufferedAccess[order.length];
+            Arrays.setAll(values, i -> m_values[order[i]]);
+            m_values = values;
+        }
+
+        @Override
+        void loadValue(final int i) {
+            m_access.setFrom(m_values[i]);
+        }
+    }
+}
@@ -71,4 +71,22 @@ interface SequentialNodeImp extends NodeImp {
      */
     boolean canForward();
 
+    /**
+     * Forward until the end, and run {@code sink} for every row (when the outputs of this {@code NodeImp} hold the
+     * values of that row).
+     * <p>
+     * This is the push-based alternative to calling {@link #forward} in a loop, for consumers that only need to see
+     * every row once (for example, to write the rows to a table, or to run OBSERVERs). Streaming {@code NodeImp}s
+     * (MAP, ROWFILTER, ROWINDEX, OBSERVER) override this to push into their predecessor with a {@code sink} that does
+     * their work for the row and then runs the given {@code sink}. So the loop runs in the first non-streaming
+     * {@code NodeImp} (typically a SOURCE), and the rows are pushed down through the streaming {@code NodeImp}s
+     * without a chain of {@code forward()} calls for every row.
+     *
+     * @param sink run for every row
+     */
+    default void push(final Runnable sink) {
+        while (forward()) {
+            sink.run();
+        }
+    }
 }
@@ -0,0 +1,219 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.AggregateFunction;
+
+/**
+ * Aggregates the rows of its predecessor by group.
+ * <p>
+ * On the first {@code forward()} or {@code canForward()}, all rows of the predecessor are consumed into a
+ * {@link HashAggregation}, and the predecessor is closed. Then, the aggregated rows are provided one by one.
+ */
+class SequentialNodeImpAggregate implements SequentialNodeImp {
+    private final AccessImp[] inputs;
+
+    private final SequentialNodeImp predecessor;
+
+    private final int numGroupColumns;
+
+    private final AggregateFunction[] functions;
+
+    private final int[] aggregationInputs;
+
+    private final int[] cols;
+
+    private final long maxGroups;
+
+    private final DelegatingReadAccess[] outputs;
+
+    private ReadAccess[] keys;
+
+    private ReadAccess[] values;
+
+    private HashAggregation aggregation;
+
+    private boolean aggregated;
+
+    private boolean predecessorClosed;
+
+    /**
+     * @param inputs the group columns, followed by the aggregated columns
+     * @param predecessor the predecessor whose rows are aggregated
+     * @param numGroupColumns the number of group columns at the start of {@code inputs}
+     * @param functions the aggregate functions
+     * @param aggregationInputs for each function, the index into {@code inputs} of the aggregated column (or
+     *            {@code -1} to count rows)
+     * @param cols indices into the result row (group columns followed by aggregations) of the output accesses
+     * @param maxGroups maximum number of groups to aggregate in memory before spilling partial aggregates
+     */
+    SequentialNodeImpAggregate(final AccessImp[] inputs, final SequentialNodeImp predecessor,
+        final int numGroupColumns, final AggregateFunction[] functions, final int[] aggregationInputs,
+        final int[] cols, final long maxGroups) {
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.numGroupColumns = numGroupColumns;
+        this.functions = functions;
+        this.aggregationInputs = aggregationInputs;
+        this.cols = cols;
+        this.maxGroups = maxGroups;
+        outputs = new DelegatingReadAccess[cols.length];
+    }
+
+    @Override
+    public ReadAccess getOutput(final int i) {
+        return outputs[i];
+    }
+
+    @Override
+    public void create() {
+        predecessor.create();
+        keys = new ReadAccess[numGroupColumns];
+        Arrays.setAll(keys, i -> inputs[i].getReadAccess());
+        values = new ReadAccess[functions.length];
+        Arrays.setAll(values, i -> aggregationInputs[i] < 0 ? null : inputs[aggregationInputs[i]].getReadAccess());
+        createAggregation();
+    }
+
+    @Override
+    public void reset() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        aggregated = false;
+        predecessorClosed = false;
+        predecessor.reset();
+        createAggregation();
+    }
+
+    /**
+     * Create a new (empty) {@code aggregation}, and point the outputs to its result row.
+     */
+    private void createAggregation() {
+        aggregation = new HashAggregation(keys, functions, values, maxGroups);
+        final ReadAccess[] row = aggregation.row();
+        for (int i = 0; i < outputs.length; i++) {
+            if (outputs[i] == null) {
+                outputs[i] = DelegatingReadAccesses.createDelegatingAccess(row[cols[i]].getDataSpec());
+            }
+            outputs[i].setDelegateAccess(row[cols[i]]);
+        }
+    }
+
+    @Override
+    public boolean forward() {
+        ensureAggregated();
+        try {
+            if (aggregation.hasNext()) {
+                aggregation.next();
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean canForward() {
+        ensureAggregated();
+        try {
+            return aggregation.hasNext();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void ensureAggregated() {
+        if (!aggregated) {
+            aggregated = true;
+            try {
+                while (predecessor.forward()) {
+                    aggregation.add();
+                }
+                aggregation.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            closePredecessor();
+        }
+    }
+
+    private void closePredecessor() {
+        if (!predecessorClosed) {
+            predecessorClosed = true;
+            try {
+                predecessor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (aggregation != null) {
+                aggregation.close();
+                aggregation = null;
+            }
+        } finally {
+            if (!predecessorClosed) {
+                predecessorClosed = true;
+                predecessor.close();
+            }
+        }
+    }
+}
@@ -46,6 +46,7 @@
 package org.knime.core.table.virtual.graph.exec;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.knime.core.table.access.DelegatingReadAccesses;
 import org.knime.core.table.access.MissingAccesses;
@@ -98,6 +99,17 @@ public void create() {
         link();
     }
 
+    @Override
+    public void reset() {
+        for (SequentialNodeImp predecessor : predecessors) {
+            predecessor.reset();
+        }
+        Arrays.fill(exhausted, false);
+        for (int i = 0; i < inputs.length; i++) {
+            outputs[i].setDelegateAccess(inputs[i].getReadAccess());
+        }
+    }
+
     @Override
     public boolean forward() {
         boolean anyForwarded = false;
@@ -61,6 +61,12 @@ class SequentialNodeImpConcatenate implements SequentialNodeImp {
 
     private final List<IOException> exceptionsWhileClosing;
 
+    /**
+     * Whether each predecessor has been created (and must be {@link SequentialNodeImp#reset reset} instead of created
+     * when it is reached again after {@link #reset()}).
+     */
+    private final boolean[] created;
+
     private int predecessorIndex;
 
     private SequentialNodeImp predecessor;
@@ -81,6 +87,7 @@ class SequentialNodeImpConcatenate implements SequentialNodeImp {
         this.inputss = inputs;
         this.predecessors = predecessors;
         exceptionsWhileClosing = new ArrayList<>();
+        created = new boolean[predecessors.length];
         outputs = new DelegatingReadAccesses.DelegatingReadAccess[numOutputs];
     }
 
@@ -131,7 +138,12 @@ private void link() {
     private void nextPredecessor() {
         ++predecessorIndex;
         if (predecessorIndex < predecessors.length) {
-            predecessors[predecessorIndex].create();
+            if (created[predecessorIndex]) {
+                predecessors[predecessorIndex].reset();
+            } else {
+                created[predecessorIndex] = true;
+                predecessors[predecessorIndex].create();
+            }
             predecessor = predecessors[predecessorIndex];
         } else {
             predecessor = null;
@@ -150,6 +162,14 @@ public void create() {
         link();
     }
 
+    @Override
+    public void reset() {
+        closePredecessors();
+        predecessorIndex = -1;
+        nextPredecessor();
+        link();
+    }
+
     @Override
     public boolean forward() {
         while (predecessor != null) {
@@ -189,9 +209,21 @@ public boolean canForward() {
         return false;
     }
 
+    /**
+     * Close {@code linkedPredecessor} and the current {@code predecessor} (if it was created but not linked yet), and
+     * set both to {@code null}.
+     */
+    private void closePredecessors() {
+        if (predecessor != null && predecessor != linkedPredecessor) {
+            tryClose(predecessor);
+        }
+        predecessor = null;
+        closeLinkedPredecessor();
+    }
+
     @Override
     public void close() throws IOException {
-        closeLinkedPredecessor();
+        closePredecessors();
         if (!exceptionsWhileClosing.isEmpty()) {
             // TODO use IOExceptionList once org.apache.commons.io >= 2.7.0 is available in the nightlies
             throw exceptionsWhileClosing.get(0);
@@ -84,11 +84,21 @@ public void create() {
         link();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+    }
+
     @Override
     public boolean forward() {
         return predecessor.forward();
     }
 
+    @Override
+    public void push(final Runnable sink) {
+        predecessor.push(sink);
+    }
+
     @Override
     public boolean canForward() {
         return predecessor.canForward();
@@ -0,0 +1,212 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.schema.DataSpec;
+
+/**
+ * Removes rows with duplicate key values from its predecessor.
+ * <p>
+ * If the predecessor is sorted by the keys, each row is compared to the key values of the previous row, which are
+ * buffered. Otherwise, rows are deduplicated by a {@link HashDistinct}.
+ */
+class SequentialNodeImpDistinct implements SequentialNodeImp {
+    private final AccessImp[] inputs;
+
+    private final SequentialNodeImp predecessor;
+
+    private final int[] keys;
+
+    private final int[] outputIndices;
+
+    private final boolean sorted;
+
+    private final long maxKeys;
+
+    private final DelegatingReadAccess[] outputs;
+
+    private ReadAccess[] row;
+
+    // hash-based
+    private HashDistinct distinct;
+
+    // sort-based
+    private BufferedAccess[] previousKeys;
+
+    private List<Comparator<ReadAccess>> comparators;
+
+    private boolean first = true;
+
+    /**
+     * @param inputs the accesses used by the node
+     * @param predecessor the predecessor whose rows are deduplicated
+     * @param keys indices into {@code inputs} of the distinct keys
+     * @param outputIndices indices into {@code inputs} of the output accesses
+     * @param sorted whether the predecessor rows are sorted such that rows with equal keys are adjacent
+     * @param maxKeys maximum number of distinct keys to hold in memory before spilling rows
+     */
+    SequentialNodeImpDistinct(final AccessImp[] inputs, final SequentialNodeImp predecessor, final int[] keys,
+        final int[] outputIndices, final boolean sorted, final long maxKeys) {
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.keys = keys;
+        this.outputIndices = outputIndices;
+        this.sorted = sorted;
+        this.maxKeys = maxKeys;
+        outputs = new DelegatingReadAccess[outputIndices.length];
+    }
+
+    @Override
+    public ReadAccess getOutput(final int i) {
+        return outputs[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void create() {
+        predecessor.create();
+        row = new ReadAccess[inputs.length];
+        Arrays.setAll(row, i -> inputs[i].getReadAccess());
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = DelegatingReadAccesses.createDelegatingAccess(row[outputIndices[i]].getDataSpec());
+        }
+        if (sorted) {
+            final DataSpec[] keySpecs = new DataSpec[keys.length];
+            Arrays.setAll(keySpecs, k -> row[keys[k]].getDataSpec());
+            previousKeys = new BufferedAccess[keys.length];
+            Arrays.setAll(previousKeys, k -> BufferedAccesses.createBufferedAccess(keySpecs[k]));
+            comparators = ReadAccessComparators.comparators(keySpecs);
+        } else {
+            distinct = new HashDistinct(row, keys, predecessor::forward, maxKeys);
+        }
+    }
+
+    @Override
+    public void reset() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        predecessor.reset();
+        if (sorted) {
+            first = true;
+        } else {
+            distinct = new HashDistinct(row, keys, predecessor::forward, maxKeys);
+        }
+    }
+
+    @Override
+    public boolean forward() {
+        final ReadAccess[] next = sorted ? nextSorted() : nextHashed();
+        if (next == null) {
+            return false;
+        }
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i].setDelegateAccess(next[outputIndices[i]]);
+        }
+        return true;
+    }
+
+    private ReadAccess[] nextHashed() {
+        try {
+            return distinct.next() ? distinct.row() : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ReadAccess[] nextSorted() {
+        while (predecessor.forward()) {
+            if (first || !equalsPreviousKeys()) {
+                first = false;
+                for (int k = 0; k < keys.length; k++) {
+                    previousKeys[k].setFrom(row[keys[k]]);
+                }
+                return row;
+            }
+        }
+        return null;
+    }
+
+    private boolean equalsPreviousKeys() {
+        for (int k = 0; k < keys.length; k++) {
+            if (comparators.get(k).compare(previousKeys[k], row[keys[k]]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean canForward() {
+        // Distinct doesn't have lookahead
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (distinct != null) {
+                distinct.close();
+                distinct = null;
+            }
+        } finally {
+            predecessor.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.WriteAccess;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec.FlatMapper;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec.FlatMapperFactory;
+
+/**
+ * Produces the output rows of a {@link FlatMapper} one at a time. The predecessor is only forwarded when the flat
+ * mapper has no more output rows for the current predecessor row. Therefore, the predecessor outputs remain valid (and
+ * are forwarded as they are) while the output rows for the current predecessor row are produced.
+ */
+class SequentialNodeImpFlatMap implements SequentialNodeImp {
+    private final AccessImp[] inputs;
+
+    private final ReadAccess[] flatMapInputs;
+
+    private final BufferedAccess[] flatMapOutputs;
+
+    private final FlatMapperFactory flatMapperFactory;
+
+    private FlatMapper flatMapper;
+
+    private final ReadAccess[] outputs;
+
+    private final SequentialNodeImp predecessor;
+
+    /**
+     * Whether the predecessor is on a valid row (for which the flat mapper may produce more output rows).
+     */
+    private boolean hasInput;
+
+    /**
+     * @param flatMapOutputSpecs these accesses are needed as outputs for the flat mapper.
+     * @param cols these indices among {@code flatMapOutputSpecs} are the outputs of this NodeImp
+     * @param flatMapperFactory
+     */
+    SequentialNodeImpFlatMap(final AccessImp[] inputs, final SequentialNodeImp predecessor,
+            final List<DataSpec> flatMapOutputSpecs, final int[] cols, final FlatMapperFactory flatMapperFactory) {
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+
+        flatMapInputs = new ReadAccess[inputs.length];
+        flatMapOutputs = new BufferedAccess[flatMapOutputSpecs.size()];
+        this.flatMapperFactory = flatMapperFactory;
+        Arrays.setAll(flatMapOutputs, i -> BufferedAccesses.createBufferedAccess(flatMapOutputSpecs.get(i)));
+
+        outputs = new ReadAccess[cols.length];
+        Arrays.setAll(outputs, i -> flatMapOutputs[cols[i]]);
+    }
+
+    @Override
+    public ReadAccess getOutput(final int i) {
+        return outputs[i];
+    }
+
+    private void link() {
+        for (int i = 0; i < inputs.length; i++) {
+            flatMapInputs[i] = inputs[i].getReadAccess();
+        }
+        flatMapper = flatMapperFactory.createFlatMapper(flatMapInputs, flatMapOutputs);
+    }
+
+    @Override
+    public void create() {
+        predecessor.create();
+        link();
+    }
+
+    @Override
+    public void reset() {
+        predecessor.reset();
+        hasInput = false;
+    }
+
+    @Override
+    public boolean forward() {
+        while (true) {
+            if (hasInput) {
+                // As per buffered access contract, we need to set all fields to missing if we're writing to a new row.
+                // We don't know whether the user provided flat mapper will write a value to each cell, so we call
+                // setMissing.
+                Arrays.stream(flatMapOutputs).forEach(WriteAccess::setMissing);
+                if (flatMapper.nextOutput()) {
+                    return true;
+                }
+            }
+            hasInput = predecessor.forward();
+            if (!hasInput) {
+                return false;
+            }
+            flatMapper.nextInput();
+        }
+    }
+
+    @Override
+    public boolean canForward() {
+        // FlatMap doesn't have lookahead
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+        predecessor.close();
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.MissingAccesses;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.virtual.spec.JoinTransformSpec.JoinType;
+
+/**
+ * Joins the rows of its two predecessors.
+ * <p>
+ * On the first {@code forward()}, all rows of the build side predecessor are consumed into a {@link HashJoin}, and
+ * the build side predecessor is closed. Then, the probe side predecessor is forwarded, and the joined rows are
+ * provided one by one.
+ */
+class SequentialNodeImpJoin implements SequentialNodeImp {
+    private final AccessImp[][] inputs;
+
+    private final SequentialNodeImp[] predecessors;
+
+    private final int[][] keys;
+
+    private final int[][] outputIndices;
+
+    private final JoinType joinType;
+
+    private final int buildSide;
+
+    private final long maxBuildRows;
+
+    private final DelegatingReadAccess[] outputs;
+
+    private final ReadAccess[] missing;
+
+    private ReadAccess[] buildRow;
+
+    private ReadAccess[] probeRow;
+
+    private HashJoin join;
+
+    private boolean built;
+
+    private boolean buildSideClosed;
+
+    /**
+     * @param inputs for the left and the right side, the accesses used by the join
+     * @param predecessors the left and the right predecessor
+     * @param keys for the left and the right side, indices into {@code inputs[side]} of the join keys
+     * @param outputIndices for the left and the right side, indices into {@code inputs[side]} of the output accesses
+     * @param joinType the join type
+     * @param buildSide which predecessor to buffer in the hash table: {@code 0} (left) or {@code 1} (right)
+     * @param maxBuildRows maximum number of build rows to hold in memory before partitioning to disk
+     */
+    SequentialNodeImpJoin(final AccessImp[][] inputs, final SequentialNodeImp[] predecessors, final int[][] keys,
+        final int[][] outputIndices, final JoinType joinType, final int buildSide, final long maxBuildRows) {
+        this.inputs = inputs;
+        this.predecessors = predecessors;
+        this.keys = keys;
+        this.outputIndices = outputIndices;
+        this.joinType = joinType;
+        this.buildSide = buildSide;
+        this.maxBuildRows = maxBuildRows;
+        final int numOutputs = outputIndices[0].length + outputIndices[1].length;
+        outputs = new DelegatingReadAccess[numOutputs];
+        missing = new ReadAccess[numOutputs];
+    }
+
+    @Override
+    public ReadAccess getOutput(final int i) {
+        return outputs[i];
+    }
+
+    @Override
+    public void create() {
+        final ReadAccess[][] rows = new ReadAccess[2][];
+        for (int s = 0; s < 2; s++) {
+            predecessors[s].create();
+            final AccessImp[] sideInputs = inputs[s];
+            rows[s] = new ReadAccess[sideInputs.length];
+            Arrays.setAll(rows[s], i -> sideInputs[i].getReadAccess());
+        }
+        int o = 0;
+        for (int s = 0; s < 2; s++) {
+            for (int i : outputIndices[s]) {
+                final DataSpec spec = rows[s][i].getDataSpec();
+                outputs[o] = DelegatingReadAccesses.createDelegatingAccess(spec);
+                missing[o] = MissingAccesses.getMissingAccess(spec);
+                ++o;
+            }
+        }
+        buildRow = rows[buildSide];
+        probeRow = rows[1 - buildSide];
+        createJoin();
+    }
+
+    @Override
+    public void reset() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        built = false;
+        buildSideClosed = false;
+        for (SequentialNodeImp predecessor : predecessors) {
+            predecessor.reset();
+        }
+        createJoin();
+    }
+
+    /**
+     * Create a new (empty) {@code join}.
+     */
+    private void createJoin() {
+        final int probeSide = 1 - buildSide;
+        final boolean leftOuter = joinType.isLeftOuter();
+        final boolean rightOuter = joinType.isRightOuter();
+        final DataSpec[] buildSpecs = new DataSpec[buildRow.length];
+        Arrays.setAll(buildSpecs, i -> buildRow[i].getDataSpec());
+        join = new HashJoin(buildSpecs, keys[buildSide], probeRow, keys[probeSide],
+            predecessors[probeSide]::forward, buildSide == 0 ? leftOuter : rightOuter,
+            buildSide == 0 ? rightOuter : leftOuter, maxBuildRows);
+    }
+
+    @Override
+    public boolean forward() {
+        try {
+            ensureBuilt();
+            if (!join.next()) {
+                return false;
+            }
+            final ReadAccess[] left = buildSide == 0 ? join.buildRow() : join.probeRow();
+            final ReadAccess[] right = buildSide == 0 ? join.probeRow() : join.buildRow();
+            final int numLeftOutputs = outputIndices[0].length;
+            setOutputs(left, outputIndices[0], 0);
+            setOutputs(right, outputIndices[1], numLeftOutputs);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Point the outputs starting at {@code offset} to the given elements of {@code row}, or to missing values if
+     * {@code row == null}.
+     */
+    private void setOutputs(final ReadAccess[] row, final int[] indices, final int offset) {
+        for (int i = 0; i < indices.length; i++) {
+            final int o = offset + i;
+            outputs[o].setDelegateAccess(row == null ? missing[o] : row[indices[i]]);
+        }
+    }
+
+    private void ensureBuilt() throws IOException {
+        if (!built) {
+            built = true;
+            while (predecessors[buildSide].forward()) {
+                join.addBuild(buildRow);
+            }
+            closeBuildSide();
+            join.finishBuild();
+        }
+    }
+
+    private void closeBuildSide() throws IOException {
+        if (!buildSideClosed) {
+            buildSideClosed = true;
+            predecessors[buildSide].close();
+        }
+    }
+
+    @Override
+    public boolean canForward() {
+        // Join doesn't have lookahead
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (join != null) {
+                join.close();
+                join = null;
+            }
+        } finally {
+            try {
+                closeBuildSide();
+            } finally {
+                predecessors[1 - buildSide].close();
+            }
+        }
+    }
+}
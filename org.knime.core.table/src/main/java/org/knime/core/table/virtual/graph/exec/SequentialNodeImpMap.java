@@ -56,6 +56,14 @@
 import org.knime.core.table.schema.DataSpec;
 import org.knime.core.table.virtual.spec.MapTransformSpec.MapperFactory;
 
+/**
+ * Computes the outputs of a mapper for each row of its predecessor.
+ * <p>
+ * If the {@code MapperFactory} {@link MapperFactory#supportsLazyEvaluation() supports lazy evaluation}, the mapper
+ * is only run when one of the outputs is read for the current row (unless an output is a list or struct). If the
+ * {@code MapperFactory} is {@link MapperFactory#isDeterministic() deterministic}, the outputs are cached by input
+ * values (see {@link MemoizingMapper}).
+ */
 class SequentialNodeImpMap implements SequentialNodeImp {
     private final AccessImp[] inputs;
 
@@ -71,6 +79,16 @@ class SequentialNodeImpMap implements SequentialNodeImp {
 
     private final SequentialNodeImp predecessor;
 
+    /**
+     * Whether the mapper is run lazily, on first read of an output for the current row.
+     */
+    private final boolean lazy;
+
+    /**
+     * Whether the mapper has been run for the current row (only used if {@code lazy}).
+     */
+    private boolean mapped;
+
     /**
      * @param mapOutputSpecs these accesses are needed as outputs for the {@code map()} function.
      * @param cols           these indices among {@code mapOutputSpecs} are the outputs of this NodeImp
@@ -86,8 +104,12 @@ class SequentialNodeImpMap implements SequentialNodeImp {
         this.mapperFactory = mapperFactory;
         Arrays.setAll(mapOutputs, i -> BufferedAccesses.createBufferedAccess(mapOutputSpecs.get(i)));
 
+        lazy = mapperFactory.supportsLazyEvaluation()
+            && Arrays.stream(cols).allMatch(c -> LazyReadAccesses.supports(mapOutputSpecs.get(c)));
         outputs = new ReadAccess[cols.length];
-        Arrays.setAll(outputs, i -> mapOutputs[cols[i]]);
+        Arrays.setAll(outputs, i -> lazy //
+            ? LazyReadAccesses.createLazyAccess(mapOutputs[cols[i]], this::mapIfNecessary) //
+            : mapOutputs[cols[i]]);
     }
 
     @Override
@@ -99,7 +121,9 @@ private void link() {
         for (int i = 0; i < inputs.length; i++) {
             mapInputs[i] = inputs[i].getReadAccess();
         }
-        mapper = mapperFactory.createMapper(mapInputs, mapOutputs);
+        mapper = mapperFactory.isDeterministic() //
+            ? new MemoizingMapper(mapInputs, mapOutputs, mapperFactory, MemoizingMapper.DEFAULT_CACHE_SIZE) //
+            : mapperFactory.createMapper(mapInputs, mapOutputs);
     }
 
     @Override
@@ -108,19 +132,57 @@ public void create() {
         link();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+        mapped = false;
+    }
+
     @Override
     public boolean forward() {
         if (predecessor.forward()) {
-            // As per buffered access contract, we need to set all fields to missing if we're writing to a new row.
-            // We don't know whether the user provided mapper will write a value to each cell, so we call setMissing.
-            Arrays.stream(mapOutputs).forEach(WriteAccess::setMissing);
-            mapper.run();
+            if (lazy) {
+                mapped = false;
+            } else {
+                map();
+            }
             return true;
         } else {
             return false;
         }
     }
 
+    @Override
+    public void push(final Runnable sink) {
+        if (lazy) {
+            predecessor.push(() -> {
+                mapped = false;
+                sink.run();
+            });
+        } else {
+            predecessor.push(() -> {
+                map();
+                sink.run();
+            });
+        }
+    }
+
+    private void mapIfNecessary() {
+        if (!mapped) {
+            mapped = true;
+            map();
+        }
+    }
+
+    private void map() {
+        // As per buffered access contract, we need to set all fields to missing if we're writing to a new row.
+        // We don't know whether the user provided mapper will write a value to each cell, so we call setMissing.
+        for (WriteAccess output : mapOutputs) {
+            output.setMissing();
+        }
+        mapper.run();
+    }
+
     @Override
     public boolean canForward() {
         return predecessor.canForward();
@@ -0,0 +1,268 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.schema.DataSpec;
+
+/**
+ * K-way merge of predecessors that are each sorted by the same keys.
+ * <p>
+ * The predecessors are merged with a loser tree: Each inner node of the tree holds the predecessor that lost the
+ * comparison at that node, and the overall winner (the predecessor with the smallest current row) is kept at the
+ * root. After the winner is forwarded, only the comparisons on the path from its leaf to the root are replayed, that
+ * is, {@code log2(k)} comparisons per row. Rows with equal keys are ordered by predecessor index. An exhausted
+ * predecessor loses against every other predecessor.
+ * <p>
+ * The outputs delegate to the inputs of the current winner. No rows are buffered: every predecessor except the winner
+ * keeps its current row until it is forwarded.
+ */
+class SequentialNodeImpMerge implements SequentialNodeImp {
+    private final AccessImp[][] inputss;
+
+    private final SequentialNodeImp[] predecessors;
+
+    private final int[] keys;
+
+    private final boolean[] ascending;
+
+    private final int[] outputIndices;
+
+    private final DelegatingReadAccess[] outputs;
+
+    /**
+     * The current row of each predecessor.
+     */
+    private final ReadAccess[][] rows;
+
+    /**
+     * Whether each predecessor is exhausted.
+     */
+    private final boolean[] exhausted;
+
+    /**
+     * The loser tree. {@code tree[n]} for {@code n > 0} is the predecessor that lost at inner node {@code n}. The
+     * children of inner node {@code n} are the nodes {@code 2n} and {@code 2n+1}. Nodes {@code k} to {@code 2k-1}
+     * are the leaves, node {@code k+p} is the leaf of predecessor {@code p}. {@code tree[0]} is the overall winner.
+     */
+    private final int[] tree;
+
+    private Comparator<ReadAccess[]> comparator;
+
+    /**
+     * The predecessor whose row is currently provided at the outputs, or {@code -1} before the first
+     * {@code forward()}.
+     */
+    private int current;
+
+    /**
+     * @param inputs {@code inputs[p]} are the accesses of predecessor {@code p}
+     * @param predecessors the sorted predecessors
+     * @param keys indices into {@code inputs[p]} of the merge keys
+     * @param ascending for each key, whether the predecessors are sorted in ascending order
+     * @param outputIndices indices into {@code inputs[p]} of the output accesses
+     */
+    SequentialNodeImpMerge(final AccessImp[][] inputs, final SequentialNodeImp[] predecessors, final int[] keys,
+        final boolean[] ascending, final int[] outputIndices) {
+        if (inputs.length != predecessors.length) {
+            throw new IllegalArgumentException();
+        }
+        this.inputss = inputs;
+        this.predecessors = predecessors;
+        this.keys = keys;
+        this.ascending = ascending;
+        this.outputIndices = outputIndices;
+        final int k = predecessors.length;
+        outputs = new DelegatingReadAccess[outputIndices.length];
+        rows = new ReadAccess[k][];
+        exhausted = new boolean[k];
+        tree = new int[k];
+    }
+
+    @Override
+    public ReadAccess getOutput(final int i) {
+        return outputs[i];
+    }
+
+    @Override
+    public void create() {
+        for (int p = 0; p < predecessors.length; p++) {
+            predecessors[p].create();
+            final AccessImp[] inputs = inputss[p];
+            final ReadAccess[] row = new ReadAccess[inputs.length];
+            Arrays.setAll(row, i -> inputs[i].getReadAccess());
+            rows[p] = row;
+        }
+        final DataSpec[] specs = new DataSpec[rows[0].length];
+        Arrays.setAll(specs, i -> rows[0][i].getDataSpec());
+        comparator = ReadAccessComparators.rowComparator(specs, keys, ascending);
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = DelegatingReadAccesses.createDelegatingAccess(specs[outputIndices[i]]);
+        }
+        current = -1;
+    }
+
+    @Override
+    public void reset() {
+        for (SequentialNodeImp predecessor : predecessors) {
+            predecessor.reset();
+        }
+        current = -1;
+    }
+
+    @Override
+    public boolean forward() {
+        if (current < 0) {
+            for (int p = 0; p < predecessors.length; p++) {
+                exhausted[p] = !predecessors[p].forward();
+            }
+            tree[0] = build(1);
+        } else {
+            exhausted[current] = !predecessors[current].forward();
+            replay(current);
+        }
+        current = tree[0];
+        if (exhausted[current]) {
+            return false;
+        }
+        final ReadAccess[] row = rows[current];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i].setDelegateAccess(row[outputIndices[i]]);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean canForward() {
+        if (current < 0) {
+            for (SequentialNodeImp predecessor : predecessors) {
+                if (predecessor.canForward()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int p = 0; p < predecessors.length; p++) {
+            if (p != current && !exhausted[p]) {
+                return true;
+            }
+        }
+        return !exhausted[current] && predecessors[current].canForward();
+    }
+
+    /**
+     * Recursively determine the winner of the subtree rooted at {@code node}, recording the losers.
+     *
+     * @return the winner
+     */
+    private int build(final int node) {
+        final int k = predecessors.length;
+        if (node >= k) {
+            return node - k;
+        }
+        final int left = build(2 * node);
+        final int right = build(2 * node + 1);
+        if (less(right, left)) {
+            tree[node] = left;
+            return right;
+        } else {
+            tree[node] = right;
+            return left;
+        }
+    }
+
+    /**
+     * Replay the comparisons on the path from the leaf of predecessor {@code p} to the root, after {@code p} was
+     * forwarded.
+     */
+    private void replay(final int p) {
+        int winner = p;
+        for (int node = (p + predecessors.length) / 2; node > 0; node /= 2) {
+            if (less(tree[node], winner)) {
+                final int loser = winner;
+                winner = tree[node];
+                tree[node] = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    /**
+     * @return whether the current row of predecessor {@code p} comes before the current row of predecessor {@code q}
+     */
+    private boolean less(final int p, final int q) {
+        if (exhausted[p] || exhausted[q]) {
+            return !exhausted[p];
+        }
+        final int c = comparator.compare(rows[p], rows[q]);
+        return c < 0 || (c == 0 && p < q);
+    }
+
+    @Override
+    public void close() throws IOException {
+        final List<IOException> exceptions = new ArrayList<>();
+        for (SequentialNodeImp predecessor : predecessors) {
+            try {
+                predecessor.close();
+            } catch (IOException e) {
+                exceptions.add(e);
+            }
+        }
+        if (!exceptions.isEmpty()) {
+            final IOException exception = exceptions.get(0);
+            exceptions.subList(1, exceptions.size()).forEach(exception::addSuppressed);
+            throw exception;
+        }
+    }
+}
@@ -72,6 +72,12 @@ public void create() {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void reset() {
+        // should never be called
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public boolean forward() {
         // should never be called
@@ -92,6 +92,11 @@ public void create() {
         link();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+    }
+
     @Override
     public boolean forward() {
         if (predecessor.forward()) {
@@ -102,6 +107,14 @@ public boolean forward() {
         }
     }
 
+    @Override
+    public void push(final Runnable sink) {
+        predecessor.push(() -> {
+            observer.run();
+            sink.run();
+        });
+    }
+
     @Override
     public boolean canForward() {
         return predecessor.canForward();
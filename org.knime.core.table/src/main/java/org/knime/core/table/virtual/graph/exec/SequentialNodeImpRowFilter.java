@@ -88,6 +88,11 @@ public void create() {
         link();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+    }
+
     @Override
     public boolean forward() {
         while (predecessor.forward()) {
@@ -98,6 +103,15 @@ public boolean forward() {
         return false;
     }
 
+    @Override
+    public void push(final Runnable sink) {
+        predecessor.push(() -> {
+            if (filter.getAsBoolean()) {
+                sink.run();
+            }
+        });
+    }
+
     @Override
     public boolean canForward() {
         // RowFilter doesn't have lookahead
@@ -57,6 +57,11 @@ class SequentialNodeImpRowIndex implements SequentialNodeImp {
 
     private final SequentialNodeImp predecessor;
 
+    /**
+     * Index of the first row.
+     */
+    private final long offset;
+
     private final LongWriteAccess access;
 
     /**
@@ -67,6 +72,7 @@ class SequentialNodeImpRowIndex implements SequentialNodeImp {
 
     SequentialNodeImpRowIndex(final SequentialNodeImp predecessor, final long offset) {
         this.predecessor = predecessor;
+        this.offset = offset;
         access = (LongWriteAccess)BufferedAccesses.createBufferedAccess(LONG);
         m_nextRowIndex = offset;
     }
@@ -81,6 +87,12 @@ public void create() {
         predecessor.create();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+        m_nextRowIndex = offset;
+    }
+
     @Override
     public boolean forward() {
         if (predecessor.forward()) {
@@ -91,6 +103,14 @@ public boolean forward() {
         }
     }
 
+    @Override
+    public void push(final Runnable sink) {
+        predecessor.push(() -> {
+            access.setLongValue(m_nextRowIndex++);
+            sink.run();
+        });
+    }
+
     @Override
     public boolean canForward() {
         return predecessor.canForward();
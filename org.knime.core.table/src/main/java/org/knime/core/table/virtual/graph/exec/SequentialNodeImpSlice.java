@@ -93,12 +93,19 @@ public void create() {
         predecessor.create();
     }
 
+    @Override
+    public void reset() {
+        predecessor.reset();
+        m_nextRowIndex = 0;
+    }
+
     @Override
     public boolean forward() {
         forwardToStart();
         if (m_nextRowIndex < m_to) {
+            final boolean forwarded = predecessor.forward();
             m_nextRowIndex++;
-            return predecessor.forward();
+            return forwarded;
         } else {
             return false;
         }
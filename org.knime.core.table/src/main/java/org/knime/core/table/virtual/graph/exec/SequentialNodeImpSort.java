@@ -0,0 +1,216 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.schema.DataSpec;
+
+/**
+ * Sorts the rows of its predecessor.
+ * <p>
+ * On the first {@code forward()} or {@code canForward()}, all rows of the predecessor are consumed into an
+ * {@link ExternalSorter}, and the predecessor is closed. Then, the sorted rows are provided one by one.
+ */
+class SequentialNodeImpSort implements SequentialNodeImp {
+    private final AccessImp[] inputs;
+
+    private final SequentialNodeImp predecessor;
+
+    private final int[] keys;
+
+    private final boolean[] ascending;
+
+    private final int[] outputIndices;
+
+    private final long maxBufferedRows;
+
+    private final long limit;
+
+    private final DelegatingReadAccess[] outputs;
+
+    private ExternalSorter sorter;
+
+    private boolean predecessorClosed;
+
+    /**
+     * @param inputs the accesses to buffer
+     * @param predecessor the predecessor whose rows are sorted
+     * @param keys indices into {@code inputs} of the sort keys
+     * @param ascending for each key, whether to sort in ascending order
+     * @param outputIndices indices into {@code inputs} of the output accesses
+     * @param maxBufferedRows maximum number of rows to sort in memory before spilling sorted runs
+     * @param limit maximum number of sorted rows to provide, or {@code -1} to provide all rows
+     */
+    SequentialNodeImpSort(final AccessImp[] inputs, final SequentialNodeImp predecessor, final int[] keys,
+        final boolean[] ascending, final int[] outputIndices, final long maxBufferedRows, final long limit) {
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.keys = keys;
+        this.ascending = ascending;
+        this.outputIndices = outputIndices;
+        this.maxBufferedRows = maxBufferedRows;
+        this.limit = limit;
+        outputs = new DelegatingReadAccess[outputIndices.length];
+    }
+
+    @Override
+    public ReadAccess getOutput(final int i) {
+        return outputs[i];
+    }
+
+    @Override
+    public void create() {
+        predecessor.create();
+        for (int i = 0; i < outputs.length; i++) {
+            final DataSpec spec = inputs[outputIndices[i]].getReadAccess().getDataSpec();
+            outputs[i] = DelegatingReadAccesses.createDelegatingAccess(spec);
+        }
+    }
+
+    @Override
+    public void reset() {
+        if (sorter != null && sorter.isInMemory()) {
+            // re-use the sorted rows
+            sorter.rewind();
+            return;
+        }
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        predecessorClosed = false;
+        predecessor.reset();
+    }
+
+    @Override
+    public boolean forward() {
+        ensureSorted();
+        try {
+            if (sorter.hasNext()) {
+                final ReadAccess[] row = sorter.next();
+                for (int i = 0; i < outputs.length; i++) {
+                    outputs[i].setDelegateAccess(row[outputIndices[i]]);
+                }
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean canForward() {
+        ensureSorted();
+        return sorter.hasNext();
+    }
+
+    private void ensureSorted() {
+        if (sorter == null) {
+            sorter = sort(inputs, predecessor, keys, ascending, maxBufferedRows, limit);
+            closePredecessor();
+        }
+    }
+
+    /**
+     * Forward {@code predecessor} until it is exhausted, and sort the values of {@code inputs}.
+     */
+    static ExternalSorter sort(final AccessImp[] inputs, final SequentialNodeImp predecessor, final int[] keys,
+        final boolean[] ascending, final long maxBufferedRows, final long limit) {
+        final ReadAccess[] row = new ReadAccess[inputs.length];
+        Arrays.setAll(row, i -> inputs[i].getReadAccess());
+        final DataSpec[] specs = new DataSpec[inputs.length];
+        Arrays.setAll(specs, i -> row[i].getDataSpec());
+        final ExternalSorter sorter = new ExternalSorter(specs, keys, ascending, maxBufferedRows, limit);
+        try {
+            while (predecessor.forward()) {
+                sorter.add(row);
+            }
+            sorter.finish();
+        } catch (IOException e) {
+            try {
+                sorter.close();
+            } catch (IOException e1) {
+                e.addSuppressed(e1);
+            }
+            throw new UncheckedIOException(e);
+        }
+        return sorter;
+    }
+
+    private void closePredecessor() {
+        if (!predecessorClosed) {
+            predecessorClosed = true;
+            try {
+                predecessor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (sorter != null) {
+                sorter.close();
+                sorter = null;
+            }
+        } finally {
+            if (!predecessorClosed) {
+                predecessorClosed = true;
+                predecessor.close();
+            }
+        }
+    }
+}
@@ -46,32 +46,106 @@
 package org.knime.core.table.virtual.graph.exec;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
 
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
 import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.cursor.AwaitingCursor;
 import org.knime.core.table.cursor.Cursor;
 import org.knime.core.table.cursor.LookaheadCursor;
+import org.knime.core.table.cursor.RandomAccessCursor;
+import org.knime.core.table.row.RandomRowAccessible;
 import org.knime.core.table.row.ReadAccessRow;
 import org.knime.core.table.row.RowAccessible;
 import org.knime.core.table.row.Selection;
+import org.knime.core.table.virtual.spec.RowFilterTransformSpec.RangeFilterFactory;
+import org.knime.core.table.virtual.spec.RowFilterTransformSpec.RowFilterFactory;
 
+/**
+ * Reads the selected columns and rows of a source.
+ * <p>
+ * {@code late} columns are not read by the sequential cursor. Instead, they are fetched by a
+ * {@link RandomAccessCursor} on {@link #materialize()}, which is only called for rows that pass all filters.
+ * <p>
+ * If the source is an {@link IndexedRowAccessible}, a {@link RangeFilterFactory range filter} on an indexed column can
+ * be {@link #useIndex executed} by this node: Only the rows found by the index lookup are read, using a
+ * {@link RandomAccessCursor}.
+ */
 class SequentialNodeImpSource implements SequentialNodeImp {
     private final RowAccessible accessible;
 
     private final int[] cols;
 
+    private final boolean[] late;
+
     private final Selection selection;
 
-    private final ReadAccess[] outputs;
+    private final Selection lateSelection;
+
+    private final long fromRow;
+
+    private final long toRow;
+
+    private final DelegatingReadAccess[] outputs;
 
     private Cursor<ReadAccessRow> cursor;
 
     private LookaheadCursor<ReadAccessRow> lookahead;
 
-    SequentialNodeImpSource(final RowAccessible accessible, final int[] cols, final long fromRow, final long toRow) {
+    private final ForwardDeadline deadline;
+
+    private AwaitingCursor<ReadAccessRow> awaiting;
+
+    private RandomAccessCursor<ReadAccessRow> lateCursor;
+
+    /**
+     * The index used to find the rows to read, or {@code null} if all rows are read.
+     */
+    private SecondaryIndex index;
+
+    private RangeFilterFactory range;
+
+    /**
+     * If an index is used: the rows to read (relative to {@code fromRow}), and the position of the current row.
+     */
+    private long[] indexedRows;
+
+    private int indexedRowsPosition;
+
+    /**
+     * index of the current row (relative to {@code fromRow})
+     */
+    private long rowIndex = -1;
+
+    /**
+     * The rows to read when the cursors are opened the next time (relative to {@code fromRow}, see
+     * {@link #restrictRows}). {@code restrictFrom < 0} means that all rows are read.
+     */
+    private long restrictFrom = -1;
+
+    private long restrictTo = -1;
+
+    private boolean closed;
+
+    SequentialNodeImpSource(final RowAccessible accessible, final int[] cols, final boolean[] late,
+        final long fromRow, final long toRow, final ForwardDeadline deadline) {
         this.accessible = accessible;
         this.cols = cols;
-        this.selection = Selection.all().retainColumns(cols).retainRows(fromRow, toRow);
-        outputs = new ReadAccess[cols.length];
+        this.late = late;
+        this.deadline = deadline;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        final int[] earlyCols = IntStream.range(0, cols.length).filter(i -> !late[i]).map(i -> cols[i]).toArray();
+        final int[] lateCols = IntStream.range(0, cols.length).filter(i -> late[i]).map(i -> cols[i]).toArray();
+        this.selection = Selection.all().retainColumns(earlyCols).retainRows(fromRow, toRow);
+        this.lateSelection =
+            lateCols.length == 0 ? null : Selection.all().retainColumns(lateCols).retainRows(fromRow, toRow);
+        outputs = new DelegatingReadAccess[cols.length];
     }
 
     @Override
@@ -79,29 +153,165 @@ public ReadAccess getOutput(final int i) {
         return outputs[i];
     }
 
+    /**
+     * Execute the given row filter by an index lookup, if possible. If this returns {@code true}, this node only
+     * produces the rows that pass the filter, and the filter can be skipped.
+     *
+     * @param filterInputs the inputs of the filter
+     * @param filterFactory the filter
+     * @return whether the filter is executed by this node
+     */
+    boolean useIndex(final AccessImp[] filterInputs, final RowFilterFactory filterFactory) {
+        if (index != null || !(accessible instanceof IndexedRowAccessible indexed)
+            || !(filterFactory instanceof RangeFilterFactory rangeFilter) || filterInputs.length != 1
+            || filterInputs[0].node != this) {
+            return false;
+        }
+        index = indexed.getIndex(cols[filterInputs[0].i]);
+        range = rangeFilter;
+        return index != null;
+    }
+
     @Override
     public void create() {
-        cursor = accessible.createCursor(selection);
+        if (index != null) {
+            indexedRows = lookupRows();
+        }
+        open();
+    }
+
+    /**
+     * Read only the rows {@code [from, to)} (relative to {@code fromRow}), starting with the next {@link #reset()}.
+     * {@code from < 0} removes the restriction. The number of rows of the source must be known.
+     *
+     * @param from start of row range (inclusive)
+     * @param to end of row range (exclusive)
+     */
+    void restrictRows(final long from, final long to) {
+        if (from < 0) {
+            restrictFrom = -1;
+            restrictTo = -1;
+        } else {
+            final long size = accessible.size();
+            final long numRows = fromRow < 0 ? size : Math.max(0, Math.min(toRow, size) - fromRow);
+            restrictFrom = Math.min(from, numRows);
+            restrictTo = Math.max(restrictFrom, Math.min(to, numRows));
+        }
+    }
+
+    /**
+     * Open the cursors on the source, and point the outputs to their accesses.
+     */
+    private void open() {
+        final Selection rows = selection.retainRows(restrictFrom, restrictTo);
+        if (index != null) {
+            indexedRowsPosition = 0;
+            cursor = ((RandomRowAccessible)accessible).createCursor(rows);
+        } else {
+            cursor = accessible.createCursor(rows);
+        }
+        if (lateSelection != null) {
+            lateCursor = ((RandomRowAccessible)accessible)
+                .createCursor(lateSelection.retainRows(restrictFrom, restrictTo));
+        }
         for (int i = 0; i < outputs.length; i++) {
-            outputs[i] = cursor.access().getAccess(cols[i]);
+            final ReadAccess access = (late[i] ? lateCursor : cursor).access().getAccess(cols[i]);
+            if (outputs[i] == null) {
+                outputs[i] = DelegatingReadAccesses.createDelegatingAccess(access.getDataSpec());
+            }
+            outputs[i].setDelegateAccess(access);
+        }
+        lookahead = cursor instanceof LookaheadCursor ? (LookaheadCursor<ReadAccessRow>)cursor : null;
+        awaiting = cursor instanceof AwaitingCursor ? (AwaitingCursor<ReadAccessRow>)cursor : null;
+        rowIndex = -1;
+        closed = false;
+    }
+
+    @Override
+    public void reset() {
+        if (closed) {
+            open();
+        } else if (index != null) {
+            // the (random-access) cursor can be re-used, and the index lookup doesn't need to be repeated
+            indexedRowsPosition = 0;
+            rowIndex = -1;
+        } else {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            open();
         }
-        if (cursor instanceof LookaheadCursor) {
-            lookahead = (LookaheadCursor<ReadAccessRow>)cursor;
+    }
+
+    /**
+     * @return the rows in {@code [fromRow, toRow)} found by the index lookup, relative to {@code fromRow}
+     */
+    private long[] lookupRows() {
+        final long[] rows = index.lookup(range);
+        if (fromRow < 0) {
+            return rows;
         }
+        return Arrays.stream(rows) //
+            .filter(row -> row >= fromRow && row < toRow) //
+            .map(row -> row - fromRow) //
+            .toArray();
     }
 
     @Override
     public boolean forward() {
-        return cursor.forward();
+        if (indexedRows != null) {
+            if (indexedRowsPosition >= indexedRows.length) {
+                return false;
+            }
+            rowIndex = indexedRows[indexedRowsPosition++];
+            ((RandomAccessCursor<ReadAccessRow>)cursor).moveTo(rowIndex);
+            return true;
+        }
+        final boolean forwarded;
+        if (awaiting != null && deadline.isSet()) {
+            try {
+                forwarded = awaiting.forward(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | InterruptedException e) {
+                throw new ForwardDeadline.AwaitException(e);
+            }
+        } else {
+            forwarded = cursor.forward();
+        }
+        if (forwarded) {
+            ++rowIndex;
+        }
+        return forwarded;
+    }
+
+    /**
+     * Fetch the values of the late columns for the current row.
+     */
+    void materialize() {
+        lateCursor.moveTo(rowIndex);
     }
 
     @Override
     public boolean canForward() {
+        if (indexedRows != null) {
+            return indexedRowsPosition < indexedRows.length;
+        }
         return lookahead.canForward();
     }
 
     @Override
     public void close() throws IOException {
-        cursor.close();
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            cursor.close();
+        } finally {
+            if (lateCursor != null) {
+                lateCursor.close();
+            }
+        }
     }
 }
@@ -0,0 +1,286 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.LongAccess.LongReadAccess;
+import org.knime.core.table.access.ReadAccess;
+
+/**
+ * Gathers rows by row index from its (random-access) predecessor, and provides them sequentially.
+ * <p>
+ * If the row indices are given as an array, they are processed in blocks of up to {@link #BLOCK_SIZE} rows. If the
+ * row indices of a block are not ascending, the distinct rows of the block are fetched from the predecessor in
+ * ascending order and buffered, and then provided in the requested order. This way, the predecessor is always
+ * accessed in ascending order within a block, which is much cheaper than jumping back and forth for most sources.
+ * <p>
+ * If the row indices are read from a (sequential) index predecessor, each row is fetched from the predecessor as soon
+ * as its index is read. (The index predecessor might be a stream, so we don't read ahead.)
+ */
+class SequentialNodeImpTake implements SequentialNodeImp {
+
+    /**
+     * Maximum number of row indices that are sorted and buffered together.
+     */
+    static final int BLOCK_SIZE = 1024;
+
+    private final AccessImp[] inputs;
+
+    private final RandomAccessNodeImp predecessor;
+
+    private final long[] rows;
+
+    private final AccessImp indexInput;
+
+    private final SequentialNodeImp indexPredecessor;
+
+    private final DelegatingReadAccess[] outputs;
+
+    private LongReadAccess index;
+
+    /**
+     * Position in {@code rows} of the row that will be provided after the next call to {@code forward()}.
+     */
+    private int position;
+
+    /**
+     * Position in {@code rows} of the first row of the current block.
+     */
+    private int blockStart;
+
+    /**
+     * Position in {@code rows} after the last row of the current block.
+     */
+    private int blockEnd;
+
+    /**
+     * Whether the rows of the current block are provided from {@link #buffers} (or directly from the predecessor).
+     */
+    private boolean buffered;
+
+    /**
+     * {@code buffers[j]} holds the values of the {@code j}-th smallest distinct row index of the current block.
+     */
+    private BufferedAccess[][] buffers;
+
+    /**
+     * {@code slots[k]} is the index into {@link #buffers} of the row at position {@code blockStart + k}.
+     */
+    private int[] slots;
+
+    /**
+     * Gather the rows with the given indices.
+     */
+    SequentialNodeImpTake(final AccessImp[] inputs, final RandomAccessNodeImp predecessor, final long[] rows) {
+        this(inputs, predecessor, rows, null, null);
+    }
+
+    /**
+     * Gather the rows with the indices given by {@code indexInput} of {@code indexPredecessor}.
+     */
+    SequentialNodeImpTake(final AccessImp[] inputs, final RandomAccessNodeImp predecessor, final AccessImp indexInput,
+        final SequentialNodeImp indexPredecessor) {
+        this(inputs, predecessor, null, indexInput, indexPredecessor);
+    }
+
+    private SequentialNodeImpTake(final AccessImp[] inputs, final RandomAccessNodeImp predecessor, final long[] rows,
+        final AccessImp indexInput, final SequentialNodeImp indexPredecessor) {
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.rows = rows;
+        this.indexInput = indexInput;
+        this.indexPredecessor = indexPredecessor;
+        outputs = new DelegatingReadAccess[inputs.length];
+    }
+
+    @Override
+    public ReadAccess getOutput(final int i) {
+        return outputs[i];
+    }
+
+    @Override
+    public void create() {
+        predecessor.create();
+        for (int i = 0; i < outputs.length; i++) {
+            final ReadAccess access = inputs[i].getReadAccess();
+            outputs[i] = DelegatingReadAccesses.createDelegatingAccess(access.getDataSpec());
+            outputs[i].setDelegateAccess(access);
+        }
+        if (indexPredecessor != null) {
+            indexPredecessor.create();
+            index = (LongReadAccess)indexInput.getReadAccess();
+        }
+    }
+
+    @Override
+    public void reset() {
+        predecessor.reset();
+        if (indexPredecessor != null) {
+            indexPredecessor.reset();
+        }
+        position = 0;
+        blockStart = 0;
+        blockEnd = 0;
+        if (buffered) {
+            buffered = false;
+            for (int i = 0; i < outputs.length; i++) {
+                outputs[i].setDelegateAccess(inputs[i].getReadAccess());
+            }
+        }
+    }
+
+    @Override
+    public boolean forward() {
+        if (rows == null) {
+            if (!indexPredecessor.forward()) {
+                return false;
+            }
+            predecessor.moveTo(rowIndex(index));
+            return true;
+        }
+
+        if (position >= rows.length) {
+            return false;
+        }
+        if (position == blockEnd) {
+            nextBlock();
+        }
+        if (buffered) {
+            final BufferedAccess[] values = buffers[slots[position - blockStart]];
+            for (int i = 0; i < outputs.length; i++) {
+                outputs[i].setDelegateAccess(values[i]);
+            }
+        } else {
+            predecessor.moveTo(rows[position]);
+        }
+        position++;
+        return true;
+    }
+
+    @Override
+    public boolean canForward() {
+        return rows == null ? indexPredecessor.canForward() : position < rows.length;
+    }
+
+    /**
+     * Start the next block of row indices at {@link #position}. If the row indices of the block are not ascending,
+     * fetch and buffer the distinct rows of the block.
+     */
+    private void nextBlock() {
+        blockStart = position;
+        blockEnd = Math.min(rows.length, blockStart + BLOCK_SIZE);
+
+        boolean ascending = true;
+        for (int k = blockStart + 1; k < blockEnd && ascending; k++) {
+            ascending = rows[k - 1] <= rows[k];
+        }
+        if (ascending) {
+            if (buffered) {
+                buffered = false;
+                for (int i = 0; i < outputs.length; i++) {
+                    outputs[i].setDelegateAccess(inputs[i].getReadAccess());
+                }
+            }
+            return;
+        }
+
+        final long[] sorted = Arrays.copyOfRange(rows, blockStart, blockEnd);
+        Arrays.sort(sorted);
+        int numDistinct = 0;
+        for (int k = 0; k < sorted.length; k++) {
+            if (k == 0 || sorted[k] != sorted[k - 1]) {
+                sorted[numDistinct++] = sorted[k];
+            }
+        }
+
+        if (buffers == null) {
+            buffers = new BufferedAccess[BLOCK_SIZE][];
+            slots = new int[BLOCK_SIZE];
+        }
+        for (int j = 0; j < numDistinct; j++) {
+            predecessor.moveTo(sorted[j]);
+            if (buffers[j] == null) {
+                buffers[j] = new BufferedAccess[inputs.length];
+                for (int i = 0; i < inputs.length; i++) {
+                    buffers[j][i] = BufferedAccesses.createBufferedAccess(outputs[i].getDataSpec());
+                }
+            }
+            for (int i = 0; i < inputs.length; i++) {
+                buffers[j][i].setFrom(inputs[i].getReadAccess());
+            }
+        }
+        for (int k = blockStart; k < blockEnd; k++) {
+            slots[k - blockStart] = Arrays.binarySearch(sorted, 0, numDistinct, rows[k]);
+        }
+        buffered = true;
+    }
+
+    /**
+     * Get the current row index from {@code index}.
+     *
+     * @throws IllegalStateException if the row index is missing
+     */
+    static long rowIndex(final LongReadAccess index) {
+        if (index.isMissing()) {
+            throw new IllegalStateException("Cannot take row with missing row index");
+        }
+        return index.getLongValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        predecessor.close();
+        if (indexPredecessor != null) {
+            indexPredecessor.close();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.access.LongAccess.LongWriteAccess;
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.AggregateFunction;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.Window;
+
+/**
+ * Aggregates the rows of its predecessor by group, separately for each window of consecutive rows.
+ * <p>
+ * Unlike {@link SequentialNodeImpAggregate}, the predecessor is consumed incrementally: Each row is added to a
+ * {@link HashAggregation} for every open window containing it. As soon as the last row of a window has been added,
+ * the window is finished and its aggregated rows are provided one by one (followed by the window start index). Windows
+ * that are still open when the predecessor is exhausted are finished then. Therefore, this works on unbounded
+ * predecessors, holding at most {@code ceil(size/step)} open windows at a time.
+ */
+class SequentialNodeImpWindowAggregate implements SequentialNodeImp {
+    private final AccessImp[] inputs;
+
+    private final SequentialNodeImp predecessor;
+
+    private final int numGroupColumns;
+
+    private final AggregateFunction[] functions;
+
+    private final int[] aggregationInputs;
+
+    private final int[] cols;
+
+    private final long maxGroups;
+
+    private final Window window;
+
+    private final DelegatingReadAccess[] outputs;
+
+    private final BufferedAccess windowStart = BufferedAccesses.createBufferedAccess(DataSpec.longSpec());
+
+    private ReadAccess[] keys;
+
+    private ReadAccess[] values;
+
+    /**
+     * Windows that have not seen their last row yet, in order of start index.
+     */
+    private final Deque<WindowAggregation> open = new ArrayDeque<>();
+
+    /**
+     * Finished windows that have not been provided yet, in order of start index.
+     */
+    private final Deque<WindowAggregation> finished = new ArrayDeque<>();
+
+    /**
+     * The window whose aggregated rows are currently provided.
+     */
+    private WindowAggregation current;
+
+    /**
+     * Index of the next row of the predecessor.
+     */
+    private long nextRowIndex;
+
+    private boolean exhausted;
+
+    private boolean predecessorClosed;
+
+    private record WindowAggregation(long start, HashAggregation aggregation) {
+    }
+
+    /**
+     * @param inputs the group columns, followed by the aggregated columns
+     * @param predecessor the predecessor whose rows are aggregated
+     * @param numGroupColumns the number of group columns at the start of {@code inputs}
+     * @param functions the aggregate functions
+     * @param aggregationInputs for each function, the index into {@code inputs} of the aggregated column (or
+     *            {@code -1} to count rows)
+     * @param cols indices into the result row (group columns, followed by aggregations, followed by the window start
+     *            index) of the output accesses
+     * @param maxGroups maximum number of groups to aggregate in memory (per window) before spilling partial aggregates
+     * @param window the window size and step
+     */
+    SequentialNodeImpWindowAggregate(final AccessImp[] inputs, final SequentialNodeImp predecessor,
+        final int numGroupColumns, final AggregateFunction[] functions, final int[] aggregationInputs,
+        final int[] cols, final long maxGroups, final Window window) {
+        this.inputs = inputs;
+        this.predecessor = predecessor;
+        this.numGroupColumns = numGroupColumns;
+        this.functions = functions;
+        this.aggregationInputs = aggregationInputs;
+        this.cols = cols;
+        this.maxGroups = maxGroups;
+        this.window = window;
+        outputs = new DelegatingReadAccess[cols.length];
+    }
+
+    @Override
+    public ReadAccess getOutput(final int i) {
+        return outputs[i];
+    }
+
+    @Override
+    public void create() {
+        predecessor.create();
+        keys = new ReadAccess[numGroupColumns];
+        Arrays.setAll(keys, i -> inputs[i].getReadAccess());
+        values = new ReadAccess[functions.length];
+        Arrays.setAll(values, i -> aggregationInputs[i] < 0 ? null : inputs[aggregationInputs[i]].getReadAccess());
+
+        // the first window always starts at row 0, open it now to determine the output specs
+        open.add(new WindowAggregation(0, new HashAggregation(keys, functions, values, maxGroups)));
+        final ReadAccess[] row = resultRow(open.peekFirst());
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = DelegatingReadAccesses.createDelegatingAccess(row[cols[i]].getDataSpec());
+        }
+    }
+
+    @Override
+    public void reset() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nextRowIndex = 0;
+        exhausted = false;
+        predecessorClosed = false;
+        predecessor.reset();
+        open.add(new WindowAggregation(0, new HashAggregation(keys, functions, values, maxGroups)));
+    }
+
+    private ReadAccess[] resultRow(final WindowAggregation w) {
+        final ReadAccess[] row = Arrays.copyOf(w.aggregation().row(), numGroupColumns + functions.length + 1);
+        row[row.length - 1] = windowStart;
+        return row;
+    }
+
+    @Override
+    public boolean forward() {
+        try {
+            while (true) {
+                if (current != null && current.aggregation().hasNext()) {
+                    current.aggregation().next();
+                    return true;
+                }
+                // consume the predecessor before discarding the current window,
+                // so that forward() can be resumed if the predecessor fails
+                fill();
+                final WindowAggregation next = finished.pollFirst();
+                if (current != null) {
+                    current.aggregation().close();
+                    current = null;
+                }
+                if (next == null) {
+                    return false;
+                }
+                current = next;
+                ((LongWriteAccess)windowStart).setLongValue(current.start());
+                final ReadAccess[] row = resultRow(current);
+                for (int i = 0; i < outputs.length; i++) {
+                    outputs[i].setDelegateAccess(row[cols[i]]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean canForward() {
+        try {
+            if (current != null && current.aggregation().hasNext()) {
+                return true;
+            }
+            fill();
+            // a finished window has at least one aggregated row
+            return !finished.isEmpty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Consume rows of the predecessor until a window is finished or the predecessor is exhausted.
+     */
+    private void fill() throws IOException {
+        while (finished.isEmpty() && !exhausted) {
+            if (predecessor.forward()) {
+                addRow();
+            } else {
+                exhausted = true;
+                for (WindowAggregation w : open) {
+                    if (w.start() < nextRowIndex) {
+                        w.aggregation().finish();
+                        finished.add(w);
+                    } else {
+                        // the window does not contain any rows
+                        w.aggregation().close();
+                    }
+                }
+                open.clear();
+                closePredecessor();
+            }
+        }
+    }
+
+    private void addRow() throws IOException {
+        final long r = nextRowIndex;
+        if (r % window.step() == 0 && (open.isEmpty() || open.peekLast().start() != r)) {
+            open.add(new WindowAggregation(r, new HashAggregation(keys, functions, values, maxGroups)));
+        }
+        // windows are removed from open after their last row, so every open window contains r
+        for (WindowAggregation w : open) {
+            w.aggregation().add();
+        }
+        nextRowIndex = r + 1;
+        while (!open.isEmpty() && open.peekFirst().start() + window.size() <= nextRowIndex) {
+            final WindowAggregation w = open.removeFirst();
+            w.aggregation().finish();
+            finished.add(w);
+        }
+    }
+
+    private void closePredecessor() {
+        if (!predecessorClosed) {
+            predecessorClosed = true;
+            try {
+                predecessor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (current != null) {
+                current.aggregation().close();
+                current = null;
+            }
+            for (WindowAggregation w : finished) {
+                w.aggregation().close();
+            }
+            finished.clear();
+            for (WindowAggregation w : open) {
+                w.aggregation().close();
+            }
+            open.clear();
+        } finally {
+            if (!predecessorClosed) {
+                predecessorClosed = true;
+                predecessor.close();
+            }
+        }
+    }
+}
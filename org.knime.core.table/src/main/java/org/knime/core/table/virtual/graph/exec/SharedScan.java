@@ -0,0 +1,749 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.knime.core.table.access.BufferedAccesses;
+import org.knime.core.table.access.BufferedAccesses.BufferedAccess;
+import org.knime.core.table.access.DelegatingReadAccesses;
+import org.knime.core.table.access.DelegatingReadAccesses.DelegatingReadAccess;
+import org.knime.core.table.cursor.Cursor;
+import org.knime.core.table.cursor.LookaheadCursor;
+import org.knime.core.table.row.DefaultReadAccessRow;
+import org.knime.core.table.row.ReadAccessRow;
+import org.knime.core.table.row.RowAccessible;
+import org.knime.core.table.row.Selection;
+import org.knime.core.table.schema.ColumnarSchema;
+import org.knime.core.table.virtual.RowAccessibles;
+import org.knime.core.table.virtual.graph.cap.CapNode;
+import org.knime.core.table.virtual.graph.cap.CapNodeSource;
+import org.knime.core.table.virtual.graph.cap.CapNodeTake;
+import org.knime.core.table.virtual.graph.cap.CapNodeType;
+import org.knime.core.table.virtual.graph.cap.CursorAssemblyPlan;
+
+/**
+ * A single sequential scan over a source table, shared by several {@link Follower}s.
+ * <p>
+ * Each {@code Follower} is a {@code RowAccessible} that stands in for the source table at one SOURCE node of one of
+ * several CAPs ("pipelines") that are executed together. The rows of the source are read once by a shared cursor, and
+ * buffered in a ring buffer until all followers have moved past them. All followers are created up front, so that no
+ * rows are dropped before a follower that starts late has read them.
+ * <p>
+ * The buffer holds at most {@code capacity} rows. If a follower needs a row beyond the buffer, it waits for the
+ * slowest followers to move on. The followers are typically used in different threads, so this lets the pipelines
+ * progress together. The follower instead <em>detaches</em>, if the slowest follower is in the same pipeline (for
+ * example, the other side of a self-join that is only read after this side has been read completely), if all other
+ * pipelines are waiting as well (for example, two pipelines that read two shared sources in opposite order, see
+ * {@link Pipelines}), or if the slowest follower doesn't make progress within {@code maxWait} (if given). A detached
+ * follower continues with a private cursor on the source, and no longer holds back the shared scan. This ensures that
+ * shared scans never deadlock (as long as the pipelines are executed concurrently, or {@code maxWait} is given) and
+ * never buffer more than {@code capacity} rows, at the cost of re-reading (part of) the source for detached
+ * followers.
+ * <p>
+ * Rows are read from the shared cursor by one of the followers at a time, without holding the lock, so that other
+ * followers can access buffered rows meanwhile.
+ */
+final class SharedScan {
+
+    private final RowAccessible m_source;
+
+    /**
+     * The columns read by the shared cursor (the union of the columns of all followers).
+     */
+    private final int[] m_columns;
+
+    /**
+     * The source row index of the first row read by the shared cursor. Row indices of the shared scan ("positions")
+     * are relative to this.
+     */
+    private final long m_fromRow;
+
+    /**
+     * The source row index (exclusive) of the last row read by the shared cursor, or {@code -1} to read all rows.
+     */
+    private final long m_toRow;
+
+    /**
+     * How long a follower waits for the slowest followers to make progress before it detaches, or {@code -1} to wait
+     * indefinitely.
+     */
+    private final long m_maxWaitNanos;
+
+    private final Pipelines m_pipelines;
+
+    private final List<Follower> m_followers = new ArrayList<>();
+
+    private final ReentrantLock m_lock = new ReentrantLock();
+
+    private final Condition m_progress = m_lock.newCondition();
+
+    // The following fields are guarded by m_lock.
+
+    /**
+     * Ring buffer of rows. The row at position {@code p} is at {@code m_buffer[p % m_buffer.length]}.
+     */
+    private final BufferedAccess[][] m_buffer;
+
+    /**
+     * The position of the first buffered row.
+     */
+    private long m_base;
+
+    /**
+     * The number of buffered rows.
+     */
+    private int m_count;
+
+    /**
+     * Whether a follower is currently reading the next row from {@link #m_cursor} (without holding the lock).
+     */
+    private boolean m_reading;
+
+    private boolean m_exhausted;
+
+    /**
+     * The shared cursor. This is only accessed by the follower that set {@link #m_reading}, or with the lock held
+     * while no follower is reading.
+     */
+    private Cursor<ReadAccessRow> m_cursor;
+
+    /**
+     * @param source the source table
+     * @param columns the columns to read (the union of the columns of all followers)
+     * @param fromRow the first row to read, or {@code -1} to read all rows
+     * @param toRow the row (exclusive) after the last row to read (ignored if {@code fromRow < 0})
+     * @param capacity the maximum number of buffered rows (at least {@code 2})
+     * @param maxWait how long a follower waits for the slowest followers to make progress before it detaches, or
+     *            {@code null} to wait indefinitely
+     * @param pipelines the followers of all shared scans that are executed together
+     */
+    SharedScan(final RowAccessible source, final int[] columns, final long fromRow, final long toRow,
+        final int capacity, final Duration maxWait, final Pipelines pipelines) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2 (got " + capacity + ")");
+        }
+        m_source = source;
+        m_columns = columns;
+        m_fromRow = Math.max(0, fromRow);
+        m_toRow = fromRow < 0 ? -1 : toRow;
+        m_buffer = new BufferedAccess[capacity][];
+        m_maxWaitNanos = maxWait == null ? -1 : maxWait.toNanos();
+        m_pipelines = pipelines;
+    }
+
+    /**
+     * Replace the sources of SOURCE nodes that read the same source table in several CAPs by {@link Follower}s of a
+     * shared scan.
+     * <p>
+     * Only SOURCE nodes that are read sequentially are shared. SOURCE nodes in the predecessor branches of TAKE nodes
+     * (which are accessed randomly), SOURCE nodes with late columns, and {@link IndexedRowAccessible} sources read
+     * their source table directly. A shared scan is only created for source tables that are read by at least two
+     * remaining SOURCE nodes.
+     *
+     * @param caps the CAPs
+     * @param sources for each CAP, the sources of its SOURCE nodes, in the order in which they occur in the CAP (as
+     *            returned by {@link CapExecutorUtils#getSources})
+     * @param capacity the maximum number of rows buffered by each shared scan
+     * @param maxWait how long a follower waits for the slowest followers to make progress before it detaches, or
+     *            {@code null} to wait indefinitely
+     * @param pipelines collects the followers of the created shared scans. The pipeline of the {@code i}-th CAP is
+     *            identified by {@code i}.
+     * @return for each CAP, the sources to assemble it with
+     */
+    static List<List<RowAccessible>> share(final List<CursorAssemblyPlan> caps,
+        final List<List<RowAccessible>> sources, final int capacity, final Duration maxWait,
+        final Pipelines pipelines) {
+        // for each source table, the shareable SOURCE nodes reading it, as {cap index, source index} pairs
+        final Map<UUID, List<int[]>> shareable = new LinkedHashMap<>();
+        final List<List<CapNodeSource>> sourceNodes = new ArrayList<>();
+        for (int i = 0; i < caps.size(); i++) {
+            final List<CapNode> nodes = caps.get(i).nodes();
+            final boolean[] randomAccess = new boolean[nodes.size()];
+            for (CapNode node : nodes) {
+                if (node.type() == CapNodeType.TAKE) {
+                    final CapNodeTake take = (CapNodeTake)node;
+                    Arrays.fill(randomAccess, take.predecessorBranchStart(), take.predecessor() + 1, true);
+                }
+            }
+            final List<CapNodeSource> capSources = new ArrayList<>();
+            for (CapNode node : nodes) {
+                if (node.type() == CapNodeType.SOURCE) {
+                    final CapNodeSource source = (CapNodeSource)node;
+                    final int j = capSources.size();
+                    capSources.add(source);
+                    if (!randomAccess[node.index()] && !source.hasLateColumns()
+                        && !(sources.get(i).get(j) instanceof IndexedRowAccessible)) {
+                        shareable.computeIfAbsent(source.uuid(), u -> new ArrayList<>()).add(new int[]{i, j});
+                    }
+                }
+            }
+            sourceNodes.add(capSources);
+        }
+
+        final List<List<RowAccessible>> shared = new ArrayList<>();
+        sources.forEach(s -> shared.add(new ArrayList<>(s)));
+        for (List<int[]> nodes : shareable.values()) {
+            if (nodes.size() < 2) {
+                continue;
+            }
+            final BitSet columns = new BitSet();
+            long fromRow = Long.MAX_VALUE;
+            long toRow = 0;
+            for (int[] n : nodes) {
+                final CapNodeSource node = sourceNodes.get(n[0]).get(n[1]);
+                Arrays.stream(node.cols()).forEach(columns::set);
+                if (node.fromRow() < 0) {
+                    fromRow = -1;
+                } else if (fromRow >= 0) {
+                    fromRow = Math.min(fromRow, node.fromRow());
+                    toRow = Math.max(toRow, node.toRow());
+                }
+            }
+            final RowAccessible table = sources.get(nodes.get(0)[0]).get(nodes.get(0)[1]);
+            final SharedScan scan =
+                new SharedScan(table, columns.stream().toArray(), fromRow, toRow, capacity, maxWait, pipelines);
+            for (int[] n : nodes) {
+                final CapNodeSource node = sourceNodes.get(n[0]).get(n[1]);
+                shared.get(n[0]).set(n[1], scan.follower(n[0], node.fromRow(), node.toRow()));
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Create a follower for a SOURCE node of the given pipeline, reading rows {@code [fromRow, toRow)} (or all rows if
+     * {@code fromRow < 0}) of the source. All followers must be created before any of them is used.
+     *
+     * @param pipeline identifies the pipeline (CAP) of the SOURCE node
+     * @param fromRow first row to read, or {@code -1} to read all rows
+     * @param toRow the row (exclusive) after the last row to read (ignored if {@code fromRow < 0})
+     * @return the follower
+     */
+    RowAccessible follower(final int pipeline, final long fromRow, final long toRow) {
+        final long start = Math.max(0, fromRow) - m_fromRow;
+        final long end = fromRow < 0 ? Long.MAX_VALUE : (toRow - m_fromRow);
+        final Follower follower = new Follower(pipeline, start, end);
+        m_followers.add(follower);
+        m_pipelines.m_followers.add(follower);
+        return follower;
+    }
+
+    /**
+     * Make sure that the row at position {@code position} is buffered, reading rows from the shared cursor, waiting
+     * for slower followers, or detaching {@code follower} as necessary.
+     *
+     * @return the position after the last buffered row (which is {@code > position} if the row is available), or
+     *         {@code -1} if {@code follower} was detached
+     */
+    private long ensure(final Follower follower, final long position) {
+        m_lock.lock();
+        try {
+            long deadline = System.nanoTime() + m_maxWaitNanos;
+            long base = m_base;
+            while (position >= m_base + m_count) {
+                if (m_exhausted) {
+                    return m_base + m_count;
+                }
+                if (m_reading) {
+                    // another follower is reading the next row
+                    m_progress.await();
+                    deadline = System.nanoTime() + m_maxWaitNanos;
+                    continue;
+                }
+                dropRows();
+                if (m_count < m_buffer.length) {
+                    readRow();
+                    continue;
+                }
+                if (m_base != base) {
+                    // the slowest followers made progress
+                    base = m_base;
+                    deadline = System.nanoTime() + m_maxWaitNanos;
+                }
+                final long remaining = m_maxWaitNanos < 0 ? Long.MAX_VALUE : (deadline - System.nanoTime());
+                if (remaining <= 0 || isSlowestInPipeline(follower) || m_pipelines.isDeadlocked(follower)) {
+                    follower.m_detached = true;
+                    m_progress.signalAll();
+                    return -1;
+                }
+                // followers move on without locking, so poll for progress
+                follower.m_waitingFor = position;
+                m_progress.awaitNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(1)));
+            }
+            return m_base + m_count;
+        } catch (InterruptedException e) { // NOSONAR
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shared scan", e);
+        } finally {
+            follower.m_waitingFor = -1;
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Drop buffered rows that all (attached) followers have moved past.
+     */
+    private void dropRows() {
+        final long low = Math.min(lowestPosition(), m_base + m_count);
+        if (low > m_base) {
+            m_count -= (int)(low - m_base);
+            m_base = low;
+            if (m_count == 0 && m_exhausted) {
+                closeCursor();
+            }
+        }
+    }
+
+    /**
+     * @return the lowest position that any attached follower still needs
+     */
+    private long lowestPosition() {
+        long low = Long.MAX_VALUE;
+        for (Follower f : m_followers) {
+            if (!f.m_detached && !f.m_done) {
+                low = Math.min(low, Math.max(f.m_current, f.m_start));
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return whether any of the slowest attached followers (other than {@code follower}) belongs to the same pipeline
+     *         as {@code follower}
+     */
+    private boolean isSlowestInPipeline(final Follower follower) {
+        for (Follower f : m_followers) {
+            if (f != follower && f.m_pipeline == follower.m_pipeline && !f.m_detached && !f.m_done
+                && Math.max(f.m_current, f.m_start) <= m_base) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read the next row from the shared cursor into the buffer. Must be called with the lock held. The lock is
+     * released while the row is read, and other followers wait for {@link #m_reading} to be cleared.
+     */
+    private void readRow() {
+        // The slot after the buffered rows is not accessed by any follower, and doesn't move while m_reading is set
+        // (dropRows() increases m_base by as much as it decreases m_count).
+        final int slot = (int)((m_base + m_count) % m_buffer.length);
+        m_reading = true;
+        boolean forwarded = false;
+        m_lock.unlock();
+        try {
+            forwarded = readRow(slot);
+        } finally {
+            m_lock.lock();
+            m_reading = false;
+            m_progress.signalAll();
+        }
+        if (isUnused()) {
+            // all followers finished while the row was read
+            m_count = 0;
+            closeCursor();
+        } else if (forwarded) {
+            m_count++;
+        } else {
+            m_exhausted = true;
+            if (m_count == 0) {
+                closeCursor();
+            }
+        }
+    }
+
+    /**
+     * Forward the shared cursor, and copy the row into the buffer at {@code slot}. Called without holding the lock.
+     *
+     * @return {@code false} if there are no more rows
+     */
+    private boolean readRow(final int slot) {
+        if (m_cursor == null) {
+            final Selection selection = Selection.all().retainColumns(m_columns);
+            m_cursor = m_source.createCursor(
+                m_toRow < 0 && m_fromRow == 0 ? selection : selection.retainRows(m_fromRow, rowEnd()));
+        }
+        if (!m_cursor.forward()) {
+            return false;
+        }
+        if (m_buffer[slot] == null) {
+            m_buffer[slot] = createRowBuffer();
+        }
+        final ReadAccessRow access = m_cursor.access();
+        for (int c : m_columns) {
+            m_buffer[slot][c].setFrom(access.getAccess(c));
+        }
+        return true;
+    }
+
+    private BufferedAccess[] createRowBuffer() {
+        final ColumnarSchema schema = m_source.getSchema();
+        final BufferedAccess[] row = new BufferedAccess[schema.numColumns()];
+        for (int c : m_columns) {
+            row[c] = BufferedAccesses.createBufferedAccess(schema.getSpec(c));
+        }
+        return row;
+    }
+
+    private long rowEnd() {
+        return m_toRow < 0 ? Long.MAX_VALUE : m_toRow;
+    }
+
+    /**
+     * Called when a follower is done. Close the shared cursor if no follower needs it anymore.
+     */
+    private void release() {
+        m_lock.lock();
+        try {
+            m_progress.signalAll();
+            // if a follower is reading, it closes the cursor when it is done
+            if (!m_reading && isUnused()) {
+                m_count = 0;
+                closeCursor();
+            }
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * @return whether all followers are done or detached
+     */
+    private boolean isUnused() {
+        return m_followers.stream().allMatch(f -> f.m_done || f.m_detached);
+    }
+
+    private void closeCursor() {
+        if (m_cursor != null) {
+            final Cursor<ReadAccessRow> cursor = m_cursor;
+            m_cursor = null;
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        m_exhausted = true;
+    }
+
+    /**
+     * The followers of all shared scans that are executed together, grouped by pipeline. This is used to detect when
+     * pipelines wait for each other in a cycle: For example, if one pipeline reads source {@code A} and then source
+     * {@code B}, and another pipeline reads {@code B} and then {@code A}, both may fill their buffers while waiting for
+     * the follower of the other pipeline that only starts after the current one is done.
+     */
+    static final class Pipelines {
+
+        /**
+         * All followers. This is only modified while the shared scans are created, before any follower is used.
+         */
+        private final List<Follower> m_followers = new ArrayList<>();
+
+        /**
+         * Whether the pipelines are deadlocked if {@code follower} waits: This is the case if all other pipelines that
+         * have followers which are still attached are blocked (see {@link Follower#isBlocked()}).
+         */
+        boolean isDeadlocked(final Follower follower) {
+            final BitSet attached = new BitSet();
+            final BitSet blocked = new BitSet();
+            for (Follower f : m_followers) {
+                if (!f.m_done && !f.m_detached) {
+                    attached.set(f.m_pipeline);
+                }
+                if (f.isBlocked()) {
+                    blocked.set(f.m_pipeline);
+                }
+            }
+            attached.clear(follower.m_pipeline);
+            attached.andNot(blocked);
+            return attached.isEmpty();
+        }
+
+        /**
+         * Called when the given pipeline is closed. Marks its followers as done, including the ones that were never
+         * used (for example, the second input of a CONCATENATE that was closed early), so that they no longer hold
+         * back the shared scans.
+         *
+         * @param pipeline identifies the pipeline (CAP)
+         */
+        void close(final int pipeline) {
+            m_followers.stream().filter(f -> f.m_pipeline == pipeline).forEach(Follower::finish);
+        }
+    }
+
+    /**
+     * Stands in for the source table at one SOURCE node. The first cursor created on a {@code Follower} reads from the
+     * shared scan. Any further cursors (for example after {@code reset()}) read the source directly.
+     */
+    private final class Follower implements RowAccessible {
+
+        private final int m_pipeline;
+
+        /**
+         * The position of the first row of this follower.
+         */
+        private final long m_start;
+
+        /**
+         * The position after the last row of this follower.
+         */
+        private final long m_end;
+
+        /**
+         * The position of the current row of this follower ({@code m_start - 1} before the first row). Written only by
+         * the thread using the follower, read by other followers (while waiting) to find the rows that may be dropped.
+         */
+        private volatile long m_current;
+
+        /**
+         * Whether this follower reads rows with a private cursor (instead of from the shared scan).
+         */
+        private volatile boolean m_detached;
+
+        /**
+         * Whether this follower will not read any more rows.
+         */
+        private volatile boolean m_done;
+
+        /**
+         * The position of the row that this follower is waiting for (because the buffer is full), or {@code -1} if it
+         * is not waiting.
+         */
+        private volatile long m_waitingFor = -1;
+
+        private boolean m_used;
+
+        Follower(final int pipeline, final long start, final long end) {
+            m_pipeline = pipeline;
+            m_start = start;
+            m_end = end;
+            m_current = start - 1;
+        }
+
+        @Override
+        public ColumnarSchema getSchema() {
+            return m_source.getSchema();
+        }
+
+        @Override
+        public Cursor<ReadAccessRow> createCursor() {
+            return createCursor(Selection.all());
+        }
+
+        @Override
+        public Cursor<ReadAccessRow> createCursor(final Selection selection) {
+            if (m_used) {
+                return m_source.createCursor(selection);
+            }
+            m_used = true;
+            return new FollowerCursor(this, selection);
+        }
+
+        @Override
+        public long size() {
+            return m_source.size();
+        }
+
+        @Override
+        public void close() {
+            // the source is owned by the caller
+        }
+
+        /**
+         * Whether this follower is waiting for a row that doesn't fit into the buffer, even if all rows that the
+         * attached followers have moved past are dropped. Such a follower can only continue when the slowest followers
+         * move on.
+         */
+        private boolean isBlocked() {
+            final long position = m_waitingFor;
+            return position >= 0 && position - m_buffer.length >= lowestPosition();
+        }
+
+        /**
+         * Mark this follower as done, so that it no longer holds back the shared scan.
+         */
+        private void finish() {
+            if (!m_done) {
+                m_done = true;
+                release();
+            }
+        }
+    }
+
+    private final class FollowerCursor implements LookaheadCursor<ReadAccessRow> {
+
+        private final Follower m_follower;
+
+        private final Selection m_selection;
+
+        private final DelegatingReadAccess[] m_accesses;
+
+        private final ReadAccessRow m_access;
+
+        /**
+         * The position after the last row that is known to be buffered. Rows at or after the current position of this
+         * follower are not dropped from the buffer, so they can be accessed without locking.
+         */
+        private long m_available;
+
+        private LookaheadCursor<ReadAccessRow> m_detachedCursor;
+
+        FollowerCursor(final Follower follower, final Selection selection) {
+            m_follower = follower;
+            m_selection = selection;
+            final ColumnarSchema schema = m_source.getSchema();
+            m_accesses = new DelegatingReadAccess[schema.numColumns()];
+            for (int c = 0; c < m_accesses.length; c++) {
+                if (selection.columns().isSelected(c)) {
+                    m_accesses[c] = DelegatingReadAccesses.createDelegatingAccess(schema.getSpec(c));
+                }
+            }
+            m_access = new DefaultReadAccessRow(m_accesses.length, c -> m_accesses[c]);
+        }
+
+        @Override
+        public ReadAccessRow access() {
+            return m_access;
+        }
+
+        @Override
+        public boolean forward() {
+            if (m_detachedCursor != null) {
+                return m_detachedCursor.forward();
+            }
+            final long next = m_follower.m_current + 1;
+            if (!isAvailable(next)) {
+                if (m_detachedCursor != null) {
+                    return m_detachedCursor.forward();
+                }
+                finish();
+                return false;
+            }
+            final BufferedAccess[] row = m_buffer[(int)(next % m_buffer.length)];
+            for (int c = 0; c < m_accesses.length; c++) {
+                if (m_accesses[c] != null) {
+                    m_accesses[c].setDelegateAccess(row[c]);
+                }
+            }
+            m_follower.m_current = next;
+            return true;
+        }
+
+        @Override
+        public boolean canForward() {
+            if (m_detachedCursor != null) {
+                return m_detachedCursor.canForward();
+            }
+            if (isAvailable(m_follower.m_current + 1)) {
+                return true;
+            }
+            return m_detachedCursor != null && m_detachedCursor.canForward();
+        }
+
+        /**
+         * Whether the row at {@code position} exists. If this returns {@code false}, either there are no more rows,
+         * or the follower has detached (and {@link #m_detachedCursor} is set).
+         */
+        private boolean isAvailable(final long position) {
+            if (position >= m_follower.m_end || m_follower.m_done) {
+                return false;
+            }
+            if (position < m_available) {
+                return true;
+            }
+            final long available = ensure(m_follower, position);
+            if (available < 0) {
+                detach(position);
+                return false;
+            }
+            m_available = available;
+            return position < available;
+        }
+
+        /**
+         * Continue with a private cursor, starting at {@code position}.
+         */
+        private void detach(final long position) {
+            final long from = m_fromRow + position;
+            final long to = m_follower.m_end == Long.MAX_VALUE ? Long.MAX_VALUE : (m_fromRow + m_follower.m_end);
+            m_detachedCursor = RowAccessibles.toLookahead(m_source).createCursor( //
+                Selection.all().retainColumns(m_selection.columns()).retainRows(from, to));
+            final ReadAccessRow access = m_detachedCursor.access();
+            for (int c = 0; c < m_accesses.length; c++) {
+                if (m_accesses[c] != null) {
+                    m_accesses[c].setDelegateAccess(access.getAccess(c));
+                }
+            }
+            release();
+        }
+
+        private void finish() {
+            m_follower.finish();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            if (m_detachedCursor != null) {
+                m_detachedCursor.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.graph.exec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.WriteAccess;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.virtual.graph.exec.AccessSerializers.AccessReader;
+import org.knime.core.table.virtual.graph.exec.AccessSerializers.AccessWriter;
+
+/**
+ * A temporary file holding a sequence of rows with fixed {@code DataSpec}s.
+ * <p>
+ * Rows are first {@link #write written}. After the first {@link #reader() reader} has been opened, no more rows can
+ * be written. The file is deleted when the {@code SpillFile} is {@link #close() closed}.
+ */
+final class SpillFile implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path m_path;
+
+    private final AccessWriter[] m_writers;
+
+    private final AccessReader[] m_readers;
+
+    private DataOutputStream m_output;
+
+    private long m_numRows;
+
+    SpillFile(final DataSpec[] specs) throws IOException {
+        m_path = Files.createTempFile("knime-table-spill", ".bin");
+        m_writers = new AccessWriter[specs.length];
+        Arrays.setAll(m_writers, i -> AccessSerializers.writer(specs[i]));
+        m_readers = new AccessReader[specs.length];
+        Arrays.setAll(m_readers, i -> AccessSerializers.reader(specs[i]));
+        m_output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(m_path), BUFFER_SIZE));
+    }
+
+    /**
+     * Append the current values of {@code row} to this file.
+     */
+    void write(final ReadAccess[] row) throws IOException {
+        for (int i = 0; i < m_writers.length; i++) {
+            m_writers[i].write(row[i], m_output);
+        }
+        ++m_numRows;
+    }
+
+    /**
+     * @return the number of rows written to this file
+     */
+    long numRows() {
+        return m_numRows;
+    }
+
+    /**
+     * Finish writing (if necessary) and open a new reader that starts at the first row.
+     */
+    Reader reader() throws IOException {
+        finishWriting();
+        return new Reader();
+    }
+
+    /**
+     * Finish writing. After that, no more rows can be written, and readers can be opened concurrently.
+     */
+    void finishWriting() throws IOException {
+        if (m_output != null) {
+            m_output.close();
+            m_output = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finishWriting();
+        } finally {
+            Files.deleteIfExists(m_path);
+        }
+    }
+
+    final class Reader implements Closeable {
+
+        private final DataInputStream m_input;
+
+        private long m_remaining;
+
+        private Reader() throws IOException {
+            m_input = new DataInputStream(new BufferedInputStream(Files.newInputStream(m_path), BUFFER_SIZE));
+            m_remaining = m_numRows;
+        }
+
+        /**
+         * Read the next row into {@code row}.
+         *
+         * @return {@code false} if there are no more rows (and {@code row} was not modified).
+         */
+        boolean read(final WriteAccess[] row) throws IOException {
+            if (m_remaining <= 0) {
+                return false;
+            }
+            for (int i = 0; i < m_readers.length; i++) {
+                m_readers[i].read(m_input, row[i]);
+            }
+            --m_remaining;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            m_input.close();
+        }
+    }
+}
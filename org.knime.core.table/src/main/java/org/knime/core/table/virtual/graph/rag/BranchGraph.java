@@ -62,10 +62,11 @@
 /**
  * Sequentialize a {@link TableTransformGraph} into a tree:
  * <ul>
- * <li>{@link BranchNode Nodes} of the tree are SOURCE, CONCATENATE, and APPEND operations (the only nodes where
- * execution splits into branches).</li>
+ * <li>{@link BranchNode Nodes} of the tree are SOURCE, CONCATENATE, APPEND, SORT, MERGE, TAKE, AGGREGATE, JOIN, and
+ * DISTINCT operations (the only nodes where execution splits into branches, where rows of the predecessor branch are
+ * buffered, or where the predecessor branch is accessed randomly).</li>
  * <li>{@link BranchEdge Edges} between tree nodes contain all other operations (MAP, ROWFILTER, ROWINDEX, SLICE,
- * OBSERVER).</li>
+ * OBSERVER, FLATMAP).</li>
  * </ul>
  */
 public class BranchGraph {
@@ -160,11 +161,11 @@ private Set<AbstractNode> getDependencies(final TableTransformGraph.Port port, f
      * <p>
      * This creates or retrieves all dependencies of {@code node}, recursively.
      * <p>
-     * If {@code node} is SOURCE, APPEND, or CONCATENATE the retrieved {@code AbstractNode} is set as
-     * {@code branchTarget}.
+     * If {@code node} is SOURCE, APPEND, CONCATENATE, SORT, MERGE, TAKE, AGGREGATE, JOIN, or DISTINCT the retrieved
+     * {@code AbstractNode} is set as {@code branchTarget}.
      * <p>
-     * If {@code node} is SLICE, MAP, ROWFILTER, ROWINDEX, or OBSERVER the retrieved {@code AbstractNode} is added to
-     * {@code innerNodes}.
+     * If {@code node} is SLICE, MAP, ROWFILTER, ROWINDEX, OBSERVER, or FLATMAP the retrieved {@code AbstractNode} is
+     * added to {@code innerNodes}.
      *
      * @param node the node for which to create or retrieve the corresponding {@code AbstractNode}
      * @param innerNodes all {@code InnerNode} encountered while walking to the next {@code BranchNode}
@@ -178,7 +179,7 @@ private AbstractNode getDepNode(final TableTransformGraph.Node node, final List<
             return depNode;
         }
         switch (node.type()) {
-            case SOURCE, APPEND, CONCATENATE -> { // NOSONAR
+            case SOURCE, APPEND, CONCATENATE, SORT, MERGE, TAKE, AGGREGATE, JOIN, DISTINCT -> { // NOSONAR
                 final ArrayList<BranchEdge> branches = new ArrayList<>();
                 node.in().forEach(port -> branches.add(getBranch(port)));
                 final BranchNode branchNode = new BranchNode(node, branches);
@@ -186,7 +187,7 @@ private AbstractNode getDepNode(final TableTransformGraph.Node node, final List<
                 m_depNodes.put(node, branchNode);
                 return branchNode;
             }
-            case SLICE, MAP, ROWFILTER, ROWINDEX, OBSERVER -> { // NOSONAR
+            case SLICE, MAP, ROWFILTER, ROWINDEX, OBSERVER, FLATMAP -> { // NOSONAR
                 final TableTransformGraph.Port port = node.in(0);
                 final Set<AbstractNode> dependencies = getDependencies(port, innerNodes, branchTarget);
                 final InnerNode innerNode = new InnerNode(node, dependencies);
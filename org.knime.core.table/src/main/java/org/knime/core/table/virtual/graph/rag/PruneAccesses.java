@@ -48,6 +48,11 @@
  */
 package org.knime.core.table.virtual.graph.rag;
 
+import static org.knime.core.table.virtual.graph.rag.TableTransformGraphProperties.joinInput;
+import static org.knime.core.table.virtual.graph.rag.TableTransformGraphProperties.joinPredecessor;
+import static org.knime.core.table.virtual.graph.rag.TableTransformGraphProperties.numJoinKeys;
+import static org.knime.core.table.virtual.graph.rag.TableTransformGraphProperties.numKeys;
+
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
@@ -87,7 +92,14 @@ private void addRequired(final TableTransformGraph.Node node) {
             switch (node.type()) {
                 case SOURCE, SLICE, ROWINDEX, APPEND, CONCATENATE -> { // NOSONAR
                 }
-                case ROWFILTER, OBSERVER -> node.in(0).accesses().forEach(this::addRequired);
+                case ROWFILTER, OBSERVER, AGGREGATE, FLATMAP -> node.in(0).accesses().forEach(this::addRequired);
+                case SORT, DISTINCT -> node.in(0).accesses().subList(0, numKeys(node)).forEach(this::addRequired);
+                case MERGE -> node.in().forEach( //
+                        port -> port.accesses().subList(0, numKeys(node)).forEach(this::addRequired));
+                case JOIN -> node.in().forEach( //
+                        port -> port.accesses().subList(0, numJoinKeys(node)).forEach(this::addRequired));
+                case TAKE -> node.in().subList(1, node.in().size()).forEach( //
+                        port -> port.accesses().forEach(this::addRequired));
                 default -> throw new IllegalArgumentException();
             }
             node.in().forEach( //
@@ -112,10 +124,21 @@ private void addRequired(final AccessId a) {
                     final int i = node.out().accesses().indexOf(access);
                     node.in().forEach(in -> addRequired(in.access(i)));
                 }
+                case SORT, DISTINCT -> {
+                    final int i = node.out().accesses().indexOf(access);
+                    addRequired(node.in(0).access(numKeys(node) + i));
+                }
+                case TAKE -> addRequired(node.in(0).access(node.out().accesses().indexOf(access)));
+                case MERGE -> {
+                    final int i = numKeys(node) + node.out().accesses().indexOf(access);
+                    node.in().forEach(in -> addRequired(in.access(i)));
+                }
                 case MAP -> {
                     m_requiredNodes.add(node);
                     node.in(0).accesses().forEach(this::addRequired);
                 }
+                case JOIN -> addRequired(joinInput(node, node.out().accesses().indexOf(access)));
+                case AGGREGATE, FLATMAP -> addRequired(node);
                 default -> throw new IllegalArgumentException();
             }
         }
@@ -137,13 +160,34 @@ private boolean pruneAccesses() {
             if (!unused.isEmpty()) {
                 pruned = true;
                 switch (node.type()) {
-                    case SOURCE, MAP, ROWINDEX -> node.out().accesses().removeAll(unused);
+                    case SOURCE, MAP, ROWINDEX, AGGREGATE, FLATMAP -> node.out().accesses().removeAll(unused);
                     case APPEND -> unused.forEach(access -> AppendAccesses.find(access).remove());
                     case CONCATENATE -> unused.forEach(access -> {
                         final int i = node.out().accesses().indexOf(access);
                         node.out().accesses().remove(i);
                         node.in().forEach(in -> in.accesses().remove(i));
                     });
+                    case SORT, DISTINCT -> unused.forEach(access -> {
+                        final int i = node.out().accesses().indexOf(access);
+                        node.out().accesses().remove(i);
+                        node.in(0).accesses().remove(numKeys(node) + i);
+                    });
+                    case TAKE -> unused.forEach(access -> {
+                        final int i = node.out().accesses().indexOf(access);
+                        node.out().accesses().remove(i);
+                        node.in(0).accesses().remove(i);
+                    });
+                    case MERGE -> unused.forEach(access -> {
+                        final int i = node.out().accesses().indexOf(access);
+                        node.out().accesses().remove(i);
+                        node.in().forEach(in -> in.accesses().remove(numKeys(node) + i));
+                    });
+                    case JOIN -> unused.forEach(access -> {
+                        final int i = node.out().accesses().indexOf(access);
+                        final AccessId input = joinInput(node, i);
+                        node.out().accesses().remove(i);
+                        node.in(joinPredecessor(node, i)).accesses().remove(input);
+                    });
                     default -> throw new IllegalArgumentException();
                 }
             }
@@ -48,18 +48,26 @@
  */
 package org.knime.core.table.virtual.graph.rag;
 
+import org.knime.core.table.virtual.spec.AggregateTransformSpec;
 import org.knime.core.table.virtual.spec.AppendMapTransformSpec;
 import org.knime.core.table.virtual.spec.AppendMissingValuesTransformSpec;
 import org.knime.core.table.virtual.spec.AppendTransformSpec;
 import org.knime.core.table.virtual.spec.ConcatenateTransformSpec;
+import org.knime.core.table.virtual.spec.DistinctTransformSpec;
+import org.knime.core.table.virtual.spec.ExchangeTransformSpec;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec;
+import org.knime.core.table.virtual.spec.JoinTransformSpec;
 import org.knime.core.table.virtual.spec.MapTransformSpec;
+import org.knime.core.table.virtual.spec.MergeSortedTransformSpec;
 import org.knime.core.table.virtual.spec.ObserverTransformSpec;
 import org.knime.core.table.virtual.spec.RowFilterTransformSpec;
 import org.knime.core.table.virtual.spec.RowIndexTransformSpec;
 import org.knime.core.table.virtual.spec.SelectColumnsTransformSpec;
 import org.knime.core.table.virtual.spec.SliceTransformSpec;
+import org.knime.core.table.virtual.spec.SortTransformSpec;
 import org.knime.core.table.virtual.spec.SourceTransformSpec;
 import org.knime.core.table.virtual.spec.TableTransformSpec;
+import org.knime.core.table.virtual.spec.TakeTransformSpec;
 
 public enum SpecType {
     SOURCE, //
@@ -72,7 +80,14 @@ public enum SpecType {
     MAP, //
     ROWFILTER, //
     ROWINDEX, //
-    OBSERVER;
+    OBSERVER, //
+    SORT, //
+    MERGE, //
+    TAKE, //
+    AGGREGATE, //
+    JOIN, //
+    DISTINCT, //
+    FLATMAP;
 
     public static SpecType forSpec(final TableTransformSpec spec) { // NOSONAR This method is not too complex...
         if (spec instanceof SourceTransformSpec) {
@@ -97,6 +112,22 @@ public static SpecType forSpec(final TableTransformSpec spec) { // NOSONAR This
             return ROWINDEX;
         } else if (spec instanceof ObserverTransformSpec) {
             return OBSERVER;
+        } else if (spec instanceof SortTransformSpec) {
+            return SORT;
+        } else if (spec instanceof MergeSortedTransformSpec) {
+            return MERGE;
+        } else if (spec instanceof TakeTransformSpec) {
+            return TAKE;
+        } else if (spec instanceof AggregateTransformSpec) {
+            return AGGREGATE;
+        } else if (spec instanceof JoinTransformSpec) {
+            return JOIN;
+        } else if (spec instanceof DistinctTransformSpec) {
+            return DISTINCT;
+        } else if (spec instanceof FlatMapTransformSpec) {
+            return FLATMAP;
+        } else if (spec instanceof ExchangeTransformSpec) {
+            throw new IllegalArgumentException("TableTransformSpec " + spec + ": exchange must be the last transform");
         } else {
             throw new IllegalArgumentException("TableTransformSpec " + spec + ": spec type not handled (yet)");
         }
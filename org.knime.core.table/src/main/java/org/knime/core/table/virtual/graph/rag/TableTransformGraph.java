@@ -54,6 +54,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.IntFunction;
 import java.util.function.IntUnaryOperator;
@@ -61,12 +62,18 @@
 import org.knime.core.table.schema.ColumnarSchema;
 import org.knime.core.table.virtual.TableTransform;
 import org.knime.core.table.virtual.graph.rag.prettyprint.DependencyGraph;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec;
 import org.knime.core.table.virtual.spec.AppendMapTransformSpec;
 import org.knime.core.table.virtual.spec.AppendMissingValuesTransformSpec;
+import org.knime.core.table.virtual.spec.DistinctTransformSpec;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec;
+import org.knime.core.table.virtual.spec.JoinTransformSpec;
 import org.knime.core.table.virtual.spec.MapTransformSpec;
+import org.knime.core.table.virtual.spec.MergeSortedTransformSpec;
 import org.knime.core.table.virtual.spec.ObserverTransformSpec;
 import org.knime.core.table.virtual.spec.RowFilterTransformSpec;
 import org.knime.core.table.virtual.spec.SelectColumnsTransformSpec;
+import org.knime.core.table.virtual.spec.SortTransformSpec;
 import org.knime.core.table.virtual.spec.SourceTableProperties.CursorType;
 import org.knime.core.table.virtual.spec.SourceTransformSpec;
 import org.knime.core.table.virtual.spec.TableTransformSpec;
@@ -81,8 +88,24 @@ public class TableTransformGraph {
      * <p>
      * Every {@code Node} has exactly one {@link Node#out() out} port.
      * <p>
-     * Every {@code Node} has exactly one {@link Node#in() in} port, except SOURCE which has none, and
-     * APPEND/CONCATENATE which have one or more.
+     * Every {@code Node} has exactly one {@link Node#in() in} port, except SOURCE which has none,
+     * APPEND/CONCATENATE/MERGE which have one or more, JOIN which has two, and TAKE which has one or two.
+     * <p>
+     * The in port of a SORT (or DISTINCT) node contains the sort (or distinct) key accesses, followed by one access for
+     * each column of the predecessor. (The latter are forwarded to the outputs of the node).
+     * <p>
+     * A MERGE node has one in port for each predecessor. Like for SORT, each contains the key accesses of the
+     * respective predecessor, followed by one access for each column of the predecessor.
+     * <p>
+     * The in port of an AGGREGATE node contains the group column accesses, followed by the accesses of the aggregated
+     * columns (see {@link AggregateTransformSpec#getColumnSelection()}).
+     * <p>
+     * A JOIN node has two in ports, for the left and the right table. Each contains the key accesses of the
+     * respective table, followed by one access for each column of the respective predecessor. (The latter are
+     * forwarded to the outputs of the JOIN node, first those of the left table, then those of the right table.)
+     * <p>
+     * The first in port of a TAKE node contains one access for each column of the table to gather rows from. If the
+     * row indices are read from an index table, the second in port contains the access of the index column.
      *
      * @param owner the node which this port belongs to (as in or out port)
      * @param accesses the input or output accesses (depending on whether this is an in or out port)
@@ -201,7 +224,8 @@ public String toString() {
     public static class Node {
 
         // ids are just for printing ...
-        private static int nextNodeId = 1;
+        // (atomic, because graphs are copied concurrently when creating cursors from several threads)
+        private static final AtomicInteger nextNodeId = new AtomicInteger(1);
         private final int m_id;
 
         private final TableTransformSpec m_spec;
@@ -215,8 +239,7 @@ public static class Node {
          */
         Node(final TableTransformSpec spec) {
 
-            m_id = nextNodeId;
-            ++nextNodeId;
+            m_id = nextNodeId.getAndIncrement();
 
             m_spec = spec;
             m_type = SpecType.forSpec(spec);
@@ -226,8 +249,7 @@ public static class Node {
         private Node(final TableTransformSpec spec, final int numOutputs,
             final List<TableTransformGraph> predecessors) {
 
-            m_id = nextNodeId;
-            ++nextNodeId;
+            m_id = nextNodeId.getAndIncrement();
 
             m_spec = spec;
             m_type = SpecType.forSpec(spec);
@@ -236,8 +258,9 @@ private Node(final TableTransformSpec spec, final int numOutputs,
                 final TableTransformGraph predecessor = predecessors.get(p);
                 final int numInputs = switch (m_type) {
                     case SOURCE, SLICE, ROWINDEX -> 0;
-                    case MAP, ROWFILTER, OBSERVER -> getColumnSelection(spec).length;
-                    case APPEND, CONCATENATE -> predecessor.numColumns();
+                    case MAP, ROWFILTER, OBSERVER, AGGREGATE, FLATMAP -> getColumnSelection(spec).length;
+                    case APPEND, CONCATENATE, TAKE -> predecessor.numColumns();
+                    case SORT, MERGE, JOIN, DISTINCT -> getKeyColumns(spec, p).length + predecessor.numColumns();
                     case COLSELECT, APPENDMAP, APPENDMISSING -> throw new IllegalArgumentException();
                 };
 
@@ -247,10 +270,16 @@ private Node(final TableTransformSpec spec, final int numOutputs,
                 // access tracing:
                 // link inputs to predecessor outCols
                 switch (m_type) { // NOSONAR "switch" statement is more readable here than "if"
-                    case MAP, ROWFILTER -> {
+                    case MAP, ROWFILTER, OBSERVER, AGGREGATE, FLATMAP -> {
                         final int[] selection = getColumnSelection(spec);
                         unionAccesses(inPort, predecessor.m_terminal, numInputs, i -> selection[i]);
                     }
+                    case SORT, MERGE, JOIN, DISTINCT -> {
+                        // the first inputs are the keys, followed by all predecessor outCols
+                        final int[] selection = getKeyColumns(spec, p);
+                        unionAccesses(inPort, predecessor.m_terminal, selection.length, i -> selection[i]);
+                        unionAccesses(inPort, selection.length, predecessor.m_terminal, 0, predecessor.numColumns());
+                    }
                     default -> unionAccesses(inPort, predecessor.m_terminal, numInputs);
                 }
 
@@ -270,7 +299,8 @@ private Node(final TableTransformSpec spec, final int numOutputs,
                             predecessorEdge.relinkFrom(inPort);
                         }
                     }
-                    case SLICE, ROWINDEX, APPEND, CONCATENATE, OBSERVER -> {
+                    case SLICE, ROWINDEX, APPEND, CONCATENATE, OBSERVER, SORT, MERGE, TAKE, AGGREGATE, JOIN,
+                        DISTINCT, FLATMAP -> {
                         // re-link the predecessor controlFlowEdges to this Node
                         predecessor.m_terminal.forEachControlFlowEdge(e -> e.relinkFrom(inPort));
                     }
@@ -347,15 +377,21 @@ public TableTransformGraph(final TableTransform tableTransform) {
             case MAP -> ((MapTransformSpec)spec).getMapperFactory().getOutputSchema().numColumns();
             case APPENDMAP -> ((AppendMapTransformSpec)spec).getMapperFactory().getOutputSchema().numColumns();
             case APPENDMISSING -> ((AppendMissingValuesTransformSpec)spec).getAppendedSchema().numColumns();
+            case FLATMAP -> ((FlatMapTransformSpec)spec).getFlatMapperFactory().getOutputSchema().numColumns();
             case ROWINDEX -> 1;
-            case APPEND -> predecessors.stream().mapToInt(TableTransformGraph::numColumns).sum();
-            case CONCATENATE -> predecessors.get(0).numColumns();
+            case APPEND, JOIN -> predecessors.stream().mapToInt(TableTransformGraph::numColumns).sum();
+            case CONCATENATE, SORT, MERGE, TAKE, DISTINCT -> predecessors.get(0).numColumns();
+            case AGGREGATE -> {
+                final AggregateTransformSpec aggregate = (AggregateTransformSpec)spec;
+                final int numWindowColumns = aggregate.isWindowed() ? 1 : 0;
+                yield aggregate.getGroupColumns().length + aggregate.getAggregations().size() + numWindowColumns;
+            }
             case SLICE, ROWFILTER, COLSELECT, OBSERVER -> 0;
         };
 
         final int numColumns = switch (type) {
-            case SOURCE, MAP, CONCATENATE, APPEND -> numOutputs;
-            case APPENDMAP, APPENDMISSING, ROWINDEX, SLICE, ROWFILTER, OBSERVER -> //
+            case SOURCE, MAP, CONCATENATE, APPEND, SORT, MERGE, TAKE, AGGREGATE, JOIN, DISTINCT -> numOutputs;
+            case APPENDMAP, APPENDMISSING, ROWINDEX, FLATMAP, SLICE, ROWFILTER, OBSERVER -> //
                     numOutputs + predecessors.get(0).numColumns();
             case COLSELECT -> getColumnSelection(spec).length;
         };
@@ -377,7 +413,7 @@ public TableTransformGraph(final TableTransform tableTransform) {
         // access tracing:
         final Port predecessorTerminal = predecessors.isEmpty() ? null : predecessors.get(0).m_terminal;
         switch (type) {
-            case SOURCE, MAP, APPEND, CONCATENATE -> {
+            case SOURCE, MAP, APPEND, CONCATENATE, SORT, MERGE, TAKE, AGGREGATE, JOIN, DISTINCT -> {
                 // link outCols to node's outputs
                 unionAccesses(m_terminal, node.m_out, numColumns); // NOSONAR node cannot be null here
             }
@@ -386,7 +422,7 @@ public TableTransformGraph(final TableTransform tableTransform) {
                 // (there is exactly one predecessor)
                 unionAccesses(m_terminal, predecessorTerminal, numColumns);
             }
-            case APPENDMAP, APPENDMISSING, ROWINDEX -> {
+            case APPENDMAP, APPENDMISSING, ROWINDEX, FLATMAP -> {
                 // pass through the predecessor's outCols
                 // (there is exactly one predecessor)
                 unionAccesses(m_terminal, predecessorTerminal, numColumns - numOutputs);
@@ -403,7 +439,8 @@ public TableTransformGraph(final TableTransform tableTransform) {
 
         // control flow:
         switch (type) {
-            case SOURCE, SLICE, ROWINDEX, APPEND, CONCATENATE, OBSERVER -> {
+            case SOURCE, SLICE, ROWINDEX, APPEND, CONCATENATE, OBSERVER, SORT, MERGE, TAKE, AGGREGATE, JOIN,
+                DISTINCT, FLATMAP -> {
                 // link to the new node.
                 //
                 // NB: Everything link from the predecessorTerminal has already
@@ -504,6 +541,10 @@ public TableTransformGraph append(final TableTransformSpec spec) {
 
     /**
      * Make an independent copy of this {@code TableTransformGraph}.
+     * <p>
+     * Every {@code AccessId} of the copy is its own union-find representative. Therefore, copying the copy again does
+     * not modify it (in contrast to {@link AccessId#find()} path compression on the original), so the copy can be
+     * copied by several threads concurrently.
      */
     public TableTransformGraph copy() {
         return new TableTransformGraph(new Copier().copyInPort(m_terminal, null));
@@ -571,6 +612,23 @@ private static int[] getColumnSelection(final TableTransformSpec spec) {
             case ROWFILTER -> ((RowFilterTransformSpec)spec).getColumnSelection();
             case COLSELECT -> ((SelectColumnsTransformSpec)spec).getColumnSelection();
             case OBSERVER -> ((ObserverTransformSpec)spec).getColumnSelection();
+            case SORT -> ((SortTransformSpec)spec).getColumnSelection();
+            case AGGREGATE -> ((AggregateTransformSpec)spec).getColumnSelection();
+            case FLATMAP -> ((FlatMapTransformSpec)spec).getColumnSelection();
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    /**
+     * Get the key columns of a SORT, MERGE, JOIN, or DISTINCT spec. For JOIN, {@code predecessor} selects the left
+     * ({@code 0}) or right ({@code 1}) key columns.
+     */
+    private static int[] getKeyColumns(final TableTransformSpec spec, final int predecessor) {
+        return switch (SpecType.forSpec(spec)) {
+            case SORT -> ((SortTransformSpec)spec).getColumnSelection();
+            case MERGE -> ((MergeSortedTransformSpec)spec).getColumnSelection();
+            case JOIN -> ((JoinTransformSpec)spec).getKeys(predecessor);
+            case DISTINCT -> ((DistinctTransformSpec)spec).getColumnSelection();
             default -> throw new IllegalArgumentException();
         };
     }
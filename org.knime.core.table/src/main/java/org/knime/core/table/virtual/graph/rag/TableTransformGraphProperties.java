@@ -52,19 +52,35 @@
 import static org.knime.core.table.virtual.spec.SourceTableProperties.CursorType.LOOKAHEAD;
 import static org.knime.core.table.virtual.spec.SourceTableProperties.CursorType.RANDOMACCESS;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.LongBinaryOperator;
+import java.util.stream.IntStream;
 
+import org.knime.core.table.row.Selection.RowRangeSelection;
 import org.knime.core.table.schema.ColumnarSchema;
 import org.knime.core.table.schema.DataSpecs;
 import org.knime.core.table.schema.DataSpecs.DataSpecWithTraits;
 import org.knime.core.table.virtual.graph.rag.TableTransformGraph.Node;
 import org.knime.core.table.virtual.graph.rag.TableTransformGraph.Port;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.AggregateFunction;
+import org.knime.core.table.virtual.spec.AggregateTransformSpec.Aggregation;
+import org.knime.core.table.virtual.spec.DistinctTransformSpec;
+import org.knime.core.table.virtual.spec.FlatMapTransformSpec;
+import org.knime.core.table.virtual.spec.JoinTransformSpec;
+import org.knime.core.table.virtual.spec.JoinTransformSpec.JoinType;
 import org.knime.core.table.virtual.spec.MapTransformSpec;
+import org.knime.core.table.virtual.spec.MergeSortedTransformSpec;
 import org.knime.core.table.virtual.spec.SliceTransformSpec;
+import org.knime.core.table.virtual.spec.SortTransformSpec;
+import org.knime.core.table.virtual.spec.SourceTableProperties;
 import org.knime.core.table.virtual.spec.SourceTableProperties.CursorType;
 import org.knime.core.table.virtual.spec.SourceTransformSpec;
+import org.knime.core.table.virtual.spec.TakeTransformSpec;
 
 public final class TableTransformGraphProperties {
 
@@ -75,7 +91,7 @@ public static long numRows(final Port port) {
     private static long numRows(final Node node) {
         return switch (node.type()) {
             case SOURCE -> node.<SourceTransformSpec>getTransformSpec().numRows();
-            case ROWFILTER -> -1;
+            case ROWFILTER, JOIN, DISTINCT, FLATMAP -> -1;
             case SLICE -> { // NOSONAR
                 final SliceTransformSpec spec = node.getTransformSpec();
                 final long from = spec.getRowRangeSelection().fromIndex();
@@ -87,10 +103,32 @@ private static long numRows(final Node node) {
                 // If any predecessor doesn't know its size, the size of this node is also unknown.
                 // Otherwise, the size of this node is max of its predecessors.
                 accPredecessorNumRows(node, Math::max);
-            case CONCATENATE ->
+            case SORT -> { // NOSONAR
+                final SortTransformSpec spec = node.getTransformSpec();
+                final long s = accPredecessorNumRows(node, Math::max);
+                yield s < 0 || !spec.hasLimit() ? s : Math.min(s, spec.getLimit());
+            }
+            case AGGREGATE -> { // NOSONAR
+                // Without group columns, there is exactly one group (per window).
+                // Otherwise, the number of groups is unknown.
+                final AggregateTransformSpec spec = node.getTransformSpec();
+                if (spec.getGroupColumns().length != 0) {
+                    yield -1;
+                } else if (!spec.isWindowed()) {
+                    yield 1;
+                }
+                final long s = accPredecessorNumRows(node, Math::max);
+                yield s < 0 ? s : spec.getWindow().numWindows(s);
+            }
+            case CONCATENATE, MERGE ->
                 // If any predecessor doesn't know its size, the size of this node is also unknown.
                 // Otherwise, the size of this is the sum of its predecessors.
                 accPredecessorNumRows(node, Long::sum);
+            case TAKE -> { // NOSONAR
+                // One row per row index.
+                final TakeTransformSpec spec = node.getTransformSpec();
+                yield spec.hasIndexTable() ? numRows(node.in(1)) : spec.numRowIndices();
+            }
             case COLSELECT, MAP, APPENDMAP, APPENDMISSING -> throw new IllegalArgumentException(
                 "Unexpected SpecType: " + node.type());
         };
@@ -117,10 +155,19 @@ static CursorType supportedCursorType(final TableTransformGraph graph) {
         return supportedCursorType(graph.terminal().controlFlowTarget(0));
     }
 
+    /**
+     * @param port an in port or the terminal of a {@code TableTransformGraph}
+     * @return the cursor type supported for the rows arriving at {@code port}
+     */
+    public static CursorType supportedCursorType(final Port port) {
+        return supportedCursorType(port.controlFlowTarget(0));
+    }
+
     private static CursorType supportedCursorType(final Node node) { //NOSONAR This method is not too complex
         return switch (node.type()) {
             case SOURCE -> node.<SourceTransformSpec>getTransformSpec().getProperties().cursorType();
-            case ROWFILTER -> BASIC;
+            // These produce an unknown number of rows for each input row.
+            case ROWFILTER, JOIN, DISTINCT, FLATMAP -> BASIC;
             case SLICE, APPEND, ROWINDEX, OBSERVER -> { // NOSONAR
                 var cursorType = RANDOMACCESS;
                 for (Port port : node.in()) {
@@ -148,6 +195,34 @@ private static CursorType supportedCursorType(final Node node) { //NOSONAR This
                 }
                 yield cursorType;
             }
+            case SORT -> { // NOSONAR
+                // The sorted rows are materialized, so we can always look ahead.
+                // If all rows fit into memory, we can also provide random access.
+                final SortTransformSpec spec = node.getTransformSpec();
+                final long numRows = numRows(node);
+                yield numRows >= 0 && numRows <= spec.getMaxBufferedRows() ? RANDOMACCESS : LOOKAHEAD;
+            }
+            case MERGE -> { // NOSONAR
+                // We can look ahead if all predecessors can look ahead.
+                // (The next row is the smallest next row of any predecessor.)
+                var cursorType = LOOKAHEAD;
+                for (Port port : node.in()) {
+                    cursorType = min(cursorType, supportedCursorType(port.controlFlowTarget(0)));
+                }
+                yield cursorType;
+            }
+            case TAKE -> { // NOSONAR
+                // Rows are gathered by random access to the first predecessor.
+                // If the row indices are given as an array, we can provide
+                // random access. Otherwise, we support what the index table
+                // supports.
+                final TakeTransformSpec spec = node.getTransformSpec();
+                if (supportedCursorType(node.in(0).controlFlowTarget(0)) != RANDOMACCESS) {
+                    yield BASIC;
+                }
+                yield spec.hasIndexTable() ? supportedCursorType(node.in(1).controlFlowTarget(0)) : RANDOMACCESS;
+            }
+            case AGGREGATE -> LOOKAHEAD; // The aggregated rows are materialized, so we can always look ahead.
             case COLSELECT, MAP, APPENDMAP, APPENDMISSING -> throw new IllegalArgumentException(
                 "Unexpected SpecType: " + node.type());
         };
@@ -178,7 +253,7 @@ private static DataSpecWithTraits getSpecWithTraits(final AccessId access) {
                 yield spec.getSchema().getSpecWithTraits(producer.index());
             }
             case APPEND -> getSpecWithTraits(TableTransformUtil.AppendAccesses.find(access).input());
-            case CONCATENATE -> {
+            case CONCATENATE, TAKE -> {
                 final int i = node.out().accesses().indexOf(access.find());
                 yield getSpecWithTraits(node.in(0).access(i));
             }
@@ -187,10 +262,396 @@ private static DataSpecWithTraits getSpecWithTraits(final AccessId access) {
                 yield spec.getMapperFactory().getOutputSchema().getSpecWithTraits(producer.index());
             }
             case ROWINDEX -> DataSpecs.LONG;
+            case FLATMAP -> {
+                final FlatMapTransformSpec spec = node.getTransformSpec();
+                yield spec.getFlatMapperFactory().getOutputSchema().getSpecWithTraits(producer.index());
+            }
+            case SORT, MERGE, DISTINCT -> {
+                final int i = node.out().accesses().indexOf(access.find());
+                yield getSpecWithTraits(node.in(0).access(numKeys(node) + i));
+            }
+            case JOIN -> getSpecWithTraits(joinInput(node, node.out().accesses().indexOf(access.find())));
+            case AGGREGATE -> {
+                final AggregateTransformSpec spec = node.getTransformSpec();
+                final int numGroupColumns = spec.getGroupColumns().length;
+                final int i = producer.index();
+                if (i < numGroupColumns) {
+                    yield getSpecWithTraits(node.in(0).access(i));
+                } else if (i >= numGroupColumns + spec.getAggregations().size()) {
+                    yield DataSpecs.LONG; // window start
+                }
+                final Aggregation aggregation = spec.getAggregations().get(i - numGroupColumns);
+                final int input = spec.getAggregationInputs()[i - numGroupColumns];
+                yield aggregation.function().resultSpec(input < 0 ? null : getSpecWithTraits(node.in(0).access(input)));
+            }
+            default -> throw new IllegalArgumentException("unexpected node type " + node.type());
+        };
+    }
+
+    /**
+     * A key of a {@link #sortOrder(Port) sort order}: rows are sorted by the values of {@code access}, in
+     * {@code ascending} or descending order.
+     *
+     * @param access the (representative) {@code AccessId} of the key column
+     * @param ascending whether the key column is sorted in ascending order
+     */
+    public record SortKey(AccessId access, boolean ascending) {
+    }
+
+    /**
+     * Returns the order by which the rows arriving at the given {@code port} are known to be sorted. The first
+     * {@code SortKey} has highest precedence, ties are broken by the second {@code SortKey}, and so on.
+     * <p>
+     * The sort order is established by SORT and MERGE nodes and sorted SOURCE nodes (see
+     * {@link SourceTableProperties#getSortColumns()}), and preserved by nodes that only remove rows (SLICE, ROWFILTER,
+     * and DISTINCT if its input is clustered by the distinct key), don't change rows (ROWINDEX, OBSERVER, MAP), or
+     * replace each row by consecutive rows with the same forwarded values (FLATMAP). The returned list is empty if the
+     * rows are not known to be sorted.
+     *
+     * @param port an in port or the terminal of a {@code TableTransformGraph}
+     * @return the sort order of the rows arriving at {@code port}
+     */
+    public static List<SortKey> sortOrder(final Port port) {
+        return sortOrder(port.controlFlowTarget(0));
+    }
+
+    static List<SortKey> sortOrder(final Node node) {
+        return switch (node.type()) {
+            case SOURCE -> { // NOSONAR
+                // Keys are recorded in terms of the SOURCE outputs. If a key
+                // column is not read, the remaining keys are not useful.
+                final SourceTableProperties properties =
+                    node.<SourceTransformSpec>getTransformSpec().getProperties();
+                final int[] columns = properties.getSortColumns();
+                final boolean[] ascending = properties.getSortAscending();
+                final List<SortKey> keys = new ArrayList<>(columns.length);
+                for (int k = 0; k < columns.length; k++) {
+                    final int column = columns[k];
+                    final AccessId output = node.out().accesses().stream() //
+                        .filter(a -> a.producer().index() == column) //
+                        .findFirst().orElse(null);
+                    if (output == null) {
+                        break;
+                    }
+                    keys.add(new SortKey(output.find(), ascending[k]));
+                }
+                yield keys;
+            }
+            case SORT, MERGE -> { // NOSONAR
+                // Keys are recorded in terms of the SORT (or MERGE) outputs,
+                // because that is how downstream nodes refer to the sorted
+                // columns. If a key column is not forwarded to the outputs,
+                // the remaining keys are not useful downstream.
+                final boolean[] ascending = node.type() == SpecType.SORT //
+                    ? node.<SortTransformSpec>getTransformSpec().getAscending() //
+                    : node.<MergeSortedTransformSpec>getTransformSpec().getAscending();
+                final List<AccessId> inputs = node.in(0).accesses();
+                final List<AccessId> outputs = node.out().accesses();
+                final int numKeys = ascending.length;
+                final List<SortKey> keys = new ArrayList<>(numKeys);
+                for (int k = 0; k < numKeys; k++) {
+                    final AccessId key = inputs.get(k).find();
+                    int j = 0;
+                    while (j < outputs.size() && inputs.get(numKeys + j).find() != key) {
+                        ++j;
+                    }
+                    if (j == outputs.size()) {
+                        break;
+                    }
+                    keys.add(new SortKey(outputs.get(j).find(), ascending[k]));
+                }
+                yield keys;
+            }
+            case DISTINCT -> { // NOSONAR
+                // Map the keys of the predecessor order to the DISTINCT
+                // outputs, up to the first key that is not forwarded.
+                // Only a DISTINCT on clustered input keeps the input order.
+                // Otherwise, it may spill rows, which then come after all
+                // rows that were not spilled.
+                final int numKeys = numKeys(node);
+                final List<AccessId> inputs = node.in(0).accesses();
+                if (!isClusteredBy(node.in(0), inputs.subList(0, numKeys))) {
+                    yield List.of();
+                }
+                final List<AccessId> outputs = node.out().accesses();
+                final List<SortKey> keys = new ArrayList<>();
+                for (SortKey key : sortOrder(node.in(0))) {
+                    int j = 0;
+                    while (j < outputs.size() && inputs.get(numKeys + j).find() != key.access()) {
+                        ++j;
+                    }
+                    if (j == outputs.size()) {
+                        break;
+                    }
+                    keys.add(new SortKey(outputs.get(j).find(), key.ascending()));
+                }
+                yield keys;
+            }
+            case SLICE, ROWFILTER, ROWINDEX, OBSERVER, FLATMAP -> sortOrder(node.in(0).controlFlowTarget(0));
+            default -> List.of();
+        };
+    }
+
+    /**
+     * The in port of a SORT or DISTINCT node (and each in port of a MERGE node) starts with the key accesses, followed
+     * by the accesses that are forwarded to the node outputs.
+     */
+    static int numKeys(final Node node) {
+        return switch (node.type()) {
+            case SORT -> node.<SortTransformSpec>getTransformSpec().getColumnSelection().length;
+            case MERGE -> node.<MergeSortedTransformSpec>getTransformSpec().getColumnSelection().length;
+            case DISTINCT -> node.<DistinctTransformSpec>getTransformSpec().getColumnSelection().length;
             default -> throw new IllegalArgumentException("unexpected node type " + node.type());
         };
     }
 
+    /**
+     * Returns whether the rows arriving at the given {@code port} are known to be sorted such that rows with equal
+     * values in the given {@code columns} are adjacent. This is the case if the first {@code columns.size()} keys of
+     * the {@link #sortOrder(Port) sort order} are exactly the given {@code columns} (in any order and direction).
+     *
+     * @param port an in port or the terminal of a {@code TableTransformGraph}
+     * @param columns accesses arriving at {@code port}
+     * @return {@code true} if equal values in {@code columns} are known to be adjacent
+     */
+    public static boolean isClusteredBy(final Port port, final List<AccessId> columns) {
+        final List<SortKey> order = sortOrder(port);
+        final Set<AccessId> keys = new HashSet<>();
+        columns.forEach(a -> keys.add(a.find()));
+        if (order.size() < keys.size()) {
+            return false;
+        }
+        for (int k = 0; k < keys.size(); k++) {
+            if (!keys.contains(order.get(k).access())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the rows arriving at the given {@code port} are known to be distinct with respect to the given
+     * {@code columns}, i.e., no two rows have the same values in all of these {@code columns}. This is the case if the
+     * {@code columns} contain a distinct key that is established by a DISTINCT node, a distinct SOURCE (see
+     * {@link SourceTableProperties#getDistinctColumns()}), the group columns of an AGGREGATE node, or a ROWINDEX, and
+     * preserved by nodes that only remove or reorder rows (SLICE, ROWFILTER, OBSERVER, SORT, DISTINCT).
+     *
+     * @param port an in port or the terminal of a {@code TableTransformGraph}
+     * @param columns accesses arriving at {@code port}
+     * @return {@code true} if the rows are known to be distinct with respect to {@code columns}
+     */
+    public static boolean isDistinctBy(final Port port, final List<AccessId> columns) {
+        final Set<AccessId> accesses = new HashSet<>();
+        columns.forEach(a -> accesses.add(a.find()));
+        return distinctKeys(port.controlFlowTarget(0)).stream().anyMatch(accesses::containsAll);
+    }
+
+    /**
+     * Returns the known distinct keys of the rows produced by {@code node}. For each key, no two rows have the same
+     * values in all of the key accesses.
+     */
+    private static List<Set<AccessId>> distinctKeys(final Node node) { // NOSONAR
+        return switch (node.type()) {
+            case SOURCE -> { // NOSONAR
+                // If a key column is not read, the key is not useful downstream.
+                final int[] columns = node.<SourceTransformSpec>getTransformSpec().getProperties().getDistinctColumns();
+                final Set<AccessId> key = columns == null ? null : outputsByIndex(node, columns);
+                yield key == null ? List.of() : List.of(key);
+            }
+            case DISTINCT -> { // NOSONAR
+                // The DISTINCT key, and the keys of the predecessor, mapped
+                // to the DISTINCT outputs.
+                final List<Set<AccessId>> keys = new ArrayList<>();
+                final Set<AccessId> key = new HashSet<>();
+                for (int k = 0; k < numKeys(node); k++) {
+                    key.add(node.in(0).access(k).find());
+                }
+                addForwardedKey(node, key, keys);
+                distinctKeys(node.in(0).controlFlowTarget(0)).forEach(k -> addForwardedKey(node, k, keys));
+                yield keys;
+            }
+            case SORT -> { // NOSONAR
+                final List<Set<AccessId>> keys = new ArrayList<>();
+                distinctKeys(node.in(0).controlFlowTarget(0)).forEach(k -> addForwardedKey(node, k, keys));
+                yield keys;
+            }
+            case AGGREGATE -> { // NOSONAR
+                // The group columns (and the window start) are distinct.
+                final AggregateTransformSpec spec = node.getTransformSpec();
+                final int numGroupColumns = spec.getGroupColumns().length;
+                final int[] columns = IntStream.range(0, numGroupColumns + (spec.isWindowed() ? 1 : 0)) //
+                    .map(i -> i < numGroupColumns ? i : numGroupColumns + spec.getAggregations().size()) //
+                    .toArray();
+                final Set<AccessId> key = outputsByIndex(node, columns);
+                yield key == null ? List.of() : List.of(key);
+            }
+            case ROWINDEX -> { // NOSONAR
+                final List<Set<AccessId>> keys = new ArrayList<>(distinctKeys(node.in(0).controlFlowTarget(0)));
+                node.out().accesses().forEach(a -> keys.add(Set.of(a.find())));
+                yield keys;
+            }
+            case SLICE, ROWFILTER, OBSERVER -> distinctKeys(node.in(0).controlFlowTarget(0));
+            default -> List.of();
+        };
+    }
+
+    /**
+     * Get the (representative) output accesses of {@code node} with the given producer indices, or {@code null} if
+     * any of them is not an output of {@code node}.
+     */
+    private static Set<AccessId> outputsByIndex(final Node node, final int[] indices) {
+        final Set<AccessId> accesses = new HashSet<>();
+        for (int index : indices) {
+            final AccessId output = node.out().accesses().stream() //
+                .filter(a -> a.producer().index() == index) //
+                .findFirst().orElse(null);
+            if (output == null) {
+                return null;
+            }
+            accesses.add(output.find());
+        }
+        return accesses;
+    }
+
+    /**
+     * Map the input accesses {@code key} of the given SORT or DISTINCT node to the corresponding outputs, and add the
+     * result to {@code keys}. Nothing is added if any access of {@code key} is not forwarded to the outputs.
+     */
+    private static void addForwardedKey(final Node node, final Set<AccessId> key, final List<Set<AccessId>> keys) {
+        final int numKeys = numKeys(node);
+        final List<AccessId> inputs = node.in(0).accesses();
+        final List<AccessId> outputs = node.out().accesses();
+        final Set<AccessId> forwarded = new HashSet<>();
+        for (int j = 0; j < outputs.size(); j++) {
+            if (key.contains(inputs.get(numKeys + j).find())) {
+                forwarded.add(outputs.get(j).find());
+            }
+        }
+        if (forwarded.size() == key.size()) {
+            keys.add(forwarded);
+        }
+    }
+
+    /**
+     * Returns whether the given {@code access} is known to never have a missing value. This is the case for
+     * {@link SourceTableProperties#getNonMissingColumns() non-missing SOURCE columns}, row indices, counts, and window
+     * starts. It is preserved by nodes that forward accesses, unless they introduce missing values for unmatched rows
+     * (outer JOINs, APPENDs of tables with different numbers of rows).
+     *
+     * @param access an access in a {@code TableTransformGraph}
+     * @return {@code true} if the {@code access} never has a missing value
+     */
+    public static boolean isNonMissing(final AccessId access) { // NOSONAR
+        final AccessId.Producer producer = access.find().producer();
+        final Node node = producer.node();
+        return switch (node.type()) {
+            case SOURCE -> { // NOSONAR
+                final SourceTableProperties properties =
+                    node.<SourceTransformSpec>getTransformSpec().getProperties();
+                yield IntStream.of(properties.getNonMissingColumns()).anyMatch(c -> c == producer.index());
+            }
+            case APPEND -> { // NOSONAR
+                final TableTransformUtil.AppendAccesses append = TableTransformUtil.AppendAccesses.find(access);
+                final long n = numRows(append.inPort());
+                yield n >= 0 && n == numRows(node) && isNonMissing(append.input());
+            }
+            case CONCATENATE -> { // NOSONAR
+                final int i = node.out().accesses().indexOf(access.find());
+                yield node.in().stream().allMatch(port -> isNonMissing(port.access(i)));
+            }
+            case SORT, DISTINCT -> { // NOSONAR
+                final int i = node.out().accesses().indexOf(access.find());
+                yield isNonMissing(node.in(0).access(numKeys(node) + i));
+            }
+            case TAKE -> { // NOSONAR
+                final int i = node.out().accesses().indexOf(access.find());
+                yield isNonMissing(node.in(0).access(i));
+            }
+            case MERGE -> { // NOSONAR
+                final int i = numKeys(node) + node.out().accesses().indexOf(access.find());
+                yield node.in().stream().allMatch(port -> isNonMissing(port.access(i)));
+            }
+            case JOIN -> { // NOSONAR
+                // Outer joins introduce missing values for the columns of the other side.
+                final int i = node.out().accesses().indexOf(access.find());
+                final JoinType joinType = node.<JoinTransformSpec>getTransformSpec().getJoinType();
+                final boolean padded = joinPredecessor(node, i) == 0 ? joinType.isRightOuter() : joinType.isLeftOuter();
+                yield !padded && isNonMissing(joinInput(node, i));
+            }
+            case AGGREGATE -> { // NOSONAR
+                final AggregateTransformSpec spec = node.getTransformSpec();
+                final int numGroupColumns = spec.getGroupColumns().length;
+                final int i = producer.index();
+                if (i < numGroupColumns) {
+                    yield isNonMissing(node.in(0).access(i));
+                } else if (i >= numGroupColumns + spec.getAggregations().size()) {
+                    yield true; // window start
+                }
+                yield spec.getAggregations().get(i - numGroupColumns).function() == AggregateFunction.COUNT;
+            }
+            case ROWINDEX -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Returns whether the rows arriving at the given {@code port} are a never-ending stream. This is the case if they
+     * originate from an {@link SourceTableProperties#isUnbounded() unbounded} SOURCE and are not cut off by a SLICE.
+     *
+     * @param port an in port or the terminal of a {@code TableTransformGraph}
+     * @return {@code true} if the rows arriving at {@code port} are unbounded
+     */
+    public static boolean isUnbounded(final Port port) {
+        return isUnbounded(port.controlFlowTarget(0));
+    }
+
+    private static boolean isUnbounded(final Node node) {
+        return switch (node.type()) {
+            case SOURCE -> { // NOSONAR
+                final SourceTransformSpec spec = node.getTransformSpec();
+                yield spec.getProperties().isUnbounded() && !isBounded(spec.getRowRange());
+            }
+            case SLICE -> !isBounded(node.<SliceTransformSpec>getTransformSpec().getRowRangeSelection())
+                && isUnbounded(node.in(0));
+            case TAKE -> node.in().size() > 1 && isUnbounded(node.in(1));
+            default -> node.in().stream().anyMatch(TableTransformGraphProperties::isUnbounded);
+        };
+    }
+
+    private static boolean isBounded(final RowRangeSelection range) {
+        return !range.allSelected() && range.toIndex() < Long.MAX_VALUE;
+    }
+
+    /**
+     * The in ports of a JOIN node start with the key accesses, followed by the accesses that are forwarded to the
+     * JOIN outputs (see {@link #joinInput(Node, int)}).
+     */
+    static int numJoinKeys(final Node join) {
+        return join.<JoinTransformSpec>getTransformSpec().getLeftKeys().length;
+    }
+
+    /**
+     * Get the in port of the given JOIN node that provides the input which is forwarded to output {@code i}. The
+     * outputs forwarded from the left in port come first, followed by those forwarded from the right in port.
+     *
+     * @return {@code 0} (left) or {@code 1} (right)
+     */
+    static int joinPredecessor(final Node join, final int i) {
+        final int numLeftOutputs = join.in(0).accesses().size() - numJoinKeys(join);
+        return i < numLeftOutputs ? 0 : 1;
+    }
+
+    /**
+     * Get the input access of the given JOIN node that is forwarded to output {@code i}.
+     */
+    static AccessId joinInput(final Node join, final int i) {
+        final int numKeys = numJoinKeys(join);
+        final int numLeftOutputs = join.in(0).accesses().size() - numKeys;
+        return i < numLeftOutputs //
+            ? join.in(0).access(numKeys + i) //
+            : join.in(1).access(numKeys + i - numLeftOutputs);
+    }
+
     private TableTransformGraphProperties() {
         // no instances, just static utility methods
     }
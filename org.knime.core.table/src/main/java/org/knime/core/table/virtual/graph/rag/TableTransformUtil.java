@@ -50,15 +50,29 @@
 
 import static org.knime.core.table.virtual.graph.rag.SpecType.APPEND;
 import static org.knime.core.table.virtual.graph.rag.SpecType.CONCATENATE;
+import static org.knime.core.table.virtual.graph.rag.SpecType.DISTINCT;
 import static org.knime.core.table.virtual.graph.rag.SpecType.ROWFILTER;
 import static org.knime.core.table.virtual.graph.rag.SpecType.ROWINDEX;
 import static org.knime.core.table.virtual.graph.rag.SpecType.SLICE;
+import static org.knime.core.table.virtual.graph.rag.SpecType.SORT;
+import static org.knime.core.table.virtual.graph.rag.SpecType.SOURCE;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.cursor.RandomAccessCursor;
+import org.knime.core.table.row.RandomRowAccessible;
+import org.knime.core.table.row.ReadAccessRow;
+import org.knime.core.table.row.RowAccessible;
 import org.knime.core.table.row.Selection;
 import org.knime.core.table.row.Selection.RowRangeSelection;
 import org.knime.core.table.virtual.graph.debug.VirtualTableDebugging;
@@ -67,11 +81,16 @@
 import org.knime.core.table.virtual.graph.rag.TableTransformGraph.ControlFlowEdge;
 import org.knime.core.table.virtual.graph.rag.TableTransformGraph.Node;
 import org.knime.core.table.virtual.graph.rag.TableTransformGraph.Port;
+import org.knime.core.table.virtual.graph.rag.TableTransformGraphProperties.SortKey;
+import org.knime.core.table.virtual.spec.RowFilterTransformSpec;
+import org.knime.core.table.virtual.spec.RowFilterTransformSpec.RangeFilterFactory;
 import org.knime.core.table.virtual.spec.RowIndexTransformSpec;
 import org.knime.core.table.virtual.spec.SelectColumnsTransformSpec;
 import org.knime.core.table.virtual.spec.SliceTransformSpec;
+import org.knime.core.table.virtual.spec.SortTransformSpec;
 import org.knime.core.table.virtual.spec.SourceTransformSpec;
 import org.knime.core.table.virtual.spec.TableTransformSpec;
+import org.knime.core.table.virtual.spec.TakeTransformSpec;
 
 public class TableTransformUtil { // TODO (TP) rename
 
@@ -130,6 +149,14 @@ else if (mergeRowIndexSequences(nodes)) {
                 logger.appendGraph("mergeRowIndexSequences", "(optimize step)", graph);
                 changed = true;
             }
+            else if (eliminateRedundantSorts(nodes)) {
+                logger.appendGraph("eliminateRedundantSorts", "(optimize step)", graph);
+                changed = true;
+            }
+            else if (eliminateRedundantDistincts(nodes)) {
+                logger.appendGraph("eliminateRedundantDistincts", "(optimize step)", graph);
+                changed = true;
+            }
         }
     }
 
@@ -230,6 +257,8 @@ private static boolean tryMergeSlice(final Node slice) {
         return switch (predecessor.type()) {
             case SOURCE -> mergeSliceToSource(slice);
             case SLICE -> mergeSliceToSlice(slice);
+            case SORT -> mergeSliceToSort(slice);
+            case TAKE -> mergeSliceToTake(slice);
             default -> false;
         };
     }
@@ -282,6 +311,81 @@ private static boolean mergeSliceToSlice(final Node slice) {
         return true;
     }
 
+    /**
+     * A SLICE {@code [from, to)} directly after a SORT only needs the first {@code to} sorted rows. Replace the SORT by
+     * a SORT with {@code limit = to}. (The SLICE remains in place.)
+     */
+    private static boolean mergeSliceToSort(final Node slice) {
+        final Node sort = slice.in(0).controlFlowTarget(0);
+
+        // the SORT must not have other successors that need more rows
+        if (sort.out().controlFlowEdges().size() != 1) {
+            return false;
+        }
+
+        final SortTransformSpec sortSpec = sort.getTransformSpec();
+        final RowRangeSelection sliceRange = slice.<SliceTransformSpec>getTransformSpec().getRowRangeSelection();
+        if (sliceRange.allSelected()) {
+            return false;
+        }
+        final long limit = sliceRange.toIndex();
+        if (sortSpec.hasLimit() && sortSpec.getLimit() <= limit) {
+            return false;
+        }
+
+        // create new SORT Node with limit
+        final SortTransformSpec limitedSpec = new SortTransformSpec(sortSpec.getColumnSelection(),
+            sortSpec.getAscending(), sortSpec.getMaxBufferedRows(), limit);
+        final Node limited = new Node(limitedSpec);
+        limited.in().add(new Port(limited, sort.in(0).accesses()));
+        sort.in(0).forEachControlFlowEdge(edge -> edge.relinkFrom(limited.in(0)));
+        sort.out().accesses().forEach(access -> {
+            final int i = access.producer().index();
+            final String label = "delta^" + i + "_v" + limited.id();
+            final AccessId output = new AccessId(new Producer(limited, i), label);
+            access.union(output);
+            limited.out().accesses().add(output);
+        });
+        sort.out().forEachControlFlowEdge(edge -> edge.relinkTo(limited.out()));
+        return true;
+    }
+
+    /**
+     * A SLICE {@code [from, to)} directly after a TAKE with given row indices only needs the row indices in
+     * {@code [from, to)}. Replace the TAKE and the SLICE by a TAKE of these row indices.
+     */
+    private static boolean mergeSliceToTake(final Node slice) {
+        final Node take = slice.in(0).controlFlowTarget(0);
+
+        // the TAKE must not have other successors that need more rows
+        if (take.out().controlFlowEdges().size() != 1) {
+            return false;
+        }
+
+        final TakeTransformSpec takeSpec = take.getTransformSpec();
+        final RowRangeSelection sliceRange = slice.<SliceTransformSpec>getTransformSpec().getRowRangeSelection();
+        if (takeSpec.hasIndexTable() || sliceRange.allSelected()) {
+            return false;
+        }
+        final long[] rows = takeSpec.getRowIndices();
+        final int from = (int)Math.min(sliceRange.fromIndex(), rows.length);
+        final int to = (int)Math.min(sliceRange.toIndex(), rows.length);
+
+        // create new TAKE Node with the sliced row indices
+        final Node sliced = new Node(new TakeTransformSpec(Arrays.copyOfRange(rows, from, to)));
+        sliced.in().add(new Port(sliced, take.in(0).accesses()));
+        take.in(0).forEachControlFlowEdge(edge -> edge.relinkFrom(sliced.in(0)));
+        take.out().accesses().forEach(access -> {
+            final int i = access.producer().index();
+            final String label = "delta^" + i + "_v" + sliced.id();
+            final AccessId output = new AccessId(new Producer(sliced, i), label);
+            access.union(output);
+            sliced.out().accesses().add(output);
+        });
+        slice.out().forEachControlFlowEdge(edge -> edge.relinkTo(sliced.out()));
+        return true;
+    }
+
 
     // --------------------------------------------------------------------
     // moveSlices()
@@ -436,12 +540,20 @@ public static boolean eliminateSingletonConcatenates(final List<Node> nodes) {
     }
 
     private static void eliminate(final Node node) {
+        eliminate(node, 0);
+    }
+
+    /**
+     * Eliminate a node with exactly one input port. The {@code i}-th output access of the node is replaced by the
+     * {@code (inputOffset + i)}-th input access.
+     */
+    private static void eliminate(final Node node, final int inputOffset) {
         if (node.in().size() != 1) {
             throw new IllegalArgumentException("node must have exactly one input port");
         }
 
         // union output accesses to input accesses
-        unionAccesses(node.out(), node.in(0));
+        unionAccesses(node.out(), node.in(0), inputOffset);
 
         // relink controlFlowEdges
         //
@@ -475,10 +587,10 @@ private static void eliminate(final Node node) {
         node.out().forEachControlFlowEdge(edge -> edge.relinkTo(relinkTarget));
     }
 
-    private static void unionAccesses(final Port from, final Port to) {
+    private static void unionAccesses(final Port from, final Port to, final int toOffset) {
         final int n = from.accesses().size();
         for (int i = 0; i < n; i++) {
-            from.access(i).union(to.access(i));
+            from.access(i).union(to.access(toOffset + i));
         }
     }
 
@@ -527,5 +639,216 @@ private static boolean tryMergeRowIndexSequence(final Node rowIndex) {
         return false;
     }
 
+
+    // --------------------------------------------------------------------
+    // eliminateRedundantSorts()
+
+    /**
+     * Eliminate a SORT node if its input is already sorted by the SORT keys (or a finer order that has the SORT keys
+     * as a prefix). If the SORT has a limit, it is replaced by a SLICE.
+     *
+     * @param nodes all nodes of the graph
+     * @return {@code true} if a SORT node was eliminated
+     */
+    public static boolean eliminateRedundantSorts(final List<Node> nodes) {
+        for (Node node : nodes) {
+            if (node.type() == SORT && isRedundantSort(node)) {
+                final SortTransformSpec spec = node.getTransformSpec();
+                if (spec.hasLimit()) {
+                    // insert a SLICE after the SORT before eliminating it
+                    final Node slice = new Node(new SliceTransformSpec(0, spec.getLimit()));
+                    slice.in().add(new Port(slice));
+                    node.out().forEachControlFlowEdge(edge -> edge.relinkTo(slice.out()));
+                    slice.in(0).linkTo(node);
+                }
+                eliminate(node, TableTransformGraphProperties.numKeys(node));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRedundantSort(final Node sort) {
+        final List<SortKey> order = TableTransformGraphProperties.sortOrder(sort.in(0));
+        final boolean[] ascending = sort.<SortTransformSpec>getTransformSpec().getAscending();
+        if (order.size() < ascending.length) {
+            return false;
+        }
+        for (int k = 0; k < ascending.length; k++) {
+            final SortKey key = order.get(k);
+            if (key.access() != sort.in(0).access(k).find() || key.ascending() != ascending[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    // --------------------------------------------------------------------
+    // eliminateRedundantDistincts()
+
+    /**
+     * Eliminate a DISTINCT node if its input is already known to be distinct with respect to the DISTINCT keys.
+     *
+     * @param nodes all nodes of the graph
+     * @return {@code true} if a DISTINCT node was eliminated
+     */
+    public static boolean eliminateRedundantDistincts(final List<Node> nodes) {
+        for (Node node : nodes) {
+            if (node.type() == DISTINCT && isRedundantDistinct(node)) {
+                eliminate(node, TableTransformGraphProperties.numKeys(node));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRedundantDistinct(final Node distinct) {
+        final int numKeys = TableTransformGraphProperties.numKeys(distinct);
+        final List<AccessId> keys = distinct.in(0).accesses().subList(0, numKeys);
+        return TableTransformGraphProperties.isDistinctBy(distinct.in(0), keys);
+    }
+
+
+    // --------------------------------------------------------------------
+    // rangeFiltersToSlices()
+
+    /**
+     * Replace ROWFILTERs with a {@link RangeFilterFactory range filter} on the first sort column of a sorted SOURCE
+     * by a SLICE of the rows in the range, if the source table is a {@link RandomRowAccessible}. The boundaries of the
+     * range are found by binary search on the source table.
+     * <p>
+     * This depends on the actual source tables, so it is not part of {@link #optimize}. The given {@code graph} is not
+     * modified. If any ROWFILTER was replaced, an optimized copy is returned (so that the SLICEs are merged into the
+     * SOURCE row ranges, where possible).
+     *
+     * @param graph an optimized TableTransformGraph
+     * @param sources the source tables
+     * @return a copy of {@code graph} with range filters replaced, or {@code graph} itself if there were none
+     */
+    public static TableTransformGraph rangeFiltersToSlices(final TableTransformGraph graph,
+        final Map<UUID, RowAccessible> sources) {
+        if (nodes(graph).stream().noneMatch(node -> isSliceableRangeFilter(node, sources))) {
+            return graph;
+        }
+        final TableTransformGraph copy = graph.copy();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Node node : nodes(copy)) {
+                if (isSliceableRangeFilter(node, sources)) {
+                    rangeFilterToSlice(node, (RandomRowAccessible)sources.get(sourceIdentifier(node)));
+                    optimize(copy);
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return copy;
+    }
+
+    private static boolean isSliceableRangeFilter(final Node node, final Map<UUID, RowAccessible> sources) {
+        if (node.type() != ROWFILTER
+            || !(node.<RowFilterTransformSpec>getTransformSpec().getFilterFactory() instanceof RangeFilterFactory)) {
+            return false;
+        }
+        final Node source = node.in(0).controlFlowTarget(0);
+        if (source.type() != SOURCE || !(sources.get(sourceIdentifier(node)) instanceof RandomRowAccessible table)
+            || table.size() < 0) {
+            return false;
+        }
+        final List<SortKey> order = TableTransformGraphProperties.sortOrder(node.in(0));
+        return !order.isEmpty() && order.get(0).access() == node.in(0).access(0).find();
+    }
+
+    /**
+     * @return the source identifier of the SOURCE preceding the given ROWFILTER
+     */
+    private static UUID sourceIdentifier(final Node filter) {
+        return filter.in(0).controlFlowTarget(0).<SourceTransformSpec>getTransformSpec().getSourceIdentifier();
+    }
+
+    private static void rangeFilterToSlice(final Node filter, final RandomRowAccessible table) {
+        final Node source = filter.in(0).controlFlowTarget(0);
+        final SourceTransformSpec sourceSpec = source.getTransformSpec();
+        final RangeFilterFactory range =
+            (RangeFilterFactory)filter.<RowFilterTransformSpec>getTransformSpec().getFilterFactory();
+        final AccessId input = filter.in(0).access(0).find();
+        final int column = source.out().accesses().stream() //
+            .filter(a -> a.find() == input) //
+            .findFirst().orElseThrow().producer().index();
+        final boolean ascending = TableTransformGraphProperties.sortOrder(filter.in(0)).get(0).ascending();
+
+        // the rows of the source table that are provided by the SOURCE node
+        final RowRangeSelection rows = sourceSpec.getRowRange();
+        final long from = rows.allSelected() ? 0 : rows.fromIndex();
+        final long to = rows.allSelected() ? table.size() : Math.min(rows.toIndex(), table.size());
+
+        // binary search for the first row in the range and the first row after the range
+        final long first;
+        final long last;
+        try (RandomAccessCursor<ReadAccessRow> cursor = table.createCursor(Selection.all().retainColumns(column))) {
+            final ReadAccess access = cursor.access().getAccess(column);
+            final IntSupplier comparison = range.createRangeComparison(access);
+            // Where the current row is relative to the rows in the range:
+            // negative if before, zero if in, positive if after.
+            // Missing values come last in ascending order, first in descending order.
+            // The range comparison is the one used by the filter itself, so the
+            // slice contains exactly the rows that the filter would accept.
+            final IntSupplier position = () -> {
+                if (access.isMissing()) {
+                    return ascending ? 1 : -1;
+                }
+                final int c = comparison.getAsInt();
+                return ascending ? c : -c;
+            };
+            first = search(cursor, position, 0, from, to);
+            last = search(cursor, position, 1, first, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // insert a SLICE after the SOURCE
+        final Node slice = new Node(new SliceTransformSpec(first - from, last - from));
+        slice.in().add(new Port(slice));
+        source.out().forEachControlFlowEdge(edge -> edge.relinkTo(slice.out()));
+        slice.in(0).linkTo(source);
+
+        // remove the ROWFILTER
+        //
+        // Nodes that link to the ROWFILTER and to other ROWFILTERs keep
+        // linking to those (which now link to the SLICE). Otherwise, they
+        // are re-linked to the SLICE.
+        filter.in(0).forEachControlFlowEdge(ControlFlowEdge::remove);
+        filter.out().forEachControlFlowEdge(edge -> {
+            final boolean linksToOtherFilters = edge.from().controlFlowEdges().stream() //
+                .anyMatch(e -> e != edge && e.to().owner().type() == ROWFILTER);
+            if (linksToOtherFilters) {
+                edge.remove();
+            } else {
+                edge.relinkTo(slice.out());
+            }
+        });
+    }
+
+    /**
+     * Find the first row in {@code [from, to)} where {@code position} is {@code >= threshold}, or {@code to} if
+     * there is none. {@code position} must be non-decreasing over the rows.
+     */
+    private static long search(final RandomAccessCursor<ReadAccessRow> cursor, final IntSupplier position,
+        final int threshold, final long from, final long to) {
+        long lo = from;
+        long hi = to;
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            cursor.moveTo(mid);
+            if (position.getAsInt() >= threshold) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
 }
 
@@ -0,0 +1,421 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.spec;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.knime.core.table.schema.ByteDataSpec;
+import org.knime.core.table.schema.ColumnarSchema;
+import org.knime.core.table.schema.DataSpec;
+import org.knime.core.table.schema.DataSpecs;
+import org.knime.core.table.schema.DataSpecs.DataSpecWithTraits;
+import org.knime.core.table.schema.DoubleDataSpec;
+import org.knime.core.table.schema.FloatDataSpec;
+import org.knime.core.table.schema.IntDataSpec;
+import org.knime.core.table.schema.LongDataSpec;
+
+/**
+ * Group the rows of a table by the values in zero or more group columns, and compute aggregates (count, sum, ...) of
+ * other columns for each group.
+ * <p>
+ * The resulting table has one row per distinct combination of group column values. Its columns are the group columns
+ * followed by one column per {@link Aggregation}. Missing values in group columns form their own group. Missing
+ * values in aggregated columns are ignored. If there are no group columns, the resulting table has exactly one row
+ * (even if the input table is empty). Otherwise, the order of the groups is unspecified.
+ * <p>
+ * Aggregation is a blocking operation. Up to {@link #getMaxGroups()} groups are aggregated in memory. If the input has
+ * more groups, partial aggregates are spilled to temporary files (partitioned by the hash of the group columns), and
+ * the partitions are merged when the aggregated table is read.
+ * <p>
+ * With a {@link Window}, the rows are aggregated separately for each window of consecutive rows, and the aggregated
+ * rows of a window are produced as soon as the last row of the window has been read. This makes windowed aggregation
+ * applicable to {@link SourceTableProperties#isUnbounded() unbounded} tables. The resulting table has an additional
+ * {@code LONG} column (after the aggregations) that holds the index of the first row of the window. The windows are
+ * produced in order of their first row. (Within a window, the order of the groups is unspecified.)
+ */
+public final class AggregateTransformSpec implements TableTransformSpec {
+
+    /**
+     * The default number of groups that are aggregated in memory before partial aggregates are spilled to disk.
+     */
+    public static final long DEFAULT_MAX_GROUPS = 1 << 20;
+
+    /**
+     * Aggregate functions.
+     */
+    public enum AggregateFunction {
+        /**
+         * The number of non-missing values. (Or the number of rows, see {@link Aggregation#countRows()}.) The
+         * result is a {@code LONG} column.
+         */
+        COUNT,
+
+        /**
+         * The sum of the non-missing values of a numeric column. The result is a {@code LONG} column for integral
+         * inputs ({@code BYTE}, {@code INT}, {@code LONG}), and a {@code DOUBLE} column for floating point inputs
+         * ({@code FLOAT}, {@code DOUBLE}). The sum is missing if a group has no non-missing values.
+         */
+        SUM,
+
+        /**
+         * The minimum of the non-missing values of a numeric column. The result has the same type as the input.
+         */
+        MIN,
+
+        /**
+         * The maximum of the non-missing values of a numeric column. The result has the same type as the input.
+         */
+        MAX,
+
+        /**
+         * The arithmetic mean of the non-missing values of a numeric column. The result is a {@code DOUBLE}
+         * column.
+         */
+        MEAN;
+
+        /**
+         * Get the type of the aggregated column, if this function is applied to an {@code input} column.
+         *
+         * @param input the type of the input column, or {@code null} if the function is applied to rows (only
+         *            {@code COUNT})
+         * @return the type of the aggregated column
+         * @throws IllegalArgumentException if this function cannot be applied to {@code input}
+         */
+        public DataSpecWithTraits resultSpec(final DataSpecWithTraits input) {
+            if (this == COUNT) {
+                return DataSpecs.LONG;
+            }
+            if (input == null || !isNumeric(input.spec())) {
+                throw new IllegalArgumentException(this + " can only be applied to numeric columns");
+            }
+            return switch (this) {
+                case SUM -> isIntegral(input.spec()) ? DataSpecs.LONG : DataSpecs.DOUBLE;
+                case MIN, MAX -> input;
+                default -> DataSpecs.DOUBLE;
+            };
+        }
+
+        /**
+         * @return {@code true} if {@code spec} is {@code BYTE}, {@code INT}, or {@code LONG}
+         */
+        public static boolean isIntegral(final DataSpec spec) {
+            return spec instanceof ByteDataSpec || spec instanceof IntDataSpec || spec instanceof LongDataSpec;
+        }
+
+        /**
+         * @return {@code true} if {@code spec} is {@code BYTE}, {@code INT}, {@code LONG}, {@code FLOAT}, or
+         *         {@code DOUBLE}
+         */
+        public static boolean isNumeric(final DataSpec spec) {
+            return isIntegral(spec) || spec instanceof FloatDataSpec || spec instanceof DoubleDataSpec;
+        }
+    }
+
+    /**
+     * A window of consecutive rows to aggregate. The {@code i}-th window comprises the {@code size} rows starting at
+     * row index {@code i * step}. There is a window for every start index up to the last row of the input, that is,
+     * the windows at the end of a bounded input may be incomplete.
+     * <p>
+     * Windows with {@code step == size} are <em>tumbling</em> windows: every row is in exactly one window. Windows
+     * with {@code step < size} are <em>sliding</em> windows: every row is in up to {@code ceil(size / step)} windows.
+     *
+     * @param size the number of rows in a window
+     * @param step the number of rows between the first rows of consecutive windows
+     */
+    public record Window(long size, long step) {
+
+        public Window {
+            if (size < 1 || step < 1) {
+                throw new IllegalArgumentException("window size and step must be positive");
+            }
+        }
+
+        /**
+         * @return tumbling windows of {@code size} rows
+         */
+        public static Window tumbling(final long size) {
+            return new Window(size, size);
+        }
+
+        /**
+         * @return sliding windows of {@code size} rows, starting every {@code step} rows
+         */
+        public static Window sliding(final long size, final long step) {
+            return new Window(size, step);
+        }
+
+        /**
+         * @param numRows number of input rows
+         * @return the number of windows for an input with {@code numRows} rows
+         */
+        public long numWindows(final long numRows) {
+            return numRows <= 0 ? 0 : (numRows - 1) / step + 1;
+        }
+
+        @Override
+        public String toString() {
+            return "window(size=" + size + ", step=" + step + ")";
+        }
+    }
+
+    /**
+     * An {@code AggregateFunction} applied to a column.
+     *
+     * @param function the aggregate function
+     * @param column index of the aggregated column, or {@code -1} to count rows
+     */
+    public record Aggregation(AggregateFunction function, int column) {
+
+        public Aggregation {
+            Objects.requireNonNull(function);
+            if (column < 0 && (column != -1 || function != AggregateFunction.COUNT)) {
+                throw new IllegalArgumentException("invalid column index " + column + " for " + function);
+            }
+        }
+
+        /**
+         * @return an {@code Aggregation} that counts the rows of each group
+         */
+        public static Aggregation countRows() {
+            return new Aggregation(AggregateFunction.COUNT, -1);
+        }
+
+        /**
+         * @return an {@code Aggregation} that counts the non-missing values of {@code column}
+         */
+        public static Aggregation count(final int column) {
+            return new Aggregation(AggregateFunction.COUNT, column);
+        }
+
+        /**
+         * @return an {@code Aggregation} that sums the values of {@code column}
+         */
+        public static Aggregation sum(final int column) {
+            return new Aggregation(AggregateFunction.SUM, column);
+        }
+
+        /**
+         * @return an {@code Aggregation} that computes the minimum of {@code column}
+         */
+        public static Aggregation min(final int column) {
+            return new Aggregation(AggregateFunction.MIN, column);
+        }
+
+        /**
+         * @return an {@code Aggregation} that computes the maximum of {@code column}
+         */
+        public static Aggregation max(final int column) {
+            return new Aggregation(AggregateFunction.MAX, column);
+        }
+
+        /**
+         * @return an {@code Aggregation} that computes the mean of {@code column}
+         */
+        public static Aggregation mean(final int column) {
+            return new Aggregation(AggregateFunction.MEAN, column);
+        }
+
+        @Override
+        public String toString() {
+            return function + "(" + (column < 0 ? "*" : column) + ")";
+        }
+    }
+
+    private final int[] m_groupColumns;
+
+    private final List<Aggregation> m_aggregations;
+
+    private final long m_maxGroups;
+
+    private final Window m_window;
+
+    /**
+     * @param groupColumns indices of the columns to group by
+     * @param aggregations the aggregates to compute for each group
+     */
+    public AggregateTransformSpec(final int[] groupColumns, final List<Aggregation> aggregations) {
+        this(groupColumns, aggregations, DEFAULT_MAX_GROUPS);
+    }
+
+    /**
+     * @param groupColumns indices of the columns to group by
+     * @param aggregations the aggregates to compute for each group
+     * @param maxGroups maximum number of groups to aggregate in memory before spilling partial aggregates to disk
+     */
+    public AggregateTransformSpec(final int[] groupColumns, final List<Aggregation> aggregations,
+        final long maxGroups) {
+        this(groupColumns, aggregations, maxGroups, null);
+    }
+
+    /**
+     * @param groupColumns indices of the columns to group by
+     * @param aggregations the aggregates to compute for each group
+     * @param maxGroups maximum number of groups to aggregate in memory before spilling partial aggregates to disk
+     * @param window the windows of rows to aggregate separately, or {@code null} to aggregate all rows
+     */
+    public AggregateTransformSpec(final int[] groupColumns, final List<Aggregation> aggregations,
+        final long maxGroups, final Window window) {
+        if (maxGroups < 1) {
+            throw new IllegalArgumentException("maxGroups must be positive");
+        }
+        m_groupColumns = groupColumns.clone();
+        m_aggregations = List.copyOf(aggregations);
+        m_maxGroups = maxGroups;
+        m_window = window;
+    }
+
+    /**
+     * @return The indices of the group columns.
+     */
+    public int[] getGroupColumns() {
+        return m_groupColumns.clone();
+    }
+
+    /**
+     * @return The aggregates computed for each group.
+     */
+    public List<Aggregation> getAggregations() {
+        return m_aggregations;
+    }
+
+    /**
+     * @return The maximum number of groups that are aggregated in memory before spilling partial aggregates to disk.
+     */
+    public long getMaxGroups() {
+        return m_maxGroups;
+    }
+
+    /**
+     * @return The windows of rows that are aggregated separately, or {@code null} if all rows are aggregated together.
+     */
+    public Window getWindow() {
+        return m_window;
+    }
+
+    /**
+     * @return Whether rows are aggregated in {@link #getWindow() windows}.
+     */
+    public boolean isWindowed() {
+        return m_window != null;
+    }
+
+    /**
+     * Get the indices of the input columns of this transform: the group columns, followed by the columns of the
+     * aggregations (in order, skipping {@link Aggregation#countRows() row counts}).
+     *
+     * @return the input column indices
+     */
+    public int[] getColumnSelection() {
+        final int[] aggregated = m_aggregations.stream().mapToInt(Aggregation::column).filter(c -> c >= 0).toArray();
+        final int[] selection = Arrays.copyOf(m_groupColumns, m_groupColumns.length + aggregated.length);
+        System.arraycopy(aggregated, 0, selection, m_groupColumns.length, aggregated.length);
+        return selection;
+    }
+
+    /**
+     * Get, for each aggregation, the index of its input in the {@link #getColumnSelection() column selection}, or
+     * {@code -1} if the aggregation has no input column.
+     *
+     * @return indices into the column selection
+     */
+    public int[] getAggregationInputs() {
+        final int[] inputs = new int[m_aggregations.size()];
+        int j = m_groupColumns.length;
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = m_aggregations.get(i).column() < 0 ? -1 : j++;
+        }
+        return inputs;
+    }
+
+    /**
+     * Get the schema of the aggregated table, given the schema of the input table.
+     *
+     * @param inputSchema schema of the input table
+     * @return schema of the aggregated table
+     * @throws IllegalArgumentException if an aggregation cannot be applied to its input column
+     */
+    public ColumnarSchema getOutputSchema(final ColumnarSchema inputSchema) {
+        final int numColumns = m_groupColumns.length + m_aggregations.size();
+        final DataSpecWithTraits[] specs = new DataSpecWithTraits[numColumns + (isWindowed() ? 1 : 0)];
+        Arrays.setAll(specs, i -> {
+            if (i < m_groupColumns.length) {
+                return inputSchema.getSpecWithTraits(m_groupColumns[i]);
+            } else if (i == numColumns) {
+                return DataSpecs.LONG;
+            }
+            final Aggregation aggregation = m_aggregations.get(i - m_groupColumns.length);
+            final int column = aggregation.column();
+            return aggregation.function().resultSpec(column < 0 ? null : inputSchema.getSpecWithTraits(column));
+        });
+        return ColumnarSchema.of(specs);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(m_groupColumns);
+        result = 31 * result + m_aggregations.hashCode();
+        result = 31 * result + Long.hashCode(m_maxGroups);
+        result = 31 * result + Objects.hashCode(m_window);
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof AggregateTransformSpec that //
+            && Arrays.equals(m_groupColumns, that.m_groupColumns) //
+            && m_aggregations.equals(that.m_aggregations) //
+            && m_maxGroups == that.m_maxGroups //
+            && Objects.equals(m_window, that.m_window);
+    }
+
+    @Override
+    public String toString() {
+        return "Aggregate " + m_aggregations + " group by " + Arrays.toString(m_groupColumns)
+            + (isWindowed() ? " per " + m_window : "");
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.spec;
+
+import java.util.Arrays;
+
+/**
+ * Remove duplicate rows from a table. Two rows are duplicates if they have equal values in all of the selected key
+ * columns. Missing values are equal to each other. Of each set of duplicates, only the first row is retained (with all
+ * its columns).
+ * <p>
+ * If the input rows are known to be sorted by the key columns (such that duplicates are adjacent), each row is only
+ * compared to the previous row, which requires constant memory. Otherwise, the distinct key values seen so far are
+ * held in a hash set. Once there are more than {@link #getMaxKeys()} distinct key values, rows with unseen key values
+ * are partitioned by the hash of their key values into temporary files, and the partitions are deduplicated after the
+ * rest of the input.
+ * <p>
+ * Retained rows are produced in input order, except that rows which were spilled to temporary files come after all
+ * rows that were not spilled.
+ */
+public final class DistinctTransformSpec implements TableTransformSpec {
+
+    /**
+     * The default number of distinct key values that are held in memory before spilling rows to disk.
+     */
+    public static final long DEFAULT_MAX_KEYS = 1 << 20;
+
+    private final int[] m_columns;
+
+    private final long m_maxKeys;
+
+    /**
+     * @param columns indices of the key columns
+     */
+    public DistinctTransformSpec(final int[] columns) {
+        this(columns, DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param columns indices of the key columns
+     * @param maxKeys maximum number of distinct key values to hold in memory before spilling rows to disk
+     */
+    public DistinctTransformSpec(final int[] columns, final long maxKeys) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("at least one key column is required");
+        }
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("maxKeys must be positive");
+        }
+        m_columns = columns.clone();
+        m_maxKeys = maxKeys;
+    }
+
+    /**
+     * @return The indices of the key columns.
+     */
+    public int[] getColumnSelection() {
+        return m_columns.clone();
+    }
+
+    /**
+     * @return The maximum number of distinct key values that are held in memory before spilling rows to disk.
+     */
+    public long getMaxKeys() {
+        return m_maxKeys;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(m_columns);
+        result = 31 * result + Long.hashCode(m_maxKeys);
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof DistinctTransformSpec that //
+            && Arrays.equals(m_columns, that.m_columns) //
+            && m_maxKeys == that.m_maxKeys;
+    }
+
+    @Override
+    public String toString() {
+        return "Distinct on " + Arrays.toString(m_columns);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.spec;
+
+import java.util.Arrays;
+
+import org.knime.core.table.row.RowHasher;
+
+/**
+ * Split a table into a number of partitions, for parallel downstream processing. Each partition has the schema of the
+ * input table.
+ * <p>
+ * Rows are assigned to partitions either round-robin (in input order), or by the {@link RowHasher hash} of their
+ * values in the selected key columns, such that rows with equal key values end up in the same partition. The rows of
+ * a partition are in input order.
+ * <p>
+ * An exchange must be the last transform of a table. The partitions are produced by
+ * {@link org.knime.core.table.virtual.exec.VirtualTableExecutor#execute VirtualTableExecutor.execute}, which returns
+ * one {@code RowAccessible} per partition. All partitions are filled in a single pass over the input, when a cursor
+ * is first created on any of them. The partitions are buffered in temporary files.
+ */
+public final class ExchangeTransformSpec implements TableTransformSpec {
+
+    /**
+     * How rows are assigned to partitions.
+     */
+    public enum Partitioning {
+        /**
+         * The {@code i}-th row goes to partition {@code i % numPartitions}.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * Rows go to partitions by the hash of their values in the key columns.
+         */
+        HASH
+    }
+
+    private final int m_numPartitions;
+
+    private final Partitioning m_partitioning;
+
+    private final int[] m_columns;
+
+    /**
+     * @param numPartitions the number of partitions
+     * @param partitioning how rows are assigned to partitions
+     * @param columns indices of the key columns (only used for {@link Partitioning#HASH HASH} partitioning)
+     */
+    public ExchangeTransformSpec(final int numPartitions, final Partitioning partitioning, final int[] columns) {
+        if (numPartitions < 1) {
+            throw new IllegalArgumentException("numPartitions must be positive");
+        }
+        if (partitioning == Partitioning.HASH && columns.length == 0) {
+            throw new IllegalArgumentException("at least one key column is required for hash partitioning");
+        }
+        m_numPartitions = numPartitions;
+        m_partitioning = partitioning;
+        m_columns = partitioning == Partitioning.HASH ? columns.clone() : new int[0];
+    }
+
+    /**
+     * @return The number of partitions.
+     */
+    public int getNumPartitions() {
+        return m_numPartitions;
+    }
+
+    /**
+     * @return How rows are assigned to partitions.
+     */
+    public Partitioning getPartitioning() {
+        return m_partitioning;
+    }
+
+    /**
+     * @return The indices of the key columns (empty, unless {@link Partitioning#HASH HASH} partitioning).
+     */
+    public int[] getColumnSelection() {
+        return m_columns.clone();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = m_numPartitions;
+        result = 31 * result + m_partitioning.hashCode();
+        result = 31 * result + Arrays.hashCode(m_columns);
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof ExchangeTransformSpec that //
+            && m_numPartitions == that.m_numPartitions //
+            && m_partitioning == that.m_partitioning //
+            && Arrays.equals(m_columns, that.m_columns);
+    }
+
+    @Override
+    public String toString() {
+        return "Exchange " + m_partitioning + " into " + m_numPartitions + " partitions"
+            + (m_partitioning == Partitioning.HASH ? " on " + Arrays.toString(m_columns) : "");
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.spec;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.WriteAccess;
+import org.knime.core.table.schema.ColumnarSchema;
+
+/**
+ * Produces zero or more output rows for each input row.
+ * <p>
+ * The columns of the input row are forwarded unchanged, and the columns produced by a {@link FlatMapper} are appended.
+ * Output rows are produced lazily, one at a time, so the output rows belonging to one input row are never buffered.
+ */
+public final class FlatMapTransformSpec implements TableTransformSpec {
+
+    /**
+     * A {@code FlatMapper} produces the output rows for an input row, one at a time.
+     * <p>
+     * A flat mapper is created with pre-defined input and output accesses. Whenever the inputs have moved to a new
+     * row, {@link #nextInput()} is called. Then {@link #nextOutput()} is called repeatedly, until it returns
+     * {@code false}. Each time it returns {@code true}, the values of one output row have been set to the outputs.
+     */
+    public interface FlatMapper {
+
+        /**
+         * The input accesses have moved to a new row. Prepare to produce the output rows for that row.
+         */
+        void nextInput();
+
+        /**
+         * Set the values of the next output row (for the current input row) to the output accesses.
+         *
+         * @return {@code true} if an output row was produced, {@code false} if there are no more output rows for the
+         *         current input row
+         */
+        boolean nextOutput();
+    }
+
+    /**
+     * A {@code FlatMapperFactory} creates {@link FlatMapper}s.
+     */
+    public interface FlatMapperFactory {
+
+        /**
+         * @return the ColumnarSchema of the columns produced by the flat mapper
+         */
+        ColumnarSchema getOutputSchema();
+
+        /**
+         * Create a flat mapper with the specified {@code inputs} and {@code outputs}.
+         *
+         * @param inputs accesses to read input values from
+         * @param outputs accesses to write output rows to
+         * @return a flat mapper reading from {@code inputs} and writing to {@code outputs}.
+         */
+        FlatMapper createFlatMapper(final ReadAccess[] inputs, final WriteAccess[] outputs);
+
+        /**
+         * Wrap {@code createFlatMapper} as a {@code FlatMapperFactory} with the given output {@code schema}. The
+         * BiFunction {@code createFlatMapper} takes an array of input {@code ReadAccess}es and an array of output
+         * {@code WriteAccess}es and produces a {@code FlatMapper}.
+         *
+         * @param schema output schema
+         * @param createFlatMapper creates {@code FlatMapper}s
+         */
+        static FlatMapperFactory of( //
+            final ColumnarSchema schema, //
+            final BiFunction<ReadAccess[], WriteAccess[], ? extends FlatMapper> createFlatMapper) {
+            return new FlatMapperFactory() {
+                @Override
+                public ColumnarSchema getOutputSchema() {
+                    return schema;
+                }
+
+                @Override
+                public FlatMapper createFlatMapper(final ReadAccess[] inputs, final WriteAccess[] outputs) {
+                    return createFlatMapper.apply(inputs, outputs);
+                }
+            };
+        }
+    }
+
+    private final int[] inputColumnIndices;
+
+    private final FlatMapperFactory flatMapperFactory;
+
+    public FlatMapTransformSpec(final int[] columnIndices, final FlatMapperFactory flatMapperFactory) {
+        this.inputColumnIndices = columnIndices;
+        this.flatMapperFactory = flatMapperFactory;
+    }
+
+    /**
+     * @return The (input) column indices required by the flat mapper.
+     */
+    public int[] getColumnSelection() {
+        return inputColumnIndices.clone();
+    }
+
+    /**
+     * Get the factory used to create flat mappers. Flat mappers accept the {@link #getColumnSelection() selected
+     * columns} as inputs and produce outputs according to {@link FlatMapperFactory#getOutputSchema()}.
+     *
+     * @return the FlatMapperFactory
+     */
+    public FlatMapperFactory getFlatMapperFactory() {
+        return flatMapperFactory;
+    }
+
+    @Override
+    public String toString() {
+        return "FlatMap " + Arrays.toString(inputColumnIndices);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FlatMapTransformSpec that)) {
+            return false;
+        }
+
+        if (!Arrays.equals(inputColumnIndices, that.inputColumnIndices)) {
+            return false;
+        }
+        return flatMapperFactory.equals(that.flatMapperFactory);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(inputColumnIndices);
+        result = 31 * result + flatMapperFactory.hashCode();
+        return result;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.spec;
+
+import java.util.Arrays;
+
+/**
+ * Join the rows of two tables (the "left" and the "right" table) on equal values in one or more key columns.
+ * <p>
+ * The joined table has all columns of the left table, followed by all columns of the right table. For each pair of a
+ * left and a right row with equal key values, there is one row in the joined table. Missing key values are never
+ * equal to anything (including other missing values). Depending on the {@link JoinType}, left and/or right rows that
+ * have no join partner are also included in the joined table, with missing values in the columns of the other table.
+ * <p>
+ * The join is executed as a hash join: The rows of one table (the "build" side, preferably the smaller table) are
+ * buffered in a hash table. Then the rows of the other table (the "probe" side) are streamed, and each row is joined
+ * with the matching buffered rows. If the build side has more than {@link #getMaxBuildRows()} rows, both tables are
+ * partitioned by the hash of the key values into temporary files, and the partitions are joined one after the other.
+ * <p>
+ * The order of the joined rows is unspecified.
+ */
+public final class JoinTransformSpec implements TableTransformSpec {
+
+    /**
+     * The default number of build rows that are held in memory before partitioning to disk.
+     */
+    public static final long DEFAULT_MAX_BUILD_ROWS = 1 << 20;
+
+    /**
+     * Which rows without join partner are included in the joined table.
+     */
+    public enum JoinType {
+        /**
+         * Only rows with a join partner.
+         */
+        INNER(false, false),
+
+        /**
+         * All left rows, and right rows with a join partner.
+         */
+        LEFT_OUTER(true, false),
+
+        /**
+         * All right rows, and left rows with a join partner.
+         */
+        RIGHT_OUTER(false, true),
+
+        /**
+         * All left and right rows.
+         */
+        FULL_OUTER(true, true);
+
+        private final boolean m_leftOuter;
+
+        private final boolean m_rightOuter;
+
+        JoinType(final boolean leftOuter, final boolean rightOuter) {
+            m_leftOuter = leftOuter;
+            m_rightOuter = rightOuter;
+        }
+
+        /**
+         * @return whether left rows without join partner are included in the joined table
+         */
+        public boolean isLeftOuter() {
+            return m_leftOuter;
+        }
+
+        /**
+         * @return whether right rows without join partner are included in the joined table
+         */
+        public boolean isRightOuter() {
+            return m_rightOuter;
+        }
+    }
+
+    private final int[] m_leftKeys;
+
+    private final int[] m_rightKeys;
+
+    private final JoinType m_joinType;
+
+    private final long m_maxBuildRows;
+
+    /**
+     * @param leftKeys indices of the key columns in the left table
+     * @param rightKeys indices of the key columns in the right table ({@code rightKeys[i]} is compared to
+     *            {@code leftKeys[i]})
+     * @param joinType the join type
+     */
+    public JoinTransformSpec(final int[] leftKeys, final int[] rightKeys, final JoinType joinType) {
+        this(leftKeys, rightKeys, joinType, DEFAULT_MAX_BUILD_ROWS);
+    }
+
+    /**
+     * @param leftKeys indices of the key columns in the left table
+     * @param rightKeys indices of the key columns in the right table ({@code rightKeys[i]} is compared to
+     *            {@code leftKeys[i]})
+     * @param joinType the join type
+     * @param maxBuildRows maximum number of build rows to hold in memory before partitioning to disk
+     */
+    public JoinTransformSpec(final int[] leftKeys, final int[] rightKeys, final JoinType joinType,
+        final long maxBuildRows) {
+        if (leftKeys.length == 0) {
+            throw new IllegalArgumentException("at least one key column is required");
+        }
+        if (leftKeys.length != rightKeys.length) {
+            throw new IllegalArgumentException("expected the same number of left and right key columns (got "
+                + leftKeys.length + " and " + rightKeys.length + ")");
+        }
+        if (maxBuildRows < 1) {
+            throw new IllegalArgumentException("maxBuildRows must be positive");
+        }
+        m_leftKeys = leftKeys.clone();
+        m_rightKeys = rightKeys.clone();
+        m_joinType = joinType;
+        m_maxBuildRows = maxBuildRows;
+    }
+
+    /**
+     * @return The indices of the key columns in the left table.
+     */
+    public int[] getLeftKeys() {
+        return m_leftKeys.clone();
+    }
+
+    /**
+     * @return The indices of the key columns in the right table.
+     */
+    public int[] getRightKeys() {
+        return m_rightKeys.clone();
+    }
+
+    /**
+     * @param predecessor {@code 0} for the left table, {@code 1} for the right table
+     * @return The indices of the key columns in the left or right table.
+     */
+    public int[] getKeys(final int predecessor) {
+        return predecessor == 0 ? getLeftKeys() : getRightKeys();
+    }
+
+    /**
+     * @return The join type.
+     */
+    public JoinType getJoinType() {
+        return m_joinType;
+    }
+
+    /**
+     * @return The maximum number of build rows that are held in memory before partitioning to disk.
+     */
+    public long getMaxBuildRows() {
+        return m_maxBuildRows;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(m_leftKeys);
+        result = 31 * result + Arrays.hashCode(m_rightKeys);
+        result = 31 * result + m_joinType.hashCode();
+        result = 31 * result + Long.hashCode(m_maxBuildRows);
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof JoinTransformSpec that //
+            && Arrays.equals(m_leftKeys, that.m_leftKeys) //
+            && Arrays.equals(m_rightKeys, that.m_rightKeys) //
+            && m_joinType == that.m_joinType //
+            && m_maxBuildRows == that.m_maxBuildRows;
+    }
+
+    @Override
+    public String toString() {
+        return m_joinType + " Join on " + Arrays.toString(m_leftKeys) + " = " + Arrays.toString(m_rightKeys);
+    }
+}
@@ -80,6 +80,33 @@ public interface MapperFactory {
          */
         Runnable createMapper(final ReadAccess[] inputs, final WriteAccess[] outputs);
 
+        /**
+         * Whether mappers created by this factory may be run lazily. If so, a mapper is not necessarily run for every
+         * row, but only when one of its outputs is read for the current row. This requires that the mapper has no
+         * side effects, and does not depend on being run for every row (for example, by counting rows).
+         * <p>
+         * The default implementation returns {@code false}.
+         *
+         * @return {@code true} if mappers may be run lazily
+         */
+        default boolean supportsLazyEvaluation() {
+            return false;
+        }
+
+        /**
+         * Whether mappers created by this factory are deterministic. If so, the outputs of a mapper depend only on the
+         * current input values, and running the mapper has no side effects. Then the outputs of a mapper may be cached
+         * by input values, and the mapper is only run for input values that are not in the cache. This pays off for
+         * expensive mappers that see few distinct input values.
+         * <p>
+         * The default implementation returns {@code false}.
+         *
+         * @return {@code true} if mappers are deterministic
+         */
+        default boolean isDeterministic() {
+            return false;
+        }
+
         /**
          * Wrap {@code createMapper} as a {@code MapperFactory} with the given
          * output {@code schema}. The BiFunction {@code createMapper} takes an
@@ -92,7 +119,35 @@ public interface MapperFactory {
         static MapperFactory of( //
                 final ColumnarSchema schema, //
                 final BiFunction<ReadAccess[], WriteAccess[], ? extends Runnable> createMapper) {
-            return new MapTransformUtils.DefaultMapperFactory(schema, createMapper);
+            return new MapTransformUtils.DefaultMapperFactory(schema, createMapper, false, false);
+        }
+
+        /**
+         * Wrap {@code createMapper} as a {@code MapperFactory} with the given output {@code schema}, which
+         * {@link #supportsLazyEvaluation() supports lazy evaluation}. The created mappers must have no side effects,
+         * and must not depend on being run for every row.
+         *
+         * @param schema output schema
+         * @param createMapper creates {@code Runnable} mappers
+         */
+        static MapperFactory lazy( //
+                final ColumnarSchema schema, //
+                final BiFunction<ReadAccess[], WriteAccess[], ? extends Runnable> createMapper) {
+            return new MapTransformUtils.DefaultMapperFactory(schema, createMapper, true, false);
+        }
+
+        /**
+         * Wrap {@code createMapper} as a {@code MapperFactory} with the given output {@code schema}, which is
+         * {@link #isDeterministic() deterministic}. The outputs of the created mappers must depend only on the input
+         * values, and the mappers must have no side effects.
+         *
+         * @param schema output schema
+         * @param createMapper creates {@code Runnable} mappers
+         */
+        static MapperFactory deterministic( //
+                final ColumnarSchema schema, //
+                final BiFunction<ReadAccess[], WriteAccess[], ? extends Runnable> createMapper) {
+            return new MapTransformUtils.DefaultMapperFactory(schema, createMapper, false, true);
         }
     }
 
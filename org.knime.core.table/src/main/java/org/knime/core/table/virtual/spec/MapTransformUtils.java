@@ -219,6 +219,10 @@ static class DefaultMapperFactory implements MapperFactory {
 
         private final BiFunction<ReadAccess[], WriteAccess[], ? extends Runnable> createMapper;
 
+        private final boolean lazy;
+
+        private final boolean deterministic;
+
         /**
          * Wrap {@code createMapper} as a {@code MapperFactory} with the given
          * output {@code schema}. The BiFunction {@code createMapper} takes an
@@ -227,11 +231,16 @@ static class DefaultMapperFactory implements MapperFactory {
          *
          * @param schema output schema
          * @param createMapper creates {@code Runnable} mappers
+         * @param lazy whether the created mappers may be run lazily
+         * @param deterministic whether the created mappers are deterministic
          */
         DefaultMapperFactory(final ColumnarSchema schema,
-                final BiFunction<ReadAccess[], WriteAccess[], ? extends Runnable> createMapper) {
+                final BiFunction<ReadAccess[], WriteAccess[], ? extends Runnable> createMapper, final boolean lazy,
+                final boolean deterministic) {
             this.schema = schema;
             this.createMapper = createMapper;
+            this.lazy = lazy;
+            this.deterministic = deterministic;
         }
 
         @Override
@@ -243,6 +252,16 @@ public ColumnarSchema getOutputSchema() {
         public Runnable createMapper(final ReadAccess[] inputs, final WriteAccess[] outputs) {
             return createMapper.apply(inputs, outputs);
         }
+
+        @Override
+        public boolean supportsLazyEvaluation() {
+            return lazy;
+        }
+
+        @Override
+        public boolean isDeterministic() {
+            return deterministic;
+        }
     }
 
     /**
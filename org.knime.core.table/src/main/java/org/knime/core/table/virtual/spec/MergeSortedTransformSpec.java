@@ -0,0 +1,124 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.spec;
+
+import java.util.Arrays;
+
+/**
+ * Merge two or more tables that are each sorted by the values in one or more key columns into one sorted table.
+ * <p>
+ * All tables must have the same schema, and each must already be sorted by the key columns, with the same comparison
+ * semantics as {@link SortTransformSpec}: Rows are compared by the first key column, ties are broken by the second key
+ * column, and so on. Missing values are considered greater than any non-missing value. (If an input is not sorted,
+ * the merged table is not sorted either, but it still contains all rows of all inputs.)
+ * <p>
+ * The merge is streaming: it reads all inputs in lock-step and never buffers more than the current row of each input.
+ * Rows with equal keys are ordered by the index of the table they come from (so merging is stable, in the same way
+ * as concatenating and then sorting would be).
+ */
+public final class MergeSortedTransformSpec implements TableTransformSpec {
+
+    private final int[] m_columns;
+
+    private final boolean[] m_ascending;
+
+    /**
+     * @param columns indices of the key columns (in order of precedence)
+     * @param ascending for each key column whether the inputs are sorted in ascending ({@code true}) or descending
+     *            ({@code false}) order
+     */
+    public MergeSortedTransformSpec(final int[] columns, final boolean[] ascending) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("at least one key column is required");
+        }
+        if (columns.length != ascending.length) {
+            throw new IllegalArgumentException(
+                "expected one sort direction per key column (got " + ascending.length + " for " + columns.length + ")");
+        }
+        m_columns = columns.clone();
+        m_ascending = ascending.clone();
+    }
+
+    /**
+     * @return The indices of the key columns (in order of precedence).
+     */
+    public int[] getColumnSelection() {
+        return m_columns.clone();
+    }
+
+    /**
+     * @return For each key column, whether the inputs are sorted in ascending order.
+     */
+    public boolean[] getAscending() {
+        return m_ascending.clone();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(m_columns);
+        result = 31 * result + Arrays.hashCode(m_ascending);
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof MergeSortedTransformSpec that //
+            && Arrays.equals(m_columns, that.m_columns) //
+            && Arrays.equals(m_ascending, that.m_ascending);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MergeSorted by ");
+        for (int i = 0; i < m_columns.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(m_columns[i]).append(m_ascending[i] ? " asc" : " desc");
+        }
+        return sb.toString();
+    }
+}
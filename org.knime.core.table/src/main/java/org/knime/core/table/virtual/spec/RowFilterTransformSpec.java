@@ -46,13 +46,19 @@
 package org.knime.core.table.virtual.spec;
 
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoublePredicate;
 import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
 
+import org.knime.core.table.access.ByteAccess;
 import org.knime.core.table.access.DoubleAccess;
+import org.knime.core.table.access.FloatAccess;
 import org.knime.core.table.access.IntAccess;
+import org.knime.core.table.access.LongAccess;
 import org.knime.core.table.access.ReadAccess;
+import org.knime.core.table.access.StringAccess;
 
 public final class RowFilterTransformSpec implements TableTransformSpec {
 
@@ -94,6 +100,39 @@ static RowFilterFactory doublePredicate(final DoublePredicate predicate) {
             };
         }
 
+        /**
+         * Create a {@link RangeFilterFactory} that accepts rows with an {@code int} value in {@code [from, to)}.
+         *
+         * @param from lower bound (inclusive)
+         * @param to upper bound (exclusive)
+         * @return range filter
+         */
+        static RangeFilterFactory intRange(final int from, final int to) {
+            return new RangeFilterFactory(from, true, to, false);
+        }
+
+        /**
+         * Create a {@link RangeFilterFactory} that accepts rows with a {@code long} value in {@code [from, to)}.
+         *
+         * @param from lower bound (inclusive)
+         * @param to upper bound (exclusive)
+         * @return range filter
+         */
+        static RangeFilterFactory longRange(final long from, final long to) {
+            return new RangeFilterFactory(from, true, to, false);
+        }
+
+        /**
+         * Create a {@link RangeFilterFactory} that accepts rows with a {@code double} value in {@code [from, to)}.
+         *
+         * @param from lower bound (inclusive)
+         * @param to upper bound (exclusive)
+         * @return range filter
+         */
+        static RangeFilterFactory doubleRange(final double from, final double to) {
+            return new RangeFilterFactory(from, true, to, false);
+        }
+
         private static void verify(final ReadAccess[] inputs, final int expectedNumInputs) {
             if (inputs == null) {
                 throw new NullPointerException();
@@ -105,6 +144,225 @@ private static void verify(final ReadAccess[] inputs, final int expectedNumInput
         }
     }
 
+    /**
+     * A declarative {@code RowFilterFactory} for filters that accept rows whose value in a single column lies within a
+     * range. Rows with a missing value are rejected.
+     * <p>
+     * The bounds are {@code Number}s (for byte, int, long, float, and double columns) or {@code String}s (for string
+     * columns), and are compared with the column values by their natural order. A {@code null} bound means that the
+     * range is unbounded on that side.
+     * <p>
+     * Numbers are compared exactly, as by the numerical comparison operators of the Java language. In particular,
+     * {@code -0.0} equals {@code 0.0}, {@code long} values are not rounded to {@code double}, and {@code NaN} values
+     * are never in the range (for sorting, {@code NaN} is considered above the range).
+     * <p>
+     * Because the filter is declarative, the optimizer can reason about it. For example, a range filter on the sort
+     * column of a sorted random-access source is replaced by a slice of the source, whose boundaries are found by
+     * binary search.
+     */
+    public static final class RangeFilterFactory implements RowFilterFactory {
+
+        private final Object m_lower;
+
+        private final boolean m_lowerInclusive;
+
+        private final Object m_upper;
+
+        private final boolean m_upperInclusive;
+
+        /**
+         * @param lower lower bound, or {@code null} if there is none
+         * @param lowerInclusive whether values equal to {@code lower} are accepted
+         * @param upper upper bound, or {@code null} if there is none
+         * @param upperInclusive whether values equal to {@code upper} are accepted
+         */
+        public RangeFilterFactory(final Object lower, final boolean lowerInclusive, final Object upper,
+            final boolean upperInclusive) {
+            checkBound(lower);
+            checkBound(upper);
+            m_lower = lower;
+            m_lowerInclusive = lowerInclusive;
+            m_upper = upper;
+            m_upperInclusive = upperInclusive;
+        }
+
+        private static void checkBound(final Object bound) {
+            if (bound != null && !(bound instanceof Number) && !(bound instanceof String)) {
+                throw new IllegalArgumentException("range bounds must be Numbers or Strings (got " + bound + ")");
+            }
+            if (bound instanceof Number n && isFloatingPoint(n) && Double.isNaN(n.doubleValue())) {
+                throw new IllegalArgumentException("range bounds must not be NaN");
+            }
+        }
+
+        /**
+         * @return the lower bound, or {@code null} if there is none
+         */
+        public Object getLower() {
+            return m_lower;
+        }
+
+        /**
+         * @return whether values equal to the lower bound are accepted
+         */
+        public boolean isLowerInclusive() {
+            return m_lowerInclusive;
+        }
+
+        /**
+         * @return the upper bound, or {@code null} if there is none
+         */
+        public Object getUpper() {
+            return m_upper;
+        }
+
+        /**
+         * @return whether values equal to the upper bound are accepted
+         */
+        public boolean isUpperInclusive() {
+            return m_upperInclusive;
+        }
+
+        @Override
+        public BooleanSupplier createRowFilter(final ReadAccess[] inputs) {
+            RowFilterFactory.verify(inputs, 1);
+            final ReadAccess i0 = inputs[0];
+            final IntSupplier comparison = createRangeComparison(i0);
+            return () -> !i0.isMissing() && comparison.getAsInt() == 0;
+        }
+
+        /**
+         * Create an {@code IntSupplier} that compares the current value of the given {@code access} to the range. It
+         * returns a negative number if the value is below the range, zero if the value is within the range, and a
+         * positive number if the value is above the range. The current value must not be missing. {@code NaN} values
+         * are above the range.
+         *
+         * @param access the access to compare
+         * @return range comparison of the current value of {@code access}
+         */
+        public IntSupplier createRangeComparison(final ReadAccess access) {
+            final IntSupplier lower = m_lower == null ? null : createComparison(access, m_lower);
+            final IntSupplier upper = m_upper == null ? null : createComparison(access, m_upper);
+            final BooleanSupplier isNaN = createNaNCheck(access);
+            final int minLower = m_lowerInclusive ? 0 : 1;
+            final int maxUpper = m_upperInclusive ? 0 : -1;
+            return () -> {
+                if (isNaN != null && isNaN.getAsBoolean()) {
+                    return 1;
+                } else if (lower != null && lower.getAsInt() < minLower) {
+                    return -1;
+                } else if (upper != null && upper.getAsInt() > maxUpper) {
+                    return 1;
+                }
+                return 0;
+            };
+        }
+
+        /**
+         * Create an {@code IntSupplier} that compares the current value of {@code access} to {@code bound}. For
+         * {@code NaN} values, the result is unspecified.
+         */
+        private static IntSupplier createComparison(final ReadAccess access, final Object bound) {
+            if (bound instanceof String s) {
+                if (access instanceof StringAccess.StringReadAccess a) {
+                    return () -> a.getStringValue().compareTo(s);
+                }
+            } else {
+                final Number n = (Number)bound;
+                if (isFloatingPoint(n)) {
+                    final double d = n.doubleValue();
+                    if (access instanceof IntAccess.IntReadAccess a) {
+                        return () -> compareLongToDouble(a.getIntValue(), d);
+                    } else if (access instanceof LongAccess.LongReadAccess a) {
+                        return () -> compareLongToDouble(a.getLongValue(), d);
+                    } else if (access instanceof ByteAccess.ByteReadAccess a) {
+                        return () -> compareLongToDouble(a.getByteValue(), d);
+                    } else if (access instanceof DoubleAccess.DoubleReadAccess a) {
+                        return () -> compare(a.getDoubleValue(), d);
+                    } else if (access instanceof FloatAccess.FloatReadAccess a) {
+                        return () -> compare(a.getFloatValue(), d);
+                    }
+                } else {
+                    final long l = n.longValue();
+                    if (access instanceof IntAccess.IntReadAccess a) {
+                        return () -> Long.compare(a.getIntValue(), l);
+                    } else if (access instanceof LongAccess.LongReadAccess a) {
+                        return () -> Long.compare(a.getLongValue(), l);
+                    } else if (access instanceof ByteAccess.ByteReadAccess a) {
+                        return () -> Long.compare(a.getByteValue(), l);
+                    } else if (access instanceof DoubleAccess.DoubleReadAccess a) {
+                        return () -> -compareLongToDouble(l, a.getDoubleValue());
+                    } else if (access instanceof FloatAccess.FloatReadAccess a) {
+                        return () -> -compareLongToDouble(l, a.getFloatValue());
+                    }
+                }
+            }
+            throw new IllegalArgumentException(
+                "cannot compare " + access.getDataSpec() + " values to range bound " + bound);
+        }
+
+        /**
+         * @return a {@code BooleanSupplier} that tests whether the current value of {@code access} is {@code NaN}, or
+         *         {@code null} if {@code access} cannot hold {@code NaN} values
+         */
+        private static BooleanSupplier createNaNCheck(final ReadAccess access) {
+            if (access instanceof DoubleAccess.DoubleReadAccess a) {
+                return () -> Double.isNaN(a.getDoubleValue());
+            } else if (access instanceof FloatAccess.FloatReadAccess a) {
+                return () -> Float.isNaN(a.getFloatValue());
+            }
+            return null;
+        }
+
+        private static boolean isFloatingPoint(final Number n) {
+            return n instanceof Double || n instanceof Float;
+        }
+
+        /**
+         * Compare two (non-NaN) {@code double}s, such that {@code -0.0 == 0.0}.
+         */
+        private static int compare(final double a, final double b) {
+            return a < b ? -1 : (a > b ? 1 : 0);
+        }
+
+        /**
+         * Compare a {@code long} to a (non-NaN) {@code double} exactly, without rounding {@code a} to {@code double}.
+         */
+        private static int compareLongToDouble(final long a, final double b) {
+            if (b >= 0x1p63) {
+                return -1;
+            } else if (b < -0x1p63) {
+                return 1;
+            }
+            // |b| < 2^63, so truncating b is exact, and so is the fractional part b - t
+            final long t = (long)b;
+            if (a != t) {
+                return a < t ? -1 : 1;
+            }
+            return compare(0.0, b - t);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof RangeFilterFactory that //
+                && Objects.equals(m_lower, that.m_lower) //
+                && m_lowerInclusive == that.m_lowerInclusive //
+                && Objects.equals(m_upper, that.m_upper) //
+                && m_upperInclusive == that.m_upperInclusive;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(m_lower, m_lowerInclusive, m_upper, m_upperInclusive);
+        }
+
+        @Override
+        public String toString() {
+            return (m_lower == null ? "(-inf" : (m_lowerInclusive ? "[" : "(") + m_lower) + ", "
+                + (m_upper == null ? "inf)" : m_upper + (m_upperInclusive ? "]" : ")"));
+        }
+    }
+
     private final int[] inputColumnIndices;
     private final RowFilterFactory filterFactory;
 
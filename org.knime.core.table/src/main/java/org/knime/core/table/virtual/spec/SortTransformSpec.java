@@ -0,0 +1,196 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.spec;
+
+import java.util.Arrays;
+
+/**
+ * Sort the rows of a table by the values in one or more key columns.
+ * <p>
+ * Rows are compared by the first key column, ties are broken by the second key column, and so on. Missing values are
+ * considered greater than any non-missing value (that is, they come last in ascending order, and first in descending
+ * order). Strings are compared lexicographically by UTF-16 code units, var-binary values lexicographically by unsigned
+ * bytes, and lists and structs lexicographically by their elements. The sort is stable: rows with equal keys retain
+ * their relative order.
+ * <p>
+ * Sorting is a blocking operation. The input rows are buffered in memory up to {@link #getMaxBufferedRows()}. If the
+ * input has more rows, sorted runs are spilled to temporary files and merged on the fly when the sorted table is
+ * read.
+ * <p>
+ * Optionally, the sorted table is truncated to its first {@link #getLimit()} rows ("top-k"). If the limit does not
+ * exceed {@link #getMaxBufferedRows()}, only the smallest rows seen so far are kept in a bounded heap, so the input is
+ * never sorted completely.
+ */
+public final class SortTransformSpec implements TableTransformSpec {
+
+    /**
+     * The default number of rows that are sorted in memory before spilling sorted runs to disk.
+     */
+    public static final long DEFAULT_MAX_BUFFERED_ROWS = 1 << 20;
+
+    private final int[] m_columns;
+
+    private final boolean[] m_ascending;
+
+    private final long m_maxBufferedRows;
+
+    private final long m_limit;
+
+    /**
+     * @param columns indices of the key columns (in order of precedence)
+     * @param ascending for each key column whether to sort in ascending ({@code true}) or descending ({@code false})
+     *            order
+     */
+    public SortTransformSpec(final int[] columns, final boolean[] ascending) {
+        this(columns, ascending, DEFAULT_MAX_BUFFERED_ROWS);
+    }
+
+    /**
+     * @param columns indices of the key columns (in order of precedence)
+     * @param ascending for each key column whether to sort in ascending ({@code true}) or descending ({@code false})
+     *            order
+     * @param maxBufferedRows maximum number of rows to sort in memory before spilling sorted runs to disk
+     */
+    public SortTransformSpec(final int[] columns, final boolean[] ascending, final long maxBufferedRows) {
+        this(columns, ascending, maxBufferedRows, -1);
+    }
+
+    /**
+     * @param columns indices of the key columns (in order of precedence)
+     * @param ascending for each key column whether to sort in ascending ({@code true}) or descending ({@code false})
+     *            order
+     * @param maxBufferedRows maximum number of rows to sort in memory before spilling sorted runs to disk
+     * @param limit maximum number of rows of the sorted table, or {@code -1} to keep all rows
+     */
+    public SortTransformSpec(final int[] columns, final boolean[] ascending, final long maxBufferedRows,
+        final long limit) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("at least one key column is required");
+        }
+        if (columns.length != ascending.length) {
+            throw new IllegalArgumentException(
+                "expected one sort direction per key column (got " + ascending.length + " for " + columns.length + ")");
+        }
+        if (maxBufferedRows < 1) {
+            throw new IllegalArgumentException("maxBufferedRows must be positive");
+        }
+        if (limit < -1) {
+            throw new IllegalArgumentException("limit must be non-negative (or -1 for no limit)");
+        }
+        m_columns = columns.clone();
+        m_ascending = ascending.clone();
+        m_maxBufferedRows = maxBufferedRows;
+        m_limit = limit;
+    }
+
+    /**
+     * @return The indices of the key columns (in order of precedence).
+     */
+    public int[] getColumnSelection() {
+        return m_columns.clone();
+    }
+
+    /**
+     * @return For each key column, whether it is sorted in ascending order.
+     */
+    public boolean[] getAscending() {
+        return m_ascending.clone();
+    }
+
+    /**
+     * @return The maximum number of rows that are sorted in memory before spilling sorted runs to disk.
+     */
+    public long getMaxBufferedRows() {
+        return m_maxBufferedRows;
+    }
+
+    /**
+     * @return The maximum number of rows of the sorted table, or {@code -1} if all rows are kept.
+     */
+    public long getLimit() {
+        return m_limit;
+    }
+
+    /**
+     * @return whether the sorted table is truncated to its first {@link #getLimit()} rows
+     */
+    public boolean hasLimit() {
+        return m_limit >= 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(m_columns);
+        result = 31 * result + Arrays.hashCode(m_ascending);
+        result = 31 * result + Long.hashCode(m_maxBufferedRows);
+        result = 31 * result + Long.hashCode(m_limit);
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof SortTransformSpec that //
+            && Arrays.equals(m_columns, that.m_columns) //
+            && Arrays.equals(m_ascending, that.m_ascending) //
+            && m_maxBufferedRows == that.m_maxBufferedRows //
+            && m_limit == that.m_limit;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Sort by ");
+        for (int i = 0; i < m_columns.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(m_columns[i]).append(m_ascending[i] ? " asc" : " desc");
+        }
+        if (hasLimit()) {
+            sb.append(", top ").append(m_limit);
+        }
+        return sb.toString();
+    }
+}
@@ -45,6 +45,7 @@
  */
 package org.knime.core.table.virtual.spec;
 
+import org.knime.core.table.cursor.AwaitingCursor;
 import org.knime.core.table.cursor.Cursor;
 import org.knime.core.table.cursor.LookaheadCursor;
 import org.knime.core.table.cursor.RandomAccessCursor;
@@ -57,6 +58,13 @@
  * Meta-data describing a {@link RowAccessible source} of a {@code VirtualTable},
  * such as its {@code ColumnarSchema}, whether it supports LookaheadCursors,
  * whether the number of rows is known, etc.
+ * <p>
+ * Similar to the characteristics of a Java {@code Spliterator}, a source can
+ * declare what is known about its rows: the number of rows (SIZED), the sort
+ * order (SORTED), columns that identify each row (DISTINCT), and columns without
+ * missing values (NONNULL). These are propagated through the virtual table by
+ * {@code TableTransformGraphProperties}, such that downstream transforms can be
+ * optimized.
  *
  * @author Tobias Pietzsch
  */
@@ -131,6 +139,18 @@ public boolean supportsRandomAccess() {
 
     private final long m_numRows;
 
+    private final int[] m_sortColumns;
+
+    private final boolean[] m_sortAscending;
+
+    private final boolean m_unbounded;
+
+    private final int[] m_distinctColumns;
+
+    private final int[] m_nonMissingColumns;
+
+    private final boolean m_lateMaterialization;
+
     public SourceTableProperties(final RowAccessible source) {
         this(source.getSchema(), CursorType.of(source), source.size());
     }
@@ -140,9 +160,122 @@ public SourceTableProperties(final ColumnarSchema schema, final CursorType curso
     }
 
     public SourceTableProperties(final ColumnarSchema schema, final CursorType cursorType, final long numRows) {
+        this(schema, cursorType, numRows, new int[0], new boolean[0]);
+    }
+
+    /**
+     * Create properties for a source table that is possibly {@link #isUnbounded() unbounded}.
+     *
+     * @param schema the columnar schema of the source
+     * @param cursorType the cursor capabilities of the source
+     * @param unbounded whether the source is a never-ending stream of rows
+     */
+    public SourceTableProperties(final ColumnarSchema schema, final CursorType cursorType, final boolean unbounded) {
+        this(schema, cursorType, -1, new int[0], new boolean[0], unbounded);
+    }
+
+    /**
+     * Create properties for a source table whose rows are sorted by the values in the given key columns.
+     *
+     * @param schema the columnar schema of the source
+     * @param cursorType the cursor capabilities of the source
+     * @param numRows the number of rows, or a negative number if the number of rows is unknown
+     * @param sortColumns indices of the key columns by which the rows are sorted (in order of precedence)
+     * @param sortAscending for each key column, whether the rows are sorted in ascending order
+     */
+    public SourceTableProperties(final ColumnarSchema schema, final CursorType cursorType, final long numRows,
+        final int[] sortColumns, final boolean[] sortAscending) {
+        this(schema, cursorType, numRows, sortColumns, sortAscending, false);
+    }
+
+    /**
+     * Create properties for a source table whose rows are sorted by the values in the given key columns, and which is
+     * possibly {@link #isUnbounded() unbounded}.
+     *
+     * @param schema the columnar schema of the source
+     * @param cursorType the cursor capabilities of the source
+     * @param numRows the number of rows, or a negative number if the number of rows is unknown
+     * @param sortColumns indices of the key columns by which the rows are sorted (in order of precedence)
+     * @param sortAscending for each key column, whether the rows are sorted in ascending order
+     * @param unbounded whether the source is a never-ending stream of rows
+     */
+    public SourceTableProperties(final ColumnarSchema schema, final CursorType cursorType, final long numRows,
+        final int[] sortColumns, final boolean[] sortAscending, final boolean unbounded) {
+        if (unbounded && numRows >= 0) {
+            throw new IllegalArgumentException("an unbounded source cannot have a known number of rows");
+        }
+        if (sortColumns.length != sortAscending.length) {
+            throw new IllegalArgumentException("expected one sort direction per key column (got "
+                + sortAscending.length + " for " + sortColumns.length + ")");
+        }
         this.m_schema = schema;
         this.m_cursorType = cursorType;
         this.m_numRows = numRows;
+        this.m_sortColumns = sortColumns.clone();
+        this.m_sortAscending = sortAscending.clone();
+        this.m_unbounded = unbounded;
+        this.m_distinctColumns = null;
+        this.m_nonMissingColumns = new int[0];
+        this.m_lateMaterialization = false;
+    }
+
+    private SourceTableProperties(final SourceTableProperties properties, final int[] distinctColumns,
+        final int[] nonMissingColumns, final boolean lateMaterialization) {
+        this.m_schema = properties.m_schema;
+        this.m_cursorType = properties.m_cursorType;
+        this.m_numRows = properties.m_numRows;
+        this.m_sortColumns = properties.m_sortColumns;
+        this.m_sortAscending = properties.m_sortAscending;
+        this.m_unbounded = properties.m_unbounded;
+        this.m_distinctColumns = distinctColumns;
+        this.m_nonMissingColumns = nonMissingColumns;
+        this.m_lateMaterialization = lateMaterialization;
+    }
+
+    /**
+     * Returns a copy of these properties, additionally declaring that no two rows of the source table have the same
+     * values in all of the given {@code columns}.
+     *
+     * @param columns indices of columns that together identify each row
+     * @return properties with {@link #getDistinctColumns() distinct columns}
+     */
+    public SourceTableProperties withDistinctColumns(final int... columns) {
+        return new SourceTableProperties(this, checkColumns(columns), m_nonMissingColumns, m_lateMaterialization);
+    }
+
+    /**
+     * Returns a copy of these properties, additionally declaring that the given {@code columns} of the source table
+     * never contain missing values.
+     *
+     * @param columns indices of columns without missing values
+     * @return properties with {@link #getNonMissingColumns() non-missing columns}
+     */
+    public SourceTableProperties withNonMissingColumns(final int... columns) {
+        return new SourceTableProperties(this, m_distinctColumns, checkColumns(columns), m_lateMaterialization);
+    }
+
+    /**
+     * Returns a copy of these properties, additionally declaring that row filters on the source table are expected to
+     * drop most rows. If the source table {@link #supportsRandomAccess() supports random access}, columns that are not
+     * needed to evaluate the filters are then only read for the rows that pass the filters ("late materialization").
+     * <p>
+     * For filters that keep most rows, late materialization is slower than reading all columns sequentially, so it is
+     * not used unless requested by this property.
+     *
+     * @return properties with {@link #isLateMaterialization() late materialization}
+     */
+    public SourceTableProperties withLateMaterialization() {
+        return new SourceTableProperties(this, m_distinctColumns, m_nonMissingColumns, true);
+    }
+
+    private int[] checkColumns(final int[] columns) {
+        for (int column : columns) {
+            if (column < 0 || column >= m_schema.numColumns()) {
+                throw new IndexOutOfBoundsException("column index " + column + " out of bounds for "
+                    + m_schema.numColumns() + " columns");
+            }
+        }
+        return columns.clone();
     }
 
     /**
@@ -223,4 +356,68 @@ public boolean knowsNumRows()
     {
         return m_numRows >= 0;
     }
+
+    /**
+     * Get the indices of the key columns by which the rows of the source table are known to be sorted (in order of
+     * precedence). Missing values are expected to be ordered as by {@link SortTransformSpec}.
+     *
+     * @return the sort key columns, or an empty array if the rows are not known to be sorted
+     */
+    public int[] getSortColumns() {
+        return m_sortColumns.clone();
+    }
+
+    /**
+     * Get, for each of the {@link #getSortColumns() sort key columns}, whether the rows are sorted in ascending order.
+     *
+     * @return for each sort key column, whether the rows are sorted in ascending order
+     */
+    public boolean[] getSortAscending() {
+        return m_sortAscending.clone();
+    }
+
+    /**
+     * Get the indices of columns whose values together are known to be distinct for every row of the source table,
+     * i.e., no two rows have the same values in all of these columns (where missing values are considered equal to each
+     * other).
+     *
+     * @return the distinct columns, or {@code null} if the rows are not known to be distinct
+     */
+    public int[] getDistinctColumns() {
+        return m_distinctColumns == null ? null : m_distinctColumns.clone();
+    }
+
+    /**
+     * Get the indices of columns that are known to never contain missing values.
+     *
+     * @return the non-missing columns (empty if no column is known to be free of missing values)
+     */
+    public int[] getNonMissingColumns() {
+        return m_nonMissingColumns.clone();
+    }
+
+    /**
+     * Whether columns of the source table that are not needed to evaluate row filters should only be read for the rows
+     * that pass the filters. See {@link #withLateMaterialization()}.
+     *
+     * @return {@code true}, if late materialization was requested for the source table
+     */
+    public boolean isLateMaterialization() {
+        return m_lateMaterialization;
+    }
+
+    /**
+     * Whether the source table is unbounded, i.e., a never-ending stream of rows (for example, sensor readings).
+     * <p>
+     * Cursors of an unbounded source block in {@code forward()} until the next row is available. They may implement
+     * {@link AwaitingCursor} to support waiting for the next row with a timeout.
+     * <p>
+     * Transforms that need to see all rows before producing their first row (such as sorting, or aggregation without
+     * a {@link AggregateTransformSpec.Window window}) cannot be applied to unbounded tables.
+     *
+     * @return {@code true}, if the source table is unbounded
+     */
+    public boolean isUnbounded() {
+        return m_unbounded;
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.table.virtual.spec;
+
+import java.util.Arrays;
+
+/**
+ * Gather rows of a table by their row indices. The {@code i}-th row of the result is the row at index
+ * {@code rowIndices[i]} of the input table. Row indices may occur in any order, and any number of times.
+ * <p>
+ * The row indices are either given as an array, or read from another table: In the latter case, the transform has two
+ * inputs, the table to gather rows from, and a table with a single {@code LONG} column of row indices (which must not
+ * contain missing values). The {@code i}-th row of the result is then the row at the index given by the {@code i}-th
+ * row of the index table.
+ * <p>
+ * The table to gather rows from must support random access. If the row indices are given as an array, the result
+ * supports random access. If the row indices are read from another table, the result supports the cursor type of the
+ * index table.
+ */
+public final class TakeTransformSpec implements TableTransformSpec {
+
+    private final long[] m_rowIndices;
+
+    /**
+     * Gather the rows with the given indices.
+     *
+     * @param rowIndices the row indices
+     */
+    public TakeTransformSpec(final long[] rowIndices) {
+        for (long rowIndex : rowIndices) {
+            if (rowIndex < 0) {
+                throw new IllegalArgumentException("row indices must be non-negative (got " + rowIndex + ")");
+            }
+        }
+        m_rowIndices = rowIndices.clone();
+    }
+
+    /**
+     * Gather the rows with the indices given by the second input table.
+     */
+    public TakeTransformSpec() {
+        m_rowIndices = null;
+    }
+
+    /**
+     * @return whether the row indices are read from a second input table (instead of given as an array)
+     */
+    public boolean hasIndexTable() {
+        return m_rowIndices == null;
+    }
+
+    /**
+     * @return The row indices, or {@code null} if the row indices are read from a second input table.
+     */
+    public long[] getRowIndices() {
+        return m_rowIndices == null ? null : m_rowIndices.clone();
+    }
+
+    /**
+     * @return The number of row indices, or {@code -1} if the row indices are read from a second input table.
+     */
+    public long numRowIndices() {
+        return m_rowIndices == null ? -1 : m_rowIndices.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(m_rowIndices);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof TakeTransformSpec that && Arrays.equals(m_rowIndices, that.m_rowIndices);
+    }
+
+    @Override
+    public String toString() {
+        if (m_rowIndices == null) {
+            return "Take rows from index table";
+        }
+        final int n = m_rowIndices.length;
+        return "Take " + n + " rows " + Arrays.toString(n <= 10 ? m_rowIndices : Arrays.copyOf(m_rowIndices, 10))
+            .replace("]", n <= 10 ? "]" : ", ...]");
+    }
+}